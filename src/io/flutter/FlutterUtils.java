@@ -16,7 +16,6 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
 import com.intellij.openapi.roots.*;
-import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -29,6 +28,8 @@ import io.flutter.jxbrowser.EmbeddedJxBrowser;
 import io.flutter.jxbrowser.JxBrowserStatus;
 import io.flutter.pub.PubRoot;
 import io.flutter.pub.PubRootCache;
+import io.flutter.pub.PubspecMetadata;
+import io.flutter.pub.PubspecMetadataIndex;
 import io.flutter.settings.FlutterSettings;
 import io.flutter.utils.AndroidUtils;
 import io.flutter.utils.FlutterModuleUtils;
@@ -38,13 +39,6 @@ import io.flutter.view.EmbeddedJcefBrowser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.SystemIndependent;
-import org.yaml.snakeyaml.DumperOptions;
-import org.yaml.snakeyaml.LoaderOptions;
-import org.yaml.snakeyaml.Yaml;
-import org.yaml.snakeyaml.constructor.SafeConstructor;
-import org.yaml.snakeyaml.nodes.Tag;
-import org.yaml.snakeyaml.representer.Representer;
-import org.yaml.snakeyaml.resolver.Resolver;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -52,7 +46,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
-import java.util.Map;
+import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.regex.Pattern;
@@ -60,25 +54,30 @@ import java.util.regex.Pattern;
 public class FlutterUtils {
   public static class FlutterPubspecInfo {
     private final long modificationStamp;
+    @NotNull private final PubspecMetadata metadata;
 
-    private boolean flutter = false;
-    private boolean plugin = false;
-    private boolean resolutionWorkspace = false;
-
-    FlutterPubspecInfo(long modificationStamp) {
+    FlutterPubspecInfo(long modificationStamp, @NotNull PubspecMetadata metadata) {
       this.modificationStamp = modificationStamp;
+      this.metadata = metadata;
     }
 
     public boolean declaresFlutter() {
-      return flutter;
+      return metadata.declaresFlutter();
     }
 
     public boolean isFlutterPlugin() {
-      return plugin;
+      return metadata.plugin();
     }
 
     public boolean isResolutionWorkspace() {
-      return resolutionWorkspace;
+      return metadata.resolutionWorkspace();
+    }
+
+    /**
+     * Returns the assets listed in the pubspec's "flutter: assets:" section.
+     */
+    public @NotNull List<String> getAssets() {
+      return metadata.assets();
     }
 
     public long getModificationStamp() {
@@ -362,44 +361,8 @@ public class FlutterUtils {
   public static FlutterPubspecInfo getFlutterPubspecInfo(@NotNull final VirtualFile pubspec) {
     // It uses Flutter if it contains 'dependencies: flutter'.
     // It's a plugin if it contains 'flutter: plugin'.
-
-    final FlutterPubspecInfo info = new FlutterPubspecInfo(pubspec.getModificationStamp());
-
-    try {
-      final Map<String, Object> yamlMap = readPubspecFileToMap(pubspec);
-      if (yamlMap != null) {
-        // Special case the 'flutter' package itself - this allows us to run their unit tests from IntelliJ.
-        final Object packageName = yamlMap.get("name");
-        if ("flutter".equals(packageName)) {
-          info.flutter = true;
-        }
-
-        // Check the dependencies.
-        final Object dependencies = yamlMap.get("dependencies");
-        if (dependencies instanceof Map) {
-          // We use `|=` for assigning to 'flutter' below as it might have been assigned to true above.
-          info.flutter |= ((Map<?, ?>)dependencies).containsKey("flutter");
-        }
-
-        // Check for a Flutter plugin.
-        final Object flutterEntry = yamlMap.get("flutter");
-        if (flutterEntry instanceof Map) {
-          info.plugin = ((Map<?, ?>)flutterEntry).containsKey("plugin");
-        }
-
-        // Check for resolution configuration.
-        //  https://dart.dev/tools/pub/workspaces
-        final Object resolutionEntry = yamlMap.get("resolution");
-        if (resolutionEntry instanceof String) {
-          info.resolutionWorkspace = StringUtil.equals((String)resolutionEntry, "workspace");
-        }
-      }
-    }
-    catch (IOException e) {
-      // ignore
-    }
-
-    return info;
+    // The metadata is read by a lightweight scanner and indexed, so this doesn't parse YAML.
+    return new FlutterPubspecInfo(pubspec.getModificationStamp(), PubspecMetadataIndex.getMetadata(pubspec));
   }
 
   /**
@@ -435,34 +398,6 @@ public class FlutterUtils {
     return null;
   }
 
-  @Nullable
-  private static Map<String, Object> readPubspecFileToMap(@NotNull final VirtualFile pubspec) throws IOException {
-    final String contents = new String(pubspec.contentsToByteArray(true /* cache contents */));
-    return loadPubspecInfo(contents);
-  }
-
-  @Nullable
-  private static Map<String, Object> loadPubspecInfo(@NotNull String yamlContents) {
-    final Yaml yaml =
-      new Yaml(new SafeConstructor(new LoaderOptions()), new Representer(new DumperOptions()), new DumperOptions(), new Resolver() {
-        @Override
-        protected void addImplicitResolvers() {
-          this.addImplicitResolver(Tag.BOOL, BOOL, "yYnNtTfFoO");
-          this.addImplicitResolver(Tag.NULL, NULL, "~nN\u0000");
-          this.addImplicitResolver(Tag.NULL, EMPTY, null);
-          this.addImplicitResolver(new Tag("tag:yaml.org,2002:value"), VALUE, "=");
-          this.addImplicitResolver(Tag.MERGE, MERGE, "<");
-        }
-      });
-
-    try {
-      return yaml.load(yamlContents);
-    }
-    catch (Exception e) {
-      return null;
-    }
-  }
-
   @Nullable
   private static VirtualFile getFlutterManagedAndroidDir(VirtualFile dir) {
     final VirtualFile meta = dir.findChild(".metadata");
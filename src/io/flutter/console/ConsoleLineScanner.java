@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.console;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the text to link in a line of console output, without resolving any files.
+ * <p>
+ * Each line is scanned once, in place; most lines don't contain anything to link and are rejected after a few
+ * character comparisons.
+ */
+final class ConsoleLineScanner {
+  enum Kind {
+    /**
+     * The "Run "flutter doctor"" hint.
+     */
+    FLUTTER_DOCTOR,
+    /**
+     * A "Lost connection to device" message.
+     */
+    LOST_CONNECTION,
+    /**
+     * A path after "Launching" or "open"; if it doesn't resolve, the line may still be a compile error.
+     */
+    LAUNCH,
+    /**
+     * An embedded relative path, like "(lib/main.dart:6)".
+     */
+    PATH,
+    /**
+     * An embedded file URI, like "(file:///Users/user/app/test/widget_test.dart:23:18)".
+     */
+    FILE_URI,
+    /**
+     * A compile error, like "lib/main.dart:104:73: Error: Expected ';' after this."
+     */
+    COMPILE_ERROR,
+  }
+
+  /**
+   * Text to link in a line.
+   *
+   * @param path       for FILE_URI, the path part of the URI; otherwise a path relative to a content root, possibly
+   *                   followed by ":line"
+   * @param start      the offset in the line of the text to highlight
+   * @param end        the end offset in the line of the text to highlight
+   * @param lineNumber the line in the file to navigate to
+   */
+  record Match(@NotNull Kind kind, @NotNull String path, int start, int end, int lineNumber) {
+  }
+
+  static final String FLUTTER_DOCTOR_PREFIX =
+    "Run \"flutter doctor\" for information about installing additional components.";
+  private static final String LOST_CONNECTION_PREFIX = "Lost connection to device";
+  private static final String LAUNCHING_PREFIX = "Launching ";
+  private static final String OPEN_PREFIX = "open ";
+
+  // lib/registerC.dart:104:73: Error: Expected ';' after this.
+  private static final Pattern COMPILE_ERROR_PATTERN = Pattern.compile("(^.*?):(\\d+?):\\d+?:\\s*?Error");
+
+  private ConsoleLineScanner() {
+  }
+
+  @Nullable
+  static Match scan(@NotNull String line) {
+    if (line.startsWith(FLUTTER_DOCTOR_PREFIX)) {
+      return new Match(Kind.FLUTTER_DOCTOR, "", 0, line.length(), 0);
+    }
+    if (line.startsWith(LOST_CONNECTION_PREFIX)) {
+      return new Match(Kind.LOST_CONNECTION, "", 0, line.length(), 0);
+    }
+
+    // Work within the trimmed line, without copying it.
+    int start = 0;
+    int end = line.length();
+    while (start < end && line.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && line.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    // Check for, e.g.,
+    //   * "Launching lib/main.dart"
+    //   * "open ios/Runner.xcworkspace"
+    int prefixLength = -1;
+    if (line.startsWith(LAUNCHING_PREFIX, start)) {
+      prefixLength = LAUNCHING_PREFIX.length();
+    }
+    else if (line.startsWith(OPEN_PREFIX, start)) {
+      prefixLength = OPEN_PREFIX.length();
+    }
+    if (prefixLength >= 0) {
+      final int pathStart = start + prefixLength;
+      final int pathEnd = tokenEnd(line, pathStart, end);
+      if (pathEnd == pathStart) {
+        return scanCompileError(line);
+      }
+      return new Match(Kind.LAUNCH, line.substring(pathStart, pathEnd), pathStart, pathEnd, 0);
+    }
+
+    // Check for embedded paths, e.g.,
+    //    * "  • MyApp.xzzzz (lib/main.dart:6)"
+    //    * "  • _MyHomePageState._incrementCounter (lib/main.dart:49)"
+    int open = line.indexOf('(', start);
+    while (open >= 0 && open < end) {
+      if (open == start || line.charAt(open - 1) == ' ') {
+        final int close = tokenEnd(line, open, end);
+        if (close - open >= 2 && line.charAt(close - 1) == ')') {
+          final Match match = embeddedPath(line, open + 1, close - 1);
+          if (match != null) {
+            return match;
+          }
+        }
+      }
+      open = line.indexOf('(', open + 1);
+    }
+
+    return scanCompileError(line);
+  }
+
+  /**
+   * Checks for a compile error at the start of the line.
+   */
+  @Nullable
+  static Match scanCompileError(@NotNull String line) {
+    if (!line.contains("Error")) {
+      return null;
+    }
+    final Matcher matcher = COMPILE_ERROR_PATTERN.matcher(line);
+    if (!matcher.find()) {
+      return null;
+    }
+    final String path = matcher.group(1);
+    return new Match(Kind.COMPILE_ERROR, path, 0, path.length(), parseInt(matcher.group(2), 0));
+  }
+
+  /**
+   * Checks a parenthesized token, like "(lib/main.dart:49)", given the offsets of its contents.
+   */
+  @Nullable
+  private static Match embeddedPath(@NotNull String line, int start, int end) {
+    final String part = line.substring(start, end);
+    final String[] split = part.split(":");
+    if (split.length == 2) {
+      // Reconcile line number indexing.
+      return new Match(Kind.PATH, part, start, end, Math.max(0, parseInt(split[1], 0) - 1));
+    }
+    if (split.length == 4 && split[0].equals("file")) {
+      // file:///Users/user/AndroidStudioProjects/flutter_app/test/widget_test.dart:23:18
+      return new Match(Kind.FILE_URI, split[1], start, end, Math.max(0, parseInt(split[2], 0) - 1));
+    }
+    return null;
+  }
+
+  /**
+   * Returns the end of the space-separated token starting at the given offset.
+   */
+  private static int tokenEnd(@NotNull String line, int start, int end) {
+    final int space = line.indexOf(' ', start);
+    return space < 0 || space > end ? end : space;
+  }
+
+  private static int parseInt(@NotNull String value, int defaultValue) {
+    try {
+      return Integer.parseInt(value);
+    }
+    catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+}
@@ -18,8 +18,10 @@ import com.intellij.openapi.editor.markup.TextAttributes;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.roots.ProjectRootManager;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
 import com.intellij.util.ui.UIUtil;
 import io.flutter.FlutterMessages;
 import io.flutter.FlutterUtils;
@@ -30,9 +32,10 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.awt.Font;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * The FlutterConsoleFilter handles link detection in consoles for:
@@ -73,8 +76,28 @@ public class FlutterConsoleFilter implements Filter {
     }
   }
 
+  /**
+   * Marks paths that don't resolve to a file, since they are looked up just as often as the ones that do.
+   */
+  private static final Object NONE = new Object();
+  private static final int MAX_CACHED_PATHS = 1024;
+
   private final @NotNull Module module;
 
+  /**
+   * Files by the relative path printed in the console (or NONE), valid for {@link #cacheStamp}.
+   * <p>
+   * The console runs filters in the background, so access is synchronized on the map.
+   */
+  private final Map<String, Object> files = new LinkedHashMap<>(MAX_CACHED_PATHS, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+      return size() > MAX_CACHED_PATHS;
+    }
+  };
+  private long cacheStamp = -1;
+  private @NotNull String @NotNull [] rootPaths = new String[0];
+
   public FlutterConsoleFilter(@NotNull Module module) {
     this.module = module;
   }
@@ -83,18 +106,37 @@ public class FlutterConsoleFilter implements Filter {
   @Nullable
   public VirtualFile fileAtPath(@NotNull String pathPart) {
     // "lib/main.dart:6"
-    pathPart = pathPart.split(":")[0];
+    final int colon = pathPart.indexOf(':');
+    if (colon >= 0) {
+      pathPart = pathPart.substring(0, colon);
+    }
 
     // We require the pathPart reference to be a file reference, otherwise we'd match things like
     // "Build: Running build completed, took 191ms".
-    if (pathPart == null || pathPart.indexOf('.') == -1) {
+    if (pathPart.indexOf('.') == -1) {
       return null;
     }
 
-    final VirtualFile[] roots = OpenApiUtils.getContentRoots(module);
-    for (VirtualFile root : roots) {
-      if (root == null) continue;
-      final String baseDirPath = root.getPath();
+    synchronized (files) {
+      final Object cached = validateCache().get(pathPart);
+      if (cached == NONE) {
+        return null;
+      }
+      if (cached != null && ((VirtualFile)cached).isValid()) {
+        return (VirtualFile)cached;
+      }
+    }
+
+    final VirtualFile file = findFileInRoots(pathPart);
+    synchronized (files) {
+      files.put(pathPart, file == null ? NONE : file);
+    }
+    return file;
+  }
+
+  @Nullable
+  private VirtualFile findFileInRoots(@NotNull String pathPart) {
+    for (String baseDirPath : getRootPaths()) {
       final String path = baseDirPath + "/" + pathPart;
       VirtualFile file = findFile(path);
       if (file == null) {
@@ -116,112 +158,67 @@ public class FlutterConsoleFilter implements Filter {
     return file != null && file.exists() ? file : null;
   }
 
+  /**
+   * Clears the cached files and content roots if files were added, moved or deleted, or the content roots changed.
+   */
+  private @NotNull Map<String, Object> validateCache() {
+    assert Thread.holdsLock(files);
+    final long stamp = VirtualFileManager.getInstance().getStructureModificationCount() +
+                       ProjectRootManager.getInstance(module.getProject()).getModificationCount();
+    if (stamp != cacheStamp) {
+      files.clear();
+      rootPaths = Arrays.stream(OpenApiUtils.getContentRoots(module))
+        .filter(Objects::nonNull)
+        .map(VirtualFile::getPath)
+        .toArray(String[]::new);
+      cacheStamp = stamp;
+    }
+    return files;
+  }
+
+  private @NotNull String @NotNull [] getRootPaths() {
+    synchronized (files) {
+      validateCache();
+      return rootPaths;
+    }
+  }
+
   @Override
   @Nullable
   public Result applyFilter(final @NotNull String line, final int entireLength) {
-    if (line.startsWith("Run \"flutter doctor\" for information about installing additional components.")) {
-      return getFlutterDoctorResult(line, entireLength - line.length());
-    }
-
-    if (line.startsWith("Lost connection to device")) {
-      TextAttributes attr = new TextAttributes(UIUtil.getErrorForeground(), null, null, EffectType.BOXED, Font.PLAIN);
-      return new Result(entireLength - line.length(), entireLength, null, attr);
+    ConsoleLineScanner.Match match = ConsoleLineScanner.scan(line);
+    if (match == null) {
+      return null;
     }
-    int lineNumber = 0;
-    String pathPart = line.trim();
-    VirtualFile file = null;
-    int lineStart = -1;
-    int highlightLength = 0;
 
-    // Check for, e.g.,
-    //   * "Launching lib/main.dart"
-    //   * "open ios/Runner.xcworkspace"
-    if (pathPart.startsWith("Launching ") || pathPart.startsWith("open ")) {
-      final String[] parts = pathPart.split(" ");
-      if (parts.length > 1) {
-        pathPart = parts[1];
-        if (pathPart != null) {
-          file = fileAtPath(pathPart);
-          if (file != null) {
-            lineStart = entireLength - line.length() + line.indexOf(pathPart);
-            highlightLength = pathPart.length();
-          }
-        }
+    final int lineOffset = entireLength - line.length();
+    switch (match.kind()) {
+      case FLUTTER_DOCTOR -> {
+        return getFlutterDoctorResult(line, lineOffset);
+      }
+      case LOST_CONNECTION -> {
+        TextAttributes attr = new TextAttributes(UIUtil.getErrorForeground(), null, null, EffectType.BOXED, Font.PLAIN);
+        return new Result(lineOffset, entireLength, null, attr);
       }
     }
 
-    // Check for embedded paths, e.g.,
-    //    * "  • MyApp.xzzzz (lib/main.dart:6)"
-    //    * "  • _MyHomePageState._incrementCounter (lib/main.dart:49)"
-    final String[] parts = pathPart.split(" ");
-    for (String part : parts) {
-      // "(lib/main.dart:49)"
-      if (part != null && part.startsWith("(") && part.endsWith(")")) {
-        part = part.substring(1, part.length() - 1);
-        final String[] split = part.split(":");
-        if (split.length == 2) {
-          try {
-            // Reconcile line number indexing.
-            //noinspection DataFlowIssue
-            lineNumber = Math.max(0, Integer.parseInt(split[1]) - 1);
-          }
-          catch (NumberFormatException e) {
-            // Ignored.
-          }
-          pathPart = part;
-          lineStart = entireLength - line.length() + line.indexOf(pathPart);
-          highlightLength = pathPart.length();
-          break;
-        }
-        else if (split.length == 4 && Objects.equals(split[0], "file")) {
-          // part = file:///Users/user/AndroidStudioProjects/flutter_app/test/widget_test.dart:23:18
-          try {
-            // Reconcile line number indexing.
-            //noinspection DataFlowIssue
-            lineNumber = Math.max(0, Integer.parseInt(split[2]) - 1);
-          }
-          catch (NumberFormatException e) {
-            // Ignored.
-          }
-          pathPart = findRelativePath(split[1]);
-          if (pathPart == null) {
-            return null;
-          }
-          lineStart = entireLength - line.length() + line.indexOf(part);
-          highlightLength = part.length();
-          break;
-        }
+    String pathPart = match.path();
+    VirtualFile file = null;
+    if (match.kind() == ConsoleLineScanner.Kind.FILE_URI) {
+      pathPart = findRelativePath(pathPart);
+      if (pathPart == null) {
+        return null;
       }
     }
-
-    if (lineStart < 0) {
-      // lib/registerC.dart:104:73: Error: Expected ';' after this.
-      final String filePathAndLineNumberExpr = "(^.*?):(\\d+?):\\d+?:\\s*?Error";
-      final Pattern pattern = Pattern.compile(filePathAndLineNumberExpr);
-      final Matcher matcher = pattern.matcher(line);
-      final boolean found = matcher.find();
-      if (found) {
-        final String filePathExpr = "((?:[^/]*/)*)(.*)";
-        final Pattern pathPattern = Pattern.compile(filePathExpr);
-        //noinspection DataFlowIssue
-        final Matcher pathMatcher = pathPattern.matcher(matcher.group(1));
-        if (pathMatcher.find()) {
-          final String path = pathMatcher.group(1) + pathMatcher.group(2);
-          file = fileAtPath(path);
-          if (file == null) {
-            return null;
-          }
-          //noinspection DataFlowIssue
-          lineNumber = Integer.parseInt(matcher.group(2));
-          lineStart = entireLength - line.length();
-          highlightLength = path.length();
-        }
-        else {
+    else if (match.kind() == ConsoleLineScanner.Kind.LAUNCH) {
+      file = fileAtPath(pathPart);
+      if (file == null) {
+        // The launched path isn't in the project; the line may still be a compile error.
+        match = ConsoleLineScanner.scanCompileError(line);
+        if (match == null) {
           return null;
         }
-      }
-      else {
-        return null;
+        pathPart = match.path();
       }
     }
 
@@ -234,8 +231,10 @@ public class FlutterConsoleFilter implements Filter {
       final boolean openAsExternalFile = FlutterUtils.isXcodeFileName(pathPart);
 
       final HyperlinkInfo hyperlinkInfo =
-        openAsExternalFile ? new OpenExternalFileHyperlink(file) : new OpenFileHyperlinkInfo(module.getProject(), file, lineNumber, 0);
-      return new Result(lineStart, lineStart + highlightLength, hyperlinkInfo);
+        openAsExternalFile
+        ? new OpenExternalFileHyperlink(file)
+        : new OpenFileHyperlinkInfo(module.getProject(), file, match.lineNumber(), 0);
+      return new Result(lineOffset + match.start(), lineOffset + match.end(), hyperlinkInfo);
     }
 
     return null;
@@ -243,10 +242,7 @@ public class FlutterConsoleFilter implements Filter {
 
   private @Nullable String findRelativePath(@Nullable String threeSlashFileName) {
     if (threeSlashFileName == null) return null;
-    final VirtualFile[] roots = OpenApiUtils.getContentRoots(module);
-    for (VirtualFile root : roots) {
-      if (root == null) continue;
-      final String path = root.getPath();
+    for (String path : getRootPaths()) {
       int index = threeSlashFileName.indexOf(path);
       if (index > 0) {
         index += path.length();
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the URIs of the import, export and part directives of a Dart file.
+ * <p>
+ * Directives come before any declarations, so the scan stops at the first line that isn't a directive, a comment or
+ * an annotation. This doesn't parse Dart: all the URIs of a conditional import are read, and a directive inside a
+ * block comment is too, which only makes the import graph more conservative.
+ */
+final class DartDirectiveScanner {
+  private DartDirectiveScanner() {
+  }
+
+  @NotNull
+  static List<String> scan(@NotNull CharSequence text) {
+    final List<String> uris = new ArrayList<>();
+    boolean inBlockComment = false;
+    int annotationDepth = 0;
+    StringBuilder directive = null;
+
+    int lineStart = 0;
+    while (lineStart < text.length()) {
+      int lineEnd = lineStart;
+      while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') {
+        lineEnd++;
+      }
+      String line = text.subSequence(lineStart, lineEnd).toString().trim();
+      lineStart = lineEnd + 1;
+
+      if (inBlockComment) {
+        final int end = line.indexOf("*/");
+        if (end < 0) {
+          continue;
+        }
+        inBlockComment = false;
+        line = line.substring(end + 2).trim();
+      }
+      if (directive != null) {
+        // A directive that continues from the previous line.
+        directive.append(' ').append(line);
+        if (line.indexOf(';') >= 0) {
+          addUris(uris, directive);
+          directive = null;
+        }
+        continue;
+      }
+      if (annotationDepth > 0) {
+        annotationDepth += parenthesisDepth(line);
+        continue;
+      }
+
+      if (line.isEmpty() || line.startsWith("//") || line.startsWith("#!")) {
+        continue;
+      }
+      if (line.startsWith("/*")) {
+        inBlockComment = !line.contains("*/");
+        continue;
+      }
+      if (line.startsWith("@")) {
+        // Library annotations, such as @TestOn('vm'), which may span lines.
+        annotationDepth = Math.max(0, parenthesisDepth(line));
+        continue;
+      }
+      if (startsWithKeyword(line, "library") || (startsWithKeyword(line, "part") && line.startsWith("of", 4 + countSpaces(line, 4)))) {
+        continue;
+      }
+      if (startsWithKeyword(line, "import") || startsWithKeyword(line, "export") || startsWithKeyword(line, "part")) {
+        if (line.indexOf(';') >= 0) {
+          addUris(uris, line);
+        }
+        else {
+          directive = new StringBuilder(line);
+        }
+        continue;
+      }
+
+      // The first declaration.
+      break;
+    }
+    return uris;
+  }
+
+  private static boolean startsWithKeyword(@NotNull String line, @NotNull String keyword) {
+    return line.startsWith(keyword) &&
+           (line.length() == keyword.length() || !Character.isJavaIdentifierPart(line.charAt(keyword.length())));
+  }
+
+  private static int countSpaces(@NotNull String line, int start) {
+    int count = 0;
+    while (start + count < line.length() && Character.isWhitespace(line.charAt(start + count))) {
+      count++;
+    }
+    return count;
+  }
+
+  private static int parenthesisDepth(@NotNull String line) {
+    int depth = 0;
+    for (int i = 0; i < line.length(); i++) {
+      final char c = line.charAt(i);
+      if (c == '(') {
+        depth++;
+      }
+      else if (c == ')') {
+        depth--;
+      }
+    }
+    return depth;
+  }
+
+  /**
+   * Adds each quoted string in a directive, which covers the URIs of conditional imports.
+   */
+  private static void addUris(@NotNull List<String> uris, @NotNull CharSequence directive) {
+    int i = 0;
+    while (i < directive.length()) {
+      final char quote = directive.charAt(i);
+      if (quote != '\'' && quote != '"') {
+        i++;
+        continue;
+      }
+      final int start = i + 1;
+      int end = start;
+      while (end < directive.length() && directive.charAt(end) != quote) {
+        end++;
+      }
+      if (end > start && end < directive.length()) {
+        uris.add(directive.subSequence(start, end).toString());
+      }
+      i = end + 1;
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.SingleEntryFileBasedIndexExtension;
+import com.intellij.util.indexing.SingleEntryIndexer;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+import com.jetbrains.lang.dart.DartFileType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the URIs imported, exported and included as parts by each Dart file.
+ * <p>
+ * Use {@link #getUris(Project, VirtualFile)} to look up a file. Results are memoized on the file until it changes;
+ * files that aren't indexed, or that are looked up while indexing is in progress, are scanned directly.
+ * <p>
+ * Files in the pub cache, the SDK caches and .dart_tool aren't indexed. They hold far more Dart files than a project,
+ * and their imports are only followed within the project's content.
+ */
+public class DartImportIndex extends SingleEntryFileBasedIndexExtension<List<String>> {
+  public static final ID<Integer, List<String>> NAME = ID.create("io.flutter.DartImports");
+
+  private static final int VERSION = 2;
+
+  private static final String[] EXCLUDED_DIRS = {"/.pub-cache/", "/Pub/Cache/", "/bin/cache/", "/.dart_tool/"};
+
+  private record Memo(long stamp, @NotNull List<String> uris) {
+  }
+
+  private static final Key<Memo> MEMO = Key.create("io.flutter.DartImports");
+
+  @NotNull
+  @Override
+  public ID<Integer, List<String>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public SingleEntryIndexer<List<String>> getIndexer() {
+    return new SingleEntryIndexer<>(false) {
+      @Override
+      protected @Nullable List<String> computeValue(@NotNull FileContent inputData) {
+        return DartDirectiveScanner.scan(inputData.getContentAsText());
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<String>> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<String> uris) throws IOException {
+        out.writeInt(uris.size());
+        for (String uri : uris) {
+          IOUtil.writeUTF(out, uri);
+        }
+      }
+
+      @Override
+      public List<String> read(@NotNull DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<String> uris = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          uris.add(IOUtil.readUTF(in));
+        }
+        return uris;
+      }
+    };
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(DartFileType.INSTANCE) {
+      @Override
+      public boolean acceptInput(@NotNull VirtualFile file) {
+        final String path = file.getPath();
+        for (String dir : EXCLUDED_DIRS) {
+          if (path.contains(dir)) {
+            return false;
+          }
+        }
+        return file.isInLocalFileSystem();
+      }
+    };
+  }
+
+  /**
+   * Returns the URIs in the import, export and part directives of the given Dart file.
+   */
+  @NotNull
+  public static List<String> getUris(@NotNull Project project, @NotNull VirtualFile file) {
+    final long stamp = file.getModificationStamp();
+    final Memo memo = file.getUserData(MEMO);
+    if (memo != null && memo.stamp() == stamp) {
+      return memo.uris();
+    }
+
+    List<String> uris = getIndexedUris(project, file);
+    if (uris == null) {
+      uris = scan(file);
+    }
+    file.putUserData(MEMO, new Memo(stamp, uris));
+    return uris;
+  }
+
+  @Nullable
+  private static List<String> getIndexedUris(@NotNull Project project, @NotNull VirtualFile file) {
+    if (!ApplicationManager.getApplication().isReadAccessAllowed() || DumbService.isDumb(project)) {
+      return null;
+    }
+    try {
+      final Map<Integer, List<String>> data = FileBasedIndex.getInstance().getFileData(NAME, file, project);
+      return data.isEmpty() ? null : data.values().iterator().next();
+    }
+    catch (IndexNotReadyException e) {
+      return null;
+    }
+  }
+
+  @NotNull
+  private static List<String> scan(@NotNull VirtualFile file) {
+    try {
+      return DartDirectiveScanner.scan(new String(file.contentsToByteArray(), StandardCharsets.UTF_8));
+    }
+    catch (IOException e) {
+      return List.of();
+    }
+  }
+}
@@ -8,33 +8,83 @@ package io.flutter.editor;
 import com.intellij.openapi.command.CommandProcessor;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.ElementColorProvider;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.impl.PsiFileFactoryImpl;
 import com.intellij.psi.impl.source.tree.AstBufferUtil;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
 import com.jetbrains.lang.dart.DartLanguage;
 import com.jetbrains.lang.dart.DartTokenTypes;
 import com.jetbrains.lang.dart.psi.*;
 import io.flutter.FlutterBundle;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.awt.*;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import static io.flutter.dart.DartPsiUtil.getNewExprFromType;
 import static io.flutter.dart.DartPsiUtil.topmostReferenceExpression;
 
 public class FlutterColorProvider implements ElementColorProvider {
 
+  @VisibleForTesting
+  static final GutterResultCache<Color> colorCache = new GutterResultCache<>("flutter.gutter.colors");
+
   @Nullable
   @Override
   public Color getColorFrom(@NotNull PsiElement element) {
     // This must return null for non-leaf nodes and any language other than Dart.
     if (element.getNode().getElementType() != DartTokenTypes.IDENTIFIER) return null;
 
+    return colorCache.get(element, findScope(element), this::computeColor);
+  }
+
+  /**
+   * Returns the code that {@link #findColor} reads for the identifier.
+   */
+  @NotNull
+  private static PsiElement findScope(@NotNull PsiElement element) {
+    final PsiElement refExpr = topmostReferenceExpression(element);
+    if (refExpr == null) return element;
+    final PsiElement parent = refExpr.getParent();
+    if (parent == null) return refExpr;
+    final IElementType type = parent.getNode().getElementType();
+    if (type == DartTokenTypes.SIMPLE_TYPE) {
+      final PsiElement newExpr = getNewExprFromType(parent);
+      return newExpr == null ? parent : newExpr;
+    }
+    if (type == DartTokenTypes.ARRAY_ACCESS_EXPRESSION || type == DartTokenTypes.CALL_EXPRESSION ||
+        type == DartTokenTypes.VAR_INIT || type == DartTokenTypes.FUNCTION_BODY) {
+      return parent;
+    }
+    return refExpr;
+  }
+
+  @NotNull
+  private CachedValueProvider.Result<Color> computeColor(@NotNull PsiElement element) {
+    final Set<PsiFile> dependencies = new HashSet<>();
+    final Color color = findColor(element, dependencies);
+    if (dependencies.isEmpty()) {
+      // The color only depends on the text of the scope.
+      return CachedValueProvider.Result.create(color, ModificationTracker.NEVER_CHANGED);
+    }
+    return CachedValueProvider.Result.create(color, dependencies);
+  }
+
+  /**
+   * Finds the color for the identifier, adding the files that its references resolve through to dependencies.
+   */
+  @Nullable
+  private Color findColor(@NotNull PsiElement element, @NotNull Set<PsiFile> dependencies) {
     final String name = element.getText();
     if (name == null) return null;
 
@@ -96,7 +146,7 @@ public class FlutterColorProvider implements ElementColorProvider {
           // Avoid duplicate resolves.
           return null;
         }
-        final PsiElement reference = resolveReferencedElement(refExpr);
+        final PsiElement reference = resolveReferencedElement(refExpr, dependencies);
         if (reference != null && reference.getLastChild() != null) {
           Color tryParseColor;
           if (reference instanceof DartCallExpression) {
@@ -139,7 +189,7 @@ public class FlutterColorProvider implements ElementColorProvider {
   }
 
   @Nullable
-  private PsiElement resolveReferencedElement(@NotNull PsiElement element) {
+  private PsiElement resolveReferencedElement(@NotNull PsiElement element, @NotNull Set<PsiFile> dependencies) {
     if (element instanceof DartCallExpression && Objects.equals(element.getFirstChild().getText(), "Color")) {
       return element;
     }
@@ -154,6 +204,11 @@ public class FlutterColorProvider implements ElementColorProvider {
     else {
       return null;
     }
+    // A reference that doesn't resolve yet may resolve once the file is edited.
+    final PsiFile resolvedFile = result == null ? element.getContainingFile() : result.getContainingFile();
+    if (resolvedFile != null) {
+      dependencies.add(resolvedFile);
+    }
     if (!(result instanceof DartComponentName) || result.getParent() == null) return null;
     final PsiElement declaration = result.getParent().getParent();
     if (declaration instanceof DartClassMembers) return declaration;
@@ -164,7 +219,7 @@ public class FlutterColorProvider implements ElementColorProvider {
     final PsiElement effectiveElement = lastChild.getLastChild();
     // Recursively determine reference if the initialization is still a `DartReference`.
     if (effectiveElement instanceof DartReference && !(effectiveElement instanceof DartCallExpression)) {
-      return resolveReferencedElement(effectiveElement);
+      return resolveReferencedElement(effectiveElement, dependencies);
     }
     return effectiveElement;
   }
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * A lookup table for a set of named colors, read from a generated colors resource.
+ * <p>
+ * Names are kept in a sorted array and colors as primitive ARGB values. {@link Color} instances are only created
+ * for the colors that are looked up.
+ */
+final class FlutterColorTable {
+  static final FlutterColorTable EMPTY = new FlutterColorTable(GeneratedProperties.EMPTY);
+
+  /**
+   * Color names, sorted, and the ARGB value of each color.
+   */
+  @NotNull private final String[] names;
+  @NotNull private final int[] values;
+
+  /**
+   * ARGB values, sorted, and the index of the shortest name with each value.
+   */
+  @NotNull private final int[] sortedValues;
+  @NotNull private final int[] valueNames;
+
+  FlutterColorTable(@NotNull GeneratedProperties properties) {
+    final String[] names = new String[properties.size()];
+    final int[] values = new int[properties.size()];
+    int count = 0;
+    for (int i = 0; i < properties.size(); i++) {
+      final Color color = FlutterColors.parseColor(properties.valueAt(i));
+      if (color != null) {
+        names[count] = properties.keyAt(i);
+        values[count] = color.getRGB();
+        count++;
+      }
+    }
+    this.names = Arrays.copyOf(names, count);
+    this.values = Arrays.copyOf(values, count);
+
+    // Sort (value, name index) pairs by value, and keep the shortest name for each value.
+    final long[] entries = new long[count];
+    for (int i = 0; i < count; i++) {
+      entries[i] = (long)this.values[i] << 32 | i;
+    }
+    Arrays.sort(entries);
+    final int[] sortedValues = new int[count];
+    final int[] valueNames = new int[count];
+    int unique = 0;
+    for (long entry : entries) {
+      final int value = (int)(entry >> 32);
+      final int name = (int)entry;
+      if (unique > 0 && sortedValues[unique - 1] == value) {
+        if (this.names[name].length() < this.names[valueNames[unique - 1]].length()) {
+          valueNames[unique - 1] = name;
+        }
+        continue;
+      }
+      sortedValues[unique] = value;
+      valueNames[unique] = name;
+      unique++;
+    }
+    this.sortedValues = Arrays.copyOf(sortedValues, unique);
+    this.valueNames = Arrays.copyOf(valueNames, unique);
+  }
+
+  /**
+   * Returns the color with the given name, either directly or as a primary color.
+   */
+  @Nullable
+  FlutterColors.FlutterColor getColor(@NotNull String key) {
+    // Handle things like Colors.blue.shade200; convert the text to blue[200].
+    if (key.contains(".shade")) {
+      key = key.replace(".shade", "[") + "]";
+    }
+
+    int index = Arrays.binarySearch(names, key);
+    if (index >= 0) {
+      return new FlutterColors.FlutterColor(toColor(values[index]), false);
+    }
+    index = Arrays.binarySearch(names, key + FlutterColors.primarySuffix);
+    if (index >= 0) {
+      return new FlutterColors.FlutterColor(toColor(values[index]), true);
+    }
+    return null;
+  }
+
+  /**
+   * Returns the shortest name for the given color, if there is one.
+   */
+  @Nullable
+  String getName(@Nullable Color color) {
+    if (color == null) {
+      return null;
+    }
+    final int index = Arrays.binarySearch(sortedValues, color.getRGB());
+    return index < 0 ? null : names[valueNames[index]];
+  }
+
+  @NotNull
+  private static Color toColor(int argb) {
+    //noinspection UseJBColor
+    return new Color(argb, true);
+  }
+}
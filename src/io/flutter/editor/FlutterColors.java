@@ -13,9 +13,6 @@ import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
 
 public class FlutterColors {
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterColors.class);
@@ -43,28 +40,17 @@ public class FlutterColors {
   static final String primarySuffix = ".primary";
   static final String defaultShade = "[500]";
 
-  private static final Properties colors;
-  private static final Map<Color, String> colorToName;
+  private static final FlutterColorTable colors;
 
   static {
-    colors = new Properties();
-
+    FlutterColorTable table = FlutterColorTable.EMPTY;
     try {
-      colors.load(FlutterUtils.class.getResourceAsStream("/flutter/colors/material.properties"));
+      table = new FlutterColorTable(GeneratedProperties.load(FlutterUtils.class, "/flutter/colors/material.properties"));
     }
     catch (IOException e) {
       FlutterUtils.warn(LOG, "Failed to load colors", e, true);
     }
-
-    colorToName = new HashMap<>();
-    for (Map.Entry<Object, Object> entry : colors.entrySet()) {
-      final String name = (String)entry.getKey();
-      final String value = (String)entry.getValue();
-      final Color color = parseColor(value);
-      if (color != null) {
-        colorToName.put(color, name);
-      }
-    }
+    colors = table;
   }
 
   /**
@@ -72,25 +58,7 @@ public class FlutterColors {
    */
   @Nullable
   public static FlutterColor getColor(@NotNull String key) {
-    // Handle things like Colors.blue.shade200; convert the text to blue[200].
-    if (key.contains(".shade")) {
-      key = key.replace(".shade", "[") + "]";
-    }
-
-    if (colors.containsKey(key)) {
-      final Color color = getColorValue(key);
-      if (color != null) {
-        return new FlutterColor(color, false);
-      }
-    }
-    else if (colors.containsKey(key + primarySuffix)) {
-      final Color color = getColorValue(key + primarySuffix);
-      if (color != null) {
-        return new FlutterColor(color, true);
-      }
-    }
-
-    return null;
+    return colors.getColor(key);
   }
 
   /**
@@ -98,7 +66,7 @@ public class FlutterColors {
    */
   @Nullable
   public static String getColorName(@Nullable Color color) {
-    String name = colorToName.get(color);
+    String name = colors.getName(color);
     if (name == null) return null;
     // Normalize to avoid including suffixes that are not required.
     name = maybeTrimSuffix(name, primarySuffix);
@@ -129,9 +97,4 @@ public class FlutterColors {
       return null;
     }
   }
-
-  private static Color getColorValue(String name) {
-    final String hexValue = colors.getProperty(name);
-    return parseColor(hexValue);
-  }
 }
@@ -13,36 +13,21 @@ import org.jetbrains.annotations.Nullable;
 
 import java.awt.*;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
 
 public class FlutterCupertinoColors {
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterCupertinoColors.class);
 
-  private static final Properties colors;
-
-  private static final Map<Color, String> colorToName;
+  private static final FlutterColorTable colors;
 
   static {
-    colors = new Properties();
-
+    FlutterColorTable table = FlutterColorTable.EMPTY;
     try {
-      colors.load(FlutterUtils.class.getResourceAsStream("/flutter/colors/cupertino.properties"));
+      table = new FlutterColorTable(GeneratedProperties.load(FlutterUtils.class, "/flutter/colors/cupertino.properties"));
     }
     catch (IOException e) {
       FlutterUtils.warn(LOG, "Failed to load Cupertino colors", e, true);
     }
-
-    colorToName = new HashMap<>();
-    for (Map.Entry<Object, Object> entry : colors.entrySet()) {
-      final String name = (String)entry.getKey();
-      final String value = (String)entry.getValue();
-      final Color color = FlutterColors.parseColor(value);
-      if (color != null) {
-        colorToName.put(color, name);
-      }
-    }
+    colors = table;
   }
 
   /**
@@ -50,25 +35,7 @@ public class FlutterCupertinoColors {
    */
   @Nullable
   public static FlutterColors.FlutterColor getColor(@NotNull String key) {
-    // Handle things like Colors.blue.shade200; convert the text to blue[200].
-    if (key.contains(".shade")) {
-      key = key.replace(".shade", "[") + "]";
-    }
-
-    if (colors.containsKey(key)) {
-      final Color color = getColorValue(key);
-      if (color != null) {
-        return new FlutterColors.FlutterColor(color, false);
-      }
-    }
-    else if (colors.containsKey(key + FlutterColors.primarySuffix)) {
-      final Color color = getColorValue(key + FlutterColors.primarySuffix);
-      if (color != null) {
-        return new FlutterColors.FlutterColor(color, true);
-      }
-    }
-
-    return null;
+    return colors.getColor(key);
   }
 
   /**
@@ -76,7 +43,7 @@ public class FlutterCupertinoColors {
    */
   @Nullable
   public static String getColorName(@Nullable Color color) {
-    String name = colorToName.get(color);
+    String name = colors.getName(color);
     if (name == null) return null;
     // Normalize to avoid including suffixes that are not required.
     name = maybeTrimSuffix(name, FlutterColors.primarySuffix);
@@ -90,9 +57,4 @@ public class FlutterCupertinoColors {
     }
     return value;
   }
-
-  private static @Nullable Color getColorValue(String name) {
-    final String hexValue = colors.getProperty(name);
-    return FlutterColors.parseColor(hexValue);
-  }
 }
@@ -6,48 +6,35 @@
 package io.flutter.editor;
 
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.IconLoader;
 import io.flutter.FlutterUtils;
 import io.flutter.logging.PluginLogger;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.io.IOException;
-import java.util.Properties;
 
 public class FlutterCupertinoIcons {
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterCupertinoIcons.class);
 
-  private static final Properties icons;
+  private static final FlutterIconTable icons;
 
   static {
-    icons = new Properties();
-
+    FlutterIconTable table = FlutterIconTable.EMPTY;
     try {
-      icons.load(FlutterCupertinoIcons.class.getResourceAsStream("/flutter/icons/cupertino.properties"));
+      final GeneratedProperties properties = GeneratedProperties.load(FlutterCupertinoIcons.class, "/flutter/icons/cupertino.properties");
+      table = new FlutterIconTable(properties, FlutterCupertinoIcons.class);
     }
     catch (IOException e) {
       FlutterUtils.warn(LOG, "Failed to load cupertino icons", e, true);
     }
+    icons = table;
   }
 
   public static Icon getIconForHex(String hexValue) {
-    final String iconName = icons.getProperty(hexValue + ".codepoint");
-    return getIcon(iconName);
+    return icons.getIconForHex(hexValue);
   }
 
   public static Icon getIconForName(String name) {
-    return getIcon(name);
-  }
-
-  private static Icon getIcon(String name) {
-    if (name == null) {
-      return null;
-    }
-    final String path = icons.getProperty(name);
-    if (path == null) {
-      return null;
-    }
-    return IconLoader.findIcon("/flutter/icons/" + path, FlutterCupertinoIcons.class);
+    return icons.getIconForName(name);
   }
 }
@@ -13,7 +13,9 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.SimpleModificationTracker;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtilCore;
@@ -23,6 +25,9 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.impl.source.tree.AstBufferUtil;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.jetbrains.lang.dart.DartTokenTypes;
 import com.jetbrains.lang.dart.psi.*;
 import com.jetbrains.lang.dart.psi.impl.DartCallExpressionImpl;
@@ -40,6 +45,7 @@ import org.jetbrains.annotations.VisibleForTesting;
 
 import javax.swing.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.flutter.dart.DartPsiUtil.*;
 
@@ -48,7 +54,7 @@ import static io.flutter.dart.DartPsiUtil.*;
 // that could return null, but they seldom trigger, so the return is on the same line as the if statement.
 public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor {
 
-  public static final Map<String, Set<String>> KnownPaths = new HashMap<>();
+  public static final Map<String, Set<String>> KnownPaths = new ConcurrentHashMap<>();
   private static final Map<String, String> BuiltInPaths = new HashMap<>();
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterIconLineMarkerProvider.class);
   private static final String MaterialRelativeAssetPath = "/bin/cache/artifacts/material_fonts/MaterialIcons-Regular.otf";
@@ -58,6 +64,18 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
 
   private static boolean instantiated = false;
 
+  /**
+   * Incremented whenever KnownPaths changes, to invalidate the results cached with the old paths.
+   */
+  private static final SimpleModificationTracker knownPathsTracker = new SimpleModificationTracker();
+
+  private static final GutterResultCache<Icon> iconCache = new GutterResultCache<>("flutter.gutter.icons");
+
+  /**
+   * The known library path (or "" for none) of the files that icon class references resolve to, by class name.
+   */
+  private static final Key<CachedValue<Map<String, String>>> LIBRARY_PATHS = Key.create("flutter.gutter.icons.libraryPaths");
+
   FlutterIconLineMarkerProvider() {
     // Extension point implementations can't use static initializers so we keep track of the
     // first instantiation to make sure #initialize is called to set up initial state. (Note that this state
@@ -70,13 +88,29 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
 
   public static void initialize() {
     KnownPaths.clear();
-    KnownPaths.put("Icons", new HashSet<>(Collections.singleton("packages/flutter/lib/src/material")));
-    KnownPaths.put("IconData", new HashSet<>(Collections.singleton("packages/flutter/lib/src/widgets")));
-    KnownPaths.put("CupertinoIcons", new HashSet<>(Collections.singleton("packages/flutter/lib/src/cupertino")));
+    KnownPaths.put("Icons", newPathSet("packages/flutter/lib/src/material"));
+    KnownPaths.put("IconData", newPathSet("packages/flutter/lib/src/widgets"));
+    KnownPaths.put("CupertinoIcons", newPathSet("packages/flutter/lib/src/cupertino"));
     BuiltInPaths.clear();
     BuiltInPaths.put("Icons", MaterialRelativeIconsPath);
     BuiltInPaths.put("IconData", MaterialRelativeIconsPath);
     BuiltInPaths.put("CupertinoIcons", CupertinoRelativeIconsPath);
+    knownPathsChanged();
+  }
+
+  @NotNull
+  private static Set<String> newPathSet(@NotNull String path) {
+    // KnownPaths is updated by font preview analysis while highlighting reads it.
+    final Set<String> paths = ConcurrentHashMap.newKeySet();
+    paths.add(path);
+    return paths;
+  }
+
+  /**
+   * Called after KnownPaths is updated.
+   */
+  public static void knownPathsChanged() {
+    knownPathsTracker.incModificationCount();
   }
 
   @Nullable("null means disabled")
@@ -101,6 +135,40 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
     assert name != null;
     if (!KnownPaths.containsKey(name)) return null;
 
+    final Icon icon = iconCache.get(element, findScope(element), (e) -> computeIcon(e, name, sdk));
+    return icon == null ? null : createLineMarker(element, icon);
+  }
+
+  /**
+   * Returns the code that {@link #findIcon} reads for the identifier.
+   */
+  @NotNull
+  private static PsiElement findScope(@NotNull PsiElement element) {
+    final PsiElement refExpr = topmostReferenceExpression(element);
+    if (refExpr == null) return element;
+    final PsiElement parent = refExpr.getParent();
+    if (parent == null || parent.getNode() == null) return refExpr;
+    if (parent.getNode().getElementType() == DartTokenTypes.CALL_EXPRESSION) return parent;
+    if (parent.getNode().getElementType() == DartTokenTypes.SIMPLE_TYPE) {
+      final PsiElement newExpr = getNewExprFromType(parent);
+      return newExpr == null ? parent : newExpr;
+    }
+    return refExpr;
+  }
+
+  @NotNull
+  private CachedValueProvider.Result<Icon> computeIcon(@NotNull PsiElement element, @NotNull String name, @NotNull FlutterSdk sdk) {
+    final Set<Object> dependencies = new HashSet<>();
+    dependencies.add(knownPathsTracker);
+    final Icon icon = findIcon(element, name, sdk, dependencies);
+    return CachedValueProvider.Result.create(icon, dependencies);
+  }
+
+  /**
+   * Finds the icon for the identifier, adding the files it was read from to dependencies.
+   */
+  @Nullable
+  private Icon findIcon(@NotNull PsiElement element, @NotNull String name, @NotNull FlutterSdk sdk, @NotNull Set<Object> dependencies) {
     final PsiElement refExpr = topmostReferenceExpression(element);
     if (refExpr == null) return null;
     PsiElement parent = refExpr.getParent();
@@ -113,37 +181,14 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
       final PsiElement symbol = "IconData".equals(name) ? refExpr : refExpr.getFirstChild();
       if (!(symbol instanceof DartReference)) return null;
       final PsiElement result = ((DartReference)symbol).resolve();
-      if (result == null) return null;
-      assert result.getContainingFile() != null;
-      final List<VirtualFile> library = DartResolveUtil.findLibrary(result.getContainingFile());
-      for (VirtualFile file : library) {
-        assert file != null;
-        final VirtualFile dir = file.getParent();
-        assert dir != null;
-        if (dir.isInLocalFileSystem()) {
-          final String path = dir.getPath();
-          String trimmedPath = path;
-          if (!path.endsWith("lib")) {
-            final int index = path.indexOf("lib");
-            if (index >= 0) {
-              trimmedPath = path.substring(0, index + 3);
-            }
-          }
-          final Set<String> knownPaths = KnownPaths.get(name);
-          assert knownPaths != null; // Due to guard clause above.
-          if (knownPaths.contains(path) || knownPaths.contains(trimmedPath)) {
-            knownPath = file.getPath();
-            break;
-          }
-          for (String aPath : knownPaths) {
-            assert aPath != null;
-            if (path.endsWith(aPath) || aPath.contains(path) || trimmedPath.endsWith(aPath) || aPath.contains(trimmedPath)) {
-              knownPath = file.getPath();
-              break;
-            }
-          }
-        }
+      if (result == null) {
+        // The reference may resolve once the file is edited.
+        dependencies.add(element.getContainingFile());
+        return null;
       }
+      assert result.getContainingFile() != null;
+      dependencies.add(result.getContainingFile());
+      knownPath = findKnownLibraryPath(name, result.getContainingFile());
       if (knownPath == null) return null;
     }
 
@@ -157,9 +202,9 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
       final PsiElement fontPackage = getNamedArgumentExpression(arguments, "fontPackage");
       final String argument = getValueOfPositionalArgument(arguments, 0);
       if (argument == null) return null;
-      final Icon icon = getIconFromPackage(fontPackage, family, argument, element.getProject(), sdk, parent);
+      final Icon icon = getIconFromPackage(fontPackage, family, argument, element.getProject(), sdk, parent, dependencies);
       if (icon != null) {
-        return createLineMarker(element, icon);
+        return icon;
       }
     }
     else if (parentNode.getElementType() == DartTokenTypes.SIMPLE_TYPE) {
@@ -171,9 +216,9 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
       final PsiElement fontPackage = getNamedArgumentExpression(arguments, "fontPackage");
       final String argument = getValueOfPositionalArgument(arguments, 0);
       if (argument == null) return null;
-      final Icon icon = getIconFromPackage(fontPackage, family, argument, element.getProject(), sdk, parent);
+      final Icon icon = getIconFromPackage(fontPackage, family, argument, element.getProject(), sdk, parent, dependencies);
       if (icon != null) {
-        return createLineMarker(element, icon);
+        return icon;
       }
     }
     else {
@@ -212,12 +257,65 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
           final String iconName = iconElement.getText();
           assert iconName != null;
           assert knownPath != null;
+          final VirtualFile definitionFile = LocalFileSystem.getInstance().findFileByPath(knownPath);
+          if (definitionFile != null) {
+            dependencies.add(definitionFile);
+          }
           final IconInfo iconDef = findDefinition(name, iconName, element.getProject(), knownPath);
           if (iconDef == null) return null;
           icon = findIconFromDef(name, iconDef, knownPath);
         }
         if (icon != null) {
-          return createLineMarker(element, icon);
+          return icon;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the path of a file in the library containing the given file, if the library is in one of the known paths
+   * for the class name. Results are cached on the file until it or the known paths change.
+   */
+  @Nullable
+  private static String findKnownLibraryPath(@NotNull String name, @NotNull PsiFile file) {
+    if (file.getVirtualFile() == null) return matchKnownLibraryPath(name, file);
+
+    final Map<String, String> paths = CachedValuesManager.getCachedValue(
+      file, LIBRARY_PATHS, () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), file, knownPathsTracker));
+    final String knownPath = paths.computeIfAbsent(name, (n) -> {
+      final String match = matchKnownLibraryPath(n, file);
+      return match == null ? "" : match;
+    });
+    return knownPath.isEmpty() ? null : knownPath;
+  }
+
+  @Nullable
+  private static String matchKnownLibraryPath(@NotNull String name, @NotNull PsiFile containingFile) {
+    final List<VirtualFile> library = DartResolveUtil.findLibrary(containingFile);
+    for (VirtualFile file : library) {
+      assert file != null;
+      final VirtualFile dir = file.getParent();
+      assert dir != null;
+      if (dir.isInLocalFileSystem()) {
+        final String path = dir.getPath();
+        String trimmedPath = path;
+        if (!path.endsWith("lib")) {
+          final int index = path.indexOf("lib");
+          if (index >= 0) {
+            trimmedPath = path.substring(0, index + 3);
+          }
+        }
+        final Set<String> knownPaths = KnownPaths.get(name);
+        if (knownPaths == null) return null;
+        if (knownPaths.contains(path) || knownPaths.contains(trimmedPath)) {
+          return file.getPath();
+        }
+        for (String aPath : knownPaths) {
+          assert aPath != null;
+          if (path.endsWith(aPath) || aPath.contains(path) || trimmedPath.endsWith(aPath) || aPath.contains(trimmedPath)) {
+            return file.getPath();
+          }
         }
       }
     }
@@ -248,7 +346,8 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
   // Note: package flutter_icons is not currently supported because it takes forever to analyze it.
   @Nullable
   private Icon getIconFromPackage(@Nullable PsiElement aPackage, @Nullable String family, @NotNull String argument,
-                                  @NotNull Project project, @NotNull FlutterSdk sdk, @NotNull PsiElement parent) {
+                                  @NotNull Project project, @NotNull FlutterSdk sdk, @NotNull PsiElement parent,
+                                  @NotNull Set<Object> dependencies) {
     final int code;
     try {
       code = parseLiteralNumber(argument);
@@ -272,6 +371,8 @@ public class FlutterIconLineMarkerProvider extends LineMarkerProviderDescriptor
       final ASTNode lastChild = firstChild.getLastChildNode();
       if (lastChild == null) return null;
       final String iconName = lastChild.getFirstChildNode().getText();
+      // This reads outside the scope, from the declaration and the rest of the file.
+      dependencies.add(parent.getContainingFile());
       final FlutterIconLineMarkerProvider.IconInfo iconDef =
         findDefinition("", iconName, project, parent.getContainingFile().getVirtualFile().getPath());
       if (iconDef == null) return null;
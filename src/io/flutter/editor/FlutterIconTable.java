@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import com.intellij.openapi.util.IconLoader;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A lookup table for a set of icons, read from a generated icons resource.
+ * <p>
+ * The resource maps each icon name to an image path, and each codepoint (as <code>hex.codepoint</code>) to an icon
+ * name. Names are kept in a sorted array and codepoints as primitive ints, and the most recently used icons are
+ * cached so that repeated lookups don't go back to {@link IconLoader}.
+ */
+final class FlutterIconTable {
+  static final FlutterIconTable EMPTY = new FlutterIconTable(GeneratedProperties.EMPTY, FlutterIconTable.class);
+
+  private static final String CODEPOINT_SUFFIX = ".codepoint";
+  private static final String ICONS_DIR = "/flutter/icons/";
+  private static final int MAX_CACHED_ICONS = 256;
+
+  @NotNull private final Class<?> owner;
+
+  /**
+   * Icon names, sorted, and the path of each icon's image.
+   */
+  @NotNull private final String[] names;
+  @NotNull private final String[] paths;
+
+  /**
+   * Codepoints, sorted, and the index of each codepoint's icon in names (or -1).
+   */
+  @NotNull private final int[] codepoints;
+  @NotNull private final int[] codepointNames;
+
+  private final Map<String, Icon> cache = new LinkedHashMap<>(MAX_CACHED_ICONS, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Icon> eldest) {
+      return size() > MAX_CACHED_ICONS;
+    }
+  };
+
+  FlutterIconTable(@NotNull GeneratedProperties properties, @NotNull Class<?> owner) {
+    this.owner = owner;
+
+    int codepointCount = 0;
+    for (int i = 0; i < properties.size(); i++) {
+      if (properties.keyAt(i).endsWith(CODEPOINT_SUFFIX)) {
+        codepointCount++;
+      }
+    }
+
+    names = new String[properties.size() - codepointCount];
+    paths = new String[names.length];
+    final long[] entries = new long[codepointCount];
+    final String[] codepointTargets = new String[codepointCount];
+    int nameCount = 0;
+    int entryCount = 0;
+    for (int i = 0; i < properties.size(); i++) {
+      final String key = properties.keyAt(i);
+      if (!key.endsWith(CODEPOINT_SUFFIX)) {
+        // Keys are sorted, so the names are too.
+        names[nameCount] = key;
+        paths[nameCount] = properties.valueAt(i);
+        nameCount++;
+        continue;
+      }
+      try {
+        final int codepoint = Integer.parseInt(key.substring(0, key.length() - CODEPOINT_SUFFIX.length()), 16);
+        // Pack the codepoint with the entry's position so that sorting keeps them together.
+        codepointTargets[entryCount] = properties.valueAt(i);
+        entries[entryCount] = (long)codepoint << 32 | entryCount;
+        entryCount++;
+      }
+      catch (NumberFormatException ignored) {
+      }
+    }
+
+    Arrays.sort(entries, 0, entryCount);
+    codepoints = new int[entryCount];
+    codepointNames = new int[entryCount];
+    for (int i = 0; i < entryCount; i++) {
+      codepoints[i] = (int)(entries[i] >>> 32);
+      codepointNames[i] = Arrays.binarySearch(names, codepointTargets[(int)entries[i]]);
+    }
+  }
+
+  @Nullable
+  Icon getIconForHex(@Nullable String hexValue) {
+    if (hexValue == null) {
+      return null;
+    }
+    final int codepoint;
+    try {
+      codepoint = Integer.parseInt(hexValue, 16);
+    }
+    catch (NumberFormatException e) {
+      return null;
+    }
+    final int index = Arrays.binarySearch(codepoints, codepoint);
+    if (index < 0 || codepointNames[index] < 0) {
+      return null;
+    }
+    return getIcon(codepointNames[index]);
+  }
+
+  @Nullable
+  Icon getIconForName(@Nullable String name) {
+    if (name == null) {
+      return null;
+    }
+    final int index = Arrays.binarySearch(names, name);
+    return index < 0 ? null : getIcon(index);
+  }
+
+  @Nullable
+  private Icon getIcon(int index) {
+    final String name = names[index];
+    synchronized (cache) {
+      final Icon icon = cache.get(name);
+      if (icon != null) {
+        return icon;
+      }
+    }
+    final Icon icon = IconLoader.findIcon(ICONS_DIR + paths[index], owner);
+    if (icon != null) {
+      synchronized (cache) {
+        cache.put(name, icon);
+      }
+    }
+    return icon;
+  }
+}
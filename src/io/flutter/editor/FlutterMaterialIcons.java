@@ -6,48 +6,35 @@
 package io.flutter.editor;
 
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.IconLoader;
 import io.flutter.FlutterUtils;
 import io.flutter.logging.PluginLogger;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.io.IOException;
-import java.util.Properties;
 
 public class FlutterMaterialIcons {
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterMaterialIcons.class);
 
-  private static final Properties icons;
+  private static final FlutterIconTable icons;
 
   static {
-    icons = new Properties();
-
+    FlutterIconTable table = FlutterIconTable.EMPTY;
     try {
-      icons.load(FlutterMaterialIcons.class.getResourceAsStream("/flutter/icons/material.properties"));
+      final GeneratedProperties properties = GeneratedProperties.load(FlutterMaterialIcons.class, "/flutter/icons/material.properties");
+      table = new FlutterIconTable(properties, FlutterMaterialIcons.class);
     }
     catch (IOException e) {
       FlutterUtils.warn(LOG, "Failed to load material icons", e, true);
     }
+    icons = table;
   }
 
   public static Icon getIconForHex(String hexValue) {
-    final String iconName = icons.getProperty(hexValue + ".codepoint");
-    return getIcon(iconName);
+    return icons.getIconForHex(hexValue);
   }
 
   public static Icon getIconForName(String name) {
-    return getIcon(name);
-  }
-
-  private static Icon getIcon(String name) {
-    if (name == null) {
-      return null;
-    }
-    final String path = icons.getProperty(name);
-    if (path == null) {
-      return null;
-    }
-    return IconLoader.findIcon("/flutter/icons/" + path, FlutterMaterialIcons.class);
+    return icons.getIconForName(name);
   }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The key/value pairs of a generated .properties resource, as arrays sorted by key.
+ * <p>
+ * The icon and color resources are generated with one <code>key=value</code> pair per line and no escapes, so they
+ * are read line by line rather than through {@link java.util.Properties}. The tables built from them keep the key
+ * order, so their lookups are binary searches without locking.
+ */
+final class GeneratedProperties {
+  static final GeneratedProperties EMPTY = new GeneratedProperties(new String[0], new String[0]);
+
+  @NotNull private final String[] keys;
+  @NotNull private final String[] values;
+
+  private GeneratedProperties(@NotNull String[] keys, @NotNull String[] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * Reads a resource relative to the given class. When a key appears more than once, the last value wins.
+   */
+  @NotNull
+  static GeneratedProperties load(@NotNull Class<?> owner, @NotNull String resource) throws IOException {
+    final InputStream stream = owner.getResourceAsStream(resource);
+    if (stream == null) {
+      throw new IOException("missing resource: " + resource);
+    }
+    final Map<String, String> entries = new HashMap<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.ISO_8859_1))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.charAt(0) == '#' || line.charAt(0) == '!') {
+          continue;
+        }
+        final int separator = line.indexOf('=');
+        if (separator > 0) {
+          entries.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+        }
+      }
+    }
+
+    final String[] keys = entries.keySet().toArray(new String[0]);
+    Arrays.sort(keys);
+    final String[] values = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      values[i] = entries.get(keys[i]);
+    }
+    return new GeneratedProperties(keys, values);
+  }
+
+  int size() {
+    return keys.length;
+  }
+
+  @NotNull
+  String keyAt(int index) {
+    return keys[index];
+  }
+
+  @NotNull
+  String valueAt(int index) {
+    return values[index];
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.ParameterizedCachedValue;
+import com.intellij.psi.util.ParameterizedCachedValueProvider;
+import io.flutter.logging.PluginLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes a gutter provider's results for the identifiers in a file.
+ * <p>
+ * Results are stored on the file, keyed by the text of the code the provider reads (the scope) and the identifier's
+ * position within it, so editing other code doesn't affect them. Each result is a {@link CachedValueProvider.Result}
+ * that lists what else it depends on, such as the files its references resolve to or a tracker for the provider's own
+ * settings, and it is recomputed when one of those changes. Null results are cached too, so identifiers that don't
+ * resolve to anything aren't resolved again on the next highlighting pass.
+ */
+final class GutterResultCache<T> {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(GutterResultCache.class);
+
+  /**
+   * The number of entries a file can hold before they are dropped. Keys for text that no longer exists are never
+   * looked up again, so this bounds what accumulates while a file is edited.
+   */
+  private static final int MAX_ENTRIES_PER_FILE = 1000;
+
+  @NotNull private final Key<Map<String, ParameterizedCachedValue<T, Supplier<CachedValueProvider.Result<T>>>>> key;
+  @NotNull private final ParameterizedCachedValueProvider<T, Supplier<CachedValueProvider.Result<T>>> provider;
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  GutterResultCache(@NotNull String name) {
+    key = Key.create(name);
+    provider = (computation) -> {
+      misses.incrementAndGet();
+      return computation.get();
+    };
+  }
+
+  /**
+   * Returns the cached result for the element, computing it if necessary.
+   * <p>
+   * The scope must contain the element and all the text that the computation reads from the element's file.
+   */
+  @Nullable
+  T get(@NotNull PsiElement element, @NotNull PsiElement scope, @NotNull Function<PsiElement, CachedValueProvider.Result<T>> compute) {
+    lookups.incrementAndGet();
+    final PsiFile file = element.getContainingFile();
+    if (file == null) {
+      misses.incrementAndGet();
+      return compute.apply(element).getValue();
+    }
+
+    Map<String, ParameterizedCachedValue<T, Supplier<CachedValueProvider.Result<T>>>> values = file.getUserData(key);
+    if (values == null || values.size() >= MAX_ENTRIES_PER_FILE) {
+      if (values != null && LOG.isDebugEnabled()) {
+        LOG.debug(this + String.format(" (%.1f%% hit rate)", getHitRate() * 100));
+      }
+      values = new ConcurrentHashMap<>();
+      file.putUserData(key, values);
+    }
+
+    final int offset = element.getTextRange().getStartOffset() - scope.getTextRange().getStartOffset();
+    final ParameterizedCachedValue<T, Supplier<CachedValueProvider.Result<T>>> value = values.computeIfAbsent(
+      offset + ":" + scope.getText(), (k) -> CachedValuesManager.getManager(file.getProject()).createParameterizedCachedValue(provider, false));
+    return value.getValue(() -> compute.apply(element));
+  }
+
+  long getHitCount() {
+    return lookups.get() - misses.get();
+  }
+
+  long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the fraction of lookups that were answered from the cache.
+   */
+  double getHitRate() {
+    final long total = lookups.get();
+    return total == 0 ? 0 : (double)getHitCount() / total;
+  }
+
+  @Override
+  public String toString() {
+    return key + ": " + getHitCount() + " hits, " + getMissCount() + " misses";
+  }
+}
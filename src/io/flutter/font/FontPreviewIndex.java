@@ -0,0 +1,216 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.font;
+
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.logging.PluginLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The icon classes found in each version of a font package, saved on disk so that packages don't need to be
+ * analyzed again after a restart.
+ * <p>
+ * Packages in the pub cache don't change for a given version, so the results are keyed by package name, the package
+ * root (its lib directory, as resolved from package_config.json), and the version locked in pubspec.lock. Only hosted
+ * and git packages are indexed; path and SDK packages keep their version while their contents change. Paths are
+ * stored relative to the package root, and only the most recently analyzed {@link #MAX_ROOTS_PER_PACKAGE} roots of
+ * each package are kept.
+ */
+class FontPreviewIndex {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(FontPreviewIndex.class);
+
+  private static final int MAGIC = 0x46505849; // "FPXI"
+  private static final int VERSION = 3;
+
+  static final int MAX_ROOTS_PER_PACKAGE = 4;
+
+  /**
+   * The pubspec.lock sources of packages whose contents don't change for a given version and root.
+   */
+  private static final Set<String> INDEXED_SOURCES = Set.of("hosted", "git");
+
+  /**
+   * A class that defines icons, and the file it was found in.
+   */
+  record IconClass(@NotNull String name, @NotNull String path) {
+  }
+
+  /**
+   * The icon classes of one package root, with paths relative to the root.
+   */
+  private record Entry(@NotNull String packageName, @NotNull String root, @NotNull String version,
+                       @NotNull List<IconClass> classes) {
+  }
+
+  @NotNull private final Path file;
+
+  /**
+   * The entries by package name and root, least recently analyzed first, loaded on first use.
+   */
+  @Nullable private Map<String, Entry> entries;
+
+  FontPreviewIndex(@NotNull Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Returns the icon classes found in the given version of a package at the given root, or null if it hasn't been
+   * analyzed.
+   */
+  @Nullable
+  synchronized List<IconClass> get(@NotNull String packageName, @NotNull String version, @NotNull String root) {
+    final Entry entry = load().get(key(packageName, root));
+    if (entry == null || !entry.version().equals(version)) {
+      return null;
+    }
+    final Path rootPath = Paths.get(root);
+    final List<IconClass> classes = new ArrayList<>(entry.classes().size());
+    for (IconClass iconClass : entry.classes()) {
+      classes.add(new IconClass(iconClass.name(), rootPath.resolve(iconClass.path()).toString()));
+    }
+    return classes;
+  }
+
+  /**
+   * Records the icon classes found in the given version of a package at the given root, replacing any other version.
+   * <p>
+   * Nothing is recorded if any of the classes is outside the root, for example in another package that it exports,
+   * since that package can change independently.
+   */
+  synchronized void put(@NotNull String packageName, @NotNull String version, @NotNull String root,
+                        @NotNull List<IconClass> classes) {
+    final Path rootPath = Paths.get(root);
+    final List<IconClass> relativeClasses = new ArrayList<>(classes.size());
+    for (IconClass iconClass : classes) {
+      final Path path = Paths.get(iconClass.path());
+      if (!path.startsWith(rootPath)) {
+        return;
+      }
+      relativeClasses.add(new IconClass(iconClass.name(), rootPath.relativize(path).toString()));
+    }
+
+    final Map<String, Entry> loaded = load();
+    final String key = key(packageName, root);
+    loaded.remove(key);
+    loaded.put(key, new Entry(packageName, root, version, List.copyOf(relativeClasses)));
+
+    int roots = 0;
+    for (Entry entry : loaded.values()) {
+      if (entry.packageName().equals(packageName)) {
+        roots++;
+      }
+    }
+    for (Iterator<Entry> it = loaded.values().iterator(); roots > MAX_ROOTS_PER_PACKAGE && it.hasNext(); ) {
+      if (it.next().packageName().equals(packageName)) {
+        it.remove();
+        roots--;
+      }
+    }
+    save();
+  }
+
+  @NotNull
+  private static String key(@NotNull String packageName, @NotNull String root) {
+    return packageName + '\n' + root;
+  }
+
+  @NotNull
+  private Map<String, Entry> load() {
+    if (entries != null) {
+      return entries;
+    }
+    entries = new LinkedHashMap<>();
+    if (!Files.isRegularFile(file)) {
+      return entries;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return entries;
+      }
+      final int packageCount = in.readInt();
+      for (int i = 0; i < packageCount; i++) {
+        final String packageName = in.readUTF();
+        final String root = in.readUTF();
+        final String version = in.readUTF();
+        final int classCount = in.readInt();
+        final List<IconClass> classes = new ArrayList<>(classCount);
+        for (int j = 0; j < classCount; j++) {
+          classes.add(new IconClass(in.readUTF(), in.readUTF()));
+        }
+        entries.put(key(packageName, root), new Entry(packageName, root, version, classes));
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Unable to read font preview index: " + e.getMessage());
+      entries.clear();
+    }
+    return entries;
+  }
+
+  private void save() {
+    assert entries != null;
+    try {
+      Files.createDirectories(file.getParent());
+      final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(entries.size());
+        for (Entry entry : entries.values()) {
+          out.writeUTF(entry.packageName());
+          out.writeUTF(entry.root());
+          out.writeUTF(entry.version());
+          out.writeInt(entry.classes().size());
+          for (IconClass iconClass : entry.classes()) {
+            out.writeUTF(iconClass.name());
+            out.writeUTF(iconClass.path());
+          }
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (IOException e) {
+      LOG.info("Unable to write font preview index: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns the version of each hosted or git package locked in a parsed pubspec.lock file.
+   */
+  @NotNull
+  static Map<String, String> readLockedVersions(@Nullable Map<String, Object> lockFile) {
+    final Map<String, String> versions = new HashMap<>();
+    if (lockFile == null || !(lockFile.get("packages") instanceof Map<?, ?> packages)) {
+      return versions;
+    }
+    for (Map.Entry<?, ?> entry : packages.entrySet()) {
+      if (entry.getValue() instanceof Map<?, ?> pack &&
+          INDEXED_SOURCES.contains(String.valueOf(pack.get("source"))) &&
+          pack.get("version") != null) {
+        versions.put(String.valueOf(entry.getKey()), String.valueOf(pack.get("version")));
+      }
+    }
+    return versions;
+  }
+}
@@ -6,8 +6,10 @@
 package io.flutter.font;
 
 import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.ProgressManager;
@@ -30,9 +32,12 @@ import com.jetbrains.lang.dart.psi.DartComponentName;
 import com.jetbrains.lang.dart.resolve.ClassNameScopeProcessor;
 import com.jetbrains.lang.dart.resolve.DartPsiScopeProcessor;
 import com.jetbrains.lang.dart.util.DartResolveUtil;
+import com.jetbrains.lang.dart.util.PubspecYamlUtil;
 import io.flutter.FlutterBundle;
 import io.flutter.editor.FlutterIconLineMarkerProvider;
 import io.flutter.logging.PluginLogger;
+import io.flutter.pub.PubRoot;
+import io.flutter.pub.PubRoots;
 import io.flutter.settings.FlutterSettings;
 import io.flutter.utils.OpenApiUtils;
 import org.jetbrains.annotations.NotNull;
@@ -45,7 +50,7 @@ import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -55,13 +60,14 @@ import static io.flutter.editor.FlutterIconLineMarkerProvider.KnownPaths;
 public class FontPreviewProcessor {
 
   public static final String PACKAGE_SEPARATORS = "[,\r\n]";
+  private static final String PUBSPEC_LOCK = "pubspec.lock";
   public static final Map<String, String> UNSUPPORTED_PACKAGES = new HashMap<>();
 
   // If there are triple quotes around a package URL they won't be recognized.
   private static final Pattern EXPORT_STATEMENT_PATTERN = Pattern.compile("^\\s*export\\s+[\"']([-_. $A-Za-z0-9/]+\\.dart)[\"'].*");
   private static final Pattern IMPORT_STATEMENT_PATTERN = Pattern.compile("^\\s*import\\s+[\"']([-_. $A-Za-z0-9/]+\\.dart)[\"'].*");
-  private static final Map<String, Set<String>> ANALYZED_PROJECT_FILES = new HashMap<>();
-  private static final Map<String, WorkItem> WORK_ITEMS = new HashMap<>();
+  private static final Map<String, Set<String>> ANALYZED_PROJECT_FILES = new ConcurrentHashMap<>();
+  private static final Map<String, List<WorkItem>> WORK_ITEMS = new ConcurrentHashMap<>();
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FontPreviewProcessor.class);
 
   static {
@@ -81,11 +87,11 @@ public class FontPreviewProcessor {
   }
 
   public void generate(@NotNull Project project) {
-    if (ANALYZED_PROJECT_FILES.containsKey(project.getBasePath())) {
+    final String projectPath = project.getBasePath();
+    if (projectPath == null || ANALYZED_PROJECT_FILES.putIfAbsent(projectPath, ConcurrentHashMap.newKeySet()) != null) {
       return;
     }
     log("Analyzing project ", project.getName());
-    ANALYZED_PROJECT_FILES.put(project.getBasePath(), new HashSet<>());
     ProjectManager.getInstance().addProjectManagerListener(project, new ProjectManagerListener() {
       @Override
       public void projectClosed(@NotNull Project project) {
@@ -93,56 +99,54 @@ public class FontPreviewProcessor {
         ProjectManagerListener.super.projectClosed(project);
       }
     });
-    final String projectPath = project.getBasePath();
-    final WorkItem item = new WorkItem(projectPath);
-    WORK_ITEMS.put(projectPath, item);
 
     final String packagesText = FlutterSettings.getInstance().getFontPackages();
-    final String[] packages = packagesText.split(PACKAGE_SEPARATORS);
-    item.addPackages(
-      Arrays.stream(packages)
-        .map(String::trim)
-        .filter((each) -> !each.isEmpty() || FontPreviewProcessor.UNSUPPORTED_PACKAGES.get(each) != null)
-        .collect(Collectors.toList()));
-    processItems(project);
+    // Unsupported packages are dropped before they get a work item or an index lookup. This filter used to keep every
+    // non-empty name (it tested `||` and `!= null`), leaving findFontFiles to skip them.
+    final List<String> packages = Arrays.stream(packagesText.split(PACKAGE_SEPARATORS))
+      .map(String::trim)
+      .filter((each) -> !each.isEmpty() && FontPreviewProcessor.UNSUPPORTED_PACKAGES.get(each) == null)
+      .distinct()
+      .collect(Collectors.toList());
+    if (!packages.isEmpty()) {
+      processItems(project, packages);
+    }
   }
 
-  void processItems(@NotNull Project project) {
+  void processItems(@NotNull Project project, @NotNull List<String> packages) {
+    final String projectPath = project.getBasePath();
     final Task.Backgroundable task = new Task.Backgroundable(project, FlutterBundle.message("icon.preview.analysis"), true) {
 
       public void run(@NotNull final ProgressIndicator indicator) {
-        final AtomicBoolean isRunning = new AtomicBoolean(true);
         final long startTime = System.currentTimeMillis();
-        while (isRunning.get()) {
-          final String path = project.getBasePath();
-          final WorkItem item = WORK_ITEMS.get(path);
-          if (!processNextItem(project, item)) {
-            if (item.filesWithNoClasses.isEmpty()) {
-              // Finished, clean up and exit.
-              synchronized (this) {
-                if (item == WORK_ITEMS.get(path)) {
-                  WORK_ITEMS.remove(path);
-                }
-                isRunning.set(false);
-                if (System.currentTimeMillis() - startTime > 1000) {
-                  // If this analysis takes too long there is a good chance the highlighting pass completed before all
-                  // icon classes were found. That might cause some icons to not get displayed, so just run it again.
-                  DaemonCodeAnalyzer.getInstance(project).restart();
-                }
-              }
-            }
-            else {
-              for (String key : item.filesWithNoClasses.keySet()) {
-                final PathInfo info = item.filesWithNoClasses.get(key);
-                final VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(info.filePath);
-                if (virtualFile != null) {
-                  item.addFileToCheck(info.packageName, info.filePath, virtualFile);
-                }
-              }
-              item.filesWithNoClasses.clear();
-            }
+
+        // Packages analyzed in an earlier session are taken from the index, if their locked version and root haven't
+        // changed.
+        final Map<String, LockedPackage> lockedPackages = readLockedPackages(project);
+        final List<WorkItem> items = new ArrayList<>();
+        for (String packageName : packages) {
+          final LockedPackage locked = lockedPackages.get(packageName);
+          if (locked == null || !addIndexedClasses(packageName, locked)) {
+            items.add(new WorkItem(projectPath, packageName, locked));
           }
         }
+        if (items.isEmpty()) {
+          return;
+        }
+        WORK_ITEMS.put(projectPath, items);
+
+        // Analyze the packages concurrently; each package is processed by a single thread at a time.
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(items, indicator, (item) -> {
+          processItem(project, item, indicator);
+          return true;
+        });
+
+        WORK_ITEMS.remove(projectPath, items);
+        if (System.currentTimeMillis() - startTime > 1000 && !project.isDisposed()) {
+          // If this analysis takes too long there is a good chance the highlighting pass completed before all
+          // icon classes were found. That might cause some icons to not get displayed, so just run it again.
+          DaemonCodeAnalyzer.getInstance(project).restart();
+        }
       }
 
       public void onCancel() {
@@ -157,16 +161,43 @@ public class FontPreviewProcessor {
     ProgressManager.getInstance().run(task);
   }
 
+  /**
+   * Runs the work for one package until it is complete, then saves the icon classes found in the index.
+   */
+  private void processItem(@NotNull Project project, @NotNull WorkItem item, @NotNull ProgressIndicator indicator) {
+    while (true) {
+      indicator.checkCanceled();
+      if (!processNextItem(project, item, indicator)) {
+        if (item.isCancelled || project.isDisposed()) {
+          return;
+        }
+        if (item.filesWithNoClasses.isEmpty()) {
+          break;
+        }
+        for (String key : item.filesWithNoClasses.keySet()) {
+          final PathInfo info = item.filesWithNoClasses.get(key);
+          final VirtualFile virtualFile = LocalFileSystem.getInstance().findFileByPath(info.filePath);
+          if (virtualFile != null) {
+            item.addFileToCheck(info.packageName, info.filePath, virtualFile);
+          }
+        }
+        item.filesWithNoClasses.clear();
+      }
+    }
+    if (item.locked != null && !item.skippedClasses) {
+      getIndex().put(item.packageName, item.locked.version(), item.locked.root(), item.iconClasses);
+    }
+  }
+
   // Analyze the next item in the queue. Leave it in the queue until analysis is complete.
   // Any switch to dumb mode during a read action or a write action will cancel this analysis,
   // which will restart with the same item.
-  boolean processNextItem(@NotNull Project project, @NotNull WorkItem item) {
-    if (item.isCancelled) {
+  boolean processNextItem(@NotNull Project project, @NotNull WorkItem item, @NotNull ProgressIndicator indicator) {
+    if (item.isCancelled || project.isDisposed()) {
       return false;
     }
-    final Application app = ApplicationManager.getApplication();
     if (item.hasFilesToRewrite()) {
-      app.invokeLater(() -> rewriteNextFile(project, item));
+      rewriteNextFile(project, item);
       return true;
     }
     else if (item.hasClasses()) {
@@ -174,7 +205,7 @@ public class FontPreviewProcessor {
       return true;
     }
     else if (item.hasFilesToAnalyze()) {
-      analyzeNextFile(project, item);
+      analyzeFiles(project, item, indicator);
       return true;
     }
     else if (item.hasPackages()) {
@@ -186,12 +217,80 @@ public class FontPreviewProcessor {
       return true;
     }
     else if (item.hasFilesToDelete()) {
-      app.invokeLater(() -> deleteNextFile(project, item));
+      deleteNextFile(project, item);
       return true;
     }
     return false;
   }
 
+  /**
+   * Adds the icon classes indexed for the given version and root of a package to KnownPaths.
+   * <p>
+   * Returns false if the package version hasn't been analyzed, or if any of its files have since been deleted.
+   */
+  private boolean addIndexedClasses(@NotNull String packageName, @NotNull LockedPackage locked) {
+    final List<FontPreviewIndex.IconClass> classes = getIndex().get(packageName, locked.version(), locked.root());
+    if (classes == null) {
+      return false;
+    }
+    for (FontPreviewIndex.IconClass iconClass : classes) {
+      if (!new File(iconClass.path()).exists()) {
+        return false;
+      }
+    }
+    log("Using indexed classes for ", packageName, " ", locked.version());
+    for (FontPreviewIndex.IconClass iconClass : classes) {
+      addKnownPath(iconClass.name(), iconClass.path());
+    }
+    return true;
+  }
+
+  private static void addKnownPath(@NotNull String name, @NotNull String path) {
+    KnownPaths.computeIfAbsent(name, (key) -> ConcurrentHashMap.newKeySet()).add(path);
+    FlutterIconLineMarkerProvider.knownPathsChanged();
+  }
+
+  /**
+   * A package version locked in pubspec.lock, and the lib directory it resolves to in package_config.json.
+   */
+  record LockedPackage(@NotNull String version, @NotNull String root) {
+  }
+
+  /**
+   * Reads the indexable packages locked in each of the project's pub roots, by name.
+   */
+  @NotNull
+  private static Map<String, LockedPackage> readLockedPackages(@NotNull Project project) {
+    final Map<String, LockedPackage> packages = OpenApiUtils.safeRunReadAction(() -> {
+      final Map<String, LockedPackage> result = new HashMap<>();
+      for (PubRoot root : PubRoots.forProject(project)) {
+        final VirtualFile lockFile = root.getRoot().findChild(PUBSPEC_LOCK);
+        final Map<String, String> packageRoots = root.getPackagesMap();
+        if (lockFile == null || packageRoots == null) {
+          continue;
+        }
+        FontPreviewIndex.readLockedVersions(PubspecYamlUtil.getPubspecYamlInfo(lockFile)).forEach((name, version) -> {
+          final String packageRoot = packageRoots.get(name);
+          if (packageRoot != null) {
+            result.put(name, new LockedPackage(version, packageRoot));
+          }
+        });
+      }
+      return result;
+    });
+    return packages == null ? new HashMap<>() : packages;
+  }
+
+  @NotNull
+  private static FontPreviewIndex getIndex() {
+    return IndexHolder.INDEX;
+  }
+
+  private static class IndexHolder {
+    static final FontPreviewIndex INDEX =
+      new FontPreviewIndex(Paths.get(PathManager.getSystemPath(), "flutter", "font-preview.index"));
+  }
+
   private void analyzeNextPackage(@NotNull Project project, @NotNull WorkItem item) {
     if (project.isDisposed() || item.isCancelled) {
       return;
@@ -216,7 +315,9 @@ public class FontPreviewProcessor {
     final String packageName = info.packageName;
     final String path = file.getPath();
     final int packageIndex = path.indexOf(packageName);
-    if (ANALYZED_PROJECT_FILES.get(item.projectPath).contains(path)) {
+    final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(item.projectPath);
+    if (analyzedProjectFiles == null || analyzedProjectFiles.contains(path)) {
+      item.skipAnalyzedFile(path);
       item.removeFileToRewrite();
       return;
     }
@@ -225,6 +326,7 @@ public class FontPreviewProcessor {
     final VirtualFile filteredFile = filterImports(file);
     if (filteredFile == null) {
       log("Cannot filter imports in ", file.getName());
+      item.removeFileToRewrite();
       return;
     }
     item.filesWithNoClasses.put(path, new PathInfo(packageName, path));
@@ -233,28 +335,56 @@ public class FontPreviewProcessor {
     item.removeFileToRewrite();
   }
 
-  private void analyzeNextFile(@NotNull Project project, @NotNull WorkItem item) {
-    if (project.isDisposed() || item.isCancelled) {
+  /**
+   * Analyzes all the queued files of a package concurrently, queueing the classes that they define.
+   */
+  private void analyzeFiles(@NotNull Project project, @NotNull WorkItem item, @NotNull ProgressIndicator indicator) {
+    final List<FileInfo> files = new ArrayList<>(item.filesToAnalyze);
+    item.filesToAnalyze.clear();
+    final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(item.projectPath);
+    if (analyzedProjectFiles == null) {
       return;
     }
-    final FileInfo info = item.getFileToAnalyze();
-    if (info == null) {
-      return;
+    // Skip files that were already analyzed, for this package or another one.
+    files.removeIf((info) -> {
+      if (analyzedProjectFiles.add(info.originalPath)) {
+        item.analyzedPaths.add(info.originalPath);
+        return false;
+      }
+      item.skipAnalyzedFile(info.originalPath);
+      return true;
+    });
+
+    final Map<FileInfo, Set<DartComponentName>> classesByFile = new ConcurrentHashMap<>();
+    JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, (info) -> {
+      if (!project.isDisposed() && !item.isCancelled) {
+        final Set<DartComponentName> classNames = analyzeFile(project, info);
+        if (classNames != null) {
+          classesByFile.put(info, classNames);
+        }
+      }
+      return true;
+    });
+    for (FileInfo info : files) {
+      final Set<DartComponentName> classNames = classesByFile.get(info);
+      if (classNames != null) {
+        item.addClasses(info.packageName, info.originalPath, classNames);
+      }
     }
-    final String packageName = info.packageName;
+  }
+
+  /**
+   * Returns the classes defined in a file, or null if it can't be resolved.
+   */
+  @Nullable
+  private static Set<DartComponentName> analyzeFile(@NotNull Project project, @NotNull FileInfo info) {
     final String path = info.originalPath;
     final VirtualFile file = info.file;
-    final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(item.projectPath);
-    if (analyzedProjectFiles.contains(path)) {
-      item.removeFileToAnalyze();
-      return;
-    }
     log("Analyzing file ", file.getPath(), " path ", path);
-    analyzedProjectFiles.add(path);
     final PsiFile psiFile = DumbService.getInstance(project).runReadActionInSmartMode(() -> PsiManager.getInstance(project).findFile(file));
     if (psiFile == null) {
       log("Cannot get PSI file for ", file.getName());
-      return;
+      return null;
     }
     final Set<DartComponentName> classNames = new HashSet<>();
     final DartPsiScopeProcessor processor = new ClassNameScopeProcessor(classNames);
@@ -272,14 +402,12 @@ public class FontPreviewProcessor {
       }
       return result; // Return from lambda, not method, setting value of success.
     });
-    if (success) {
-      log("Queueing ", String.valueOf(classNames.size()), " classes for ", path);
-      item.addClasses(packageName, path, classNames);
-    }
-    else {
+    if (!success) {
       log("Resolution failed for ", path);
+      return null;
     }
-    item.removeFileToAnalyze();
+    log("Queueing ", String.valueOf(classNames.size()), " classes for ", path);
+    return classNames;
   }
 
   private void analyzeNextClass(@NotNull Project project, @NotNull WorkItem item) {
@@ -292,16 +420,12 @@ public class FontPreviewProcessor {
     }
     final String packageName = info.packageName;
     final String path = info.filePath;
-    final PsiFile psiFile = DumbService.getInstance(project).runReadActionInSmartMode(info.name::getContainingFile);
     if (path.contains(packageName)) {
       final String name = DumbService.getInstance(project).runReadActionInSmartMode(info.name::getName);
-      log("Adding ", name, " -> ", path);
-      final Set<String> knownPaths = KnownPaths.get(name);
-      if (knownPaths == null) {
-        KnownPaths.put(name, new HashSet<>(Collections.singleton(path)));
-      }
-      else {
-        knownPaths.add(path);
+      if (name != null) {
+        log("Adding ", name, " -> ", path);
+        addKnownPath(name, path);
+        item.iconClasses.add(new FontPreviewIndex.IconClass(name, path));
       }
       item.filesWithNoClasses.remove(path);
     }
@@ -336,7 +460,9 @@ public class FontPreviewProcessor {
           if (next == null || isInSdk(nextPath = next.getPath())) {
             continue;
           }
-          if (ANALYZED_PROJECT_FILES.get(project.getBasePath()).contains(nextPath)) {
+          final Set<String> analyzedProjectFiles = ANALYZED_PROJECT_FILES.get(item.projectPath);
+          if (analyzedProjectFiles == null || analyzedProjectFiles.contains(nextPath)) {
+            item.skipAnalyzedFile(nextPath);
             continue;
           }
           item.addFileToAnalyze(packageName, nextPath, next);
@@ -350,25 +476,34 @@ public class FontPreviewProcessor {
     }
   }
 
-  private void deleteNextFile(Project project, WorkItem item) {
+  private void deleteNextFile(@NotNull Project project, @NotNull WorkItem item) {
     final VirtualFile filteredFile = item.getFileToDelete();
-    if (filteredFile != null) {
-      OpenApiUtils.safeRunWriteAction(() -> {
-        try {
-          log("Deleting file ", filteredFile.getName());
-          filteredFile.delete(this); // need write access
-          item.removeFileToDelete();
-        }
-        catch (IOException e) {
-          // ignored
-        }
-      });
+    if (filteredFile == null) {
+      return;
     }
+    OpenApiUtils.safeInvokeAndWait(() -> OpenApiUtils.safeRunWriteAction(() -> {
+      try {
+        log("Deleting file ", filteredFile.getName());
+        filteredFile.delete(this); // need write access
+      }
+      catch (IOException e) {
+        // ignored
+      }
+    }));
+    // Don't retry files that can't be deleted; they are temp files.
+    item.removeFileToDelete();
   }
 
   private static void clearProjectCaches(@NotNull Project project) {
-    ANALYZED_PROJECT_FILES.remove(project.getBasePath());
-    WORK_ITEMS.remove(project.getBasePath());
+    final String projectPath = project.getBasePath();
+    if (projectPath == null) {
+      return;
+    }
+    ANALYZED_PROJECT_FILES.remove(projectPath);
+    final List<WorkItem> items = WORK_ITEMS.remove(projectPath);
+    if (items != null) {
+      items.forEach((item) -> item.isCancelled = true);
+    }
     FlutterIconLineMarkerProvider.initialize();
   }
 
@@ -456,17 +591,41 @@ public class FontPreviewProcessor {
     final Queue<ClassInfo> classesToAnalyze = new LinkedList<>();
     final Queue<FileInfo> filesToCheck = new LinkedList<>();
     final Map<String, PathInfo> filesWithNoClasses = new HashMap<>();
+    final List<FontPreviewIndex.IconClass> iconClasses = new ArrayList<>();
+
+    /**
+     * The files analyzed for this package.
+     */
+    final Set<String> analyzedPaths = new HashSet<>();
+
+    /**
+     * Set if a file of this package was skipped because it was analyzed for another package, so that the classes it
+     * defines are missing from iconClasses.
+     */
+    boolean skippedClasses;
+
     final String projectPath;
-    boolean isCancelled = false;
+    final String packageName;
+    @Nullable final LockedPackage locked;
+    volatile boolean isCancelled = false;
 
-    WorkItem(String packageName) {
-      this.projectPath = packageName;
+    WorkItem(String projectPath, @NotNull String packageName, @Nullable LockedPackage locked) {
+      this.projectPath = projectPath;
+      this.packageName = packageName;
+      this.locked = locked;
+      packagesToAnalyze.add(packageName);
     }
 
     boolean hasClasses() {
       return !classesToAnalyze.isEmpty();
     }
 
+    void skipAnalyzedFile(@NotNull String path) {
+      if (!analyzedPaths.contains(path)) {
+        skippedClasses = true;
+      }
+    }
+
     boolean hasFilesToAnalyze() {
       return !filesToAnalyze.isEmpty();
     }
@@ -565,10 +724,6 @@ public class FontPreviewProcessor {
       packagesToAnalyze.remove();
     }
 
-    void addPackages(@NotNull List<String> packages) {
-      packagesToAnalyze.addAll(packages);
-    }
-
     public void addClasses(@NotNull String packageName, @NotNull String filePath, @NotNull Set<DartComponentName> names) {
       classesToAnalyze.addAll(
         names.stream()
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prints one app's log entries to its console in the order they arrived, without waiting on any of them.
+ * <p>
+ * Each entry is added with a future for its output, so the VM service requests needed to format several entries can be
+ * in flight at once. Every flush interval, the entries at the head of the queue that are ready are printed together,
+ * with adjacent text of the same content type merged into one print call. An entry that isn't ready holds back the
+ * ones after it, and the next flush happens when it completes.
+ */
+class ConsoleLogPipeline {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(ConsoleLogPipeline.class);
+
+  /**
+   * Where the pipeline prints; usually a console's print method.
+   */
+  interface Sink {
+    void print(@NotNull String text, @NotNull ConsoleViewContentType contentType);
+  }
+
+  /**
+   * The text of one log entry, collected before it is printed.
+   */
+  static class Output {
+    private final List<StringBuilder> texts = new ArrayList<>();
+    private final List<ConsoleViewContentType> contentTypes = new ArrayList<>();
+
+    void print(@NotNull String text, @NotNull ConsoleViewContentType contentType) {
+      if (text.isEmpty()) {
+        return;
+      }
+      final int last = texts.size() - 1;
+      if (last >= 0 && contentTypes.get(last) == contentType) {
+        texts.get(last).append(text);
+      }
+      else {
+        texts.add(new StringBuilder(text));
+        contentTypes.add(contentType);
+      }
+    }
+
+    void appendTo(@NotNull Output other) {
+      for (int i = 0; i < texts.size(); i++) {
+        other.print(texts.get(i).toString(), contentTypes.get(i));
+      }
+    }
+  }
+
+  private record Entry(@NotNull CompletableFuture<Output> output, long addedNanos) {
+  }
+
+  @NotNull private final Sink sink;
+  @NotNull private final ScheduledExecutorService executor;
+  private final long flushIntervalMillis;
+
+  private final Object printLock = new Object();
+  private final Deque<Entry> pending = new ArrayDeque<>();
+
+  /**
+   * The entries added but not yet printed, including those taken from the queue by a flush that is printing them.
+   * Guarded by pending.
+   */
+  private int unprinted;
+
+  @NotNull private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  @NotNull private final LatencyHistogram latencies = new LatencyHistogram();
+
+  ConsoleLogPipeline(@NotNull Sink sink, @NotNull ScheduledExecutorService executor, long flushIntervalMillis) {
+    this.sink = sink;
+    this.executor = executor;
+    this.flushIntervalMillis = flushIntervalMillis;
+  }
+
+  /**
+   * Adds an entry to print once its output is ready and the entries added before it have been printed. If the future
+   * fails or completes with null, the entry is skipped.
+   */
+  void add(@NotNull CompletableFuture<Output> output) {
+    synchronized (pending) {
+      pending.addLast(new Entry(output, System.nanoTime()));
+      unprinted++;
+    }
+    scheduleFlush();
+  }
+
+  /**
+   * Returns the number of entries added but not yet printed.
+   */
+  int getQueueDepth() {
+    synchronized (pending) {
+      return unprinted;
+    }
+  }
+
+  /**
+   * Returns the times from adding entries to printing them.
+   */
+  @NotNull
+  LatencyHistogram getLatencies() {
+    return latencies;
+  }
+
+  /**
+   * Waits until the entries added so far have been printed, or the timeout has passed.
+   *
+   * @return true if they were all printed
+   */
+  boolean awaitFlushed(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (pending) {
+      while (unprinted > 0) {
+        final long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(pending, remaining);
+      }
+    }
+    return true;
+  }
+
+  private void scheduleFlush() {
+    if (flushScheduled.compareAndSet(false, true)) {
+      executor.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void flush() {
+    flushScheduled.set(false);
+
+    final Entry blocked;
+    // Entries are taken and printed under one lock, so that overlapping flushes can't print out of order.
+    synchronized (printLock) {
+      final Output batch = new Output();
+      int taken = 0;
+      synchronized (pending) {
+        final long now = System.nanoTime();
+        while (!pending.isEmpty() && pending.peekFirst().output().isDone()) {
+          final Entry entry = pending.removeFirst();
+          final Output output = entry.output().exceptionally((t) -> {
+            LOG.warn("Error formatting log entry: " + t.getMessage());
+            return null;
+          }).join();
+          if (output != null) {
+            output.appendTo(batch);
+          }
+          latencies.record(TimeUnit.NANOSECONDS.toMillis(now - entry.addedNanos()));
+          taken++;
+        }
+        blocked = pending.peekFirst();
+      }
+
+      try {
+        for (int i = 0; i < batch.texts.size(); i++) {
+          sink.print(batch.texts.get(i).toString(), batch.contentTypes.get(i));
+        }
+      }
+      finally {
+        synchronized (pending) {
+          unprinted -= taken;
+          pending.notifyAll();
+        }
+      }
+    }
+
+    if (blocked != null) {
+      // Print the rest once the entry holding them back is ready.
+      blocked.output().whenComplete((output, error) -> scheduleFlush());
+    }
+  }
+}
@@ -6,7 +6,6 @@
 
 package io.flutter.logging;
 
-import com.google.common.annotations.VisibleForTesting;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -27,33 +26,34 @@ import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.openapi.wm.ex.ToolWindowManagerEx;
 import com.intellij.ui.SimpleTextAttributes;
-import com.intellij.util.concurrency.QueueProcessor;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import io.flutter.FlutterUtils;
 import io.flutter.devtools.DevToolsUtils;
 import io.flutter.jxbrowser.JxBrowserManager;
+import io.flutter.run.FlutterDebugProcess;
 import io.flutter.run.daemon.FlutterApp;
 import io.flutter.settings.FlutterSettings;
 import io.flutter.utils.JsonUtils;
+import io.flutter.utils.LatencyHistogram;
 import io.flutter.view.EmbeddedBrowser;
 import io.flutter.view.InspectorView;
-import io.flutter.vmService.VmServiceConsumers;
-import org.dartlang.vm.service.VmService;
-import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import io.flutter.vmService.InstanceStringResolver;
+import io.flutter.vmService.VmServiceWrapper;
 import org.dartlang.vm.service.element.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Handle displaying dart:developer log messages and Flutter.Error messages in the Run and Debug
  * console.
+ * <p>
+ * Each app has its own {@link ConsoleLogPipeline}, so a slow or chatty app doesn't hold up the output of the others,
+ * and the VM service requests for an app's messages run concurrently while still printing in order.
  */
 public class FlutterConsoleLogManager {
   private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterConsoleLogManager.class);
@@ -68,8 +68,14 @@ public class FlutterConsoleLogManager {
     new ConsoleViewContentType("subtle", SimpleTextAttributes.GRAY_ATTRIBUTES.toTextAttributes());
   private static final ConsoleViewContentType ERROR_CONTENT_TYPE = ConsoleViewContentType.ERROR_OUTPUT;
 
-  private static QueueProcessor<Runnable> queue;
-  private static final AtomicInteger queueLength = new AtomicInteger();
+  /**
+   * How long output is collected before it is printed, and how long to wait for the VM service to fill in a
+   * truncated string or an error's toString() before printing what is known.
+   */
+  private static final long FLUSH_INTERVAL_MILLIS = 50;
+  private static final long FULL_STRING_TIMEOUT_SECONDS = 1;
+  private static final long TO_STRING_TIMEOUT_SECONDS = 5;
+  private static final long FLUSH_TIMEOUT_SECONDS = 10;
 
   /**
    * Set our preferred settings for the run console.
@@ -88,11 +94,22 @@ public class FlutterConsoleLogManager {
   @NotNull final ConsoleView console;
   @NotNull final FlutterApp app;
 
+  @NotNull private final ConsoleLogPipeline pipeline;
+
+  /**
+   * Formats Flutter.Error events one at a time, in the order they arrive, since each depends on the errors before it
+   * in the same frame.
+   */
+  @NotNull private final ExecutorService errorFormatter =
+    AppExecutorUtil.createBoundedApplicationPoolExecutor("FlutterConsoleLogManager", 1);
+
   private int frameErrorCount = 0;
 
   public FlutterConsoleLogManager(@NotNull ConsoleView console, @NotNull FlutterApp app) {
     this.console = console;
     this.app = app;
+    this.pipeline =
+      new ConsoleLogPipeline(console::print, AppExecutorUtil.getAppScheduledExecutorService(), FLUSH_INTERVAL_MILLIS);
 
     app.addStateListener(new FlutterApp.FlutterAppListener() {
       @Override
@@ -103,6 +120,9 @@ public class FlutterConsoleLogManager {
       @Override
       public void stateChanged(FlutterApp.State newState) {
         frameErrorCount = 0;
+        if (newState == FlutterApp.State.TERMINATED && pipeline.getLatencies().getCount() > 0) {
+          LOG.info("Console log latencies for " + app.getProject().getName() + ": " + pipeline.getLatencies());
+        }
       }
 
       @Override
@@ -115,10 +135,21 @@ public class FlutterConsoleLogManager {
         frameErrorCount = 0;
       }
     });
+  }
 
-    if (queue == null) {
-      queue = QueueProcessor.createRunnableQueueProcessor();
-    }
+  /**
+   * Returns the number of messages received but not yet printed.
+   */
+  public int getPendingLogCount() {
+    return pipeline.getQueueDepth();
+  }
+
+  /**
+   * Returns the times from receiving messages to printing them.
+   */
+  @NotNull
+  public LatencyHistogram getLogLatencies() {
+    return pipeline.getLatencies();
   }
 
   public void handleFlutterErrorEvent(@NotNull Event event) {
@@ -128,11 +159,10 @@ public class FlutterConsoleLogManager {
       final DiagnosticsNode diagnosticsNode = new DiagnosticsNode(jsonObject, app, false, null);
 
       if (FlutterSettings.getInstance().isShowStructuredErrors()) {
-        queueLength.incrementAndGet();
-
-        queue.add(() -> {
+        pipeline.add(CompletableFuture.supplyAsync(() -> {
+          final ConsoleLogPipeline.Output out = new ConsoleLogPipeline.Output();
           try {
-            processFlutterErrorEvent(diagnosticsNode);
+            processFlutterErrorEvent(out, diagnosticsNode);
           }
           catch (Throwable t) {
             if (FlutterSettings.getInstance().isVerboseLogging()) {
@@ -141,14 +171,8 @@ public class FlutterConsoleLogManager {
               LOG.warn("Error processing FlutterErrorEvent: " + t.getMessage());
             }
           }
-          finally {
-            queueLength.decrementAndGet();
-
-            synchronized (queueLength) {
-              queueLength.notifyAll();
-            }
-          }
-        });
+          return out;
+        }, errorFormatter));
       }
     }
     catch (Throwable t) {
@@ -164,21 +188,16 @@ public class FlutterConsoleLogManager {
    * Wait until all pending work has completed.
    */
   public void flushFlutterErrorQueue() {
-    // If the queue isn't empty, then wait until the all the items have been processed.
-    if (queueLength.get() > 0) {
-      try {
-        while (queueLength.get() > 0) {
-          synchronized (queueLength) {
-            queueLength.wait();
-          }
-        }
+    try {
+      if (!pipeline.awaitFlushed(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOG.info("Timed out flushing " + pipeline.getQueueDepth() + " console messages");
       }
-      catch (InterruptedException e) {
-        if (FlutterSettings.getInstance().isVerboseLogging()) {
-          LOG.error(e);
-        } else {
-          LOG.error("Exception when flushing FlutterErrorQueue: " + e.getMessage());
-        }
+    }
+    catch (InterruptedException e) {
+      if (FlutterSettings.getInstance().isVerboseLogging()) {
+        LOG.error(e);
+      } else {
+        LOG.error("Exception when flushing FlutterErrorQueue: " + e.getMessage());
       }
     }
   }
@@ -191,7 +210,7 @@ public class FlutterConsoleLogManager {
   /**
    * Pretty print the error using the available console syling attributes.
    */
-  private void processFlutterErrorEvent(@NotNull DiagnosticsNode diagnosticsNode) {
+  private void processFlutterErrorEvent(@NotNull ConsoleLogPipeline.Output console, @NotNull DiagnosticsNode diagnosticsNode) {
     final String description = " " + diagnosticsNode + " ";
 
     final boolean terseError = !isFirstErrorForFrame() && !FlutterSettings.getInstance().isIncludeAllStackTraces();
@@ -250,7 +269,7 @@ public class FlutterConsoleLogManager {
     return frameErrorCount == 0;
   }
 
-  private void printTerseNodeProperty(ConsoleView console, String indent, DiagnosticsNode property) {
+  private void printTerseNodeProperty(ConsoleLogPipeline.Output console, String indent, DiagnosticsNode property) {
     boolean skip = true;
 
     if (property.getLevel() == DiagnosticLevel.summary) {
@@ -301,7 +320,7 @@ public class FlutterConsoleLogManager {
     }
   }
 
-  private void printDiagnosticsNodeProperty(ConsoleView console, String indent, DiagnosticsNode property,
+  private void printDiagnosticsNodeProperty(ConsoleLogPipeline.Output console, String indent, DiagnosticsNode property,
                                             ConsoleViewContentType contentType,
                                             boolean isInChild) {
     // TODO(devoncarew): Change the error message display in the framework.
@@ -403,9 +422,7 @@ public class FlutterConsoleLogManager {
       }
     });
     Notifications.Bus.notify(notification, app.getProject());
-    try (var executor = Executors.newSingleThreadScheduledExecutor()) {
-      executor.schedule(notification::expire, 25, TimeUnit.SECONDS);
-    }
+    AppExecutorUtil.getAppScheduledExecutorService().schedule(notification::expire, 25, TimeUnit.SECONDS);
   }
 
   private String getChildIndent(String indent, DiagnosticsNode property) {
@@ -418,18 +435,16 @@ public class FlutterConsoleLogManager {
   }
 
   public void handleLoggingEvent(@NotNull Event event) {
-    queue.add(() -> {
-      try {
-        processLoggingEvent(event);
-      }
-      catch (Throwable t) {
-        if (FlutterSettings.getInstance().isVerboseLogging()) {
-          LOG.warn(t);
-        } else {
-          LOG.warn("Error processing LoggingEvent: " + t.getMessage());
-        }
+    try {
+      pipeline.add(formatLoggingEvent(event));
+    }
+    catch (Throwable t) {
+      if (FlutterSettings.getInstance().isVerboseLogging()) {
+        LOG.warn(t);
+      } else {
+        LOG.warn("Error processing LoggingEvent: " + t.getMessage());
       }
-    });
+    }
   }
 
   private ConsoleViewContentType getContentTypeFor(DiagnosticLevel level) {
@@ -440,14 +455,18 @@ public class FlutterConsoleLogManager {
     };
   }
 
-  @VisibleForTesting
-  public void processLoggingEvent(@NotNull Event event) {
+  /**
+   * Starts the requests for the parts of a log message that weren't sent in full, and returns its output once they
+   * complete, or null if there is nothing to print.
+   */
+  @NotNull
+  private CompletableFuture<ConsoleLogPipeline.Output> formatLoggingEvent(@NotNull Event event) {
     final LogRecord logRecord = event.getLogRecord();
-    if (logRecord == null) return;
+    if (logRecord == null) return CompletableFuture.completedFuture(null);
 
-    final VmService service = app.getVmService();
-    if (service == null) {
-      return;
+    final InstanceStringResolver resolver = getStringResolver();
+    if (resolver == null) {
+      return CompletableFuture.completedFuture(null);
     }
 
     final IsolateRef isolateRef = event.getIsolate();
@@ -457,19 +476,18 @@ public class FlutterConsoleLogManager {
 
     final String name = loggerName.getValueAsString().isEmpty() ? "log" : loggerName.getValueAsString();
     final String prefix = "[" + name + "] ";
-    final String messageStr = getFullStringValue(service, isolateRef.getId(), message);
-
-    console.print(prefix, SUBTLE_CONTENT_TYPE);
-    console.print(messageStr + "\n", NORMAL_CONTENT_TYPE);
+    final String padding = StringUtil.repeat(" ", prefix.length());
 
     @NotNull final InstanceRef error = logRecord.getError();
     @NotNull final InstanceRef stackTrace = logRecord.getStackTrace();
 
-    if (!error.isNull()) {
-      final String padding = StringUtil.repeat(" ", prefix.length());
-
-      if (error.getKind() == InstanceKind.String) {
-        String string = getFullStringValue(service, isolateRef.getId(), error);
+    final CompletableFuture<ConsoleLogPipeline.Output> errorOutput;
+    if (error.isNull()) {
+      errorOutput = CompletableFuture.completedFuture(null);
+    }
+    else if (error.getKind() == InstanceKind.String) {
+      errorOutput = getFullStringValue(resolver, isolateRef.getId(), error).thenApply((value) -> {
+        String string = value;
 
         // Handle json in the error payload.
         boolean isJson = false;
@@ -483,103 +501,78 @@ public class FlutterConsoleLogManager {
         catch (JsonSyntaxException ignored) {
         }
 
-        console.print(padding + string + "\n", isJson ? ConsoleViewContentType.NORMAL_OUTPUT : ERROR_CONTENT_TYPE);
+        final ConsoleLogPipeline.Output out = new ConsoleLogPipeline.Output();
+        out.print(padding + string + "\n", isJson ? ConsoleViewContentType.NORMAL_OUTPUT : ERROR_CONTENT_TYPE);
+        return out;
+      });
+    }
+    else {
+      errorOutput = invokeToString(resolver, isolateRef.getId(), error).thenApply((string) -> {
+        final ConsoleLogPipeline.Output out = new ConsoleLogPipeline.Output();
+        out.print(padding + string + "\n", ERROR_CONTENT_TYPE);
+        return out;
+      });
+    }
+
+    return getFullStringValue(resolver, isolateRef.getId(), message).thenCombine(errorOutput, (messageStr, errorOut) -> {
+      final ConsoleLogPipeline.Output out = new ConsoleLogPipeline.Output();
+      out.print(prefix, SUBTLE_CONTENT_TYPE);
+      out.print(messageStr + "\n", NORMAL_CONTENT_TYPE);
+
+      if (errorOut != null) {
+        errorOut.appendTo(out);
       }
-      else {
-        final CountDownLatch latch = new CountDownLatch(1);
-
-        service.invoke(
-          isolateRef.getId(), error.getId(),
-          "toString", Collections.emptyList(),
-          true,
-          new VmServiceConsumers.InvokeConsumerWrapper() {
-            @Override
-            public void received(InstanceRef response) {
-              console.print(padding + stringValueFromStringRef(response) + "\n", ERROR_CONTENT_TYPE);
-              latch.countDown();
-            }
 
-            @Override
-            public void noGoodResult() {
-              console.print(padding + error.getClassRef().getName() + " " + error.getId() + "\n", ERROR_CONTENT_TYPE);
-              latch.countDown();
-            }
-          });
+      if (!stackTrace.isNull()) {
+        final String trace = stackTrace.getValueAsString() == null ? "" : stackTrace.getValueAsString().trim();
 
-        try {
-          latch.await();
-        }
-        catch (InterruptedException ignored) {
-        }
+        out.print(
+          padding + trace.replaceAll("\n", "\n" + padding) + "\n", ERROR_CONTENT_TYPE);
       }
-    }
+      return out;
+    });
+  }
 
-    if (!stackTrace.isNull()) {
-      final String padding = StringUtil.repeat(" ", prefix.length());
-      final String out = stackTrace.getValueAsString() == null ? "" : stackTrace.getValueAsString().trim();
+  /**
+   * Returns the result of calling toString() on an instance, or its class and id if the call fails or takes too long.
+   */
+  @NotNull
+  private CompletableFuture<String> invokeToString(@NotNull InstanceStringResolver resolver,
+                                                   @NotNull String isolateId,
+                                                   @NotNull InstanceRef instance) {
+    final String fallback = instance.getClassRef().getName() + " " + instance.getId();
+    return resolver.callToString(isolateId, instance.getId())
+      .thenApply((response) -> response == null ? fallback : stringValueFromStringRef(response))
+      // The call fails if the connection closes or the VM doesn't respond.
+      .exceptionally((error) -> fallback)
+      .completeOnTimeout(fallback, TO_STRING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
 
-      console.print(
-        padding + out.replaceAll("\n", "\n" + padding) + "\n", ERROR_CONTENT_TYPE);
-    }
+  @Nullable
+  private InstanceStringResolver getStringResolver() {
+    final FlutterDebugProcess debugProcess = app.getFlutterDebugProcess();
+    if (debugProcess == null) return null;
+    final VmServiceWrapper wrapper = debugProcess.getVmServiceWrapper();
+    return wrapper == null ? null : wrapper.getStringResolver();
   }
 
   private String stringValueFromStringRef(InstanceRef ref) {
     return ref.getValueAsStringIsTruncated() ? formatTruncatedString(ref) : ref.getValueAsString();
   }
 
-  private String stringValueFromStringRef(Instance instance) {
-    return instance.getValueAsStringIsTruncated() ? instance.getValueAsString() + "..." : instance.getValueAsString();
-  }
-
   private String formatTruncatedString(InstanceRef ref) {
     return ref.getValueAsString() + "...";
   }
 
-  private @Nullable String getFullStringValue(@NotNull VmService service, @Nullable String isolateId, @Nullable InstanceRef ref) {
-    if (ref == null || isolateId == null) return null;
-
-    if (!ref.getValueAsStringIsTruncated()) {
-      return ref.getValueAsString();
-    }
-
-    final CountDownLatch latch = new CountDownLatch(1);
-    final String[] result = new String[1];
-
-    service.getObject(isolateId, ref.getId(), 0, ref.getLength(), new GetObjectConsumer() {
-      @Override
-      public void onError(RPCError error) {
-        result[0] = formatTruncatedString(ref);
-        latch.countDown();
-      }
-
-      @Override
-      public void received(Obj response) {
-        if (response instanceof Instance && ((Instance)response).getKind() == InstanceKind.String) {
-          result[0] = stringValueFromStringRef((Instance)response);
-        }
-        else {
-          result[0] = formatTruncatedString(ref);
-        }
-
-        latch.countDown();
-      }
-
-      @Override
-      public void received(Sentinel response) {
-        result[0] = formatTruncatedString(ref);
-        latch.countDown();
-      }
-    });
-
-    try {
-      // The return can be safely ignored. An unset result will just return 0.
-      //noinspection ResultOfMethodCallIgnored
-      latch.await(1, TimeUnit.SECONDS);
-    }
-    catch (InterruptedException e) {
-      // Fall through to returning an empty result.
-    }
+  @NotNull
+  private CompletableFuture<String> getFullStringValue(@NotNull InstanceStringResolver resolver,
+                                                       @Nullable String isolateId,
+                                                       @Nullable InstanceRef ref) {
+    if (ref == null || isolateId == null) return CompletableFuture.completedFuture(null);
 
-    return result[0];
+    return resolver.getFullString(isolateId, ref)
+      .exceptionally((error) -> formatTruncatedString(ref))
+      // Print what was sent rather than hold up the messages after this one.
+      .completeOnTimeout(formatTruncatedString(ref), FULL_STRING_TIMEOUT_SECONDS, TimeUnit.SECONDS);
   }
 }
@@ -5,31 +5,133 @@
  */
 package io.flutter.pub;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
 import com.intellij.psi.PsiFile;
+import com.intellij.util.messages.MessageBusConnection;
 import io.flutter.utils.OpenApiUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cache the information computed from pubspecs in the project.
+ * <p>
+ * The pub root containing each directory is memoized, so a lookup walks up the directory tree only until it reaches
+ * a directory that was seen before. The content roots are resolved up front. Up to {@link #MAX_CACHED_DIRECTORIES}
+ * directories are remembered, least recently used first out.
+ * <p>
+ * Entries are invalidated from VFS events. The directories are grouped by their pub root, so a pubspec.yaml change
+ * drops the changed root's group and the directories below it in the group of the root containing it, without
+ * scanning the other roots' directories. Deleted, moved and renamed directories, which are rare, drop every entry at
+ * or below them.
  */
-public class PubRootCache {
+public class PubRootCache implements Disposable {
   @NotNull
   public static PubRootCache getInstance(@NotNull final Project project) {
     return Objects.requireNonNull(project.getService(PubRootCache.class));
   }
 
+  /**
+   * The number of directories whose pub root is remembered.
+   */
+  static final int MAX_CACHED_DIRECTORIES = 4096;
+
+  /**
+   * Marks directories that aren't in a pub root, so that they can be grouped like the others.
+   */
+  private static final Object NONE = new Object();
+
   @NotNull final Project project;
 
-  private final Map<VirtualFile, PubRoot> cache = new HashMap<>();
+  private final int maxCachedDirectories;
+
+  /**
+   * The pub root containing each directory (or NONE), least recently used first. Guarded by this.
+   */
+  private final Map<VirtualFile, Object> containingRoots = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<VirtualFile, Object> eldest) {
+      if (size() <= maxCachedDirectories) {
+        return false;
+      }
+      removeFromGroup(eldest.getKey(), eldest.getValue());
+      return true;
+    }
+  };
+
+  /**
+   * The directories in containingRoots, by their pub root (or NONE). Guarded by this.
+   */
+  private final Map<Object, Set<VirtualFile>> dirsByRoot = new HashMap<>();
+
+  /**
+   * The pub root at each directory path, for directories that have been checked (or NONE), least recently used first.
+   * Guarded by this.
+   */
+  private final Map<String, Object> roots = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+      return size() > maxCachedDirectories;
+    }
+  };
+
+  private volatile boolean contentRootsResolved;
+
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong directoriesChecked = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * Counters describing how the cache is used.
+   *
+   * @param lookups            the number of calls to {@link #getRoot(VirtualFile)}
+   * @param hits               lookups answered without checking any directory for a pubspec
+   * @param directoriesChecked directories checked for a pubspec on a cache miss
+   * @param invalidations      the number of times entries were dropped because of file changes
+   * @param size               the number of directories currently cached
+   */
+  public record Stats(long lookups, long hits, long directoriesChecked, long invalidations, int size) {
+  }
 
   private PubRootCache(@NotNull final Project project) {
+    this(project, MAX_CACHED_DIRECTORIES);
+  }
+
+  @VisibleForTesting
+  PubRootCache(@NotNull final Project project, int maxCachedDirectories) {
     this.project = project;
+    this.maxCachedDirectories = maxCachedDirectories;
+
+    final MessageBusConnection connection = project.getMessageBus().connect(this);
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          invalidate(event);
+        }
+      }
+    });
+    connection.subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
+      @Override
+      public void rootsChanged(@NotNull ModuleRootEvent event) {
+        invalidateAll();
+      }
+    });
   }
 
   @Nullable
@@ -44,19 +146,47 @@ public class PubRootCache {
 
   @Nullable
   public PubRoot getRoot(@Nullable VirtualFile file) {
-    file = findPubspecDir(file);
     if (file == null) {
       return null;
     }
+    lookups.incrementAndGet();
+    resolveContentRoots();
 
-    PubRoot root = cache.get(file);
-
-    if (root == null) {
-      cache.put(file, PubRoot.forDirectory(file));
-      root = cache.get(file);
+    // Walk up to the first directory that is cached or is a pub root, then memoize the result for the whole path.
+    final long generation = invalidations.get();
+    final List<VirtualFile> visited = new ArrayList<>();
+    VirtualFile dir = file.isDirectory() ? file : file.getParent();
+    Object result = NONE;
+    while (dir != null) {
+      final Object cached;
+      synchronized (this) {
+        cached = containingRoots.get(dir);
+      }
+      if (cached != null) {
+        result = cached;
+        break;
+      }
+      visited.add(dir);
+      final PubRoot root = rootAt(dir);
+      if (root != null) {
+        result = root;
+        break;
+      }
+      dir = dir.getParent();
+    }
+    if (visited.isEmpty()) {
+      hits.incrementAndGet();
+    }
+    synchronized (this) {
+      // Don't memoize a result computed from entries that have since been invalidated.
+      if (invalidations.get() == generation) {
+        for (VirtualFile each : visited) {
+          putContainingRoot(each, result);
+        }
+      }
     }
 
-    return root;
+    return result == NONE ? null : (PubRoot)result;
   }
 
   @NotNull
@@ -64,13 +194,7 @@ public class PubRootCache {
     final List<PubRoot> result = new ArrayList<>();
 
     for (VirtualFile dir : OpenApiUtils.getContentRoots(module)) {
-      PubRoot root = cache.get(dir);
-
-      if (root == null) {
-        cache.put(dir, PubRoot.forDirectory(dir));
-        root = cache.get(dir);
-      }
-
+      final PubRoot root = rootAt(dir);
       if (root != null) {
         result.add(root);
       }
@@ -88,19 +212,195 @@ public class PubRootCache {
     return result;
   }
 
+  @NotNull
+  public Stats getStats() {
+    final int size;
+    synchronized (this) {
+      size = containingRoots.size();
+    }
+    return new Stats(lookups.get(), hits.get(), directoriesChecked.get(), invalidations.get(), size);
+  }
+
+  @Override
+  public void dispose() {
+    invalidateAll();
+  }
+
+  /**
+   * Returns the pub root at the given directory, if it contains a pubspec.
+   */
   @Nullable
-  private VirtualFile findPubspecDir(@Nullable VirtualFile file) {
-    if (file == null) {
-      return null;
+  private PubRoot rootAt(@NotNull VirtualFile dir) {
+    final String path = dir.getPath();
+    Object root;
+    synchronized (this) {
+      root = roots.get(path);
+    }
+    if (root == null) {
+      final long generation = invalidations.get();
+      directoriesChecked.incrementAndGet();
+      final PubRoot pubRoot = PubRoot.forDirectory(dir);
+      root = pubRoot == null ? NONE : pubRoot;
+      synchronized (this) {
+        if (invalidations.get() == generation) {
+          roots.put(path, root);
+        }
+      }
+    }
+    return root == NONE ? null : (PubRoot)root;
+  }
+
+  /**
+   * Resolves the pub roots of the project's content roots, so that most lookups stop at a cached directory.
+   */
+  private void resolveContentRoots() {
+    if (contentRootsResolved || project.isDisposed()) {
+      return;
+    }
+    contentRootsResolved = true;
+    for (Module module : OpenApiUtils.getModules(project)) {
+      for (VirtualFile dir : OpenApiUtils.getContentRoots(module)) {
+        final PubRoot root = rootAt(dir);
+        if (root != null) {
+          synchronized (this) {
+            putContainingRoot(dir, root);
+          }
+        }
+      }
     }
+  }
 
-    if (file.isDirectory()) {
-      final VirtualFile pubspec = file.findChild(PubRoot.PUBSPEC_YAML);
-      if (pubspec != null && pubspec.exists() && !pubspec.isDirectory()) {
-        return file;
+  private void invalidate(@NotNull VFileEvent event) {
+    final VirtualFile file = event.getFile();
+    final boolean isDirectory = file != null && file.isDirectory();
+    if (event instanceof VFileMoveEvent move) {
+      invalidatePath(move.getOldPath(), isDirectory);
+      invalidatePath(move.getNewPath(), isDirectory);
+    }
+    else if (event instanceof VFilePropertyChangeEvent change) {
+      if (change.isRename()) {
+        invalidatePath(change.getOldPath(), isDirectory);
+        invalidatePath(change.getNewPath(), isDirectory);
       }
     }
+    else {
+      // Directories that are created can't have cached entries yet; only deleted ones matter.
+      invalidatePath(event.getPath(), isDirectory && event instanceof VFileDeleteEvent);
+    }
+  }
 
-    return findPubspecDir(file.getParent());
+  private void invalidatePath(@NotNull String path, boolean isDirectory) {
+    final String name = path.substring(path.lastIndexOf('/') + 1);
+    if (name.equals(PubRoot.PUBSPEC_YAML)) {
+      // A pubspec was added, removed or edited.
+      invalidatePubRoot(parentPath(path));
+    }
+    else if (isDirectory) {
+      // The directory may have contained pub roots.
+      invalidateBelow(path);
+    }
+    // A PubRoot looks up its package config when asked for it, so package_config.json changes don't affect the cache.
+  }
+
+  /**
+   * Drops the entries that a pub root being added, removed or changed at the given directory can affect: the
+   * directories in that root, and the directories below it that were in the pub root containing it (or none).
+   */
+  private synchronized void invalidatePubRoot(@NotNull String dirPath) {
+    invalidations.incrementAndGet();
+    roots.remove(dirPath);
+
+    final List<Object> rootsAtDir = new ArrayList<>();
+    Object containingRoot = NONE;
+    int containingRootLength = -1;
+    for (Object root : dirsByRoot.keySet()) {
+      if (root == NONE) {
+        continue;
+      }
+      final String rootPath = ((PubRoot)root).getPath();
+      if (rootPath.equals(dirPath)) {
+        rootsAtDir.add(root);
+      }
+      else if (isAtOrBelow(dirPath, rootPath) && rootPath.length() > containingRootLength) {
+        containingRoot = root;
+        containingRootLength = rootPath.length();
+      }
+    }
+
+    for (Object root : rootsAtDir) {
+      final Set<VirtualFile> dirs = dirsByRoot.remove(root);
+      containingRoots.keySet().removeAll(dirs);
+    }
+    final Set<VirtualFile> dirs = dirsByRoot.get(containingRoot);
+    if (dirs != null) {
+      for (Iterator<VirtualFile> it = dirs.iterator(); it.hasNext(); ) {
+        final VirtualFile dir = it.next();
+        if (!dir.isValid() || isAtOrBelow(dir.getPath(), dirPath)) {
+          containingRoots.remove(dir);
+          it.remove();
+        }
+      }
+      if (dirs.isEmpty()) {
+        dirsByRoot.remove(containingRoot);
+      }
+    }
+  }
+
+  /**
+   * Drops the entries for the given directory and the directories below it.
+   */
+  private synchronized void invalidateBelow(@NotNull String dirPath) {
+    if (containingRoots.isEmpty() && roots.isEmpty()) {
+      return;
+    }
+    invalidations.incrementAndGet();
+    for (Iterator<Map.Entry<VirtualFile, Object>> it = containingRoots.entrySet().iterator(); it.hasNext(); ) {
+      final Map.Entry<VirtualFile, Object> entry = it.next();
+      final VirtualFile dir = entry.getKey();
+      if (!dir.isValid() || isAtOrBelow(dir.getPath(), dirPath)) {
+        removeFromGroup(dir, entry.getValue());
+        it.remove();
+      }
+    }
+    roots.keySet().removeIf((path) -> isAtOrBelow(path, dirPath));
+  }
+
+  private synchronized void invalidateAll() {
+    invalidations.incrementAndGet();
+    containingRoots.clear();
+    dirsByRoot.clear();
+    roots.clear();
+    contentRootsResolved = false;
+  }
+
+  /**
+   * Records the pub root containing a directory. Must be called while synchronized on this.
+   */
+  private void putContainingRoot(@NotNull VirtualFile dir, @NotNull Object root) {
+    final Object previous = containingRoots.put(dir, root);
+    if (previous != null) {
+      removeFromGroup(dir, previous);
+    }
+    dirsByRoot.computeIfAbsent(root, (key) -> new HashSet<>()).add(dir);
+  }
+
+  /**
+   * Must be called while synchronized on this.
+   */
+  private void removeFromGroup(@NotNull VirtualFile dir, @NotNull Object root) {
+    final Set<VirtualFile> dirs = dirsByRoot.get(root);
+    if (dirs != null && dirs.remove(dir) && dirs.isEmpty()) {
+      dirsByRoot.remove(root);
+    }
+  }
+
+  private static boolean isAtOrBelow(@NotNull String path, @NotNull String dirPath) {
+    return path.equals(dirPath) || (path.startsWith(dirPath) && path.charAt(dirPath.length()) == '/');
+  }
+
+  @NotNull
+  private static String parentPath(@NotNull String path) {
+    final int index = path.lastIndexOf('/');
+    return index <= 0 ? "" : path.substring(0, index);
   }
 }
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.pub;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * The Flutter-related parts of a pubspec.yaml file.
+ *
+ * @param name                the package name
+ * @param flutterDependency   whether the pubspec depends on flutter
+ * @param plugin              whether the pubspec has a "flutter: plugin:" section
+ * @param resolutionWorkspace whether the pubspec declares "resolution: workspace"
+ * @param workspace           the packages listed in the pubspec's "workspace:" section
+ * @param assets              the assets listed in the pubspec's "flutter: assets:" section
+ */
+public record PubspecMetadata(@Nullable String name,
+                              boolean flutterDependency,
+                              boolean plugin,
+                              boolean resolutionWorkspace,
+                              @NotNull List<String> workspace,
+                              @NotNull List<String> assets) {
+  public static final PubspecMetadata EMPTY = new PubspecMetadata(null, false, false, false, List.of(), List.of());
+
+  /**
+   * Returns true if the pubspec declares a flutter dependency, or is the flutter package itself.
+   */
+  public boolean declaresFlutter() {
+    // Special case the 'flutter' package itself - this allows us to run their unit tests from IntelliJ.
+    return flutterDependency || "flutter".equals(name);
+  }
+}
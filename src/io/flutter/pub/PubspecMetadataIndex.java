@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.pub;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.SingleEntryFileBasedIndexExtension;
+import com.intellij.util.indexing.SingleEntryIndexer;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexes the {@link PubspecMetadata} of each pubspec.yaml file in the project.
+ * <p>
+ * Use {@link #getMetadata(VirtualFile)} to look up a pubspec. Results are memoized on the file until it changes;
+ * pubspecs that aren't indexed, such as those in the pub cache, or that are looked up while indexing is in progress
+ * are scanned directly.
+ */
+public class PubspecMetadataIndex extends SingleEntryFileBasedIndexExtension<PubspecMetadata> {
+  public static final ID<Integer, PubspecMetadata> NAME = ID.create("io.flutter.PubspecMetadata");
+
+  private static final int VERSION = 1;
+
+  private record Memo(long stamp, @NotNull PubspecMetadata metadata) {
+  }
+
+  private static final Key<Memo> MEMO = Key.create("io.flutter.PubspecMetadata");
+
+  @NotNull
+  @Override
+  public ID<Integer, PubspecMetadata> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public SingleEntryIndexer<PubspecMetadata> getIndexer() {
+    return new SingleEntryIndexer<>(false) {
+      @Override
+      protected @Nullable PubspecMetadata computeValue(@NotNull FileContent inputData) {
+        return PubspecScanner.scan(inputData.getContentAsText());
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<PubspecMetadata> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, PubspecMetadata value) throws IOException {
+        out.writeBoolean(value.name() != null);
+        if (value.name() != null) {
+          IOUtil.writeUTF(out, value.name());
+        }
+        out.writeBoolean(value.flutterDependency());
+        out.writeBoolean(value.plugin());
+        out.writeBoolean(value.resolutionWorkspace());
+        writeList(out, value.workspace());
+        writeList(out, value.assets());
+      }
+
+      @Override
+      public PubspecMetadata read(@NotNull DataInput in) throws IOException {
+        final String name = in.readBoolean() ? IOUtil.readUTF(in) : null;
+        final boolean flutterDependency = in.readBoolean();
+        final boolean plugin = in.readBoolean();
+        final boolean resolutionWorkspace = in.readBoolean();
+        return new PubspecMetadata(name, flutterDependency, plugin, resolutionWorkspace, readList(in), readList(in));
+      }
+    };
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return file -> PubRoot.PUBSPEC_YAML.equals(file.getName());
+  }
+
+  /**
+   * Returns the metadata of the given pubspec.
+   */
+  @NotNull
+  public static PubspecMetadata getMetadata(@NotNull VirtualFile pubspec) {
+    final long stamp = pubspec.getModificationStamp();
+    final Memo memo = pubspec.getUserData(MEMO);
+    if (memo != null && memo.stamp() == stamp) {
+      return memo.metadata();
+    }
+
+    PubspecMetadata metadata = getIndexedMetadata(pubspec);
+    if (metadata == null) {
+      metadata = scan(pubspec);
+    }
+    pubspec.putUserData(MEMO, new Memo(stamp, metadata));
+    return metadata;
+  }
+
+  @Nullable
+  private static PubspecMetadata getIndexedMetadata(@NotNull VirtualFile pubspec) {
+    if (!ApplicationManager.getApplication().isReadAccessAllowed()) {
+      return null;
+    }
+    final Project project = ProjectUtil.guessProjectForFile(pubspec);
+    if (project == null || project.isDisposed() || DumbService.isDumb(project)) {
+      return null;
+    }
+    try {
+      final Map<Integer, PubspecMetadata> data = FileBasedIndex.getInstance().getFileData(NAME, pubspec, project);
+      return data.isEmpty() ? null : data.values().iterator().next();
+    }
+    catch (IndexNotReadyException e) {
+      return null;
+    }
+  }
+
+  @NotNull
+  private static PubspecMetadata scan(@NotNull VirtualFile pubspec) {
+    try {
+      return PubspecScanner.scan(new String(pubspec.contentsToByteArray(true /* cache contents */), StandardCharsets.UTF_8));
+    }
+    catch (IOException e) {
+      return PubspecMetadata.EMPTY;
+    }
+  }
+
+  private static void writeList(@NotNull DataOutput out, @NotNull List<String> values) throws IOException {
+    out.writeInt(values.size());
+    for (String value : values) {
+      IOUtil.writeUTF(out, value);
+    }
+  }
+
+  @NotNull
+  private static List<String> readList(@NotNull DataInput in) throws IOException {
+    final int size = in.readInt();
+    final List<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(IOUtil.readUTF(in));
+    }
+    return List.copyOf(values);
+  }
+}
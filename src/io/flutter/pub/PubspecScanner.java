@@ -0,0 +1,303 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.pub;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads {@link PubspecMetadata} from the text of a pubspec.yaml file.
+ * <p>
+ * This isn't a YAML parser: it reads the file line by line and only looks at the top-level keys it needs and the keys
+ * directly below them. That covers the block and flow styles that pubspecs are written in, without building a
+ * document tree.
+ */
+final class PubspecScanner {
+  private PubspecScanner() {
+  }
+
+  @NotNull
+  static PubspecMetadata scan(@NotNull CharSequence text) {
+    String name = null;
+    boolean flutterDependency = false;
+    boolean plugin = false;
+    boolean resolutionWorkspace = false;
+    final List<String> workspace = new ArrayList<>();
+    final List<String> assets = new ArrayList<>();
+
+    // The current top-level key, the indentation of the keys below it, the current key below it, and the
+    // indentation of that key's items.
+    String section = null;
+    int childIndent = -1;
+    String child = null;
+    int itemIndent = -1;
+
+    int lineStart = 0;
+    while (lineStart < text.length()) {
+      int lineEnd = lineStart;
+      while (lineEnd < text.length() && text.charAt(lineEnd) != '\n') {
+        lineEnd++;
+      }
+      final String line = text.subSequence(lineStart, lineEnd).toString();
+      lineStart = lineEnd + 1;
+
+      int indent = 0;
+      while (indent < line.length() && line.charAt(indent) == ' ') {
+        indent++;
+      }
+      final String content = stripComment(line.substring(indent)).trim();
+      if (content.isEmpty() || content.equals("---")) {
+        continue;
+      }
+
+      final boolean isItem = content.equals("-") || content.startsWith("- ");
+      if (indent == 0 && !isItem) {
+        // A top-level key, such as "name: my_app".
+        section = keyOf(content);
+        childIndent = -1;
+        child = null;
+        itemIndent = -1;
+        final String value = valueOf(content);
+        if (section == null) {
+          continue;
+        }
+        switch (section) {
+          case "name" -> name = value.isEmpty() ? null : unquote(value);
+          case "resolution" -> resolutionWorkspace = unquote(value).equals("workspace");
+          case "dependencies" -> flutterDependency |= flowKeys(value).contains("flutter");
+          case "flutter" -> plugin |= flowKeys(value).contains("plugin");
+          case "workspace" -> workspace.addAll(flowItems(value));
+        }
+        continue;
+      }
+      if (section == null) {
+        continue;
+      }
+
+      if (childIndent < 0 && !(indent == 0 && isItem)) {
+        childIndent = indent;
+      }
+      if (isItem && (indent == 0 || (indent == childIndent && child == null))) {
+        // An item directly below the top-level key, such as "  - packages/a" below "workspace:".
+        if (section.equals("workspace")) {
+          addItem(workspace, content);
+        }
+        continue;
+      }
+      if (indent == childIndent && !isItem) {
+        // A key below the top-level key, such as "  plugin:" below "flutter:".
+        child = keyOf(content);
+        itemIndent = -1;
+        if (child == null) {
+          continue;
+        }
+        final String value = valueOf(content);
+        if (section.equals("dependencies") && child.equals("flutter")) {
+          flutterDependency = true;
+        }
+        else if (section.equals("flutter") && child.equals("plugin")) {
+          plugin = true;
+        }
+        else if (section.equals("flutter") && child.equals("assets")) {
+          assets.addAll(flowItems(value));
+        }
+        continue;
+      }
+      if (indent >= childIndent && section.equals("flutter") && "assets".equals(child)) {
+        // An asset, either "- images/" or "- path: images/" (with other keys, like "flavors:", below it).
+        if (isItem && itemIndent < 0) {
+          itemIndent = indent;
+        }
+        if (isItem && indent == itemIndent) {
+          addItem(assets, content);
+        }
+        else if ("path".equals(keyOf(content))) {
+          assets.add(unquote(valueOf(content)));
+        }
+      }
+    }
+
+    return new PubspecMetadata(name, flutterDependency, plugin, resolutionWorkspace, List.copyOf(workspace), List.copyOf(assets));
+  }
+
+  /**
+   * Adds the value of a sequence item, such as "- images/" or "- path: images/".
+   */
+  private static void addItem(@NotNull List<String> items, @NotNull String content) {
+    final String item = content.substring(1).trim();
+    if (item.isEmpty()) {
+      return;
+    }
+    final String key = keyOf(item);
+    if (key == null) {
+      items.add(unquote(item));
+    }
+    else if (key.equals("path")) {
+      items.add(unquote(valueOf(item)));
+    }
+  }
+
+  /**
+   * Returns the key of a "key: value" line, or null if it isn't one.
+   */
+  @Nullable
+  private static String keyOf(@NotNull String content) {
+    final int colon = findColon(content);
+    return colon < 0 ? null : unquote(content.substring(0, colon).trim());
+  }
+
+  /**
+   * Returns the value of a "key: value" line, or the empty string.
+   */
+  @NotNull
+  private static String valueOf(@NotNull String content) {
+    final int colon = findColon(content);
+    return colon < 0 ? "" : content.substring(colon + 1).trim();
+  }
+
+  /**
+   * Returns the offset of the colon that ends a key: one followed by a space or the end of the line, outside quotes.
+   */
+  private static int findColon(@NotNull String content) {
+    char quote = 0;
+    for (int i = 0; i < content.length(); i++) {
+      final char c = content.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      }
+      else if (opensQuote(content, i)) {
+        quote = c;
+      }
+      else if (c == ':' && (i + 1 == content.length() || content.charAt(i + 1) == ' ')) {
+        return i;
+      }
+      else if (c == '{' || c == '[') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  @NotNull
+  private static String stripComment(@NotNull String content) {
+    char quote = 0;
+    for (int i = 0; i < content.length(); i++) {
+      final char c = content.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      }
+      else if (opensQuote(content, i)) {
+        quote = c;
+      }
+      else if (c == '#' && (i == 0 || content.charAt(i - 1) == ' ' || content.charAt(i - 1) == '\t')) {
+        return content.substring(0, i);
+      }
+    }
+    return content;
+  }
+
+  /**
+   * Returns true if the character at the given offset starts a quoted scalar, rather than being an apostrophe.
+   */
+  private static boolean opensQuote(@NotNull String content, int index) {
+    final char c = content.charAt(index);
+    return (c == '"' || c == '\'') && (index == 0 || " \t:,[{".indexOf(content.charAt(index - 1)) >= 0);
+  }
+
+  @NotNull
+  private static String unquote(@NotNull String value) {
+    if (value.length() >= 2) {
+      final char first = value.charAt(0);
+      if ((first == '"' || first == '\'') && value.charAt(value.length() - 1) == first) {
+        return value.substring(1, value.length() - 1);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Returns the keys of a flow mapping, such as "{flutter: {sdk: flutter}, http: ^1.0.0}".
+   */
+  @NotNull
+  private static List<String> flowKeys(@NotNull String value) {
+    final List<String> keys = new ArrayList<>();
+    if (!value.startsWith("{")) {
+      return keys;
+    }
+    for (String entry : flowEntries(value)) {
+      final int colon = entry.indexOf(':');
+      keys.add(unquote((colon < 0 ? entry : entry.substring(0, colon)).trim()));
+    }
+    return keys;
+  }
+
+  /**
+   * Returns the items of a flow sequence, such as "[images/, fonts/]".
+   */
+  @NotNull
+  private static List<String> flowItems(@NotNull String value) {
+    final List<String> items = new ArrayList<>();
+    if (!value.startsWith("[")) {
+      return items;
+    }
+    for (String entry : flowEntries(value)) {
+      items.add(unquote(entry));
+    }
+    return items;
+  }
+
+  /**
+   * Splits a flow collection into its top-level entries.
+   */
+  @NotNull
+  private static List<String> flowEntries(@NotNull String value) {
+    final List<String> entries = new ArrayList<>();
+    int depth = 0;
+    int start = 1;
+    char quote = 0;
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      switch (c) {
+        case '"', '\'' -> quote = c;
+        case '{', '[' -> depth++;
+        case '}', ']' -> {
+          depth--;
+          if (depth == 0) {
+            addEntry(entries, value.substring(start, i));
+            return entries;
+          }
+        }
+        case ',' -> {
+          if (depth == 1) {
+            addEntry(entries, value.substring(start, i));
+            start = i + 1;
+          }
+        }
+      }
+    }
+    return entries;
+  }
+
+  private static void addEntry(@NotNull List<String> entries, @NotNull String entry) {
+    entry = entry.trim();
+    if (!entry.isEmpty()) {
+      entries.add(entry);
+    }
+  }
+}
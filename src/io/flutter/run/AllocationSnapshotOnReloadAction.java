@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Turns taking an allocation snapshot after each hot reload on and off.
+ */
+public class AllocationSnapshotOnReloadAction extends ToggleAction implements DumbAware {
+  @NotNull private final AllocationTracker tracker;
+
+  AllocationSnapshotOnReloadAction(@NotNull AllocationTracker tracker) {
+    super("Take Allocation Snapshot on Hot Reload");
+    this.tracker = tracker;
+  }
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public boolean isSelected(@NotNull AnActionEvent e) {
+    return tracker.isSnapshotOnReload();
+  }
+
+  @Override
+  public void setSelected(@NotNull AnActionEvent e, boolean state) {
+    tracker.setSnapshotOnReload(state);
+  }
+}
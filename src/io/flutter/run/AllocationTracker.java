@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.intellij.execution.ui.ConsoleView;
+import com.intellij.execution.ui.ConsoleViewContentType;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.text.StringUtil;
+import io.flutter.logging.PluginLogger;
+import io.flutter.run.daemon.FlutterApp;
+import io.flutter.vmService.AllocationSnapshots;
+import io.flutter.vmService.VMServiceManager;
+import io.flutter.vmService.VmServiceWrapper;
+import org.dartlang.vm.service.element.IsolateRef;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes allocation snapshots of an app and prints the classes whose live instances grew since the previous snapshot to
+ * the app's console.
+ * <p>
+ * Snapshots are taken on request, and after each hot reload if {@link #setSnapshotOnReload} is on, which makes
+ * instances that survive repeated navigation easy to spot.
+ */
+class AllocationTracker implements Disposable, FlutterApp.FlutterAppListener {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(AllocationTracker.class);
+
+  private static final int REQUEST_TIMEOUT_SECONDS = 30;
+
+  /**
+   * The number of classes printed for a snapshot.
+   */
+  private static final int MAX_CLASSES = 25;
+
+  @NotNull private final FlutterApp app;
+  @NotNull private final AllocationSnapshots snapshots = new AllocationSnapshots();
+  @NotNull private final AtomicInteger snapshotCount = new AtomicInteger();
+  @NotNull private final AtomicBoolean requestInFlight = new AtomicBoolean();
+  private volatile boolean snapshotOnReload;
+
+  AllocationTracker(@NotNull FlutterApp app) {
+    this.app = app;
+    app.addStateListener(this);
+  }
+
+  boolean isSnapshotOnReload() {
+    return snapshotOnReload;
+  }
+
+  void setSnapshotOnReload(boolean snapshotOnReload) {
+    this.snapshotOnReload = snapshotOnReload;
+  }
+
+  @Override
+  public void notifyAppReloaded() {
+    if (snapshotOnReload) {
+      takeSnapshot("hot reload");
+    }
+  }
+
+  @Override
+  public void notifyAppRestarted() {
+    // The restarted app runs in a new isolate, so its classes can't be compared with the old ones.
+    snapshots.clear();
+  }
+
+  @Override
+  public void dispose() {
+    app.removeStateListener(this);
+  }
+
+  /**
+   * Takes a snapshot of the current isolate, after a garbage collection so that only reachable instances are counted.
+   */
+  void takeSnapshot(@NotNull String reason) {
+    final VmServiceWrapper wrapper = getVmServiceWrapper();
+    final IsolateRef isolate = getIsolate();
+    if (wrapper == null || isolate == null || !requestInFlight.compareAndSet(false, true)) {
+      return;
+    }
+
+    wrapper.getAllocationProfile(isolate.getId(), true)
+      .orTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+      .whenComplete((profile, error) -> {
+        try {
+          if (error != null) {
+            LOG.info("Unable to get allocation profile: " + error.getMessage());
+            return;
+          }
+          if (profile == null) {
+            return;
+          }
+          final String label = "Allocation snapshot " + snapshotCount.incrementAndGet() + " (" + reason + ")";
+          final AllocationSnapshots.Snapshot snapshot = snapshots.add(profile, label, System.currentTimeMillis());
+          print(snapshot);
+        }
+        finally {
+          requestInFlight.set(false);
+        }
+      });
+  }
+
+  private void print(@NotNull AllocationSnapshots.Snapshot snapshot) {
+    final ConsoleView console = app.getConsole();
+    if (console == null) {
+      return;
+    }
+
+    final AllocationSnapshots.Snapshot previous = snapshots.getPrevious(snapshot);
+    if (previous == null) {
+      console.print(snapshot.label() + ": taken; the next snapshot will be compared with it.\n",
+                    ConsoleViewContentType.SYSTEM_OUTPUT);
+      return;
+    }
+
+    final List<AllocationSnapshots.ClassDelta> deltas = snapshots.diff(previous, snapshot);
+    final StringBuilder text = new StringBuilder();
+    text.append(snapshot.label()).append(": live instances changed since ").append(previous.label()).append(":\n");
+    int grown = 0;
+    int shown = 0;
+    for (AllocationSnapshots.ClassDelta delta : deltas) {
+      if (!delta.grew()) {
+        continue;
+      }
+      grown++;
+      if (shown == MAX_CLASSES) {
+        continue;
+      }
+      text.append(String.format(Locale.ROOT, "  %+8d instances %10s  %s (%d live, %s)\n",
+                                delta.instancesDelta(),
+                                formatBytesDelta(delta.bytesDelta()),
+                                delta.name(),
+                                delta.instances(),
+                                StringUtil.formatFileSize(delta.bytes())));
+      shown++;
+    }
+    if (shown == 0) {
+      text.append("  no classes grew\n");
+    }
+    else if (grown > shown) {
+      text.append("  ").append(grown - shown).append(" more classes grew\n");
+    }
+    console.print(text.toString(), ConsoleViewContentType.SYSTEM_OUTPUT);
+  }
+
+  @NotNull
+  private static String formatBytesDelta(long bytes) {
+    return (bytes < 0 ? "-" : "+") + StringUtil.formatFileSize(Math.abs(bytes));
+  }
+
+  @Nullable
+  private VmServiceWrapper getVmServiceWrapper() {
+    final FlutterDebugProcess debugProcess = app.getFlutterDebugProcess();
+    return debugProcess == null ? null : debugProcess.getVmServiceWrapper();
+  }
+
+  @Nullable
+  private IsolateRef getIsolate() {
+    final VMServiceManager manager = app.getVMServiceManager();
+    return manager == null ? null : manager.getCurrentFlutterIsolateRaw();
+  }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.google.gson.JsonObject;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.impl.DocumentMarkupModel;
+import com.intellij.openapi.editor.markup.GutterIconRenderer;
+import com.intellij.openapi.editor.markup.HighlighterLayer;
+import com.intellij.openapi.editor.markup.MarkupModel;
+import com.intellij.openapi.editor.markup.RangeHighlighter;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.xdebugger.XSourcePosition;
+import io.flutter.logging.PluginLogger;
+import io.flutter.run.daemon.FlutterApp;
+import io.flutter.vmService.CpuProfile;
+import io.flutter.vmService.VMServiceManager;
+import io.flutter.vmService.VmServiceWrapper;
+import org.dartlang.vm.service.element.IsolateRef;
+import org.dartlang.vm.service.element.ScriptRef;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.Icon;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Samples a running app's CPU usage and marks the hottest functions in the gutters of the open editors.
+ * <p>
+ * Samples are fetched for the time since the previous poll and folded into a {@link CpuProfile}, so the capture can
+ * run for as long as needed. The VM reports ticks per function, so each mark is on the line that declares the function.
+ */
+class CpuProfileOverlay implements Disposable {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(CpuProfileOverlay.class);
+
+  private static final int POLL_SECONDS = 1;
+  private static final int REQUEST_TIMEOUT_SECONDS = 10;
+
+  /**
+   * The number of functions marked, and the share of the samples a function needs to be marked.
+   */
+  private static final int MAX_MARKS = 40;
+  private static final double MIN_PERCENT = 0.5;
+
+  /**
+   * Long enough to cover everything since the previous poll; the VM stops at the latest sample.
+   */
+  private static final long TIME_EXTENT_MICROS = TimeUnit.HOURS.toMicros(1);
+
+  @NotNull private final FlutterApp app;
+  @NotNull private final Project project;
+  @NotNull private final CpuProfile profile = new CpuProfile();
+
+  /**
+   * Where each function is declared, by its profile name and token position; empty if it isn't in a local file.
+   */
+  @NotNull private final Map<String, Optional<XSourcePosition>> positions = new HashMap<>();
+  @Nullable private String positionsIsolateId;
+
+  /**
+   * Set when a reload moves the token positions of the app's scripts.
+   */
+  @NotNull private final AtomicBoolean positionsStale = new AtomicBoolean();
+
+  @NotNull private final FlutterApp.FlutterAppListener reloadListener = new FlutterApp.FlutterAppListener() {
+    @Override
+    public void notifyAppReloaded() {
+      positionsStale.set(true);
+    }
+
+    @Override
+    public void notifyAppRestarted() {
+      positionsStale.set(true);
+    }
+  };
+
+  @NotNull private final AtomicBoolean requestInFlight = new AtomicBoolean();
+  private volatile long nextOrigin = -1;
+  private volatile boolean disposed;
+  @Nullable private ScheduledFuture<?> timer;
+
+  /**
+   * The gutter marks currently shown. Only accessed on the EDT.
+   */
+  @NotNull private final List<RangeHighlighter> highlighters = new ArrayList<>();
+
+  CpuProfileOverlay(@NotNull FlutterApp app) {
+    this.app = app;
+    this.project = app.getProject();
+  }
+
+  void start() {
+    final VmServiceWrapper wrapper = getVmServiceWrapper();
+    if (wrapper == null) {
+      return;
+    }
+    // Only count samples taken from now on.
+    wrapper.getVMTimelineMicros().orTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS).whenComplete((now, error) -> {
+      if (error != null) {
+        LOG.info("Unable to start CPU profiling: " + error.getMessage());
+        return;
+      }
+      nextOrigin = now;
+    });
+    app.addStateListener(reloadListener);
+    timer = AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(
+      this::poll, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void dispose() {
+    disposed = true;
+    app.removeStateListener(reloadListener);
+    if (timer != null) {
+      timer.cancel(false);
+      timer = null;
+    }
+    ApplicationManager.getApplication().invokeLater(this::removeHighlighters);
+  }
+
+  private void poll() {
+    final VmServiceWrapper wrapper = getVmServiceWrapper();
+    final IsolateRef isolate = getIsolate();
+    final long origin = nextOrigin;
+    if (disposed || wrapper == null || isolate == null || origin < 0 || !requestInFlight.compareAndSet(false, true)) {
+      return;
+    }
+
+    wrapper.getCpuSamples(isolate.getId(), origin, TIME_EXTENT_MICROS)
+      .orTimeout(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+      .whenCompleteAsync((response, error) -> {
+        try {
+          if (error != null) {
+            LOG.info("Unable to get CPU samples: " + error.getMessage());
+            return;
+          }
+          final long end = profile.add(response);
+          if (end >= origin) {
+            // The time range includes its end, so start just past it.
+            nextOrigin = end + 1;
+          }
+          updateMarks(isolate.getId());
+        }
+        finally {
+          requestInFlight.set(false);
+        }
+      }, AppExecutorUtil.getAppExecutorService());
+  }
+
+  /**
+   * Maps the hottest functions to their lines and shows them. Called off the EDT, since finding a position may download
+   * the script.
+   */
+  private void updateMarks(@NotNull String isolateId) {
+    final FlutterDebugProcess debugProcess = app.getFlutterDebugProcess();
+    final long samples = profile.getSampleCount();
+    if (debugProcess == null || samples == 0 || disposed) {
+      return;
+    }
+
+    if (positionsStale.getAndSet(false) || !isolateId.equals(positionsIsolateId)) {
+      // Token positions belong to the isolate's scripts, as loaded.
+      positions.clear();
+      positionsIsolateId = isolateId;
+    }
+
+    final Map<Line, Mark> marks = new LinkedHashMap<>();
+    for (CpuProfile.FunctionStats function : profile.getHottest(MAX_MARKS)) {
+      final double self = 100.0 * function.selfTicks() / samples;
+      final double total = 100.0 * function.totalTicks() / samples;
+      if (Math.max(self, total) < MIN_PERCENT || function.script() == null || function.tokenPos() < 0) {
+        continue;
+      }
+      final JsonObject script = function.script();
+      final Optional<XSourcePosition> position = positions.computeIfAbsent(
+        script.get("uri") + "#" + function.tokenPos() + "#" + function.name(),
+        (key) -> Optional.ofNullable(debugProcess.getSourcePosition(isolateId, new ScriptRef(script), function.tokenPos())));
+      if (position.isEmpty()) {
+        continue;
+      }
+      marks.computeIfAbsent(new Line(position.get().getFile(), position.get().getLine()), (key) -> new Mark())
+        .add(function.name(), self, total);
+    }
+
+    ApplicationManager.getApplication().invokeLater(() -> showMarks(marks.entrySet()), project.getDisposed());
+  }
+
+  private void showMarks(@NotNull Iterable<Map.Entry<Line, Mark>> marks) {
+    removeHighlighters();
+    if (disposed) {
+      return;
+    }
+    final FileEditorManager editorManager = FileEditorManager.getInstance(project);
+    for (Map.Entry<Line, Mark> entry : marks) {
+      final VirtualFile file = entry.getKey().file();
+      if (!editorManager.isFileOpen(file)) {
+        continue;
+      }
+      final Document document = FileDocumentManager.getInstance().getDocument(file);
+      final int line = entry.getKey().line();
+      if (document == null || line < 0 || line >= document.getLineCount()) {
+        continue;
+      }
+      final MarkupModel markupModel = DocumentMarkupModel.forDocument(document, project, true);
+      final RangeHighlighter highlighter = markupModel.addLineHighlighter(line, HighlighterLayer.ADDITIONAL_SYNTAX, null);
+      highlighter.setGutterIconRenderer(new HotFunctionRenderer(entry.getValue().getText()));
+      highlighters.add(highlighter);
+    }
+  }
+
+  private void removeHighlighters() {
+    for (RangeHighlighter highlighter : highlighters) {
+      highlighter.dispose();
+    }
+    highlighters.clear();
+  }
+
+  @Nullable
+  private VmServiceWrapper getVmServiceWrapper() {
+    final FlutterDebugProcess debugProcess = app.getFlutterDebugProcess();
+    return debugProcess == null ? null : debugProcess.getVmServiceWrapper();
+  }
+
+  @Nullable
+  private IsolateRef getIsolate() {
+    final VMServiceManager manager = app.getVMServiceManager();
+    return manager == null ? null : manager.getCurrentFlutterIsolateRaw();
+  }
+
+  private record Line(@NotNull VirtualFile file, int line) {
+  }
+
+  /**
+   * The functions declared on one line.
+   */
+  private static final class Mark {
+    private final StringBuilder text = new StringBuilder();
+
+    void add(@NotNull String name, double self, double total) {
+      if (!text.isEmpty()) {
+        text.append("<br>");
+      }
+      text.append(StringUtil.escapeXmlEntities(name)).append(": ").append(String.format(Locale.ROOT, "%.1f%% self, %.1f%% total", self, total));
+    }
+
+    @NotNull
+    String getText() {
+      return text.toString();
+    }
+  }
+
+  private static final class HotFunctionRenderer extends GutterIconRenderer {
+    @NotNull private final String tooltip;
+
+    HotFunctionRenderer(@NotNull String tooltip) {
+      this.tooltip = tooltip;
+    }
+
+    @NotNull
+    @Override
+    public Icon getIcon() {
+      return AllIcons.Actions.Lightning;
+    }
+
+    @NotNull
+    @Override
+    public String getTooltipText() {
+      return "<html>CPU samples<br>" + tooltip + "</html>";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof HotFunctionRenderer other && Objects.equals(tooltip, other.tooltip);
+    }
+
+    @Override
+    public int hashCode() {
+      return tooltip.hashCode();
+    }
+  }
+}
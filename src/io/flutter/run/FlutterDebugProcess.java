@@ -16,6 +16,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.progress.ProcessCanceledException;
 import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.ui.content.Content;
 import com.intellij.xdebugger.XDebugSession;
 import com.intellij.xdebugger.XDebuggerBundle;
@@ -113,10 +114,15 @@ public class FlutterDebugProcess extends DartVmServiceDebugProcess {
     topToolbar.addAction(new RestartFlutterApp(app, canReload));
     topToolbar.addSeparator();
     topToolbar.addAction(new OpenDevToolsAction(app, debugUrlAvailable));
+    topToolbar.addAction(new ProfileInEditorAction(app, isSessionActive));
+    final AllocationTracker allocationTracker = new AllocationTracker(app);
+    Disposer.register(app, allocationTracker);
+    topToolbar.addAction(new TakeAllocationSnapshotAction(allocationTracker, isSessionActive));
     FlutterDebugProcessActions.addTopToolbarExtensionActions(topToolbar);
 
     settings.addAction(new ReloadAllFlutterApps(app, canReload));
     settings.addAction(new RestartAllFlutterApps(app, canReload));
+    settings.addAction(new AllocationSnapshotOnReloadAction(allocationTracker));
     // Don't call super since we have our own observatory action.
   }
 
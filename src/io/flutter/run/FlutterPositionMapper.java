@@ -33,12 +33,13 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Converts positions between Dart files in Observatory and local Dart files.
@@ -101,7 +102,7 @@ public class FlutterPositionMapper implements DartVmServiceDebugProcess.Position
   /**
    * A cache containing each file version downloaded from Observatory. The key is an isolate id.
    */
-  private final Map<String, ObservatoryFile.Cache> fileCache = new HashMap<>();
+  private final Map<String, ObservatoryFile.Cache> fileCache = new ConcurrentHashMap<>();
 
   public FlutterPositionMapper(@NotNull Project project,
                                @NotNull VirtualFile sourceRoot,
@@ -295,6 +296,26 @@ public class FlutterPositionMapper implements DartVmServiceDebugProcess.Position
     return remote.createPosition(local, tokenPos);
   }
 
+  /**
+   * Downloads the given scripts concurrently, each with a snapshot if there is no corresponding local file.
+   */
+  @Override
+  @NotNull
+  public CompletableFuture<Void> prefetchScripts(@NotNull final String isolateId, @NotNull final Collection<ScriptRef> scripts) {
+    if (scriptProvider == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final Map<String, Boolean> wantSnapshots = new LinkedHashMap<>();
+    for (ScriptRef script : scripts) {
+      wantSnapshots.putIfAbsent(script.getId(), findLocalFile(script.getUri(), null) == null);
+    }
+
+    final ObservatoryFile.Cache cache =
+      fileCache.computeIfAbsent(isolateId, (id) -> new ObservatoryFile.Cache(id, scriptProvider));
+    return cache.prefetch(wantSnapshots);
+  }
+
   @VisibleForTesting
   @Nullable
   String getRemoteSourceRoot() {
@@ -23,13 +23,12 @@ import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
-import com.intellij.openapi.editor.EditorFactory;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.fileEditor.FileDocumentManagerListener;
-import com.intellij.openapi.fileEditor.FileEditor;
-import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.ui.popup.Balloon;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
@@ -55,13 +54,18 @@ import io.flutter.run.common.RunMode;
 import io.flutter.run.daemon.FlutterApp;
 import io.flutter.settings.FlutterSettings;
 import io.flutter.utils.FlutterModuleUtils;
+import io.flutter.utils.LatencyHistogram;
 import io.flutter.utils.OpenApiUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -100,6 +104,14 @@ public class FlutterReloadManager {
 
   private Notification lastNotification;
 
+  /**
+   * How long a save waits for more saves before triggering a hot reload, and the longest it waits.
+   */
+  private static final long SAVE_RELOAD_DELAY_MS = 200;
+  private static final long SAVE_RELOAD_MAX_DELAY_MS = 1000;
+
+  private final Map<FlutterApp, ReloadScheduler<Document>> schedulers = new ConcurrentHashMap<>();
+
   /**
    * Initialize the reload manager for the given project.
    */
@@ -170,66 +182,32 @@ public class FlutterReloadManager {
         if (!FlutterSettings.getInstance().isReloadOnSave()) return;
         if (myProject.isDisposed()) return;
         if (!FlutterModuleUtils.hasFlutterModule(myProject)) return;
-        // The "Save files if the IDE is idle ..." option runs whether there are any changes or not.
-        boolean isModified = false;
-        final FileEditorManager fileEditorManager = FileEditorManager.getInstance(myProject);
-        if (fileEditorManager != null) {
-          for (FileEditor fileEditor : fileEditorManager.getAllEditors()) {
-            if (fileEditor != null && fileEditor.isModified()) {
-              isModified = true;
-              break;
-            }
+        // The "Save files if the IDE is idle ..." option runs whether there are any changes or not. Only the documents
+        // about to be saved can have changed since the last reload.
+        final List<Document> documents = new ArrayList<>();
+        for (Document document : FileDocumentManager.getInstance().getUnsavedDocuments()) {
+          final VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+          if (file != null && isReloadSource(file)) {
+            documents.add(document);
           }
-          if (!isModified) return;
         }
+        if (documents.isEmpty()) return;
 
-        OpenApiUtils.safeInvokeLater(() -> {
-          // Find a Dart editor to trigger the reload.
-          final Editor anEditor = OpenApiUtils.safeRunReadAction(() -> {
-            Editor someEditor = null;
-            final EditorFactory editorFactory = EditorFactory.getInstance();
-            if (editorFactory != null) {
-              for (Editor editor : editorFactory.getAllEditors()) {
-                if (editor == null || editor.isDisposed() || editor.getProject() != myProject) {
-                  continue;
-                }
-                final PsiFile psiFile = PsiDocumentManager.getInstance(myProject).getPsiFile(editor.getDocument());
-                if (psiFile instanceof DartFile && someEditor == null) {
-                  someEditor = editor;
-                }
-                if (null != PsiTreeUtil.findChildOfType(psiFile, PsiErrorElement.class, false)) {
-                  // The Dart plugin may create empty files that it then claims have a syntax error. Ignore them.
-                  if (editor.getDocument().getTextLength() != 0) {
-                    // If there are analysis errors we want to silently exit, without showing a notification.
-                    return null;
-                  }
-                }
-              }
-            }
-            return someEditor;
-          });
-          handleSaveAllNotification(anEditor);
-        }, ModalityState.any());
+        // Request the reload once the documents are saved.
+        OpenApiUtils.safeInvokeLater(() -> requestReload(documents), ModalityState.any());
       }
     });
   }
 
   private void handleSaveAllNotification(@Nullable Editor editor) {
-    if (!FlutterSettings.getInstance().isReloadOnSave() || editor == null) {
+    if (!FlutterSettings.getInstance().isReloadOnSave() || editor == null || editor.isDisposed()) {
       return;
     }
 
-    @NotNull String configPath = PathManager.getConfigDir().toString();
-    if (SystemInfo.isWindows) {
-      configPath = configPath.replace('\\', '/');
-    }
     @Nullable VirtualFile file = FileDocumentManager.getInstance().getFile(editor.getDocument());
-    if (file == null) {
+    if (file == null || !isReloadSource(file)) {
       return;
     }
-    if (file.getPath().startsWith(configPath)) {
-      return; // Ignore changes to scratch files.
-    }
     if (System.currentTimeMillis() - file.getTimeStamp() > 500) {
       // If the file was saved in the last half-second, assume it should trigger hot reload
       // because it was probably just saved before this notification was generated.
@@ -237,6 +215,29 @@ public class FlutterReloadManager {
       return;
     }
 
+    requestReload(List.of(editor.getDocument()));
+  }
+
+  /**
+   * Returns true if saving the file should trigger a hot reload.
+   */
+  private boolean isReloadSource(@NotNull VirtualFile file) {
+    @NotNull String configPath = PathManager.getConfigDir().toString();
+    if (SystemInfo.isWindows) {
+      configPath = configPath.replace('\\', '/');
+    }
+    if (file.getPath().startsWith(configPath)) {
+      return false; // Ignore changes to scratch files.
+    }
+    return OpenApiUtils.safeRunReadAction(() -> !myProject.isDisposed() && ProjectFileIndex.getInstance(myProject).isInContent(file));
+  }
+
+  /**
+   * Requests a hot reload of the current app for changes to the given documents.
+   * <p>
+   * Saves in quick succession, as from auto-save and formatters, are coalesced into one reload.
+   */
+  private void requestReload(@NotNull List<Document> documents) {
     final AnAction reloadAction = ProjectActions.getAction(myProject, ReloadFlutterApp.ID);
     final FlutterApp app = getApp(reloadAction);
     if (app == null) {
@@ -247,55 +248,90 @@ public class FlutterReloadManager {
       return;
     }
 
-    if (!app.isStarted() || app.isReloading()) {
+    if (!app.isStarted()) {
       return;
     }
 
-    // Transition the app to an about-to-reload state.
-    final FlutterApp.State previousAppState = app.transitionStartingHotReload();
+    getScheduler(app).request(documents);
+  }
 
-    JobScheduler.getScheduler().schedule(() -> {
-      clearLastNotification();
+  @NotNull
+  private ReloadScheduler<Document> getScheduler(@NotNull FlutterApp app) {
+    return schedulers.computeIfAbsent(app, (key) -> {
+      final ReloadScheduler<Document> scheduler =
+        new ReloadScheduler<>(JobScheduler.getScheduler(), SAVE_RELOAD_DELAY_MS, SAVE_RELOAD_MAX_DELAY_MS, new ReloadScheduler.Target<>() {
+          @Override
+          public boolean isBusy() {
+            return app.isReloading();
+          }
 
-      if (!app.isConnected()) {
-        return;
-      }
+          @Override
+          public @Nullable CompletableFuture<?> reload(@NotNull Set<Document> documents) {
+            return reloadOnSave(app, documents);
+          }
+        });
+      Disposer.register(app, () -> {
+        schedulers.remove(app);
+        scheduler.dispose();
+        if (scheduler.getLatencies().getCount() > 0) {
+          LOG.info("Hot reloads on save: " + scheduler.getLatencies());
+        }
+      });
+      return scheduler;
+    });
+  }
 
-      // Don't reload if we find structural errors with the current file.
-      if (hasErrorsInFile(editor.getDocument())) {
-        app.cancelHotReloadState(previousAppState);
-        showAnalysisNotification("Reload not performed", "Analysis issues found", true);
+  /**
+   * Returns the durations of the hot reloads performed on save for the app, or null if there haven't been any.
+   */
+  @Nullable
+  public LatencyHistogram getReloadLatencies(@NotNull FlutterApp app) {
+    final ReloadScheduler<Document> scheduler = schedulers.get(app);
+    return scheduler == null ? null : scheduler.getLatencies();
+  }
+
+  @Nullable
+  private CompletableFuture<?> reloadOnSave(@NotNull FlutterApp app, @NotNull Set<Document> documents) {
+    clearLastNotification();
+
+    if (!app.isStarted() || !app.isConnected()) {
+      return null;
+    }
 
-        return;
+    // Don't reload if we find structural errors in the files changed since the last reload.
+    for (Document document : documents) {
+      if (hasErrorsInFile(document)) {
+        showAnalysisNotification("Reload not performed", "Analysis issues found", true);
+        return null;
       }
+    }
 
-      final Notification notification = showRunNotification(app, null, "Reloading…", false);
-      final long startTime = System.currentTimeMillis();
+    final Notification notification = showRunNotification(app, null, "Reloading…", false);
+    final long startTime = System.currentTimeMillis();
 
-      app.performHotReload(true, FlutterConstants.RELOAD_REASON_SAVE).thenAccept(result -> {
-        if (!result.ok()) {
+    return app.performHotReload(true, FlutterConstants.RELOAD_REASON_SAVE).thenAccept(result -> {
+      if (!result.ok()) {
+        if (notification != null) {
+          notification.expire();
+        }
+        showRunNotification(app, "Hot Reload Error", result.getMessage(), true);
+      }
+      else {
+        // Make sure the reloading message is displayed for at least 2 seconds (so it doesn't just flash by).
+        final long delay = Math.max(0, 2000 - (System.currentTimeMillis() - startTime));
+
+        JobScheduler.getScheduler().schedule(() -> UIUtil.invokeLaterIfNeeded(() -> {
           if (notification != null) {
             notification.expire();
           }
-          showRunNotification(app, "Hot Reload Error", result.getMessage(), true);
-        }
-        else {
-          // Make sure the reloading message is displayed for at least 2 seconds (so it doesn't just flash by).
-          final long delay = Math.max(0, 2000 - (System.currentTimeMillis() - startTime));
-
-          JobScheduler.getScheduler().schedule(() -> UIUtil.invokeLaterIfNeeded(() -> {
-            if (notification != null) {
-              notification.expire();
-            }
-
-            // If the 'Reloading…' notification is still the most recent one, then clear it.
-            if (isLastNotification(notification)) {
-              removeRunNotifications(app);
-            }
-          }), delay, TimeUnit.MILLISECONDS);
-        }
-      });
-    }, 0, TimeUnit.MILLISECONDS);
+
+          // If the 'Reloading…' notification is still the most recent one, then clear it.
+          if (isLastNotification(notification)) {
+            removeRunNotifications(app);
+          }
+        }), delay, TimeUnit.MILLISECONDS);
+      }
+    });
   }
 
   private void reloadApp(@NotNull FlutterApp app, @NotNull String reason) {
@@ -448,8 +484,12 @@ public class FlutterReloadManager {
     // will indicate to the user where the problems are.
 
     final PsiErrorElement firstError = OpenApiUtils.safeRunReadAction(() -> {
+      if (myProject.isDisposed()) {
+        return null;
+      }
       final PsiFile psiFile = PsiDocumentManager.getInstance(myProject).getPsiFile(document);
-      if (psiFile instanceof DartFile) {
+      // The Dart plugin may create empty files that it then claims have a syntax error. Ignore them.
+      if (psiFile instanceof DartFile && document.getTextLength() != 0) {
         return PsiTreeUtil.findChildOfType(psiFile, PsiErrorElement.class, false);
       }
       else {
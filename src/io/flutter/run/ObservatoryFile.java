@@ -10,18 +10,21 @@ import com.intellij.testFramework.LightVirtualFile;
 import com.intellij.util.PathUtil;
 import com.intellij.xdebugger.XDebuggerUtil;
 import com.intellij.xdebugger.XSourcePosition;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.jetbrains.lang.dart.DartFileType;
 import io.flutter.vmService.DartVmServiceDebugProcess;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.dartlang.vm.service.element.Script;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A specific version of a Dart file, as downloaded from Observatory.
@@ -34,10 +37,10 @@ import java.util.Map;
  */
 class ObservatoryFile {
   /**
-   * Maps an observatory token id to its line and column.
+   * Maps an observatory token id to its line and column, or null if the script has no token table.
    */
   @Nullable
-  private final Int2ObjectMap<Position> positionMap;
+  private final PositionTable positionTable;
 
   /**
    * User-visible source code downloaded from Observatory.
@@ -51,12 +54,13 @@ class ObservatoryFile {
   private final LightVirtualFile snapshot;
 
   ObservatoryFile(@NotNull Script script, boolean wantSnapshot) {
-    final @Nullable List<List<Integer>> tokenPosTable = script.getTokenPosTable();
-    if (tokenPosTable != null) {
-      positionMap = createPositionMap(tokenPosTable);
+    // Read the table straight from the JSON rather than through Script.getTokenPosTable(), which boxes every entry.
+    final JsonElement tokenPosTable = script.getJson().get("tokenPosTable");
+    if (tokenPosTable instanceof JsonArray table) {
+      positionTable = PositionTable.create(table);
     }
     else {
-      positionMap = null;
+      positionTable = null;
     }
     snapshot = wantSnapshot ? createSnapshot(script) : null;
   }
@@ -76,41 +80,15 @@ class ObservatoryFile {
     final VirtualFile fileToUse = local == null ? snapshot : local;
     if (fileToUse == null) return null;
 
-    if (positionMap == null) {
+    if (positionTable == null) {
       return null;
     }
 
-    final Position pos = positionMap.get(tokenPos);
-    if (pos == null) {
+    final int index = positionTable.indexOf(tokenPos);
+    if (index < 0) {
       return XDebuggerUtil.getInstance().createPositionByOffset(fileToUse, 0);
     }
-    return XDebuggerUtil.getInstance().createPosition(fileToUse, pos.line, pos.column);
-  }
-
-  /**
-   * Unpacks a position token table into a map from position id to Position.
-   * <p>
-   * <p>See <a href="https://github.com/dart-lang/vm_service_drivers/blob/master/dart/tool/service.md#scrip">docs</a>.
-   */
-  @NotNull
-  private static Int2ObjectMap<Position> createPositionMap(@NotNull final List<List<Integer>> table) {
-    final Int2ObjectMap<Position> result = new Int2ObjectOpenHashMap<>();
-
-    for (List<Integer> line : table) {
-      // Each line consists of a line number followed by (tokenId, columnNumber) pairs.
-      // Both lines and columns are one-based.
-      final Iterator<Integer> items = line.iterator();
-
-      // Convert line number from one-based to zero-based.
-      final int lineNumber = Math.max(0, items.next() - 1);
-      while (items.hasNext()) {
-        final int tokenId = items.next();
-        // Convert column from one-based to zero-based.
-        final int column = Math.max(0, items.next() - 1);
-        result.put(tokenId, new Position(lineNumber, column));
-      }
-    }
-    return result;
+    return XDebuggerUtil.getInstance().createPosition(fileToUse, positionTable.line(index), positionTable.column(index));
   }
 
   @Nullable
@@ -129,8 +107,16 @@ class ObservatoryFile {
 
   /**
    * A per-isolate cache of Observatory files.
+   * <p>
+   * Only the latest version of each file is kept, so versions replaced by a hot reload are dropped, and the
+   * number of files is bounded with least-recently-used eviction.
    */
   static class Cache {
+    /**
+     * The maximum number of files to keep for an isolate.
+     */
+    static final int MAX_FILES = 1000;
+
     @NotNull
     private final String isolateId;
 
@@ -138,10 +124,25 @@ class ObservatoryFile {
     private final DartVmServiceDebugProcess.ScriptProvider provider;
 
     /**
-     * A cache containing each file downloaded from Observatory. The key is a script id.
-     * Each version of a file is stored as a separate entry.
+     * A cache containing each file downloaded from Observatory, in least-recently-used order. The key is a script id.
+     * <p>
+     * Synchronize on this map before accessing it or {@link #latestVersions}.
+     */
+    private final Map<String, ObservatoryFile> versions = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, ObservatoryFile> eldest) {
+        if (size() <= MAX_FILES) {
+          return false;
+        }
+        latestVersions.values().remove(eldest.getKey());
+        return true;
+      }
+    };
+
+    /**
+     * The script id of the latest version downloaded for each script uri.
      */
-    private final Map<String, ObservatoryFile> versions = new HashMap<>();
+    private final Map<String, String> latestVersions = new HashMap<>();
 
     Cache(@NotNull String isolateId, @NotNull DartVmServiceDebugProcess.ScriptProvider provider) {
       this.isolateId = isolateId;
@@ -157,28 +158,156 @@ class ObservatoryFile {
      */
     @Nullable
     ObservatoryFile downloadOrGet(@NotNull String scriptId, boolean wantSnapshot) {
-      final ObservatoryFile cached = this.versions.get(scriptId);
-      if (cached != null && (cached.hasSnapshot() || !wantSnapshot)) {
+      final ObservatoryFile cached = get(scriptId, wantSnapshot);
+      if (cached != null) {
         return cached;
       }
 
       final Script script = provider.downloadScript(isolateId, scriptId);
       if (script == null) return null;
 
-      final ObservatoryFile downloaded = new ObservatoryFile(script, wantSnapshot);
-      this.versions.put(scriptId, downloaded);
-
+      final ObservatoryFile downloaded = put(scriptId, script, wantSnapshot);
       if (wantSnapshot && !downloaded.hasSnapshot()) {
         return null;
       }
       return downloaded;
     }
+
+    /**
+     * Downloads all the given scripts that aren't cached yet, concurrently.
+     * <p>
+     * The keys are script ids; each value says whether a snapshot is wanted. The returned future completes
+     * once all the downloads have finished.
+     */
+    @NotNull
+    CompletableFuture<Void> prefetch(@NotNull Map<String, Boolean> scripts) {
+      final List<CompletableFuture<?>> downloads = new ArrayList<>();
+      for (Map.Entry<String, Boolean> entry : scripts.entrySet()) {
+        final String scriptId = entry.getKey();
+        final boolean wantSnapshot = entry.getValue();
+        if (get(scriptId, wantSnapshot) != null) {
+          continue;
+        }
+
+        downloads.add(provider.downloadScriptAsync(isolateId, scriptId).thenAccept((script) -> {
+          if (script != null) {
+            put(scriptId, script, wantSnapshot);
+          }
+        }));
+      }
+      return CompletableFuture.allOf(downloads.toArray(new CompletableFuture[0]));
+    }
+
+    @Nullable
+    private ObservatoryFile get(@NotNull String scriptId, boolean wantSnapshot) {
+      synchronized (versions) {
+        final ObservatoryFile cached = versions.get(scriptId);
+        if (cached != null && (cached.hasSnapshot() || !wantSnapshot)) {
+          return cached;
+        }
+        return null;
+      }
+    }
+
+    @NotNull
+    private ObservatoryFile put(@NotNull String scriptId, @NotNull Script script, boolean wantSnapshot) {
+      final ObservatoryFile downloaded = new ObservatoryFile(script, wantSnapshot);
+      synchronized (versions) {
+        versions.put(scriptId, downloaded);
+
+        // A hot reload creates a new script id for the same uri; drop the previous version.
+        final String uri = script.getUri();
+        final String previous = uri == null ? null : latestVersions.put(uri, scriptId);
+        if (previous != null && !previous.equals(scriptId)) {
+          versions.remove(previous);
+        }
+      }
+      return downloaded;
+    }
   }
 
   /**
-   * @param line   zero-based
-   * @param column zero-based
+   * A table of token positions, packed into primitive arrays sorted by token id.
    */
-  private record Position(int line, int column) {
+  private static class PositionTable {
+    @NotNull
+    private final int[] tokens;
+
+    /**
+     * The zero-based line and column of each token, as <code>line &lt;&lt; 32 | column</code>.
+     */
+    @NotNull
+    private final long[] positions;
+
+    private PositionTable(@NotNull int[] tokens, @NotNull long[] positions) {
+      this.tokens = tokens;
+      this.positions = positions;
+    }
+
+    /**
+     * Returns the index of the given token, or a negative number if it isn't in the table.
+     */
+    int indexOf(int token) {
+      return Arrays.binarySearch(tokens, token);
+    }
+
+    int line(int index) {
+      return (int)(positions[index] >>> 32);
+    }
+
+    int column(int index) {
+      return (int)positions[index];
+    }
+
+    /**
+     * Unpacks a position token table.
+     * <p>
+     * <p>See <a href="https://github.com/dart-lang/vm_service_drivers/blob/master/dart/tool/service.md#scrip">docs</a>.
+     */
+    @NotNull
+    static PositionTable create(@NotNull JsonArray table) {
+      int count = 0;
+      for (JsonElement line : table) {
+        count += (line.getAsJsonArray().size() - 1) / 2;
+      }
+
+      final int[] tokens = new int[count];
+      final long[] positions = new long[count];
+      int size = 0;
+      boolean sorted = true;
+
+      for (JsonElement element : table) {
+        // Each line consists of a line number followed by (tokenId, columnNumber) pairs.
+        // Both lines and columns are one-based.
+        final JsonArray line = element.getAsJsonArray();
+
+        // Convert line number from one-based to zero-based.
+        final int lineNumber = Math.max(0, line.get(0).getAsInt() - 1);
+        for (int i = 1; i + 1 < line.size(); i += 2) {
+          final int tokenId = line.get(i).getAsInt();
+          // Convert column from one-based to zero-based.
+          final int column = Math.max(0, line.get(i + 1).getAsInt() - 1);
+          if (size > 0 && tokenId <= tokens[size - 1]) {
+            sorted = false;
+          }
+          tokens[size] = tokenId;
+          positions[size] = (long)lineNumber << 32 | column;
+          size++;
+        }
+      }
+
+      if (!sorted) {
+        // Token ids normally increase through the file, so this is rare.
+        it.unimi.dsi.fastutil.Arrays.quickSort(0, size, (a, b) -> Integer.compare(tokens[a], tokens[b]), (a, b) -> {
+          final int token = tokens[a];
+          tokens[a] = tokens[b];
+          tokens[b] = token;
+          final long position = positions[a];
+          positions[a] = positions[b];
+          positions[b] = position;
+        });
+      }
+      return new PositionTable(tokens, positions);
+    }
   }
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.ToggleAction;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Disposer;
+import io.flutter.run.daemon.FlutterApp;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Turns the CPU profile overlay for an app on and off.
+ */
+public class ProfileInEditorAction extends ToggleAction implements DumbAware {
+  private static final String title = "Profile in Editor";
+
+  @NotNull private final FlutterApp app;
+  @NotNull private final Computable<Boolean> isApplicable;
+  @Nullable private CpuProfileOverlay overlay;
+
+  public ProfileInEditorAction(@NotNull FlutterApp app, @NotNull Computable<Boolean> isApplicable) {
+    super(title, "Sample the app's CPU usage and mark the hottest functions in the editor", AllIcons.Actions.Lightning);
+    this.app = app;
+    this.isApplicable = isApplicable;
+  }
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    super.update(e);
+    e.getPresentation().setEnabled(overlay != null || isApplicable.compute());
+  }
+
+  @Override
+  public synchronized boolean isSelected(@NotNull AnActionEvent e) {
+    return overlay != null;
+  }
+
+  @Override
+  public synchronized void setSelected(@NotNull AnActionEvent e, boolean state) {
+    if (state == (overlay != null)) {
+      return;
+    }
+    if (state) {
+      overlay = new CpuProfileOverlay(app);
+      // Stop profiling when the app goes away.
+      Disposer.register(app, overlay);
+      overlay.start();
+    }
+    else {
+      Disposer.dispose(overlay);
+      overlay = null;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import io.flutter.utils.LatencyHistogram;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the hot reload requests for an app, so that a burst of saves triggers a single reload.
+ * <p>
+ * A reload starts once no request has arrived for a short delay, or once the oldest waiting request has waited for
+ * the maximum delay. Requests that arrive while a reload is in flight wait for it to finish and are then handled
+ * together by one more reload. The files of a reload that the target skips are passed again with the next request.
+ *
+ * @param <F> the files changed by each request
+ */
+class ReloadScheduler<F> {
+  /**
+   * Performs the reloads for a scheduler.
+   */
+  interface Target<F> {
+    /**
+     * Returns true if the app is reloading or restarting for another reason, so the reload has to wait.
+     */
+    boolean isBusy();
+
+    /**
+     * Returns a future that completes when the reload does, or null if it shouldn't happen, for example because one of
+     * the files has syntax errors.
+     *
+     * @param files the files changed since the last reload
+     */
+    @Nullable
+    CompletableFuture<?> reload(@NotNull Set<F> files);
+  }
+
+  @NotNull private final ScheduledExecutorService executor;
+  private final long delayMillis;
+  private final long maxDelayMillis;
+  @NotNull private final Target<F> target;
+
+  @NotNull private final LatencyHistogram latencies = new LatencyHistogram();
+
+  @NotNull private Set<F> changedFiles = new LinkedHashSet<>();
+  private boolean hasRequest;
+  private long firstRequestTime;
+  @Nullable private ScheduledFuture<?> timer;
+  private boolean inFlight;
+  private boolean disposed;
+
+  ReloadScheduler(@NotNull ScheduledExecutorService executor, long delayMillis, long maxDelayMillis, @NotNull Target<F> target) {
+    this.executor = executor;
+    this.delayMillis = delayMillis;
+    this.maxDelayMillis = maxDelayMillis;
+    this.target = target;
+  }
+
+  /**
+   * Requests a reload for changes to the given files.
+   */
+  synchronized void request(@NotNull Collection<F> files) {
+    if (disposed) {
+      return;
+    }
+    if (!hasRequest) {
+      hasRequest = true;
+      firstRequestTime = System.nanoTime();
+    }
+    changedFiles.addAll(files);
+    if (!inFlight) {
+      schedule();
+    }
+  }
+
+  /**
+   * The time from the start of each reload to its completion, in milliseconds.
+   */
+  @NotNull
+  LatencyHistogram getLatencies() {
+    return latencies;
+  }
+
+  synchronized void dispose() {
+    disposed = true;
+    if (timer != null) {
+      timer.cancel(false);
+      timer = null;
+    }
+    changedFiles = new LinkedHashSet<>();
+    hasRequest = false;
+  }
+
+  private void schedule() {
+    assert Thread.holdsLock(this);
+    if (timer != null) {
+      timer.cancel(false);
+    }
+    final long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstRequestTime);
+    final long delay = Math.max(0, Math.min(delayMillis, maxDelayMillis - waited));
+    timer = executor.schedule(this::reload, delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void reload() {
+    final Set<F> files;
+    synchronized (this) {
+      timer = null;
+      if (disposed || inFlight || !hasRequest) {
+        return;
+      }
+      if (target.isBusy()) {
+        timer = executor.schedule(this::reload, delayMillis, TimeUnit.MILLISECONDS);
+        return;
+      }
+      files = changedFiles;
+      changedFiles = new LinkedHashSet<>();
+      hasRequest = false;
+      inFlight = true;
+    }
+
+    final long start = System.nanoTime();
+    final CompletableFuture<?> future;
+    try {
+      future = target.reload(files);
+    }
+    catch (RuntimeException e) {
+      finished();
+      throw e;
+    }
+    if (future == null) {
+      // Whatever stopped the reload, like a syntax error, has to be checked again once the files change.
+      synchronized (this) {
+        if (!disposed) {
+          final Set<F> retry = new LinkedHashSet<>(files);
+          retry.addAll(changedFiles);
+          changedFiles = retry;
+        }
+      }
+      finished();
+      return;
+    }
+    future.whenComplete((result, error) -> {
+      latencies.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+      finished();
+    });
+  }
+
+  private synchronized void finished() {
+    inFlight = false;
+    if (hasRequest && !disposed) {
+      schedule();
+    }
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.util.Computable;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Takes an allocation snapshot of an app and prints how it differs from the previous one.
+ */
+public class TakeAllocationSnapshotAction extends DumbAwareAction {
+  private static final String title = "Take Allocation Snapshot";
+
+  @NotNull private final AllocationTracker tracker;
+  @NotNull private final Computable<Boolean> isApplicable;
+
+  TakeAllocationSnapshotAction(@NotNull AllocationTracker tracker, @NotNull Computable<Boolean> isApplicable) {
+    super(title, "Count the app's live instances of each class and print the classes that grew since the previous snapshot",
+          AllIcons.Actions.Dump);
+    this.tracker = tracker;
+    this.isApplicable = isApplicable;
+  }
+
+  @Override
+  public @NotNull ActionUpdateThread getActionUpdateThread() {
+    return ActionUpdateThread.BGT;
+  }
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabled(isApplicable.compute());
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    tracker.takeSnapshot("manual");
+  }
+}
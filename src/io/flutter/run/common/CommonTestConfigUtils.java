@@ -10,6 +10,7 @@ import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
@@ -71,6 +72,11 @@ public abstract class CommonTestConfigUtils {
 
   private final Map<String, OutlineCache> cache = new HashMap<>();
 
+  private record IndexedTests(long stamp, @NotNull Map<Integer, TestType> callToTestType) {
+  }
+
+  private static final Key<IndexedTests> INDEXED_TESTS = Key.create("io.flutter.IndexedTests");
+
   private void clearCachedInfo(String path) {
     synchronized (this) {
       cache.remove(path);
@@ -85,7 +91,7 @@ public abstract class CommonTestConfigUtils {
     final Project project = file.getProject();
     final ActiveEditorsOutlineService outlineService = getActiveEditorsOutlineService(project);
     if (outlineService == null) {
-      return new HashMap<>();
+      return getTestsFromIndex(file);
     }
 
     final FlutterOutline outline = outlineService.getIfUpdated(file);
@@ -95,14 +101,14 @@ public abstract class CommonTestConfigUtils {
       final OutlineCache entry = cache.get(path);
       outlineOutdated = cache.containsKey(path) && outline != entry.outline;
     }
-    // If the outline is outdated, then request a new pass to generate line markers.
+    // If the outline is outdated, then request a new pass to generate line markers, and use the indexed tests until then.
     if (outline == null || outlineOutdated) {
       clearCachedInfo(path);
       final LineMarkerUpdatingListener listener = getListenerForFile(file);
       if (listener != null) {
         outlineService.addListener(listener);
       }
-      return new HashMap<>();
+      return getTestsFromIndex(file);
     }
 
     synchronized (this) {
@@ -112,6 +118,26 @@ public abstract class CommonTestConfigUtils {
     }
   }
 
+  /**
+   * Gets the calls to test functions found by the {@link TestCallIndex}, or in the file itself while indexing is in
+   * progress, memoized until the file changes.
+   */
+  @NotNull
+  private static Map<Integer, TestType> getTestsFromIndex(@NotNull PsiFile file) {
+    final long stamp = file.getModificationStamp();
+    final IndexedTests cached = file.getUserData(INDEXED_TESTS);
+    if (cached != null && cached.stamp() == stamp) {
+      return cached.callToTestType();
+    }
+
+    final Map<Integer, TestType> callToTestType = new HashMap<>();
+    for (TestCallIndex.TestCall call : TestCallIndex.getTestCalls(file)) {
+      callToTestType.put(call.offset(), call.type());
+    }
+    file.putUserData(INDEXED_TESTS, new IndexedTests(stamp, callToTestType));
+    return callToTestType;
+  }
+
   @Nullable
   protected TestType findNamedTestCall(@NotNull PsiElement element) {
     if (element instanceof DartCallExpression call) {
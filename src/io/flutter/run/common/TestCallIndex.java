@@ -0,0 +1,246 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.common;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.SingleEntryFileBasedIndexExtension;
+import com.intellij.util.indexing.SingleEntryIndexer;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+import com.jetbrains.lang.dart.DartFileType;
+import com.jetbrains.lang.dart.psi.DartCallExpression;
+import com.jetbrains.lang.dart.psi.DartFile;
+import com.jetbrains.lang.dart.psi.DartReferenceExpression;
+import io.flutter.run.test.DartTestLocationProviderZ;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Indexes the calls to <code>test</code>, <code>testWidgets</code> and <code>group</code> in Dart files under test
+ * directories.
+ * <p>
+ * This finds tests without waiting for the analysis server's outline, which is only available for open editors. The
+ * outline remains the authority when it is available, since it also knows about functions annotated with
+ * <code>@isTest</code> and <code>@isTestGroup</code>.
+ */
+public class TestCallIndex extends SingleEntryFileBasedIndexExtension<List<TestCallIndex.TestCall>> {
+  public static final ID<Integer, List<TestCall>> NAME = ID.create("io.flutter.TestCalls");
+
+  private static final int VERSION = 1;
+
+  private static final Set<String> TEST_FUNCTIONS = Set.of("test", "testWidgets");
+  private static final String GROUP_FUNCTION = "group";
+  private static final String[] TEST_DIRS = {"/test/", "/integration_test/", "/test_driver/"};
+
+  /**
+   * A call to a test or group function.
+   *
+   * @param type   {@link TestType#SINGLE} or {@link TestType#GROUP}
+   * @param name   the test or group name, if it's a string literal
+   * @param offset the text offset of the call expression
+   * @param parent the position of the enclosing group in the file's list of calls, or -1
+   */
+  public record TestCall(@NotNull TestType type, @Nullable String name, int offset, int parent) {
+  }
+
+  @NotNull
+  @Override
+  public ID<Integer, List<TestCall>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public SingleEntryIndexer<List<TestCall>> getIndexer() {
+    return new SingleEntryIndexer<>(false) {
+      @Override
+      protected @Nullable List<TestCall> computeValue(@NotNull FileContent inputData) {
+        return collectTestCalls(inputData.getPsiFile());
+      }
+    };
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<TestCall>> getValueExternalizer() {
+    return new DataExternalizer<>() {
+      @Override
+      public void save(@NotNull DataOutput out, List<TestCall> calls) throws IOException {
+        out.writeInt(calls.size());
+        for (TestCall call : calls) {
+          out.writeBoolean(call.type() == TestType.GROUP);
+          out.writeBoolean(call.name() != null);
+          if (call.name() != null) {
+            IOUtil.writeUTF(out, call.name());
+          }
+          out.writeInt(call.offset());
+          out.writeInt(call.parent());
+        }
+      }
+
+      @Override
+      public List<TestCall> read(@NotNull DataInput in) throws IOException {
+        final int size = in.readInt();
+        final List<TestCall> calls = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+          final TestType type = in.readBoolean() ? TestType.GROUP : TestType.SINGLE;
+          final String name = in.readBoolean() ? IOUtil.readUTF(in) : null;
+          calls.add(new TestCall(type, name, in.readInt(), in.readInt()));
+        }
+        return calls;
+      }
+    };
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return new DefaultFileTypeSpecificInputFilter(DartFileType.INSTANCE) {
+      @Override
+      public boolean acceptInput(@NotNull VirtualFile file) {
+        final String path = file.getPath();
+        for (String testDir : TEST_DIRS) {
+          if (path.contains(testDir)) {
+            return true;
+          }
+        }
+        return path.endsWith("_test.dart");
+      }
+    };
+  }
+
+  /**
+   * Returns the test calls in the given file, from the index if it is available, or else from its syntax tree.
+   */
+  @NotNull
+  public static List<TestCall> getTestCalls(@NotNull PsiFile file) {
+    final List<TestCall> indexed = getIndexedTestCalls(file);
+    return indexed != null ? indexed : collectTestCalls(file);
+  }
+
+  /**
+   * Returns the indexed test calls in the given file, or null if the file isn't indexed or indexing is in progress.
+   */
+  @Nullable
+  private static List<TestCall> getIndexedTestCalls(@NotNull PsiFile file) {
+    final VirtualFile virtualFile = file.getVirtualFile();
+    final Project project = file.getProject();
+    if (virtualFile == null || DumbService.isDumb(project)) {
+      return null;
+    }
+    try {
+      final Map<Integer, List<TestCall>> data = FileBasedIndex.getInstance().getFileData(NAME, virtualFile, project);
+      return data.isEmpty() ? null : data.values().iterator().next();
+    }
+    catch (IndexNotReadyException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Finds the test or group with the given names, from the outermost group to the test itself.
+   */
+  @Nullable
+  public static TestCall findTestCall(@NotNull List<TestCall> calls, @NotNull List<String> names) {
+    if (names.isEmpty()) {
+      return null;
+    }
+    for (TestCall call : calls) {
+      if (!Objects.equals(names.get(names.size() - 1), call.name())) {
+        continue;
+      }
+      TestCall current = call;
+      boolean matches = true;
+      for (int i = names.size() - 2; i >= 0 && matches; --i) {
+        current = current.parent() < 0 ? null : calls.get(current.parent());
+        matches = current != null && Objects.equals(names.get(i), current.name());
+      }
+      if (matches) {
+        return call;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds the test calls in a file by walking its syntax tree.
+   */
+  @NotNull
+  public static List<TestCall> collectTestCalls(@NotNull PsiFile file) {
+    if (!(file instanceof DartFile)) {
+      return List.of();
+    }
+
+    final List<TestCall> calls = new ArrayList<>();
+    // The enclosing group calls, and their positions in the list.
+    final Deque<PsiElement> groups = new ArrayDeque<>();
+    final Deque<Integer> groupPositions = new ArrayDeque<>();
+    file.accept(new PsiRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitElement(@NotNull PsiElement element) {
+        if (element instanceof DartCallExpression call) {
+          final TestType type = getTestType(call);
+          if (type != null) {
+            final int parent = groupPositions.isEmpty() ? -1 : groupPositions.peek();
+            calls.add(new TestCall(type, DartTestLocationProviderZ.getTestLabel(call), call.getTextOffset(), parent));
+            if (type == TestType.GROUP) {
+              groups.push(call);
+              groupPositions.push(calls.size() - 1);
+            }
+          }
+        }
+        super.visitElement(element);
+      }
+
+      @Override
+      protected void elementFinished(PsiElement element) {
+        if (!groups.isEmpty() && groups.peek() == element) {
+          groups.pop();
+          groupPositions.pop();
+        }
+      }
+    });
+    return calls;
+  }
+
+  @Nullable
+  private static TestType getTestType(@NotNull DartCallExpression call) {
+    if (!(call.getExpression() instanceof DartReferenceExpression reference)) {
+      return null;
+    }
+    final String name = reference.getText();
+    if (TEST_FUNCTIONS.contains(name)) {
+      return TestType.SINGLE;
+    }
+    return GROUP_FUNCTION.equals(name) ? TestType.GROUP : null;
+  }
+}
@@ -12,6 +12,7 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.roots.ModuleRootManager;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.rt.coverage.data.ClassData;
 import io.flutter.utils.FlutterModuleUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -20,10 +21,26 @@ import com.intellij.util.SmartList;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FlutterCoverageAnnotator extends SimpleCoverageAnnotator {
 
+  /**
+   * The hash of each source file's lcov record from the most recent coverage run, by path.
+   */
+  @NotNull private volatile Map<String, Long> recordHashes = Collections.emptyMap();
+
+  /**
+   * The coverage info computed for covered files, kept until their lcov records change.
+   */
+  private final Map<String, CachedInfo> coveredFileInfos = new ConcurrentHashMap<>();
+
+  private record CachedInfo(long recordHash, FileCoverageInfo info) {
+  }
+
   @Nullable
   public static FlutterCoverageAnnotator getInstance(Project project) {
     return project.getService(FlutterCoverageAnnotator.class);
@@ -33,6 +50,34 @@ public class FlutterCoverageAnnotator extends SimpleCoverageAnnotator {
     super(project);
   }
 
+  /**
+   * Called when coverage data is loaded, with the hash of each source file's lcov record.
+   * <p>
+   * The info for files whose records didn't change is reused, so only the changed files are recomputed.
+   */
+  void coverageLoaded(@NotNull Map<String, Long> hashes) {
+    recordHashes = hashes;
+    coveredFileInfos.keySet().retainAll(hashes.keySet());
+  }
+
+  @Override
+  protected FileCoverageInfo fileInfoForCoveredFile(@NotNull ClassData classData) {
+    final String path = classData.getName();
+    final Long hash = recordHashes.get(path);
+    if (hash == null) {
+      return super.fileInfoForCoveredFile(classData);
+    }
+    final CachedInfo cached = coveredFileInfos.get(path);
+    if (cached != null && cached.recordHash() == hash) {
+      return cached.info();
+    }
+    final FileCoverageInfo info = super.fileInfoForCoveredFile(classData);
+    if (info != null) {
+      coveredFileInfos.put(path, new CachedInfo(hash, info));
+    }
+    return info;
+  }
+
   @Override
   protected FileCoverageInfo fillInfoForUncoveredFile(@NotNull File file) {
     return new FileCoverageInfo();
@@ -18,6 +18,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 public class FlutterCoverageRunner extends CoverageRunner {
   private static final String ID = "FlutterCoverageRunner";
@@ -36,7 +37,11 @@ public class FlutterCoverageRunner extends CoverageRunner {
   private static ProjectData doLoadCoverageData(@NotNull final File sessionDataFile, @NotNull final FlutterCoverageSuite coverageSuite) {
     final ProjectData projectData = new ProjectData();
     try {
-      LcovInfo.readInto(projectData, sessionDataFile);
+      final Map<String, Long> hashes = LcovInfo.readInto(projectData, sessionDataFile);
+      final FlutterCoverageAnnotator annotator = FlutterCoverageAnnotator.getInstance(coverageSuite.getProject());
+      if (annotator != null) {
+        annotator.coverageLoaded(hashes);
+      }
     }
     catch (IOException ex) {
       LOG.warn(FlutterBundle.message("coverage.data.not.read", FlutterSettings.getInstance().isFilePathLoggingEnabled()
@@ -12,6 +12,8 @@ import com.intellij.coverage.CoverageRunner;
 import com.intellij.openapi.project.Project;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
+
 public class FlutterCoverageSuite extends BaseCoverageSuite {
 
   @NotNull final private FlutterCoverageEngine coverageEngine;
@@ -38,5 +40,9 @@ public class FlutterCoverageSuite extends BaseCoverageSuite {
 
   @Override
   public void deleteCachedCoverageData() {
+    final String path = getCoverageDataFilePath();
+    if (path != null) {
+      LcovSnapshot.delete(new File(path));
+    }
   }
 }
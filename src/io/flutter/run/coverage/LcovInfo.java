@@ -10,123 +10,407 @@ import com.intellij.rt.coverage.data.ClassData;
 import com.intellij.rt.coverage.data.LineData;
 import com.intellij.rt.coverage.data.ProjectData;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Reads an lcov.info file into IntelliJ coverage data.
+ * <p>
+ * The file is read into memory and split into chunks that end on an <code>end_of_record</code> line, which are
+ * parsed in parallel. Each chunk is parsed at the byte level into primitive arrays of line numbers and hit counts;
+ * only the <code>SF:</code> paths are decoded into strings.
+ */
 public class LcovInfo {
 
-  private static final String FILE_LABEL = "SF:";
-  private static final String DATA_LABEL = "DA:";
-  private static final String END_LABEL = "end_of_record";
+  private static final byte[] FILE_LABEL = "SF:".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] DATA_LABEL = "DA:".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] END_LABEL = "end_of_record".getBytes(StandardCharsets.US_ASCII);
+
+  /**
+   * Files smaller than this are parsed in a single chunk.
+   */
+  private static final int MIN_CHUNK_SIZE = 1 << 20;
+
+  /**
+   * The line hits recorded for one source file.
+   */
+  static class FileRecord {
+    @NotNull final String path;
+    @NotNull final int[] lines;
+    @NotNull final int[] hits;
+    final int size;
+
+    /**
+     * The length in bytes and a hash of the record's text in the lcov file, used to tell whether it changed since the
+     * last run.
+     */
+    final int length;
+    final long hash;
 
-  private final Map<String, List<LineCount>> counts = new HashMap<>();
+    FileRecord(@NotNull String path, @NotNull int[] lines, @NotNull int[] hits, int size, int length, long hash) {
+      this.path = path;
+      this.lines = lines;
+      this.hits = hits;
+      this.size = size;
+      this.length = length;
+      this.hash = hash;
+    }
+  }
 
-  private Path currentFile = null;
-  private List<LineCount> lineCounts = null;
   private final String base;
 
-  private LcovInfo(String base) {
+  /**
+   * The base directory with a trailing slash, for joining with relative paths.
+   */
+  private final String basePrefix;
+
+  /**
+   * The records from the previous run, by path. Records with the same path, length and hash are not parsed again.
+   */
+  @NotNull private final Map<String, FileRecord> previous;
+
+  @VisibleForTesting
+  LcovInfo(String base, @NotNull Map<String, FileRecord> previous) {
     this.base = base;
+    this.basePrefix = base.endsWith("/") ? base : base + "/";
+    this.previous = previous;
   }
 
-  public static void readInto(@NotNull ProjectData data, @NotNull File file) throws IOException {
+  /**
+   * Reads the coverage data in the given lcov file into the project data.
+   * <p>
+   * Returns the hash of each source file's record, by path, so that callers can tell which files changed between
+   * runs.
+   */
+  @NotNull
+  public static Map<String, Long> readInto(@NotNull ProjectData data, @NotNull File file) throws IOException {
     final String filePath = file.getAbsolutePath();
     final int index = filePath.indexOf("coverage");
     if (index < 0) {
       // TODO Define at least one class in data
+      return Collections.emptyMap();
+    }
+    final File snapshotFile = LcovSnapshot.fileFor(file);
+    final Map<String, FileRecord> previous = LcovSnapshot.read(snapshotFile);
+    final LcovInfo lcov = new LcovInfo(filePath.substring(0, index), previous);
+
+    // When a file appears in more than one record, the last record wins.
+    final Map<String, FileRecord> records = new LinkedHashMap<>();
+    for (FileRecord record : lcov.read(file)) {
+      records.put(record.path, record);
+    }
+
+    final Map<String, Long> hashes = new HashMap<>();
+    boolean changed = records.size() != previous.size();
+    for (FileRecord record : records.values()) {
+      addClassData(data, record);
+      hashes.put(record.path, record.hash);
+      changed |= previous.get(record.path) != record;
+    }
+
+    if (changed) {
+      LcovSnapshot.write(snapshotFile, records.values());
+    }
+    return hashes;
+  }
+
+  /**
+   * Adds (or replaces) the coverage data for one source file.
+   */
+  static void addClassData(@NotNull ProjectData data, @NotNull FileRecord record) {
+    if (record.size == 0) {
       return;
     }
-    final LcovInfo lcov = new LcovInfo(filePath.substring(0, index));
-    try (final Stream<String> lines = Files.lines(file.toPath())) {
-      lines.forEach(lcov::processLine);
+    final ClassData classData = data.getOrCreateClassData(record.path);
+    classData.setSource(record.path);
+    int max = 0;
+    for (int i = 0; i < record.size; i++) {
+      max = Math.max(max, record.lines[i]);
     }
-    for (String path : lcov.counts.keySet()) {
-      final List<LineCount> list = lcov.counts.get(path);
-      if (list == null || list.isEmpty()) {
-        continue;
+    final LineData[] lines = new LineData[max + 1];
+    for (int i = 0; i < record.size; i++) {
+      final LineData lineData = new LineData(record.lines[i], null);
+      lineData.setHits(record.hits[i]);
+      lines[record.lines[i]] = lineData;
+      classData.registerMethodSignature(lineData);
+    }
+    classData.setLines(lines);
+  }
+
+  /**
+   * Parses all the records in the given lcov file, in file order.
+   */
+  @NotNull
+  List<FileRecord> read(@NotNull File file) throws IOException {
+    // Read rather than mapped: a mapping keeps the file locked on Windows until it is garbage collected, which stops
+    // the next coverage run from overwriting it.
+    final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    final int[] bounds = chunkBounds(buffer, Runtime.getRuntime().availableProcessors());
+
+    final List<List<FileRecord>> chunks = IntStream.range(0, bounds.length - 1)
+      .parallel()
+      .mapToObj((i) -> parseChunk(buffer.duplicate(), bounds[i], bounds[i + 1]))
+      .collect(Collectors.toList());
+
+    final List<FileRecord> records = new ArrayList<>();
+    chunks.forEach(records::addAll);
+    return records;
+  }
+
+  /**
+   * Splits the buffer into at most the given number of chunks, each ending just after an end_of_record line.
+   * <p>
+   * Returns the chunk boundaries, starting with 0 and ending with the buffer's limit.
+   */
+  @NotNull
+  static int[] chunkBounds(@NotNull ByteBuffer buffer, int maxChunks) {
+    final int limit = buffer.limit();
+    final int chunks = Math.max(1, Math.min(maxChunks, limit / MIN_CHUNK_SIZE));
+    final int[] bounds = new int[chunks + 1];
+    int count = 1;
+    for (int i = 1; i < chunks; i++) {
+      final int target = Math.max((int)((long)limit * i / chunks), bounds[count - 1]);
+      final int end = findRecordEnd(buffer, target);
+      if (end < 0) {
+        break;
       }
-      final ClassData classData = data.getOrCreateClassData(path);
-      classData.setSource(fullPath(path));
-      final int max = list.get(list.size() - 1).lineNum + 1;
-      final LineData[] lines = new LineData[max];
-      for (LineCount line : list) {
-        final LineData lineData = new LineData(line.lineNum, null);
-        lineData.setHits(line.execCount);
-        lines[line.lineNum] = lineData;
-        classData.registerMethodSignature(lineData);
+      if (end > bounds[count - 1] && end < limit) {
+        bounds[count++] = end;
       }
-      classData.setLines(lines);
     }
+    bounds[count++] = limit;
+    return Arrays.copyOf(bounds, count);
   }
 
-  void processLine(String line) {
-    line = line.trim();
-    if (line.startsWith(DATA_LABEL)) {
-      assert currentFile != null;
-      assert lineCounts != null;
-      addLineCount(line.substring(DATA_LABEL.length()));
-    }
-    else if (line.startsWith(FILE_LABEL)) {
-      //currentFile = Paths.get(line.substring(FILE_LABEL.length())).normalize();
-      final File file = new File(base, line.substring(FILE_LABEL.length()));
-      final URI normalize = file.toURI().normalize();
-      currentFile = Paths.get(normalize);
-      lineCounts = new ArrayList<>();
+  /**
+   * Returns the position just after the first end_of_record line at or after the given position, or -1.
+   */
+  private static int findRecordEnd(@NotNull ByteBuffer buffer, int pos) {
+    final int limit = buffer.limit();
+    // Start at the beginning of a line.
+    while (pos > 0 && pos < limit && buffer.get(pos - 1) != '\n') {
+      pos++;
     }
-    else if (line.equals(END_LABEL)) {
-      storeLineCounts();
-      currentFile = null;
-      lineCounts = null;
+    while (pos < limit) {
+      final int lineEnd = lineEnd(buffer, pos, limit);
+      if (startsWith(buffer, skipSpaces(buffer, pos, lineEnd), lineEnd, END_LABEL)) {
+        return Math.min(lineEnd + 1, limit);
+      }
+      pos = lineEnd + 1;
     }
+    return -1;
   }
 
-  private void addLineCount(String data) {
-    final String[] parts = data.split(",");
-    assert parts.length >= 2;
-    final int lineNum = safelyParse(parts[0]);
-    final int execCount = safelyParse(parts[1]);
-    lineCounts.add(new LineCount(lineNum, execCount));
+  /**
+   * Returns the position just after the end_of_record line that ends the record containing the given position,
+   * or -1 if the record isn't terminated before the given end.
+   */
+  private static int recordEnd(@NotNull ByteBuffer buffer, int pos, int end) {
+    while (pos < end) {
+      final int lineEnd = lineEnd(buffer, pos, end);
+      if (startsWith(buffer, skipSpaces(buffer, pos, lineEnd), lineEnd, END_LABEL)) {
+        return Math.min(lineEnd + 1, end);
+      }
+      pos = lineEnd + 1;
+    }
+    return -1;
   }
 
-  private static int safelyParse(String val) {
-    try {
-      return Integer.parseInt(val);
-    }
-    catch (NumberFormatException ex) {
-      return 0;
+  /**
+   * Computes a 64-bit FNV-1a hash of the bytes between the given positions.
+   */
+  static long hash(@NotNull ByteBuffer buffer, int start, int end) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = start; i < end; i++) {
+      hash ^= buffer.get(i) & 0xff;
+      hash *= 0x100000001b3L;
     }
+    return hash;
   }
 
-  private void storeLineCounts() {
-    final String path = fullPath(currentFile.toString());
-    counts.put(path, lineCounts);
+  /**
+   * Parses the records between the given positions.
+   */
+  @NotNull
+  List<FileRecord> parseChunk(@NotNull ByteBuffer buffer, int start, int end) {
+    final List<FileRecord> records = new ArrayList<>();
+    String currentFile = null;
+    int[] lines = null;
+    int[] hits = null;
+    int size = 0;
+    int length = 0;
+    long hash = 0;
+
+    int pos = start;
+    while (pos < end) {
+      final int lineEnd = lineEnd(buffer, pos, end);
+      final int from = skipSpaces(buffer, pos, lineEnd);
+
+      if (startsWith(buffer, from, lineEnd, DATA_LABEL)) {
+        if (currentFile != null) {
+          int p = from + DATA_LABEL.length;
+          final long lineNum = parseNumber(buffer, p, lineEnd);
+          while (p < lineEnd && buffer.get(p) != ',') {
+            p++;
+          }
+          final long execCount = parseNumber(buffer, p + 1, lineEnd);
+          if (lineNum >= 0) {
+            if (size == lines.length) {
+              lines = Arrays.copyOf(lines, size * 2);
+              hits = Arrays.copyOf(hits, size * 2);
+            }
+            lines[size] = (int)lineNum;
+            hits[size] = (int)Math.max(0, execCount);
+            size++;
+          }
+        }
+      }
+      else if (startsWith(buffer, from, lineEnd, FILE_LABEL)) {
+        final String path = fullPath(decode(buffer, from + FILE_LABEL.length, trimEnd(buffer, from, lineEnd)));
+        final int recordEnd = recordEnd(buffer, lineEnd, end);
+        length = (recordEnd < 0 ? end : recordEnd) - pos;
+        hash = hash(buffer, pos, pos + length);
+
+        final FileRecord unchanged = previous.get(path);
+        if (unchanged != null && unchanged.path.equals(path) && unchanged.length == length && unchanged.hash == hash &&
+            recordEnd >= 0) {
+          // Same text as last time; reuse the parsed record.
+          records.add(unchanged);
+          currentFile = null;
+          pos = recordEnd;
+          continue;
+        }
+
+        currentFile = path;
+        lines = new int[64];
+        hits = new int[64];
+        size = 0;
+      }
+      else if (startsWith(buffer, from, lineEnd, END_LABEL)) {
+        if (currentFile != null) {
+          records.add(new FileRecord(currentFile, lines, hits, size, length, hash));
+        }
+        currentFile = null;
+        lines = null;
+        hits = null;
+      }
+      pos = lineEnd + 1;
+    }
+    return records;
   }
 
-  private static String fullPath(String path) {
-    String absPath = new File(path).getAbsolutePath();
+  /**
+   * Resolves an SF: path against the directory containing the coverage directory.
+   */
+  @NotNull
+  private String fullPath(@NotNull String path) {
+    if (!SystemInfo.isWindows && !path.startsWith("/") && isNormalized(path)) {
+      // Nothing to normalize; avoid the round trip through a URI.
+      return basePrefix + path;
+    }
+    final File file = new File(base, path);
+    final URI normalize = file.toURI().normalize();
+    String absPath = new File(Paths.get(normalize).toString()).getAbsolutePath();
     if (SystemInfo.isWindows) {
       absPath = absPath.replaceAll("\\\\", "/");
     }
     return absPath;
   }
 
-  private static class LineCount {
-    int lineNum;
-    int execCount;
+  /**
+   * Returns true if the relative path has no empty, "." or ".." segments.
+   */
+  private static boolean isNormalized(@NotNull String path) {
+    if (path.isEmpty() || path.endsWith("/")) {
+      return false;
+    }
+    int segmentStart = 0;
+    for (int i = 0; i <= path.length(); i++) {
+      if (i == path.length() || path.charAt(i) == '/') {
+        final int length = i - segmentStart;
+        if (length == 0) {
+          return false;
+        }
+        if (path.charAt(segmentStart) == '.' && (length == 1 || length == 2 && path.charAt(segmentStart + 1) == '.')) {
+          return false;
+        }
+        segmentStart = i + 1;
+      }
+      else if (path.charAt(i) == '\\') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses a non-negative decimal number, stopping at the first non-digit. Returns -1 if there are no digits.
+   */
+  private static long parseNumber(@NotNull ByteBuffer buffer, int pos, int end) {
+    long value = -1;
+    while (pos < end) {
+      final byte b = buffer.get(pos++);
+      if (b < '0' || b > '9') {
+        break;
+      }
+      value = Math.min(Integer.MAX_VALUE, (value < 0 ? 0 : value * 10) + (b - '0'));
+    }
+    return value;
+  }
+
+  private static int lineEnd(@NotNull ByteBuffer buffer, int pos, int end) {
+    while (pos < end && buffer.get(pos) != '\n') {
+      pos++;
+    }
+    return pos;
+  }
+
+  private static int skipSpaces(@NotNull ByteBuffer buffer, int pos, int end) {
+    while (pos < end && buffer.get(pos) <= ' ') {
+      pos++;
+    }
+    return pos;
+  }
 
-    public LineCount(int num, int count) {
-      lineNum = num;
-      execCount = count;
+  private static int trimEnd(@NotNull ByteBuffer buffer, int start, int end) {
+    while (end > start && buffer.get(end - 1) <= ' ') {
+      end--;
     }
+    return end;
+  }
+
+  private static boolean startsWith(@NotNull ByteBuffer buffer, int pos, int end, @NotNull byte[] prefix) {
+    if (end - pos < prefix.length) {
+      return false;
+    }
+    for (int i = 0; i < prefix.length; i++) {
+      if (buffer.get(pos + i) != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @NotNull
+  private static String decode(@NotNull ByteBuffer buffer, int start, int end) {
+    final byte[] bytes = new byte[Math.max(0, end - start)];
+    buffer.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
   }
-}
\ No newline at end of file
+}
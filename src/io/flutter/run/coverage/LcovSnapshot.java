@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.coverage;
+
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.logging.PluginLogger;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compact binary copy of the records parsed from an lcov.info file, kept next to it.
+ * <p>
+ * Each record is stored with the length and hash of its text, so the next read of the lcov file can reuse the records that
+ * didn't change instead of parsing them again. The snapshot is only a cache; if it's missing or unreadable the
+ * lcov file is parsed in full.
+ */
+class LcovSnapshot {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(LcovSnapshot.class);
+
+  private static final int MAGIC = 0x464c4356; // "FLCV"
+  private static final int VERSION = 2;
+
+  private LcovSnapshot() {
+  }
+
+  /**
+   * Returns the snapshot file for the given lcov file.
+   */
+  @NotNull
+  static File fileFor(@NotNull File lcovFile) {
+    return new File(lcovFile.getPath() + ".snapshot");
+  }
+
+  /**
+   * Reads the records in a snapshot by path, or returns an empty map if there is no usable snapshot.
+   */
+  @NotNull
+  static Map<String, LcovInfo.FileRecord> read(@NotNull File file) {
+    if (!file.isFile()) {
+      return Collections.emptyMap();
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return Collections.emptyMap();
+      }
+      final int count = in.readInt();
+      final Map<String, LcovInfo.FileRecord> records = new HashMap<>();
+      for (int i = 0; i < count; i++) {
+        final String path = in.readUTF();
+        final int length = in.readInt();
+        final long hash = in.readLong();
+        final int size = in.readInt();
+        if (size < 0) {
+          throw new IOException("bad record size: " + size);
+        }
+        final int[] lines = new int[size];
+        final int[] hits = new int[size];
+        int line = 0;
+        for (int j = 0; j < size; j++) {
+          // Line numbers are stored as deltas, which are small for the usual, ascending order.
+          final int delta = readVarInt(in);
+          line += (delta >>> 1) ^ -(delta & 1);
+          lines[j] = line;
+          hits[j] = readVarInt(in);
+        }
+        records.put(path, new LcovInfo.FileRecord(path, lines, hits, size, length, hash));
+      }
+      return records;
+    }
+    catch (EOFException e) {
+      LOG.info("Ignoring truncated coverage snapshot");
+      return Collections.emptyMap();
+    }
+    catch (IOException e) {
+      LOG.info("Unable to read coverage snapshot: " + e.getMessage());
+      return Collections.emptyMap();
+    }
+  }
+
+  /**
+   * Replaces the snapshot with the given records. Failures are logged, since the snapshot is only a cache.
+   */
+  static void write(@NotNull File file, @NotNull Collection<LcovInfo.FileRecord> records) {
+    final Path target = file.toPath();
+    final Path temp = target.resolveSibling(file.getName() + ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(records.size());
+        for (LcovInfo.FileRecord record : records) {
+          out.writeUTF(record.path);
+          out.writeInt(record.length);
+          out.writeLong(record.hash);
+          out.writeInt(record.size);
+          int line = 0;
+          for (int i = 0; i < record.size; i++) {
+            final int delta = record.lines[i] - line;
+            writeVarInt(out, (delta << 1) ^ (delta >> 31));
+            line = record.lines[i];
+            writeVarInt(out, record.hits[i]);
+          }
+        }
+      }
+      try {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      }
+      catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    catch (IOException e) {
+      LOG.info("Unable to write coverage snapshot: " + e.getMessage());
+      try {
+        Files.deleteIfExists(temp);
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Deletes the snapshot for the given lcov file, if any.
+   */
+  static void delete(@NotNull File lcovFile) {
+    try {
+      Files.deleteIfExists(fileFor(lcovFile).toPath());
+    }
+    catch (IOException e) {
+      LOG.info("Unable to delete coverage snapshot: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Writes an int in seven-bit groups, so that small values take a single byte.
+   */
+  private static void writeVarInt(@NotNull DataOutputStream out, int value) throws IOException {
+    while ((value & ~0x7f) != 0) {
+      out.writeByte((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  private static int readVarInt(@NotNull DataInputStream in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      final int b = in.readUnsignedByte();
+      value |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("malformed varint");
+  }
+}
@@ -21,7 +21,6 @@ import com.intellij.openapi.util.text.StringUtil;
 import io.flutter.logging.PluginLogger;
 import io.flutter.utils.JsonUtils;
 import io.flutter.utils.ProcessAdapter;
-import io.flutter.utils.StdoutJsonParser;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -57,7 +56,6 @@ public class DaemonApi {
   @NotNull private final Consumer<String> callback;
   private final AtomicInteger nextId = new AtomicInteger();
   private final Map<Integer, Command> pending = new LinkedHashMap<>();
-  private final StdoutJsonParser stdoutParser = new StdoutJsonParser();
   /**
    * A ring buffer holding the last few lines that the process sent to stderr.
    */
@@ -122,6 +120,18 @@ public class DaemonApi {
    * Receive responses and events from a process until it shuts down.
    */
   void listen(@NotNull ProcessHandler process, @NotNull DaemonEvent.Listener listener) {
+    final DaemonMessageDecoder decoder = new DaemonMessageDecoder(listener, new DaemonMessageDecoder.Sink() {
+      @Override
+      public void onResponse(int id, @Nullable JsonElement result, @Nullable JsonElement error, @Nullable JsonElement trace) {
+        handleResponse(id, result, error, trace);
+      }
+
+      @Override
+      public void onEvent(@NotNull DaemonEvent event) {
+        event.accept(listener);
+      }
+    });
+
     process.addProcessListener(new ProcessAdapter() {
       @Override
       public void onTextAvailable(@NotNull ProcessEvent event, @NotNull Key outputType) {
@@ -144,16 +154,11 @@ public class DaemonApi {
         else if (outputType.equals(ProcessOutputTypes.STDOUT)) {
           final String text = event.getText();
 
-          LOG.debug("[<-- " + text.trim() + "]");
-
-          stdoutParser.appendOutput(text);
-
-          for (String line : stdoutParser.getAvailableLines()) {
-            final JsonObject obj = parseAndValidateDaemonEvent(line);
-            if (obj != null) {
-              dispatch(obj, listener);
-            }
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("[<-- " + text.trim() + "]");
           }
+
+          decoder.appendOutput(text);
         }
       }
 
@@ -183,24 +188,29 @@ public class DaemonApi {
       }
     }
     else {
-      final Command cmd = takePending(idField.getAsInt());
-      if (cmd == null) {
-        return;
-      }
+      handleResponse(idField.getAsInt(), obj.get("result"), obj.get("error"), obj.get("trace"));
+    }
+  }
 
-      final JsonElement error = obj.get("error");
-      if (error != null) {
-        final JsonElement trace = obj.get("trace");
-        String message = FLUTTER_ERROR_PREFIX + " " + cmd.method + ": " + error;
-        if (trace != null) {
-          message += "\n" + trace;
-        }
-        // Be sure to keep this statement in sync with COMPLETION_EXCEPTION_PREFIX.
-        cmd.completeExceptionally(new IOException(message));
-      }
-      else {
-        cmd.complete(obj.get("result"));
+  /**
+   * Completes the pending command with the given id.
+   */
+  private void handleResponse(int id, @Nullable JsonElement result, @Nullable JsonElement error, @Nullable JsonElement trace) {
+    final Command cmd = takePending(id);
+    if (cmd == null) {
+      return;
+    }
+
+    if (error != null) {
+      String message = FLUTTER_ERROR_PREFIX + " " + cmd.method + ": " + error;
+      if (trace != null) {
+        message += "\n" + trace;
       }
+      // Be sure to keep this statement in sync with COMPLETION_EXCEPTION_PREFIX.
+      cmd.completeExceptionally(new IOException(message));
+    }
+    else {
+      cmd.complete(result);
     }
   }
 
@@ -15,6 +15,12 @@ import io.flutter.logging.PluginLogger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * <p>A message received from a Flutter process that's not in response to a particular request.
  */
@@ -51,22 +57,13 @@ abstract class DaemonEvent {
 
   @Nullable
   static DaemonEvent create(@NotNull String eventName, @NotNull JsonObject params) {
+    final Class<? extends DaemonEvent> eventClass = eventClass(eventName);
+    if (eventClass == null) {
+      return null; // Drop an unknown event.
+    }
+
     try {
-      return switch (eventName) {
-        case "daemon.connected" -> GSON.fromJson(params, DaemonConnected.class);
-        case "daemon.log" -> GSON.fromJson(params, DaemonLog.class);
-        case "daemon.logMessage" -> GSON.fromJson(params, DaemonLogMessage.class);
-        case "daemon.showMessage" -> GSON.fromJson(params, DaemonShowMessage.class);
-        case "app.start" -> GSON.fromJson(params, AppStarting.class);
-        case "app.debugPort" -> GSON.fromJson(params, AppDebugPort.class);
-        case "app.started" -> GSON.fromJson(params, AppStarted.class);
-        case "app.log" -> GSON.fromJson(params, AppLog.class);
-        case "app.progress" -> GSON.fromJson(params, AppProgress.class);
-        case "app.stop" -> GSON.fromJson(params, AppStopped.class);
-        case "device.added" -> GSON.fromJson(params, DeviceAdded.class);
-        case "device.removed" -> GSON.fromJson(params, DeviceRemoved.class);
-        default -> null; // Drop an unknown event.
-      };
+      return GSON.fromJson(params, eventClass);
     }
     catch (JsonSyntaxException e) {
       LOG.info("Unexpected parameters in event from flutter process: " + params);
@@ -74,6 +71,81 @@ abstract class DaemonEvent {
     }
   }
 
+  /**
+   * Returns the class that the params of the given event are decoded into, or null for an unknown event.
+   */
+  @Nullable
+  static Class<? extends DaemonEvent> eventClass(@NotNull String eventName) {
+    return switch (eventName) {
+      case "daemon.connected" -> DaemonConnected.class;
+      case "daemon.log" -> DaemonLog.class;
+      case "daemon.logMessage" -> DaemonLogMessage.class;
+      case "daemon.showMessage" -> DaemonShowMessage.class;
+      case "app.start" -> AppStarting.class;
+      case "app.debugPort" -> AppDebugPort.class;
+      case "app.started" -> AppStarted.class;
+      case "app.log" -> AppLog.class;
+      case "app.progress" -> AppProgress.class;
+      case "app.stop" -> AppStopped.class;
+      case "device.added" -> DeviceAdded.class;
+      case "device.removed" -> DeviceRemoved.class;
+      default -> null;
+    };
+  }
+
+  /**
+   * Returns true if the listener overrides at least one of the callbacks that the given event is delivered to.
+   *
+   * <p>Events that no callback is interested in can be skipped without decoding their params.
+   */
+  static boolean isHandledBy(@NotNull String eventName, @NotNull Listener listener) {
+    return HANDLED_EVENTS.get(listener.getClass()).contains(eventName);
+  }
+
+  /**
+   * The listener callbacks that each event may be delivered to.
+   */
+  private static final Map<String, List<String>> CALLBACKS = Map.ofEntries(
+    Map.entry("daemon.connected", List.of("onDaemonConnected")),
+    Map.entry("daemon.log", List.of("onDaemonLog")),
+    Map.entry("daemon.logMessage", List.of("onDaemonLogMessage")),
+    Map.entry("daemon.showMessage", List.of("onDaemonShowMessage")),
+    Map.entry("app.start", List.of("onAppStarting")),
+    Map.entry("app.debugPort", List.of("onAppDebugPort")),
+    Map.entry("app.started", List.of("onAppStarted")),
+    Map.entry("app.log", List.of("onAppLog")),
+    Map.entry("app.progress", List.of("onAppProgressStarting", "onAppProgressFinished")),
+    Map.entry("app.stop", List.of("onAppStopped")),
+    Map.entry("device.added", List.of("onDeviceAdded")),
+    Map.entry("device.removed", List.of("onDeviceRemoved"))
+  );
+
+  /**
+   * The names of the events that each listener class overrides a callback for, computed once per class.
+   */
+  private static final ClassValue<Set<String>> HANDLED_EVENTS = new ClassValue<>() {
+    @Override
+    protected Set<String> computeValue(@NotNull Class<?> listenerClass) {
+      final Set<String> handled = new HashSet<>();
+      for (Map.Entry<String, List<String>> entry : CALLBACKS.entrySet()) {
+        final Class<? extends DaemonEvent> eventClass = eventClass(entry.getKey());
+        assert eventClass != null;
+        for (String callback : entry.getValue()) {
+          try {
+            if (listenerClass.getMethod(callback, eventClass).getDeclaringClass() != Listener.class) {
+              handled.add(entry.getKey());
+            }
+          }
+          catch (NoSuchMethodException e) {
+            // Be conservative and decode the event.
+            handled.add(entry.getKey());
+          }
+        }
+      }
+      return Collections.unmodifiableSet(handled);
+    }
+  };
+
   abstract void accept(Listener listener);
 
   @Override
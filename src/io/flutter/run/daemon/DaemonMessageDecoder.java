@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.daemon;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.logging.PluginLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Decodes the messages that a Flutter daemon process writes to stdout.
+ *
+ * <p>Daemon messages are single lines of the form <code>[{...}]</code>, intermixed with regular text that is
+ * dropped. Messages are framed incrementally as output arrives, without copying lines that fit within a single
+ * chunk of output. Each message is then read with a token-level reader: the <code>id</code> and
+ * <code>event</code> fields are peeked first and the params of an event are only decoded when the listener
+ * overrides a callback for it.
+ */
+class DaemonMessageDecoder {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(DaemonMessageDecoder.class);
+  private static final Gson GSON = new Gson();
+
+  /**
+   * Receives the messages decoded from daemon output.
+   */
+  interface Sink {
+    /**
+     * Called with the response to the command with the given id.
+     */
+    void onResponse(int id, @Nullable JsonElement result, @Nullable JsonElement error, @Nullable JsonElement trace);
+
+    /**
+     * Called with an event that the listener handles.
+     */
+    void onEvent(@NotNull DaemonEvent event);
+  }
+
+  private enum State {
+    /**
+     * At the start of a line; a '[' may start a message.
+     */
+    LINE_START,
+    /**
+     * Saw a '[' at the start of a line; a '{' starts a message.
+     */
+    MESSAGE_START,
+    /**
+     * Within a message.
+     */
+    MESSAGE,
+    /**
+     * Within a line of regular text, which is skipped.
+     */
+    TEXT,
+  }
+
+  @NotNull private final DaemonEvent.Listener listener;
+  @NotNull private final Sink sink;
+
+  /**
+   * Holds a message that spans more than one chunk of output.
+   */
+  private final StringBuilder partial = new StringBuilder();
+
+  private State state = State.LINE_START;
+  private int depth;
+  private char quote;
+  private boolean escaped;
+
+  DaemonMessageDecoder(@NotNull DaemonEvent.Listener listener, @NotNull Sink sink) {
+    this.listener = listener;
+    this.sink = sink;
+  }
+
+  /**
+   * Frames the given chunk of output and decodes any messages that it completes.
+   */
+  void appendOutput(@NotNull String text) {
+    // The start of the current message within text, or -1 if it started in an earlier chunk.
+    int start = state == State.MESSAGE_START || state == State.MESSAGE ? -1 : 0;
+
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+
+      switch (state) {
+        case LINE_START -> {
+          if (c == '[') {
+            state = State.MESSAGE_START;
+            start = i;
+          }
+          else if (c != '\n' && c != '\r') {
+            state = State.TEXT;
+          }
+        }
+        case MESSAGE_START -> {
+          if (c == '{') {
+            state = State.MESSAGE;
+            depth = 2;
+            quote = 0;
+            escaped = false;
+          }
+          else {
+            partial.setLength(0);
+            state = c == '\n' || c == '\r' ? State.LINE_START : State.TEXT;
+          }
+        }
+        case MESSAGE -> {
+          if (c == '\n' || c == '\r') {
+            // Messages never span lines, so this one is malformed.
+            LOG.debug("dropping incomplete message from flutter process");
+            partial.setLength(0);
+            state = State.LINE_START;
+          }
+          else if (quote != 0) {
+            if (escaped) {
+              escaped = false;
+            }
+            else if (c == '\\') {
+              escaped = true;
+            }
+            else if (c == quote) {
+              quote = 0;
+            }
+          }
+          else if (c == '"' || c == '\'') {
+            quote = c;
+          }
+          else if (c == '[' || c == '{') {
+            depth++;
+          }
+          else if ((c == ']' || c == '}') && --depth == 0) {
+            if (start < 0) {
+              partial.append(text, 0, i + 1);
+              decode(partial, 0, partial.length());
+              partial.setLength(0);
+            }
+            else {
+              decode(text, start, i + 1);
+            }
+            state = State.LINE_START;
+          }
+        }
+        case TEXT -> {
+          if (c == '\n' || c == '\r') {
+            state = State.LINE_START;
+          }
+        }
+      }
+    }
+
+    switch (state) {
+      case MESSAGE_START, MESSAGE -> partial.append(text, Math.max(start, 0), text.length());
+      // Regular text is written eagerly, so the next chunk starts on a new line.
+      case TEXT -> state = State.LINE_START;
+      default -> {
+      }
+    }
+  }
+
+  /**
+   * Decodes a single message, dropping it if it isn't a valid daemon message.
+   */
+  void decode(@NotNull CharSequence text, int start, int end) {
+    try {
+      final JsonReader reader = new JsonReader(new CharSequenceReader(text, start, end));
+      reader.setStrictness(Strictness.LENIENT);
+      reader.beginArray();
+      reader.beginObject();
+
+      Integer id = null;
+      String eventName = null;
+      boolean hasParams = false;
+      JsonElement params = null;
+      DaemonEvent event = null;
+      JsonElement result = null;
+      JsonElement error = null;
+      JsonElement trace = null;
+
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "id" -> {
+            if (reader.peek() != JsonToken.NUMBER) {
+              return;
+            }
+            id = reader.nextInt();
+          }
+          case "event" -> {
+            if (reader.peek() != JsonToken.STRING) {
+              return;
+            }
+            eventName = reader.nextString();
+          }
+          case "params" -> {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+              return;
+            }
+            hasParams = true;
+            if (eventName == null) {
+              // The event name comes later; keep the params until we know whether they are needed.
+              params = JsonParser.parseReader(reader);
+            }
+            else {
+              event = readEvent(eventName, reader);
+            }
+          }
+          case "result" -> result = JsonParser.parseReader(reader);
+          case "error" -> error = JsonParser.parseReader(reader);
+          case "trace" -> trace = JsonParser.parseReader(reader);
+          default -> reader.skipValue();
+        }
+      }
+
+      if (eventName != null) {
+        if (params != null && DaemonEvent.isHandledBy(eventName, listener)) {
+          event = DaemonEvent.create(eventName, params.getAsJsonObject());
+        }
+        if (!hasParams) {
+          LOG.info("Missing parameters in event from flutter process: " + eventName);
+        }
+        else if (event != null) {
+          sink.onEvent(event);
+        }
+      }
+      else if (id != null) {
+        sink.onResponse(id, result, error, trace);
+      }
+    }
+    catch (IOException | JsonParseException | IllegalStateException | NumberFormatException e) {
+      // Not a daemon message.
+    }
+  }
+
+  /**
+   * Reads the params of an event, or skips them if the listener doesn't handle the event.
+   */
+  @Nullable
+  private DaemonEvent readEvent(@NotNull String eventName, @NotNull JsonReader reader) throws IOException {
+    final Class<? extends DaemonEvent> eventClass = DaemonEvent.eventClass(eventName);
+    if (eventClass == null || !DaemonEvent.isHandledBy(eventName, listener)) {
+      reader.skipValue();
+      return null;
+    }
+
+    try {
+      return GSON.fromJson(reader, eventClass);
+    }
+    catch (JsonParseException e) {
+      LOG.info("Unexpected parameters in event from flutter process: " + eventName);
+      throw e;
+    }
+  }
+
+  /**
+   * A reader over a range of a CharSequence, so messages can be decoded without copying them.
+   */
+  private static class CharSequenceReader extends Reader {
+    @NotNull private final CharSequence text;
+    private final int end;
+    private int pos;
+
+    CharSequenceReader(@NotNull CharSequence text, int start, int end) {
+      this.text = text;
+      this.pos = start;
+      this.end = end;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (pos >= end) {
+        return -1;
+      }
+      final int count = Math.min(length, end - pos);
+      if (text instanceof String string) {
+        string.getChars(pos, pos + count, buffer, offset);
+      }
+      else if (text instanceof StringBuilder builder) {
+        builder.getChars(pos, pos + count, buffer, offset);
+      }
+      else {
+        for (int i = 0; i < count; i++) {
+          buffer[offset + i] = text.charAt(pos + i);
+        }
+      }
+      pos += count;
+      return count;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -33,6 +33,7 @@ import io.flutter.utils.OpenApiUtils;
 import io.flutter.utils.SystemUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import javax.swing.JComponent;
 import javax.swing.JPanel;
@@ -57,7 +58,7 @@ import java.util.stream.Stream;
 /**
  * A process running 'flutter daemon' to watch for devices.
  */
-class DeviceDaemon {
+class DeviceDaemon implements DeviceDaemonPool.Daemon {
   private static final AtomicInteger nextDaemonId = new AtomicInteger();
 
   /**
@@ -95,7 +96,8 @@ class DeviceDaemon {
   /**
    * Returns true if the process is still running.
    */
-  boolean isRunning() {
+  @Override
+  public boolean isRunning() {
     return !process.isProcessTerminating() && !process.isProcessTerminated();
   }
 
@@ -104,7 +106,9 @@ class DeviceDaemon {
    * <p>
    * <p>This is calculated based on add and remove events seen since the process started.
    */
-  ImmutableList<FlutterDevice> getDevices() {
+  @NotNull
+  @Override
+  public ImmutableList<FlutterDevice> getDevices() {
     return devices.get();
   }
 
@@ -120,7 +124,8 @@ class DeviceDaemon {
   /**
    * Kills the process. (Normal shutdown.)
    */
-  void shutdown() {
+  @Override
+  public void shutdown() {
     if (!process.isProcessTerminated()) {
       LOG.info(
         "shutting down Flutter device daemon #" + id + ": " + command.toString(FlutterSettings.getInstance().isFilePathLoggingEnabled()));
@@ -187,7 +192,8 @@ class DeviceDaemon {
      */
     @Nullable private final String androidHome;
 
-    private Command(@NotNull String workDir, @NotNull String command, @NotNull ImmutableList<String> parameters,
+    @VisibleForTesting
+    Command(@NotNull String workDir, @NotNull String command, @NotNull ImmutableList<String> parameters,
                     @Nullable String androidHome) {
       this.workDir = workDir;
       this.command = command;
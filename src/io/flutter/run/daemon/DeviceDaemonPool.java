@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.daemon;
+
+import com.google.common.collect.ImmutableList;
+import com.intellij.execution.ExecutionException;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import io.flutter.FlutterUtils;
+import io.flutter.logging.PluginLogger;
+import io.flutter.run.FlutterDevice;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The device daemons shared by the open projects.
+ * <p>
+ * Projects that would start the same daemon command (the same Flutter SDK and ANDROID_HOME) share one process and its
+ * device list. Each project holds a {@link Lease} on the daemon, and the process is shut down when the last lease is
+ * released.
+ */
+final class DeviceDaemonPool implements Disposable {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(DeviceDaemonPool.class);
+
+  /**
+   * A running daemon process; a {@link DeviceDaemon} outside of tests.
+   */
+  interface Daemon {
+    boolean isRunning();
+
+    @NotNull
+    ImmutableList<FlutterDevice> getDevices();
+
+    void shutdown();
+  }
+
+  /**
+   * Starts the daemon processes; {@link DeviceDaemon.Command#start} outside of tests.
+   */
+  interface Launcher {
+    @Nullable
+    Daemon start(@NotNull DeviceDaemon.Command command,
+                 @NotNull Supplier<Boolean> isCancelled,
+                 @NotNull Runnable deviceChanged,
+                 @NotNull Consumer<String> processStopped) throws ExecutionException;
+  }
+
+  @NotNull private final Launcher launcher;
+  private final Map<DeviceDaemon.Command, Shared> daemons = new HashMap<>();
+
+  @NotNull
+  static DeviceDaemonPool getInstance() {
+    return ApplicationManager.getApplication().getService(DeviceDaemonPool.class);
+  }
+
+  DeviceDaemonPool() {
+    this(DeviceDaemon.Command::start);
+  }
+
+  @VisibleForTesting
+  DeviceDaemonPool(@NotNull Launcher launcher) {
+    this.launcher = launcher;
+  }
+
+  /**
+   * Returns a lease on a running daemon for the command, starting it if no project is using one.
+   *
+   * @param isCancelled    will be polled during startup to see if startup is cancelled.
+   * @param deviceChanged  will be called whenever a device is added or removed.
+   * @param processStopped will be called if the process exits unexpectedly.
+   * @return the lease, or null if the daemon repeatedly failed to start
+   */
+  @Nullable
+  Lease acquire(@NotNull DeviceDaemon.Command command,
+                @NotNull Supplier<Boolean> isCancelled,
+                @NotNull Runnable deviceChanged,
+                @NotNull Consumer<String> processStopped) throws ExecutionException {
+    while (true) {
+      final Shared shared;
+      synchronized (this) {
+        shared = daemons.computeIfAbsent(command, Shared::new);
+      }
+      synchronized (shared) {
+        if (shared.closed) {
+          // The last project using it released it after it was looked up.
+          continue;
+        }
+        try {
+          return shared.acquire(isCancelled, deviceChanged, processStopped);
+        }
+        finally {
+          if (shared.leases.isEmpty()) {
+            // The daemon didn't start and nothing else uses it, so let the next request start over.
+            shared.close();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the number of projects using the daemon for the command.
+   */
+  @VisibleForTesting
+  synchronized int getLeaseCount(@NotNull DeviceDaemon.Command command) {
+    final Shared shared = daemons.get(command);
+    return shared == null ? 0 : shared.leases.size();
+  }
+
+  private synchronized void removeClosed(@NotNull Shared shared) {
+    daemons.remove(shared.command, shared);
+  }
+
+  @Override
+  public void dispose() {
+    final List<Shared> all;
+    synchronized (this) {
+      all = new ArrayList<>(daemons.values());
+    }
+    for (Shared shared : all) {
+      shared.close();
+    }
+  }
+
+  /**
+   * A daemon process and the projects using it.
+   */
+  private final class Shared {
+    @NotNull final DeviceDaemon.Command command;
+    @NotNull final List<Lease> leases = new CopyOnWriteArrayList<>();
+
+    /**
+     * The current process, replaced if it stops while projects are still using it. Read without the lock, which is
+     * held while a process starts.
+     */
+    @Nullable volatile Daemon daemon;
+
+    /**
+     * Set once the last lease is released; a closed daemon is never restarted.
+     */
+    boolean closed;
+
+    Shared(@NotNull DeviceDaemon.Command command) {
+      this.command = command;
+    }
+
+    @Nullable
+    Lease acquire(@NotNull Supplier<Boolean> isCancelled,
+                  @NotNull Runnable deviceChanged,
+                  @NotNull Consumer<String> processStopped) throws ExecutionException {
+      assert Thread.holdsLock(this);
+      final Daemon current = daemon;
+      if (current == null || !current.isRunning()) {
+        daemon = null;
+        if (current != null) {
+          current.shutdown();
+        }
+        daemon = launcher.start(command, isCancelled, this::deviceChanged, this::processStopped);
+        if (daemon == null) {
+          return null;
+        }
+      }
+      final Lease lease = new Lease(this, deviceChanged, processStopped);
+      leases.add(lease);
+      return lease;
+    }
+
+    synchronized void release(@NotNull Lease lease) {
+      if (leases.remove(lease) && leases.isEmpty()) {
+        close();
+      }
+    }
+
+    /**
+     * Shuts down the process but keeps the leases, so that the next request starts a new process for them.
+     */
+    synchronized void stopProcess() {
+      final Daemon current = daemon;
+      daemon = null;
+      if (current != null) {
+        current.shutdown();
+        deviceChanged();
+      }
+    }
+
+    synchronized void close() {
+      closed = true;
+      final Daemon current = daemon;
+      daemon = null;
+      if (current != null) {
+        current.shutdown();
+      }
+      removeClosed(this);
+    }
+
+    private void deviceChanged() {
+      for (Lease lease : leases) {
+        lease.deviceChanged.run();
+      }
+    }
+
+    private void processStopped(@NotNull String details) {
+      for (Lease lease : leases) {
+        try {
+          lease.processStopped.accept(details);
+        }
+        catch (RuntimeException e) {
+          FlutterUtils.warn(LOG, "Device daemon listener threw an exception", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * A project's use of a shared device daemon.
+   */
+  static final class Lease {
+    @NotNull private final Shared shared;
+    @NotNull private final Runnable deviceChanged;
+    @NotNull private final Consumer<String> processStopped;
+
+    private Lease(@NotNull Shared shared, @NotNull Runnable deviceChanged, @NotNull Consumer<String> processStopped) {
+      this.shared = shared;
+      this.deviceChanged = deviceChanged;
+      this.processStopped = processStopped;
+    }
+
+    /**
+     * Returns true if the daemon process is still running.
+     */
+    boolean isRunning() {
+      final Daemon daemon = shared.daemon;
+      return daemon != null && daemon.isRunning();
+    }
+
+    /**
+     * Returns the devices seen by the daemon.
+     */
+    @NotNull
+    ImmutableList<FlutterDevice> getDevices() {
+      final Daemon daemon = shared.daemon;
+      return daemon == null ? ImmutableList.of() : daemon.getDevices();
+    }
+
+    /**
+     * Returns true if the project should switch to another daemon.
+     *
+     * @param next the command that should be running now.
+     */
+    boolean needRestart(@NotNull DeviceDaemon.Command next) {
+      return !isRunning() || !shared.command.equals(next);
+    }
+
+    /**
+     * Shuts down the daemon process, even if other projects use it. The next {@link #acquire} starts a new one.
+     */
+    void stopProcess() {
+      shared.stopProcess();
+    }
+
+    /**
+     * Stops using the daemon, shutting it down if no other project uses it.
+     */
+    void release() {
+      shared.release(this);
+    }
+  }
+}
@@ -43,9 +43,11 @@ public class DeviceService {
   @NotNull private final Project project;
 
   /**
-   * The process used to watch for device list changes (for the device menu). May be null if not running.
+   * The lease on the process used to watch for device list changes (for the device menu). May be null if not running.
+   * <p>
+   * The process is shared with other open projects that use the same Flutter SDK; see {@link DeviceDaemonPool}.
    */
-  private final Refreshable<DeviceDaemon> deviceDaemon = new Refreshable<>(DeviceDaemon::shutdown);
+  private final Refreshable<DeviceDaemonPool.Lease> deviceDaemon = new Refreshable<>(DeviceDaemonPool.Lease::release);
 
   private final AtomicReference<DeviceSelection> deviceSelection = new AtomicReference<>(DeviceSelection.EMPTY);
 
@@ -114,7 +116,7 @@ public class DeviceService {
    * Returns whether the device list is inactive, loading, or ready.
    */
   public State getStatus() {
-    final DeviceDaemon daemon = deviceDaemon.getNow();
+    final DeviceDaemonPool.Lease daemon = deviceDaemon.getNow();
     if (daemon != null && daemon.isRunning()) {
       return State.READY;
     }
@@ -150,7 +152,7 @@ public class DeviceService {
 
   private synchronized void refreshDeviceSelection() {
     deviceSelection.updateAndGet((old) -> {
-      final DeviceDaemon daemon = deviceDaemon.getNow();
+      final DeviceDaemonPool.Lease daemon = deviceDaemon.getNow();
       final List<FlutterDevice> newDevices = daemon == null ? ImmutableList.of() : daemon.getDevices();
       FlutterDevice oldSelection = old.getSelection();
       String selection = oldSelection != null
@@ -192,7 +194,7 @@ public class DeviceService {
   private void daemonStopped(String details) {
     if (project.isDisposed()) return;
 
-    final DeviceDaemon current = deviceDaemon.getNow();
+    final DeviceDaemonPool.Lease current = deviceDaemon.getNow();
     if (current == null || current.isRunning()) {
       // The active daemon didn't die, so it must be some older process. Just log it.
       LOG.info("A Flutter device daemon stopped.\n" + details);
@@ -221,13 +223,13 @@ public class DeviceService {
    * <p>
    * <p>Starts it if needed. If null is returned then the previous daemon will be shut down.
    */
-  private DeviceDaemon chooseNextDaemon(Refreshable.Request<DeviceDaemon> request) {
+  private DeviceDaemonPool.Lease chooseNextDaemon(Refreshable.Request<DeviceDaemonPool.Lease> request) {
     final DeviceDaemon.Command nextCommand = DeviceDaemon.chooseCommand(project);
     if (nextCommand == null) {
       return null; // Unconfigured; shut down if running.
     }
 
-    final DeviceDaemon previous = request.getPrevious();
+    final DeviceDaemonPool.Lease previous = request.getPrevious();
     if (previous != null && !previous.needRestart(nextCommand)) {
       return previous; // Don't do anything; current daemon is what we want.
     }
@@ -250,7 +252,8 @@ public class DeviceService {
     emulatorManager.refresh();
 
     try {
-      return nextCommand.start(request::isCancelled, this::refreshDeviceSelection, this::daemonStopped);
+      // Starts the daemon unless another project already runs the same command.
+      return DeviceDaemonPool.getInstance().acquire(nextCommand, request::isCancelled, this::refreshDeviceSelection, this::daemonStopped);
     }
     catch (ExecutionException executionException) {
       FlutterUtils.info(LOG, "Error starting up the Flutter device daemon", executionException, true);
@@ -268,11 +271,16 @@ public class DeviceService {
   }
 
   private void shutDown() {
+    // Other projects may be using the same process, so releasing it isn't enough to restart it.
+    final DeviceDaemonPool.Lease current = deviceDaemon.getNow();
+    if (current != null) {
+      current.stopProcess();
+    }
     deviceDaemon.refresh(this::shutDownDaemon);
   }
 
   @SuppressWarnings("SameReturnValue")
-  private DeviceDaemon shutDownDaemon(Refreshable.Request<DeviceDaemon> request) {
+  private DeviceDaemonPool.Lease shutDownDaemon(Refreshable.Request<DeviceDaemonPool.Lease> request) {
     // Return null to indicate that a shutdown is requested.
     return null;
   }
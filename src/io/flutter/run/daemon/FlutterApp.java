@@ -332,7 +332,8 @@ public class FlutterApp implements Disposable {
 
     final CompletableFuture<DaemonApi.RestartResult> future =
       myDaemonApi.restartApp(myAppId, true, false, reason);
-    future.thenAccept(result -> changeState(State.STARTED));
+    // The app keeps running if the request fails, so it mustn't be left restarting.
+    future.whenComplete((result, error) -> finishReloading(State.RESTARTING));
     future.thenRun(this::notifyAppRestarted);
     return future;
   }
@@ -345,32 +346,6 @@ public class FlutterApp implements Disposable {
     listenersDispatcher.getMulticaster().notifyAppRestarted();
   }
 
-  /**
-   * Indicate that we are about the start hot reload for this app.
-   * <p>
-   * This state change is useful as we can delay the actual hot reload slightly, but still change the
-   * app state in order to prevent starting two simultaneous hot reloads.
-   * <p>
-   * Return the previous app state.
-   */
-  public State transitionStartingHotReload() {
-    final State newState = State.RELOADING;
-    final State oldState = myState.getAndSet(newState);
-    if (oldState != newState) {
-      listenersDispatcher.getMulticaster().stateChanged(newState);
-    }
-    return oldState;
-  }
-
-  /**
-   * Cancel a hot reload state and restore the app's previous state (generally, `State.STARTED`).
-   */
-  public void cancelHotReloadState(@Nullable State previousState) {
-    if (previousState != null) {
-      changeState(previousState);
-    }
-  }
-
   /**
    * Perform a hot reload of the app.
    */
@@ -396,11 +371,20 @@ public class FlutterApp implements Disposable {
 
     final CompletableFuture<DaemonApi.RestartResult> future =
       myDaemonApi.restartApp(myAppId, false, pauseAfterRestart, reason);
-    future.thenAccept(result -> changeState(State.STARTED));
+    future.whenComplete((result, error) -> finishReloading(State.RELOADING));
     future.thenRun(this::notifyAppReloaded);
     return future;
   }
 
+  /**
+   * Returns to the started state after a reload or restart, unless the app has moved on, for example by terminating.
+   */
+  private void finishReloading(@NotNull State reloadingState) {
+    if (myState.compareAndSet(reloadingState, State.STARTED)) {
+      listenersDispatcher.getMulticaster().stateChanged(State.STARTED);
+    }
+  }
+
   public CompletableFuture<JsonObject> callServiceExtension(String methodName) {
     return callServiceExtension(methodName, new HashMap<>());
   }
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.test;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.jetbrains.lang.dart.DartFileType;
+import com.jetbrains.lang.dart.util.DartUrlResolver;
+import io.flutter.dart.DartImportIndex;
+import io.flutter.pub.PubRoot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Finds the test files in a directory that may be affected by the changes made since its tests last passed.
+ * <p>
+ * A test file is affected if it imports a changed Dart file, directly or through other files in the project, including
+ * those of other packages in it. Files outside the project, such as packages in the pub cache, are taken not to change.
+ * Changes that the import graph can't account for, like a new pubspec.lock or an updated golden image under the test
+ * directory, affect every test. So do files deleted, moved or renamed since the run started, as counted by
+ * {@link ContentMoveTracker}.
+ */
+public final class AffectedTests {
+  private static final String LAST_PASSING_RUN = "io.flutter.test.lastPassingRun:";
+  private static final String LAST_PASSING_RUN_MOVES = "io.flutter.test.lastPassingRunMoves:";
+
+  private static final Set<String> PACKAGE_FILES = Set.of("pubspec.yaml", "pubspec.lock", "package_config.json");
+
+  private AffectedTests() {
+  }
+
+  /**
+   * Records that all the tests in a directory passed in a run started at the given time.
+   *
+   * @param moveMarker the {@link ContentMoveTracker#getMarker() marker} taken when the run started
+   */
+  static void recordPassingRun(@NotNull Project project, @NotNull VirtualFile testDir, long startTime, @NotNull String moveMarker) {
+    final PropertiesComponent properties = PropertiesComponent.getInstance(project);
+    properties.setValue(LAST_PASSING_RUN + testDir.getPath(), String.valueOf(startTime));
+    properties.setValue(LAST_PASSING_RUN_MOVES + testDir.getPath(), moveMarker);
+  }
+
+  /**
+   * Returns the test files affected by changes since the directory's tests last passed, or null if they all need to
+   * run (including when they haven't passed before).
+   */
+  @Nullable
+  static List<VirtualFile> find(@NotNull Project project, @NotNull PubRoot root, @NotNull VirtualFile testDir) {
+    final PropertiesComponent properties = PropertiesComponent.getInstance(project);
+    final long since = StringUtil.parseLong(properties.getValue(LAST_PASSING_RUN + testDir.getPath()), -1);
+    if (since < 0) {
+      return null;
+    }
+    if (!ContentMoveTracker.getInstance(project).getMarker().equals(properties.getValue(LAST_PASSING_RUN_MOVES + testDir.getPath()))) {
+      // Files were deleted or moved, which the timestamps don't show.
+      return null;
+    }
+    if (ApplicationManager.getApplication().isDispatchThread()) {
+      return ProgressManager.getInstance().runProcessWithProgressSynchronously(
+        () -> ReadAction.compute(() -> find(project, root, testDir, since)), "Finding Affected Tests", true, project);
+    }
+    return ReadAction.compute(() -> find(project, root, testDir, since));
+  }
+
+  @Nullable
+  private static List<VirtualFile> find(@NotNull Project project, @NotNull PubRoot root, @NotNull VirtualFile testDir, long since) {
+    final ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+
+    final VirtualFile packageConfig = root.getPackageConfigFile();
+    if (packageConfig != null && packageConfig.getTimeStamp() > since) {
+      return null;
+    }
+
+    // Changes the import graph can't account for.
+    final boolean[] changesAffectAll = {false};
+    fileIndex.iterateContentUnderDirectory(root.getRoot(), file -> {
+      ProgressManager.checkCanceled();
+      if (!file.isDirectory() && file.getTimeStamp() > since &&
+          affectsAllTests(file.getName(), isDartFile(file), VfsUtilCore.isAncestor(testDir, file, false))) {
+        changesAffectAll[0] = true;
+      }
+      return !changesAffectAll[0];
+    });
+    if (changesAffectAll[0]) {
+      return null;
+    }
+
+    // The test files that flutter test would run in the directory.
+    final Set<VirtualFile> tests = new HashSet<>();
+    VfsUtilCore.iterateChildrenRecursively(testDir, fileIndex::isInContent, file -> {
+      if (!file.isDirectory() && file.getName().endsWith("_test.dart")) {
+        tests.add(file);
+      }
+      return true;
+    });
+
+    final DartUrlResolver resolver = DartUrlResolver.getInstance(project, root.getRoot());
+    final List<VirtualFile> affected = findAffected(tests, (file) -> {
+      ProgressManager.checkCanceled();
+      final List<VirtualFile> imports = new ArrayList<>();
+      for (String uri : DartImportIndex.getUris(project, file)) {
+        final VirtualFile imported = resolve(resolver, file, uri);
+        if (imported != null && fileIndex.isInContent(imported)) {
+          imports.add(imported);
+        }
+      }
+      return imports;
+    }, (file) -> file.getTimeStamp() > since);
+    affected.sort(Comparator.comparing(VirtualFile::getPath));
+    return affected;
+  }
+
+  /**
+   * Returns true if a change to a file outside the import graph affects every test.
+   *
+   * @param isUnderTestDir whether the file is in the directory whose tests are run
+   */
+  @VisibleForTesting
+  static boolean affectsAllTests(@NotNull String name, boolean isDartFile, boolean isUnderTestDir) {
+    if (PACKAGE_FILES.contains(name)) {
+      return true;
+    }
+    // Data used by the tests, like golden images.
+    return !isDartFile && isUnderTestDir;
+  }
+
+  /**
+   * Returns the tests that are changed or import a changed file, directly or through other files.
+   * <p>
+   * Every file reachable from the tests is checked for changes, wherever it is, so that changes to other packages in
+   * the project (like path dependencies) are found.
+   *
+   * @param imports   returns the files a file imports, exports or includes that may change
+   * @param isChanged whether a file changed since the tests last passed
+   */
+  @VisibleForTesting
+  @NotNull
+  static <F> List<F> findAffected(@NotNull Set<F> tests, @NotNull Function<F, List<F>> imports, @NotNull Predicate<F> isChanged) {
+    // The files that import each file reachable from the tests.
+    final Map<F, List<F>> importers = new HashMap<>();
+    final Set<F> reachable = new LinkedHashSet<>(tests);
+    final Deque<F> queue = new ArrayDeque<>(tests);
+    while (!queue.isEmpty()) {
+      final F file = queue.poll();
+      for (F imported : imports.apply(file)) {
+        importers.computeIfAbsent(imported, (key) -> new ArrayList<>()).add(file);
+        if (reachable.add(imported)) {
+          queue.add(imported);
+        }
+      }
+    }
+
+    // Walk from the changed files back to the tests that import them.
+    final Set<F> visited = new HashSet<>();
+    for (F file : reachable) {
+      if (isChanged.test(file)) {
+        visited.add(file);
+        queue.add(file);
+      }
+    }
+    final List<F> affected = new ArrayList<>();
+    while (!queue.isEmpty()) {
+      final F file = queue.poll();
+      if (tests.contains(file)) {
+        affected.add(file);
+      }
+      for (F importer : importers.getOrDefault(file, List.of())) {
+        if (visited.add(importer)) {
+          queue.add(importer);
+        }
+      }
+    }
+    return affected;
+  }
+
+  @Nullable
+  private static VirtualFile resolve(@NotNull DartUrlResolver resolver, @NotNull VirtualFile from, @NotNull String uri) {
+    if (uri.startsWith("dart:")) {
+      return null;
+    }
+    if (uri.contains(":")) {
+      return resolver.findFileByDartUrl(uri);
+    }
+    final VirtualFile dir = from.getParent();
+    return dir == null ? null : dir.findFileByRelativePath(uri);
+  }
+
+  private static boolean isDartFile(@NotNull VirtualFile file) {
+    return file.getFileType() == DartFileType.INSTANCE;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.test;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the files in the project content that are deleted, moved or renamed, for {@link AffectedTests}.
+ * <p>
+ * These changes don't update any timestamp that could be compared with the last passing run. The count starts over
+ * with each instance, so a marker taken before the IDE was restarted never matches the current one.
+ */
+public class ContentMoveTracker implements Disposable {
+  @NotNull
+  public static ContentMoveTracker getInstance(@NotNull Project project) {
+    return Objects.requireNonNull(project.getService(ContentMoveTracker.class));
+  }
+
+  @NotNull private final Project project;
+  @NotNull private final String session = UUID.randomUUID().toString();
+  private final AtomicLong moves = new AtomicLong();
+
+  private ContentMoveTracker(@NotNull Project project) {
+    this.project = project;
+    project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void before(@NotNull List<? extends VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (isContentMove(event)) {
+            moves.incrementAndGet();
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Returns a marker that changes whenever a file in the project content is deleted, moved or renamed.
+   */
+  @NotNull
+  public String getMarker() {
+    return session + ":" + moves.get();
+  }
+
+  @Override
+  public void dispose() {
+  }
+
+  private boolean isContentMove(@NotNull VFileEvent event) {
+    if (event instanceof VFileDeleteEvent) {
+      return isInContent(event.getFile());
+    }
+    if (event instanceof VFileMoveEvent move) {
+      // A file moved into the project keeps its timestamp, so both ends count.
+      return isInContent(move.getOldParent()) || isInContent(move.getNewParent());
+    }
+    if (event instanceof VFilePropertyChangeEvent change && change.isRename()) {
+      return isInContent(change.getFile());
+    }
+    return false;
+  }
+
+  private boolean isInContent(@Nullable VirtualFile file) {
+    return file != null && file.isValid() && ProjectFileIndex.getInstance(project).isInContent(file);
+  }
+}
@@ -14,6 +14,7 @@ import com.intellij.execution.testframework.sm.runner.SMTestLocator;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -26,13 +27,16 @@ import com.intellij.psi.search.PsiElementProcessor;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.jetbrains.lang.dart.ide.runner.util.TestUtil;
 import com.jetbrains.lang.dart.psi.*;
+import io.flutter.run.common.TestCallIndex;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 public class DartTestLocationProviderZ implements SMTestLocator, DumbAware {
@@ -42,6 +46,16 @@ public class DartTestLocationProviderZ implements SMTestLocator, DumbAware {
 
   public static final DartTestLocationProviderZ INSTANCE = new DartTestLocationProviderZ();
 
+  /**
+   * The test calls in a file, and the offset of the first call with each group and test name path.
+   */
+  @VisibleForTesting
+  record TestPaths(long stamp, @NotNull List<TestCallIndex.TestCall> calls, @NotNull Map<List<String>, Integer> offsets) {
+  }
+
+  @VisibleForTesting
+  static final Key<TestPaths> TEST_PATHS = Key.create("io.flutter.TestPaths");
+
   public static final Type STRING_LIST_TYPE = new TypeToken<List<String>>() {
   }.getType();
 
@@ -103,8 +117,52 @@ public class DartTestLocationProviderZ implements SMTestLocator, DumbAware {
     return null;
   }
 
-  private static List<String> pathToNodes(final String element) {
-    return GSON.fromJson(element, STRING_LIST_TYPE);
+  /**
+   * Parses a JSON array of names, like ["main tests","calculate_fail"].
+   */
+  @VisibleForTesting
+  static List<String> pathToNodes(final String element) {
+    final List<String> nodes = parseStringArray(element);
+    return nodes != null ? nodes : GSON.fromJson(element, STRING_LIST_TYPE);
+  }
+
+  /**
+   * Parses a JSON array of strings without escapes, which covers almost all test names; returns null for anything else.
+   */
+  @Nullable
+  private static List<String> parseStringArray(@NotNull String json) {
+    int index = skipWhitespace(json, 0);
+    if (index >= json.length() || json.charAt(index) != '[') return null;
+    index = skipWhitespace(json, index + 1);
+
+    final List<String> result = new ArrayList<>();
+    if (index < json.length() && json.charAt(index) == ']') {
+      return skipWhitespace(json, index + 1) == json.length() ? result : null;
+    }
+    while (true) {
+      if (index >= json.length() || json.charAt(index) != '"') return null;
+      final int end = json.indexOf('"', index + 1);
+      if (end < 0) return null;
+      final String value = json.substring(index + 1, end);
+      if (value.indexOf('\\') >= 0) return null;
+      result.add(value);
+
+      index = skipWhitespace(json, end + 1);
+      if (index >= json.length()) return null;
+      final char c = json.charAt(index);
+      if (c == ']') {
+        return skipWhitespace(json, index + 1) == json.length() ? result : null;
+      }
+      if (c != ',') return null;
+      index = skipWhitespace(json, index + 1);
+    }
+  }
+
+  private static int skipWhitespace(@NotNull String json, int index) {
+    while (index < json.length() && Character.isWhitespace(json.charAt(index))) {
+      index++;
+    }
+    return index;
   }
 
   @VisibleForTesting
@@ -118,6 +176,13 @@ public class DartTestLocationProviderZ implements SMTestLocator, DumbAware {
     final List<Location> locations = new ArrayList<>();
 
     if (psiFile instanceof DartFile && !nodes.isEmpty()) {
+      // Look the test up in the file's cached test paths first, and only walk the file if it's not there.
+      final DartCallExpression cachedCall = findCachedCall(psiFile, nodes);
+      if (cachedCall != null) {
+        locations.add(new PsiLocation<>(cachedCall));
+        return locations;
+      }
+
       final PsiElementProcessor<PsiElement> collector = new PsiElementProcessor<>() {
         @Override
         public boolean execute(@NotNull final PsiElement element) {
@@ -156,6 +221,60 @@ public class DartTestLocationProviderZ implements SMTestLocator, DumbAware {
     return locations;
   }
 
+  @Nullable
+  private static DartCallExpression findCachedCall(@NotNull PsiFile psiFile, @NotNull List<String> nodes) {
+    final TestPaths testPaths = getTestPaths(psiFile);
+    Integer offset = testPaths.offsets().get(nodes);
+    if (offset == null) {
+      // The names may start below the outermost group.
+      final TestCallIndex.TestCall testCall = TestCallIndex.findTestCall(testPaths.calls(), nodes);
+      if (testCall == null) {
+        return null;
+      }
+      offset = testCall.offset();
+    }
+    final DartCallExpression call = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), DartCallExpression.class);
+    // A stale offset can land on another call; the caller then walks the file instead.
+    if (call == null || call.getTextOffset() != offset || !Objects.equals(getTestLabel(call), nodes.get(nodes.size() - 1))) {
+      return null;
+    }
+    return call;
+  }
+
+  /**
+   * Returns the test calls in the file and the offset of each group and test name path, computed once for each
+   * modification of the file.
+   */
+  @NotNull
+  private static TestPaths getTestPaths(@NotNull PsiFile psiFile) {
+    final long stamp = psiFile.getModificationStamp();
+    final TestPaths cached = psiFile.getUserData(TEST_PATHS);
+    if (cached != null && cached.stamp() == stamp) {
+      return cached;
+    }
+
+    final List<TestCallIndex.TestCall> calls = TestCallIndex.getTestCalls(psiFile);
+
+    // Each call's path extends its group's path, so every path is built in one pass over the calls.
+    final Map<List<String>, Integer> offsets = new HashMap<>();
+    final List<List<String>> paths = new ArrayList<>(calls.size());
+    for (TestCallIndex.TestCall call : calls) {
+      final List<String> parentPath = call.parent() < 0 ? List.of() : paths.get(call.parent());
+      List<String> path = null;
+      if (parentPath != null && call.name() != null) {
+        path = new ArrayList<>(parentPath.size() + 1);
+        path.addAll(parentPath);
+        path.add(call.name());
+        offsets.putIfAbsent(path, call.offset());
+      }
+      paths.add(path);
+    }
+
+    final TestPaths testPaths = new TestPaths(stamp, calls, offsets);
+    psiFile.putUserData(TEST_PATHS, testPaths);
+    return testPaths;
+  }
+
   protected boolean isTest(@NotNull DartCallExpression expression) {
     return TestUtil.isTest(expression);
   }
@@ -33,6 +33,11 @@ import java.util.*;
  * Settings for running a Flutter test.
  */
 public class TestFields {
+  /**
+   * The test runner options that select some of the tests in the files run.
+   */
+  private static final Set<String> FILTER_OPTIONS = Set.of("--name", "-n", "--plain-name", "--tags", "-t", "--exclude-tags", "-x");
+
   @Nullable
   private final String testName;
 
@@ -45,6 +50,8 @@ public class TestFields {
   @Nullable
   private String additionalArgs;
   private boolean useRegexp = false;
+  private int concurrency = 0;
+  private boolean affectedOnly = false;
 
   private TestFields(@Nullable String testName, @Nullable String testFile, @Nullable String testDir, @Nullable String additionalArgs) {
     if (testFile == null && testDir == null) {
@@ -73,7 +80,10 @@ public class TestFields {
   }
 
   public TestFields copy() {
-    return new TestFields(testName, testFile, testDir, additionalArgs).useRegexp(useRegexp);
+    final TestFields copy = new TestFields(testName, testFile, testDir, additionalArgs).useRegexp(useRegexp);
+    copy.setConcurrency(concurrency);
+    copy.setAffectedOnly(affectedOnly);
+    return copy;
   }
 
   /**
@@ -149,6 +159,52 @@ public class TestFields {
     additionalArgs = args;
   }
 
+  /**
+   * The number of test files to run at once when running a directory, or 0 to use the test runner's default.
+   * <p>
+   * flutter test runs each file in its own test process and merges their results (and coverage) into one report, so
+   * this spreads a directory's tests across that many processes.
+   */
+  public int getConcurrency() {
+    return concurrency;
+  }
+
+  public void setConcurrency(int concurrency) {
+    this.concurrency = Math.max(0, concurrency);
+  }
+
+  /**
+   * Whether a directory run only runs the test files affected by changes since its tests last passed.
+   *
+   * @see AffectedTests
+   */
+  public boolean isAffectedOnly() {
+    return affectedOnly;
+  }
+
+  public void setAffectedOnly(boolean affectedOnly) {
+    this.affectedOnly = affectedOnly;
+  }
+
+  /**
+   * Returns true if only some of the tests in the files run are selected, by name or by the additional arguments.
+   */
+  public boolean filtersTests() {
+    if (testName != null) {
+      return true;
+    }
+    if (additionalArgs == null) {
+      return false;
+    }
+    for (String arg : ParametersListUtil.parse(additionalArgs)) {
+      final int equals = arg.indexOf('=');
+      if (FILTER_OPTIONS.contains(equals < 0 ? arg : arg.substring(0, equals))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   /**
    * Returns the file or directory containing the tests to run, or null if it doesn't exist.
    */
@@ -223,6 +279,8 @@ public class TestFields {
     ElementIO.addOption(elt, "testDir", testDir);
     ElementIO.addOption(elt, "useRegexp", useRegexp ? "true" : "false");
     ElementIO.addOption(elt, "additionalArgs", additionalArgs);
+    ElementIO.addOption(elt, "concurrency", concurrency > 0 ? String.valueOf(concurrency) : null);
+    ElementIO.addOption(elt, "affectedOnly", affectedOnly ? "true" : null);
   }
 
   /**
@@ -237,8 +295,12 @@ public class TestFields {
     final String testDir = options.get("testDir");
     final String useRegexp = options.get("useRegexp");
     final String additionalArgs = options.get("additionalArgs");
+    final int concurrency = StringUtil.parseInt(options.get("concurrency"), 0);
     try {
-      return new TestFields(testName, testFile, testDir, additionalArgs).useRegexp("true".equals(useRegexp));
+      final TestFields fields = new TestFields(testName, testFile, testDir, additionalArgs).useRegexp("true".equals(useRegexp));
+      fields.setConcurrency(concurrency);
+      fields.setAffectedOnly("true".equals(options.get("affectedOnly")));
+      return fields;
     }
     catch (IllegalArgumentException e) {
       throw new InvalidDataException(e.getMessage());
@@ -277,8 +339,19 @@ public class TestFields {
       throw new ExecutionException("Test file isn't within a Flutter pub root");
     }
 
+    List<VirtualFile> testFiles = List.of(fileOrDir);
+    if (affectedOnly && getScope() == Scope.DIRECTORY) {
+      final List<VirtualFile> affected = AffectedTests.find(project, root, fileOrDir);
+      if (affected != null) {
+        if (affected.isEmpty()) {
+          throw new ExecutionException("No tests are affected by the changes since the tests last passed");
+        }
+        testFiles = affected;
+      }
+    }
+
     final String args = adjustArgs(root, fileOrDir, project);
-    return sdk.flutterTest(root, fileOrDir, testName, mode, args, getScope(), useRegexp).startProcess(project);
+    return sdk.flutterTest(root, testFiles, testName, mode, args, getScope(), useRegexp, concurrency).startProcess(project);
   }
 
   @Nullable
@@ -40,6 +40,12 @@ public class TestForm extends SettingsEditor<TestConfig> {
   private JTextField testName;
   private JLabel testNameHintLabel;
 
+  private JLabel concurrencyLabel;
+  private JSpinner concurrency;
+  private JLabel concurrencyHintLabel;
+
+  private JCheckBox affectedOnly;
+
   private com.intellij.ui.components.fields.ExpandableTextField additionalArgs;
 
   private Scope displayedScope;
@@ -62,6 +68,8 @@ public class TestForm extends SettingsEditor<TestConfig> {
       }
     });
 
+    concurrency.setModel(new SpinnerNumberModel(0, 0, 256, 1));
+
     initDartFileTextWithBrowse(project, testFile);
     testDir.addBrowseFolderListener(project, FileChooserDescriptorFactory.createSingleFolderDescriptor()
       .withTitle("Test Directory"));
@@ -90,6 +98,8 @@ public class TestForm extends SettingsEditor<TestConfig> {
         break;
     }
     additionalArgs.setText(fields.getAdditionalArgs());
+    concurrency.setValue(fields.getConcurrency());
+    affectedOnly.setSelected(fields.isAffectedOnly());
     render(next);
   }
 
@@ -101,6 +111,8 @@ public class TestForm extends SettingsEditor<TestConfig> {
       case DIRECTORY -> TestFields.forDir(testDir.getText());
     };
     fields.setAdditionalArgs(additionalArgs.getText().trim());
+    fields.setConcurrency((Integer)concurrency.getValue());
+    fields.setAffectedOnly(affectedOnly.isSelected());
     config.setFields(fields);
   }
 
@@ -154,6 +166,12 @@ public class TestForm extends SettingsEditor<TestConfig> {
     testNameHintLabel.setVisible(next == Scope.NAME);
     testName.setVisible(next == Scope.NAME);
 
+    concurrencyLabel.setVisible(next == Scope.DIRECTORY);
+    concurrencyHintLabel.setVisible(next == Scope.DIRECTORY);
+    concurrency.setVisible(next == Scope.DIRECTORY);
+
+    affectedOnly.setVisible(next == Scope.DIRECTORY);
+
     displayedScope = next;
   }
 }
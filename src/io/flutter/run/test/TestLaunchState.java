@@ -10,6 +10,7 @@ import com.intellij.execution.Executor;
 import com.intellij.execution.configurations.CommandLineState;
 import com.intellij.execution.configurations.RuntimeConfigurationError;
 import com.intellij.execution.filters.UrlFilter;
+import com.intellij.execution.process.ProcessEvent;
 import com.intellij.execution.process.ProcessHandler;
 import com.intellij.execution.runners.ExecutionEnvironment;
 import com.intellij.execution.testframework.sm.SMTestRunnerConnectionUtil;
@@ -32,6 +33,7 @@ import io.flutter.run.common.RunMode;
 import io.flutter.run.daemon.DaemonConsoleView;
 import io.flutter.sdk.FlutterCommandStartResult;
 import io.flutter.sdk.FlutterSdk;
+import io.flutter.utils.ProcessAdapter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -93,11 +95,17 @@ public class TestLaunchState extends CommandLineState {
   @Override
   protected ProcessHandler startProcess() throws ExecutionException {
     final RunMode mode = RunMode.fromEnv(getEnvironment());
+    final long startTime = System.currentTimeMillis();
+    final String moveMarker = ContentMoveTracker.getInstance(getEnvironment().getProject()).getMarker();
     final FlutterCommandStartResult result = fields.run(getEnvironment().getProject(), mode);
     switch (result.status) {
       case OK:
         assert result.processHandler != null;
         processHandler = result.processHandler;
+        // A run of only the affected test files counts, since the others haven't been affected since they passed.
+        if (fields.getScope() == TestFields.Scope.DIRECTORY && !fields.filtersTests()) {
+          recordPassingRuns(startTime, moveMarker);
+        }
         return result.processHandler;
       case EXCEPTION:
         assert result.exception != null;
@@ -107,6 +115,20 @@ public class TestLaunchState extends CommandLineState {
     }
   }
 
+  /**
+   * Remembers when the tests in the directory last all passed, for {@link AffectedTests}.
+   */
+  private void recordPassingRuns(long startTime, @NotNull String moveMarker) {
+    processHandler.addProcessListener(new ProcessAdapter() {
+      @Override
+      public void processTerminated(@NotNull ProcessEvent event) {
+        if (event.getExitCode() == 0) {
+          AffectedTests.recordPassingRun(config.getProject(), testFileOrDir, startTime, moveMarker);
+        }
+      }
+    });
+  }
+
   @Nullable
   @Override
   protected ConsoleView createConsole(@NotNull Executor executor) throws ExecutionException {
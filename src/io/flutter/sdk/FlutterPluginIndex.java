@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.sdk;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import io.flutter.FlutterUtils;
+import io.flutter.logging.PluginLogger;
+import io.flutter.pub.PubRoot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tracks which of the packages used by a project are Flutter plugins.
+ * <p>
+ * The packages of each package_config.json file are kept until the file changes, and whether each package is a
+ * plugin is kept until its pubspec changes, so an update only reads the files that changed since the last one.
+ */
+final class FlutterPluginIndex {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(FlutterPluginIndex.class);
+
+  private static final String PUBSPEC_LOCK = "pubspec.lock";
+
+  /**
+   * The package directories listed in a package_config.json file.
+   */
+  private record PackageConfig(long stamp, @NotNull List<VirtualFile> packageDirs) {
+  }
+
+  /**
+   * Whether a package is a plugin, as of the given pubspec modification stamp.
+   */
+  private record PackageInfo(long stamp, boolean plugin) {
+  }
+
+  /**
+   * Package configs by the path of the package_config.json file.
+   */
+  private final Map<String, PackageConfig> packageConfigs = new HashMap<>();
+
+  /**
+   * Packages by the path of the package directory.
+   */
+  private final Map<String, PackageInfo> packages = new HashMap<>();
+
+  private long packageConfigsRead;
+  private long pubspecsRead;
+
+  /**
+   * Returns the paths of the plugin packages used by the given pub roots.
+   */
+  @NotNull
+  synchronized Set<@NotNull String> getPluginPaths(@NotNull List<@NotNull PubRoot> roots) {
+    final long configsBefore = packageConfigsRead;
+    final long pubspecsBefore = pubspecsRead;
+
+    final Set<String> seenConfigs = new HashSet<>();
+    final Set<String> seenPackages = new HashSet<>();
+    final Set<String> paths = new HashSet<>();
+    for (PubRoot pubRoot : roots) {
+      final VirtualFile configFile = pubRoot.getPackageConfigFile();
+      if (configFile == null || !seenConfigs.add(configFile.getPath())) {
+        continue;
+      }
+
+      for (VirtualFile packageDir : getPackageDirs(pubRoot, configFile)) {
+        ProgressManager.checkCanceled();
+        final String packagePath = packageDir.getPath();
+        if (seenPackages.add(packagePath) && isPlugin(packageDir)) {
+          paths.add(packagePath);
+        }
+      }
+    }
+
+    // Forget the packages that are no longer used.
+    packageConfigs.keySet().retainAll(seenConfigs);
+    packages.keySet().retainAll(seenPackages);
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Updated Flutter plugins: read " + (packageConfigsRead - configsBefore) + " package configs and " +
+                (pubspecsRead - pubspecsBefore) + " pubspecs for " + seenPackages.size() + " packages");
+    }
+    return paths;
+  }
+
+  synchronized long getPackageConfigReadCount() {
+    return packageConfigsRead;
+  }
+
+  synchronized long getPubspecReadCount() {
+    return pubspecsRead;
+  }
+
+  @NotNull
+  private List<VirtualFile> getPackageDirs(@NotNull PubRoot pubRoot, @NotNull VirtualFile configFile) {
+    final PackageConfig cached = packageConfigs.get(configFile.getPath());
+    if (cached != null && cached.stamp() == configFile.getModificationStamp() && allValid(cached.packageDirs())) {
+      return cached.packageDirs();
+    }
+
+    packageConfigsRead++;
+    final long stamp = configFile.getModificationStamp();
+    final List<VirtualFile> packageDirs = new ArrayList<>();
+    final Map<String, String> packagesMap = pubRoot.getPackagesMap();
+    if (packagesMap != null) {
+      for (String packagePath : packagesMap.values()) {
+        if (packagePath == null) continue;
+        final VirtualFile libFolder = LocalFileSystem.getInstance().findFileByPath(packagePath);
+        if (libFolder != null && libFolder.getParent() != null) {
+          packageDirs.add(libFolder.getParent());
+        }
+      }
+    }
+    packageConfigs.put(configFile.getPath(), new PackageConfig(stamp, packageDirs));
+    return packageDirs;
+  }
+
+  private boolean isPlugin(@NotNull VirtualFile packageDir) {
+    final VirtualFile pubspec = findPubspec(packageDir);
+    if (pubspec == null) {
+      return false;
+    }
+
+    final String path = packageDir.getPath();
+    final PackageInfo cached = packages.get(path);
+    if (cached != null && cached.stamp() == pubspec.getModificationStamp()) {
+      return cached.plugin();
+    }
+
+    pubspecsRead++;
+    final long stamp = pubspec.getModificationStamp();
+    final boolean plugin = FlutterUtils.isFlutterPlugin(pubspec);
+    packages.put(path, new PackageInfo(stamp, plugin));
+    return plugin;
+  }
+
+  @Nullable
+  private static VirtualFile findPubspec(@NotNull VirtualFile packageDir) {
+    if (!packageDir.isValid() || !packageDir.isDirectory()) {
+      return null;
+    }
+    final VirtualFile pubspec = packageDir.findChild(PubRoot.PUBSPEC_YAML);
+    return pubspec == null || !pubspec.exists() || pubspec.isDirectory() ? null : pubspec;
+  }
+
+  private static boolean allValid(@NotNull List<VirtualFile> files) {
+    for (VirtualFile file : files) {
+      if (!file.isValid()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns true if a change to the given file can change the plugins used by a project.
+   */
+  static boolean isRelevantFile(@NotNull String path) {
+    return path.endsWith("/" + PubRoot.PUBSPEC_YAML) ||
+           path.endsWith("/" + PUBSPEC_LOCK) ||
+           path.endsWith("/" + PubRoot.DOT_DART_TOOL + "/" + PubRoot.PACKAGE_CONFIG_JSON);
+  }
+}
@@ -15,12 +15,14 @@ import com.intellij.openapi.roots.ModuleRootListener;
 import com.intellij.openapi.roots.libraries.PersistentLibraryKind;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VfsUtilCore;
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.openapi.vfs.VirtualFileContentsChangedAdapter;
 import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
 import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.messages.MessageBusConnection;
 import io.flutter.dart.FlutterDartAnalysisServer;
-import io.flutter.pub.PubRoot;
 import io.flutter.pub.PubRoots;
 import org.jetbrains.annotations.NotNull;
 
@@ -39,6 +41,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class FlutterPluginsLibraryManager extends AbstractLibraryManager<FlutterPluginLibraryProperties> {
 
   private final AtomicBoolean isUpdating = new AtomicBoolean(false);
+  private final FlutterPluginIndex index = new FlutterPluginIndex();
 
   public FlutterPluginsLibraryManager(@NotNull Project project) {
     super(project);
@@ -46,16 +49,18 @@ public class FlutterPluginsLibraryManager extends AbstractLibraryManager<Flutter
 
   public void startWatching() {
     var project = getProject();
-    VirtualFileManager.getInstance().addVirtualFileListener(new VirtualFileContentsChangedAdapter() {
+    final MessageBusConnection connection = project.getMessageBus().connect(FlutterDartAnalysisServer.getInstance(project));
+    connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
       @Override
-      protected void onFileChange(@NotNull VirtualFile file) {
-        fileChanged(getProject(), file);
-      }
-
-      @Override
-      protected void onBeforeFileChange(@NotNull VirtualFile file) {
+      public void after(@NotNull List<? extends @NotNull VFileEvent> events) {
+        for (VFileEvent event : events) {
+          if (isRelevantEvent(event)) {
+            scheduleUpdate();
+            return;
+          }
+        }
       }
-    }, FlutterDartAnalysisServer.getInstance(project));
+    });
 
     project.getMessageBus().connect().subscribe(ModuleRootListener.TOPIC, new ModuleRootListener() {
       @Override
@@ -79,10 +84,20 @@ public class FlutterPluginsLibraryManager extends AbstractLibraryManager<Flutter
     return FlutterPluginLibraryType.LIBRARY_KIND;
   }
   
-  private void fileChanged(@NotNull final Project project, @NotNull final VirtualFile file) {
-    if (LocalFileSystem.getInstance() != file.getFileSystem() && !ApplicationManager.getApplication().isUnitTestMode()) return;
-
-    scheduleUpdate();
+  /**
+   * Only changes to pubspecs, lock files and package configs can change the plugins in use.
+   */
+  private static boolean isRelevantEvent(@NotNull VFileEvent event) {
+    if (!(event.getFileSystem() instanceof LocalFileSystem) && !ApplicationManager.getApplication().isUnitTestMode()) return false;
+
+    if (event instanceof VFilePropertyChangeEvent change) {
+      return change.isRename() &&
+             (FlutterPluginIndex.isRelevantFile(change.getOldPath()) || FlutterPluginIndex.isRelevantFile(change.getNewPath()));
+    }
+    if (event instanceof VFileMoveEvent move) {
+      return FlutterPluginIndex.isRelevantFile(move.getOldPath()) || FlutterPluginIndex.isRelevantFile(move.getNewPath());
+    }
+    return FlutterPluginIndex.isRelevantFile(event.getPath());
   }
 
   private void scheduleUpdate() {
@@ -110,7 +125,7 @@ public class FlutterPluginsLibraryManager extends AbstractLibraryManager<Flutter
   private void updateFlutterPluginsImpl() {
     Project project = getProject();
 
-    ReadAction.nonBlocking(() -> getFlutterPluginPaths(PubRoots.forProject(project)))
+    ReadAction.nonBlocking(() -> index.getPluginPaths(PubRoots.forProject(project)))
       .expireWith(FlutterDartAnalysisServer.getInstance(project))
       .coalesceBy(this)
       .finishOnUiThread(ModalityState.nonModal(), flutterPluginPaths -> {
@@ -122,33 +137,4 @@ public class FlutterPluginsLibraryManager extends AbstractLibraryManager<Flutter
       })
       .submit(AppExecutorUtil.getAppExecutorService());
   }
-
-  private static @NotNull Set<@NotNull String> getFlutterPluginPaths(@NotNull List<@NotNull PubRoot> roots) {
-    final Set<String> paths = new HashSet<>();
-
-    for (PubRoot pubRoot : roots) {
-      final var packagesMap = pubRoot.getPackagesMap();
-      if (packagesMap == null) {
-        continue;
-      }
-
-      for (String packagePath : packagesMap.values()) {
-        if (packagePath == null) continue;
-        final VirtualFile libFolder = LocalFileSystem.getInstance().findFileByPath(packagePath);
-        if (libFolder == null) {
-          continue;
-        }
-        final PubRoot pluginRoot = PubRoot.forDirectory(libFolder.getParent());
-        if (pluginRoot == null) {
-          continue;
-        }
-
-        if (pluginRoot.isFlutterPlugin()) {
-          paths.add(pluginRoot.getPath());
-        }
-      }
-    }
-
-    return paths;
-  }
 }
@@ -383,8 +383,9 @@ public class FlutterSdk {
   }
 
   @NotNull
-  public FlutterCommand flutterTest(@NotNull PubRoot root, @NotNull VirtualFile fileOrDir, @Nullable String testNameSubstring,
-                                    @NotNull RunMode mode, @Nullable String additionalArgs, TestFields.Scope scope, boolean useRegexp) {
+  public FlutterCommand flutterTest(@NotNull PubRoot root, @NotNull List<VirtualFile> testFiles, @Nullable String testNameSubstring,
+                                    @NotNull RunMode mode, @Nullable String additionalArgs, TestFields.Scope scope, boolean useRegexp,
+                                    int concurrency) {
 
     final List<String> args = new ArrayList<>();
     args.add("--machine");
@@ -408,6 +409,11 @@ public class FlutterSdk {
       }
     }
 
+    // Only directories have several test files to run at once. Any concurrency in the additional args comes later, so it wins.
+    if (concurrency > 0 && Objects.equals(scope, TestFields.Scope.DIRECTORY)) {
+      args.add("--concurrency=" + concurrency);
+    }
+
     if (additionalArgs != null && !additionalArgs.trim().isEmpty()) {
       args.addAll(Arrays.asList(additionalArgs.trim().split(" ")));
     }
@@ -418,13 +424,15 @@ public class FlutterSdk {
       }
     }
 
-    if (!root.getRoot().equals(fileOrDir)) {
-      // Make the path to main relative (to make the command line prettier).
-      final String mainPath = root.getRelativePath(fileOrDir);
-      if (mainPath == null) {
-        throw new IllegalArgumentException("main isn't within the pub root: " + fileOrDir.getPath());
+    for (VirtualFile fileOrDir : testFiles) {
+      if (!root.getRoot().equals(fileOrDir)) {
+        // Make the path to main relative (to make the command line prettier).
+        final String mainPath = root.getRelativePath(fileOrDir);
+        if (mainPath == null) {
+          throw new IllegalArgumentException("main isn't within the pub root: " + fileOrDir.getPath());
+        }
+        args.add(FileUtil.toSystemDependentName(mainPath));
       }
-      args.add(FileUtil.toSystemDependentName(mainPath));
     }
 
     return new FlutterCommand(this, root.getRoot(), FlutterCommand.Type.TEST, args.toArray(new String[]{ }));
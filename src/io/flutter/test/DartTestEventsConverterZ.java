@@ -13,20 +13,20 @@ import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.PathUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.jetbrains.lang.dart.ide.runner.util.DartTestLocationProvider;
 import com.jetbrains.lang.dart.util.DartUrlResolver;
 import io.flutter.logging.PluginLogger;
 import io.flutter.utils.JsonUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import jetbrains.buildServer.messages.serviceMessages.ServiceMessageVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.lang.reflect.Type;
 import java.text.ParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -37,6 +37,9 @@ import java.util.regex.Pattern;
  * NOTE: The test runner runs tests asynchronously. It is possible to get a 'testDone'
  * event followed some time later by an 'error' event for that same test. That should
  * convert a successful test into a failure. That case is not being handled.
+ * <p>
+ * Lines that can't be JSON are passed on without being parsed, and the frequent "print", "testDone" and "error"
+ * events are read with a streaming reader (see {@link ReporterEvent}) rather than a JSON tree.
  */
 @SuppressWarnings({"FieldMayBeFinal", "LocalCanBeFinal", "SameReturnValue"})
 public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter {
@@ -84,6 +87,10 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   private static final String RESULT_FAILURE = "failure";
   private static final String RESULT_ERROR = "error";
 
+  private static final String NO_MESSAGE = "<no message>";
+  private static final String NO_ERROR_MESSAGE = "<no error message>";
+  private static final String NO_STACK_TRACE = "<no stack trace>";
+
   private static final String EXPECTED = "Expected: ";
   private static final Pattern EXPECTED_ACTUAL_RESULT = Pattern.compile("\\nExpected: (.*)\\n  Actual: (.*)\\n *\\^\\n Differ.*\\n");
   private static final String FILE_URL_PREFIX = "dart_location://";
@@ -95,14 +102,15 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   private static final Gson GSON = new Gson();
 
   @NotNull private final DartUrlResolver myUrlResolver;
+  @NotNull private final TestTimingStore myTimingStore;
+  private final List<TestTimingStore.Sample> myTimingSamples = new ArrayList<>();
 
   private String myLocation;
   private Key myCurrentOutputType;
   private ServiceMessageVisitor myCurrentVisitor;
-  private final HashMap<Integer, Long> myTestIdToTimestamp;
-  private final Map<Integer, Test> myTestData;
-  private final Map<Integer, Group> myGroupData;
-  private final Map<Integer, Suite> mySuiteData;
+  private final Int2ObjectMap<Test> myTestData;
+  private final Int2ObjectMap<Group> myGroupData;
+  private final Int2ObjectMap<Suite> mySuiteData;
   private int mySuitCount;
 
   public DartTestEventsConverterZ(@NotNull final String testFrameworkName,
@@ -110,16 +118,20 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
                                   @NotNull final DartUrlResolver urlResolver) {
     super(testFrameworkName, consoleProperties);
     myUrlResolver = urlResolver;
-    myTestIdToTimestamp = new HashMap<>();
-    myTestData = new HashMap<>();
-    myGroupData = new HashMap<>();
-    mySuiteData = new HashMap<>();
+    myTimingStore = TestTimingStore.getInstance(consoleProperties.getProject());
+    // Read the timings of earlier runs while the tests start, rather than on the first result.
+    myTimingStore.loadInBackground();
+    myTestData = new Int2ObjectOpenHashMap<>();
+    myGroupData = new Int2ObjectOpenHashMap<>();
+    mySuiteData = new Int2ObjectOpenHashMap<>();
   }
 
   @Override
   protected boolean processServiceMessages(final String text, final @NotNull Key outputType, final @NotNull ServiceMessageVisitor visitor)
     throws ParseException {
-    LOG.debug("<<< " + text.trim());
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("<<< " + text.trim());
+    }
     myCurrentOutputType = outputType;
     myCurrentVisitor = visitor;
     // service message parser expects line like "##teamcity[ .... ]" without whitespaces in the end.
@@ -128,20 +140,38 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
 
   @SuppressWarnings("SimplifiableIfStatement")
   private boolean processEventText(final String text) throws JsonSyntaxException, ParseException {
+    if (!ReporterEvent.isJsonLine(text)) {
+      return processNonJsonText(text);
+    }
+
+    final ReporterEvent event = ReporterEvent.read(text);
+    if (event != null) {
+      switch (event.type()) {
+        case TYPE_TEST_DONE:
+          return handleTestDone(getTest(event.testId()), event.result(), event.time());
+        case TYPE_PRINT:
+          return handlePrint(getTest(event.testId()), nonNullValue(event.message(), NO_MESSAGE));
+        case TYPE_ERROR:
+          return handleError(getTest(event.testId()), nonNullValue(event.error(), NO_ERROR_MESSAGE),
+                             nonNullValue(event.stackTrace(), NO_STACK_TRACE));
+        case TYPE_ALL_SUITES:
+          return handleAllSuites(event.count());
+        case TYPE_START:
+          return handleStart();
+        case TYPE_DONE:
+          return handleDone();
+        default:
+          // Events with nested objects are parsed below.
+          break;
+      }
+    }
+
     JsonElement elem;
     try {
       elem = JsonUtils.parseString(text);
     }
     catch (JsonSyntaxException ex) {
-      if (text.contains("\"json\" is not an allowed value for option \"reporter\"")) {
-        final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted("Failed to start");
-        final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed("Failed to start");
-        testFailed.addAttribute("message", "Please update your pubspec.yaml dependency on package:test to version 0.12.9 or later.");
-        final ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished("Failed to start");
-        return finishMessage(testStarted, 1, 0) & finishMessage(testFailed, 1, 0) & finishMessage(testFinished, 1, 0);
-      }
-
-      return doProcessServiceMessages(text);
+      return processNonJsonText(text);
     }
 
     if (elem != null && elem.isJsonArray()) return process(elem.getAsJsonArray());
@@ -150,6 +180,18 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     return process(elem.getAsJsonObject());
   }
 
+  private boolean processNonJsonText(@NotNull final String text) throws ParseException {
+    if (text.contains("\"json\" is not an allowed value for option \"reporter\"")) {
+      final ServiceMessageBuilder testStarted = ServiceMessageBuilder.testStarted("Failed to start");
+      final ServiceMessageBuilder testFailed = ServiceMessageBuilder.testFailed("Failed to start");
+      testFailed.addAttribute("message", "Please update your pubspec.yaml dependency on package:test to version 0.12.9 or later.");
+      final ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished("Failed to start");
+      return finishMessage(testStarted, 1, 0) & finishMessage(testFailed, 1, 0) & finishMessage(testFinished, 1, 0);
+    }
+
+    return doProcessServiceMessages(text);
+  }
+
   /**
    * Hook to process arrays.
    */
@@ -158,7 +200,9 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   private boolean doProcessServiceMessages(@NotNull final String text) throws ParseException {
-    LOG.debug(">>> " + text);
+    if (LOG.isDebugEnabled()) {
+      LOG.debug(">>> " + text);
+    }
     return super.processServiceMessages(text, myCurrentOutputType, myCurrentVisitor);
   }
 
@@ -183,13 +227,13 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
       return handleSuite(obj);
     }
     else if (TYPE_ALL_SUITES.equals(type)) {
-      return handleAllSuites(obj);
+      return handleAllSuites(getInt(obj, JSON_COUNT));
     }
     else if (TYPE_START.equals(type)) {
-      return handleStart(obj);
+      return handleStart();
     }
     else if (TYPE_DONE.equals(type)) {
-      return handleDone(obj);
+      return handleDone();
     }
     else {
       return true;
@@ -197,11 +241,8 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   private boolean handleTestStart(JsonObject obj) throws ParseException {
-    final JsonObject testObj = obj.getAsJsonObject(DEF_TEST);
-
-    // Not reached if testObj == null.
     final Test test = getTest(obj);
-    myTestIdToTimestamp.put(test.getId(), getTimestamp(obj));
+    test.myStartTime = getTimestamp(obj);
 
     if (shouldTestBeHiddenIfPassed(test)) {
       // Virtual test that represents loading or compiling a test suite. See lib/src/runner/loader.dart -> Loader.loadFile() in pkg/test source code
@@ -229,7 +270,7 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     addLocationHint(testStarted, test);
     boolean result = finishMessage(testStarted, test.getId(), test.getValidParentId());
 
-    final Metadata metadata = Metadata.from(testObj.getAsJsonObject(DEF_METADATA));
+    final Metadata metadata = test.getMetadata();
     if (metadata.skip) {
       final ServiceMessageBuilder message = ServiceMessageBuilder.testIgnored(test.getBaseName());
       if (metadata.skipReason != null) message.addAttribute("message", metadata.skipReason);
@@ -258,24 +299,65 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   private boolean handleTestDone(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
+    return handleTestDone(getTest(obj), getResult(obj), getLong(obj, JSON_MILLIS, -1));
+  }
 
+  private boolean handleTestDone(@NotNull Test test, @Nullable String result, long time) throws ParseException {
     if (!test.myTestStartReported) return true;
 
-    String result = getResult(obj);
-    if (!result.equals(RESULT_SUCCESS) && !result.equals(RESULT_FAILURE) && !result.equals(RESULT_ERROR)) {
-      throw new ParseException("Unknown result: " + obj, 0);
+    if (!RESULT_SUCCESS.equals(result) && !RESULT_FAILURE.equals(result) && !RESULT_ERROR.equals(result)) {
+      throw new ParseException("Unknown result: " + result, 0);
     }
+    if (time < 0) throw new ParseException("Value is not type long: " + JSON_MILLIS, 0);
 
     test.testDone();
 
     //if (test.getMetadata().skip) return true; // skipped tests are reported as ignored in handleTestStart(). testFinished signal must follow
 
+    long duration = time - test.myStartTime;
+    boolean messagesResult = true;
+    if (RESULT_SUCCESS.equals(result) && test.hasSuite() && !test.getMetadata().skip) {
+      messagesResult = recordTiming(test, duration);
+    }
+
     ServiceMessageBuilder testFinished = ServiceMessageBuilder.testFinished(test.getBaseName());
-    long duration = getTimestamp(obj) - myTestIdToTimestamp.get(test.getId());
     testFinished.addAttribute("duration", Long.toString(duration));
 
-    return finishMessage(testFinished, test.getId(), test.getValidParentId()) && checkGroupDone(test.getParent());
+    return messagesResult & finishMessage(testFinished, test.getId(), test.getValidParentId()) && checkGroupDone(test.getParent());
+  }
+
+  /**
+   * Records the duration of a passing test, and notes in its output if it was much slower than in recent runs.
+   */
+  private boolean recordTiming(@NotNull Test test, long duration) throws ParseException {
+    final List<String> names = test.nameList();
+    final TestTimingStore.TestTiming timing = myTimingStore.getTiming(test.getSuite().getPath(), names);
+    myTimingSamples.add(new TestTimingStore.Sample(test.getSuite().getPath(), names, duration));
+    if (timing == null || !timing.isRegression(duration)) {
+      return true;
+    }
+
+    final ServiceMessageBuilder message = ServiceMessageBuilder.testStdOut(test.getBaseName());
+    message.addAttribute("out", "Slower than usual: took " + duration + " ms; the median is " + timing.p50() + " ms and the 95th " +
+                                "percentile is " + timing.p95() + " ms over the last " + timing.runs() + " runs.\n");
+    return finishMessage(message, test.getId(), test.getValidParentId());
+  }
+
+  /**
+   * Saves the durations recorded in this run, off the thread reading the test output.
+   */
+  private void saveTimings() {
+    if (myTimingSamples.isEmpty()) return;
+    final List<TestTimingStore.Sample> samples = List.copyOf(myTimingSamples);
+    myTimingSamples.clear();
+    AppExecutorUtil.getAppExecutorService().execute(() -> myTimingStore.addRun(samples));
+  }
+
+  @Override
+  public void flushBufferOnProcessTermination(int exitCode) {
+    super.flushBufferOnProcessTermination(exitCode);
+    // Keep the durations of the tests that finished, even if the run didn't.
+    saveTimings();
   }
 
   @SuppressWarnings("SimplifiableIfStatement")
@@ -318,8 +400,10 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   private boolean handleError(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
-    final String message = getErrorMessage(obj);
+    return handleError(getTest(obj), getErrorMessage(obj), getStackTrace(obj));
+  }
+
+  private boolean handleError(@NotNull Test test, @NotNull String message, @NotNull String stackTrace) throws ParseException {
     boolean result = true;
 
     if (!test.myTestStartReported) {
@@ -360,7 +444,6 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
       result &= finishMessage(testError, test.getId(), test.getValidParentId());
     }
 
-    final String stackTrace = getStackTrace(obj);
     if (!StringUtil.isEmptyOrSpaces(stackTrace)) {
       final ServiceMessageBuilder stackTraceMessage = ServiceMessageBuilder.testStdErr(test.getBaseName());
       stackTraceMessage.addAttribute("out", appendLineBreakIfNeeded(stackTrace));
@@ -375,15 +458,16 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     return message.endsWith("\n") ? message : message + "\n";
   }
 
-  private boolean handleAllSuites(JsonObject obj) {
-    JsonElement elem = obj.get(JSON_COUNT);
-    if (elem == null || !elem.isJsonPrimitive()) return true;
-    mySuitCount = elem.getAsInt();
+  private boolean handleAllSuites(int count) {
+    if (count >= 0) mySuitCount = count;
     return true;
   }
 
   private boolean handlePrint(JsonObject obj) throws ParseException {
-    final Test test = getTest(obj);
+    return handlePrint(getTest(obj), getMessage(obj));
+  }
+
+  private boolean handlePrint(@NotNull Test test, @NotNull String text) throws ParseException {
     boolean result = true;
 
     if (!test.myTestStartReported) {
@@ -398,13 +482,13 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     }
 
     ServiceMessageBuilder message = ServiceMessageBuilder.testStdOut(test.getBaseName());
-    message.addAttribute("out", appendLineBreakIfNeeded(getMessage(obj)));
+    message.addAttribute("out", appendLineBreakIfNeeded(text));
 
     return result & finishMessage(message, test.getId(), test.getValidParentId());
   }
 
-  private boolean handleStart(JsonObject obj) throws ParseException {
-    myTestIdToTimestamp.clear();
+  private boolean handleStart() throws ParseException {
+    myTimingSamples.clear();
     myTestData.clear();
     myGroupData.clear();
     mySuiteData.clear();
@@ -414,13 +498,14 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   @SuppressWarnings("RedundantThrows")
-  private boolean handleDone(JsonObject obj) throws ParseException {
+  private boolean handleDone() throws ParseException {
     // The test runner has reached the end of the tests.
     processAllTestsDone();
     return true;
   }
 
   private void processAllTestsDone() {
+    saveTimings();
     // All tests are done.
     for (Group group : myGroupData.values()) {
       // For package: test prior to v. 0.12.9 there were no Group.testCount field, so need to finish them all at the end.
@@ -436,7 +521,6 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
         }
       }
     }
-    myTestIdToTimestamp.clear();
     myTestData.clear();
     myGroupData.clear();
     mySuiteData.clear();
@@ -496,6 +580,16 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     return val.getAsLong();
   }
 
+  private static long getLong(JsonObject obj, String name, long def) {
+    JsonElement val = obj == null ? null : obj.get(name);
+    return val == null || !val.isJsonPrimitive() ? def : val.getAsLong();
+  }
+
+  private static int getInt(JsonObject obj, String name) {
+    JsonElement val = obj == null ? null : obj.get(name);
+    return val == null || !val.isJsonPrimitive() ? -1 : val.getAsInt();
+  }
+
   private static boolean getBoolean(JsonObject obj, String name) throws ParseException {
     JsonElement val = obj == null ? null : obj.get(name);
     if (val == null || !val.isJsonPrimitive()) throw new ParseException("Value is not type boolean: " + val, 0);
@@ -507,6 +601,13 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     return getItem(obj, myTestData);
   }
 
+  @NotNull
+  private Test getTest(int testId) throws ParseException {
+    final Test test = myTestData.get(testId);
+    if (test == null) throw new ParseException("Unknown testID: " + testId, 0);
+    return test;
+  }
+
   @NotNull
   private Group getGroup(JsonObject obj) throws ParseException {
     return getItem(obj, myGroupData);
@@ -518,7 +619,7 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   @NotNull
-  private <T extends Item> T getItem(JsonObject obj, Map<Integer, T> items) throws ParseException {
+  private <T extends Item> T getItem(JsonObject obj, Int2ObjectMap<T> items) throws ParseException {
     if (obj == null) throw new ParseException("Unexpected null json object", 0);
     T item;
     JsonElement id = obj.get(JSON_ID);
@@ -558,17 +659,17 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
 
   @NotNull
   private static String getErrorMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_ERROR_MESSAGE, "<no error message>");
+    return nonNullJsonValue(obj, JSON_ERROR_MESSAGE, NO_ERROR_MESSAGE);
   }
 
   @NotNull
   private static String getMessage(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_MESSAGE, "<no message>");
+    return nonNullJsonValue(obj, JSON_MESSAGE, NO_MESSAGE);
   }
 
   @NotNull
   private static String getStackTrace(JsonObject obj) {
-    return nonNullJsonValue(obj, JSON_STACK_TRACE, "<no stack trace>");
+    return nonNullJsonValue(obj, JSON_STACK_TRACE, NO_STACK_TRACE);
   }
 
   @NotNull
@@ -583,6 +684,11 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     return val.getAsString();
   }
 
+  @NotNull
+  private static String nonNullValue(@Nullable String value, @NotNull String def) {
+    return value == null ? def : value;
+  }
+
   protected static class Item {
     protected static final String NO_NAME = "<no name>";
     private final int myId;
@@ -613,7 +719,7 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
       return Metadata.from(obj.get(DEF_METADATA));
     }
 
-    static Suite lookupSuite(JsonObject obj, Map<Integer, Suite> suites) {
+    static Suite lookupSuite(JsonObject obj, Int2ObjectMap<Suite> suites) {
       JsonElement suiteObj = obj.get(JSON_SUITE_ID);
       Suite suite = null;
       if (suiteObj != null && suiteObj.isJsonPrimitive()) {
@@ -745,12 +851,14 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   protected static class Test extends Item {
     private boolean myTestStartReported = false;
     private boolean myTestErrorReported = false;
+    private long myStartTime;
 
-    static Test from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
-      int[] groupIds = GSON.fromJson(obj.get(JSON_GROUP_IDS), (Type)int[].class);
+    static Test from(JsonObject obj, Int2ObjectMap<Group> groups, Int2ObjectMap<Suite> suites) {
+      JsonElement groupIds = obj.get(JSON_GROUP_IDS);
       Group parent = null;
-      if (groupIds != null && groupIds.length > 0) {
-        parent = groups.get(groupIds[groupIds.length - 1]);
+      if (groupIds != null && groupIds.isJsonArray() && !groupIds.getAsJsonArray().isEmpty()) {
+        final JsonArray ids = groupIds.getAsJsonArray();
+        parent = groups.get(ids.get(ids.size() - 1).getAsInt());
       }
       Suite suite = lookupSuite(obj, suites);
       int line = extractInt(obj, JSON_ROOT_LINE);
@@ -778,7 +886,7 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
     private int myTestCount;
     private int myDoneTestsCount = 0;
 
-    static Group from(JsonObject obj, Map<Integer, Group> groups, Map<Integer, Suite> suites) {
+    static Group from(JsonObject obj, Int2ObjectMap<Group> groups, Int2ObjectMap<Suite> suites) {
       JsonElement parentObj = obj.get(JSON_PARENT_ID);
       Group parent = null;
       if (parentObj != null && parentObj.isJsonPrimitive()) {
@@ -849,12 +957,18 @@ public class DartTestEventsConverterZ extends OutputToGeneralTestEventsConverter
   }
 
   private static class Metadata {
-    @SuppressWarnings("unused") private boolean skip; // assigned by GSON via reflection
-    @SuppressWarnings("unused") private String skipReason; // assigned by GSON via reflection
+    private boolean skip;
+    private String skipReason;
 
     static Metadata from(JsonElement elem) {
-      if (elem == null) return new Metadata();
-      return GSON.fromJson(elem, (Type)Metadata.class);
+      final Metadata metadata = new Metadata();
+      if (elem instanceof JsonObject obj) {
+        final JsonElement skip = obj.get("skip");
+        metadata.skip = skip != null && skip.isJsonPrimitive() && skip.getAsBoolean();
+        final JsonElement skipReason = obj.get("skipReason");
+        metadata.skipReason = skipReason != null && skipReason.isJsonPrimitive() ? skipReason.getAsString() : null;
+      }
+      return metadata;
     }
   }
 }
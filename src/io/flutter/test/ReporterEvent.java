@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.test;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * An event from the package:test JSON reporter whose members are all scalars.
+ * <p>
+ * The most frequent events, "print", "testDone" and "error", have no nested objects, so they are read with a streaming
+ * reader instead of being parsed into a JSON tree. Events with nested objects, like "testStart" and "group", are left
+ * to the tree parser.
+ *
+ * @param type       the event type
+ * @param testId     the "testID" member, or -1
+ * @param time       the "time" member, or -1
+ * @param count      the "count" member, or -1
+ * @param message    the "message" member of "print" events
+ * @param result     the "result" member of "testDone" events
+ * @param error      the "error" member of "error" events
+ * @param stackTrace the "stackTrace" member of "error" events
+ */
+record ReporterEvent(@NotNull String type,
+                     int testId,
+                     long time,
+                     int count,
+                     @Nullable String message,
+                     @Nullable String result,
+                     @Nullable String error,
+                     @Nullable String stackTrace) {
+
+  /**
+   * Returns true if the line may be a JSON object or array, so that plain output can skip the JSON parser.
+   */
+  static boolean isJsonLine(@NotNull String text) {
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (!Character.isWhitespace(c)) {
+        return c == '{' || c == '[';
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads an event, or returns null if the line isn't a JSON object with a type and only scalar members.
+   */
+  @Nullable
+  static ReporterEvent read(@NotNull String text) {
+    String type = null;
+    int testId = -1;
+    long time = -1;
+    int count = -1;
+    String message = null;
+    String result = null;
+    String error = null;
+    String stackTrace = null;
+
+    try (JsonReader reader = new JsonReader(new StringReader(text))) {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        return null;
+      }
+      reader.beginObject();
+      while (reader.hasNext()) {
+        final String name = reader.nextName();
+        final JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+          return null;
+        }
+        if (token == JsonToken.NULL) {
+          reader.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "type" -> type = reader.nextString();
+          case "testID" -> testId = reader.nextInt();
+          case "time" -> time = reader.nextLong();
+          case "count" -> count = reader.nextInt();
+          case "message" -> message = reader.nextString();
+          case "result" -> result = reader.nextString();
+          case "error" -> error = reader.nextString();
+          case "stackTrace" -> stackTrace = reader.nextString();
+          default -> reader.skipValue();
+        }
+      }
+      reader.endObject();
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        return null;
+      }
+    }
+    catch (IOException | IllegalStateException | NumberFormatException e) {
+      // Not well-formed; the tree parser decides what to do with the line.
+      return null;
+    }
+
+    return type == null ? null : new ReporterEvent(type, testId, time, count, message, result, error, stackTrace);
+  }
+}
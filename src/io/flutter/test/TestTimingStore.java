@@ -0,0 +1,473 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.test;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import io.flutter.logging.PluginLogger;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The durations of the tests run in a project, recorded from each run's test events and kept across restarts.
+ * <p>
+ * Tests are keyed by the path of their file and their group and test names. The last {@link #MAX_SAMPLES} durations of
+ * each test are kept. On disk the store is an append-only log: a run appends a record with its number, one record per
+ * finished test (and one record for each test seen for the first time), and the log is rewritten from memory once it
+ * holds mostly superseded records. Rewriting drops the tests whose file is gone, or that haven't run in the last
+ * {@link #STALE_RUNS} runs.
+ * <p>
+ * The log is read in the background by {@link #loadInBackground()}; until then {@link #getTiming} returns null rather
+ * than waiting for it.
+ */
+public class TestTimingStore {
+  private static final @NotNull Logger LOG = PluginLogger.createLogger(TestTimingStore.class);
+
+  private static final int MAGIC = 0x46545453; // "FTTS"
+  private static final int VERSION = 2;
+
+  private static final byte RUN_RECORD = 'R';
+  private static final byte KEY_RECORD = 'K';
+  private static final byte SAMPLE_RECORD = 'S';
+
+  /**
+   * The number of runs each test's statistics are computed over.
+   */
+  public static final int MAX_SAMPLES = 20;
+
+  /**
+   * The log is compacted once it holds this many times more samples than are kept, and at least this many records.
+   */
+  private static final int COMPACT_RATIO = 4;
+  private static final int COMPACT_MIN_RECORDS = 10_000;
+
+  /**
+   * Tests that haven't run in this many runs are dropped when the log is rewritten.
+   */
+  static final int STALE_RUNS = 1000;
+
+  /**
+   * A test's duration in one run.
+   *
+   * @param file   the path of the test file
+   * @param names  the group and test names, from the outermost group to the test itself
+   * @param millis the test's duration
+   */
+  public record Sample(@NotNull String file, @NotNull List<String> names, long millis) {
+  }
+
+  /**
+   * Statistics for a test over its recent runs.
+   *
+   * @param runs the number of runs recorded, up to {@link #MAX_SAMPLES}
+   * @param p50  the median duration, in milliseconds
+   * @param p95  the 95th percentile duration, in milliseconds
+   * @param last the duration in the most recent run, in milliseconds
+   */
+  public record TestTiming(int runs, long p50, long p95, long last) {
+    /**
+     * Returns true if the given duration is well above this test's usual durations.
+     */
+    public boolean isRegression(long millis) {
+      return runs >= 5 && millis > Math.max(2 * p50, p95) && millis - p95 >= 100;
+    }
+  }
+
+  private record Key(@NotNull String file, @NotNull List<String> names) {
+  }
+
+  /**
+   * The recent durations of a test, oldest first once the buffer has wrapped around.
+   */
+  private static final class Samples {
+    final int id;
+    final int[] millis = new int[MAX_SAMPLES];
+    int count;
+    int next;
+
+    /**
+     * The number of the last run that recorded a duration.
+     */
+    int lastRun;
+
+    Samples(int id) {
+      this.id = id;
+    }
+
+    void add(int value) {
+      millis[next] = value;
+      next = (next + 1) % MAX_SAMPLES;
+      count = Math.min(count + 1, MAX_SAMPLES);
+    }
+
+    @NotNull
+    TestTiming toTiming() {
+      final int[] sorted = Arrays.copyOf(millis, count);
+      Arrays.sort(sorted);
+      final int last = millis[(next + MAX_SAMPLES - 1) % MAX_SAMPLES];
+      return new TestTiming(count, percentile(sorted, 50), percentile(sorted, 95), last);
+    }
+
+    private static long percentile(int[] sorted, int percent) {
+      final int rank = (int)Math.ceil(percent / 100.0 * sorted.length);
+      return sorted[Math.max(0, rank - 1)];
+    }
+  }
+
+  @NotNull private final Path file;
+
+  /**
+   * The samples of each test, loaded on first use. Guarded by this.
+   */
+  @Nullable private Map<Key, Samples> tests;
+  @Nullable private Map<Integer, Key> keysById;
+  private int recordCount;
+  private int runCount;
+
+  /**
+   * The id for the next new test. Ids aren't reused while they are in the log, even after their test is dropped.
+   */
+  private int nextId;
+
+  /**
+   * The statistics of each test, for lookups that don't wait for the log to be read or written.
+   */
+  private final Map<Key, TestTiming> timings = new ConcurrentHashMap<>();
+  private volatile boolean loadFinished;
+
+  /**
+   * Whether the log couldn't be read to the end, so it must be rewritten rather than appended to.
+   */
+  private boolean needsRewrite;
+
+  @NotNull
+  public static TestTimingStore getInstance(@NotNull Project project) {
+    return Objects.requireNonNull(project.getService(TestTimingStore.class));
+  }
+
+  @SuppressWarnings("unused")
+  public TestTimingStore(@NotNull Project project) {
+    this(Paths.get(PathManager.getSystemPath(), "flutter", "test-timings", project.getLocationHash() + ".log"));
+  }
+
+  @VisibleForTesting
+  TestTimingStore(@NotNull Path file) {
+    this.file = file;
+  }
+
+  /**
+   * Reads the log on a background thread, if it hasn't been read yet.
+   */
+  public void loadInBackground() {
+    if (!loadFinished) {
+      AppExecutorUtil.getAppExecutorService().execute(this::ensureLoaded);
+    }
+  }
+
+  @VisibleForTesting
+  synchronized void ensureLoaded() {
+    load();
+  }
+
+  /**
+   * Returns the statistics of a test, or null if it hasn't been recorded or the log hasn't been read yet.
+   * <p>
+   * Doesn't wait for the log to be read, or for a run to be written.
+   */
+  @Nullable
+  public TestTiming getTiming(@NotNull String file, @NotNull List<String> names) {
+    return loadFinished ? timings.get(new Key(file, names)) : null;
+  }
+
+  /**
+   * Returns the sum of the median durations of the recorded tests in a file, or 0 if none are recorded.
+   */
+  public synchronized long getFileDuration(@NotNull String file) {
+    long total = 0;
+    for (Map.Entry<Key, Samples> entry : load().entrySet()) {
+      if (entry.getKey().file().equals(file) && entry.getValue().count > 0) {
+        total += entry.getValue().toTiming().p50();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Returns the statistics of every recorded test in a file, keyed by group and test names.
+   */
+  @NotNull
+  public synchronized Map<List<String>, TestTiming> getTimings(@NotNull String file) {
+    final Map<List<String>, TestTiming> result = new HashMap<>();
+    for (Map.Entry<Key, Samples> entry : load().entrySet()) {
+      if (entry.getKey().file().equals(file) && entry.getValue().count > 0) {
+        result.put(entry.getKey().names(), entry.getValue().toTiming());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Records the test durations from a run.
+   */
+  public synchronized void addRun(@NotNull List<Sample> run) {
+    if (run.isEmpty()) {
+      return;
+    }
+    final Map<Key, Samples> loaded = load();
+    assert keysById != null;
+    runCount++;
+
+    if (needsRewrite) {
+      for (Sample sample : run) {
+        addSample(loaded, sample);
+      }
+      compact();
+      return;
+    }
+
+    try {
+      Files.createDirectories(file.getParent());
+      final boolean isNew = !Files.isRegularFile(file);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+        if (isNew) {
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+        }
+        writeRun(out, runCount);
+        for (Sample sample : run) {
+          final int keyCount = loaded.size();
+          final Samples samples = addSample(loaded, sample);
+          if (loaded.size() > keyCount) {
+            writeKey(out, samples.id, keysById.get(samples.id));
+          }
+          writeSample(out, samples.id, samples.millis[(samples.next + MAX_SAMPLES - 1) % MAX_SAMPLES]);
+        }
+      }
+    }
+    catch (IOException e) {
+      // The log may end with part of a record now.
+      LOG.info("Unable to write test timings: " + e.getMessage());
+      needsRewrite = true;
+      return;
+    }
+
+    if (recordCount > COMPACT_MIN_RECORDS && recordCount > COMPACT_RATIO * loaded.size() * MAX_SAMPLES) {
+      compact();
+    }
+  }
+
+  @NotNull
+  private Samples addSample(@NotNull Map<Key, Samples> loaded, @NotNull Sample sample) {
+    assert keysById != null;
+    final Key key = new Key(sample.file(), List.copyOf(sample.names()));
+    Samples samples = loaded.get(key);
+    if (samples == null) {
+      samples = new Samples(nextId++);
+      loaded.put(key, samples);
+      keysById.put(samples.id, key);
+    }
+    samples.add((int)Math.min(Integer.MAX_VALUE, Math.max(0, sample.millis())));
+    samples.lastRun = runCount;
+    timings.put(key, samples.toTiming());
+    return samples;
+  }
+
+  @NotNull
+  private Map<Key, Samples> load() {
+    if (tests != null) {
+      return tests;
+    }
+    tests = new HashMap<>();
+    keysById = new HashMap<>();
+    recordCount = 0;
+    runCount = 0;
+    nextId = 0;
+    try {
+      read(tests, keysById);
+    }
+    finally {
+      for (Map.Entry<Key, Samples> entry : tests.entrySet()) {
+        if (entry.getValue().count > 0) {
+          timings.put(entry.getKey(), entry.getValue().toTiming());
+        }
+      }
+      loadFinished = true;
+    }
+    return tests;
+  }
+
+  private void read(@NotNull Map<Key, Samples> tests, @NotNull Map<Integer, Key> keysById) {
+    if (!Files.isRegularFile(file)) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        LOG.info("Discarding test timings with an unknown format");
+        needsRewrite = true;
+        return;
+      }
+      while (true) {
+        final int tag = in.read();
+        if (tag == -1) {
+          break;
+        }
+        if (tag == RUN_RECORD) {
+          runCount = Math.max(runCount, in.readInt());
+        }
+        else if (tag == KEY_RECORD) {
+          final int id = in.readInt();
+          final String path = in.readUTF();
+          final String[] names = new String[in.readInt()];
+          for (int i = 0; i < names.length; i++) {
+            names[i] = in.readUTF();
+          }
+          final Key key = new Key(path, List.of(names));
+          keysById.put(id, key);
+          tests.put(key, new Samples(id));
+          nextId = Math.max(nextId, id + 1);
+        }
+        else if (tag == SAMPLE_RECORD) {
+          final Key key = keysById.get(in.readInt());
+          final int millis = in.readInt();
+          if (key != null) {
+            final Samples samples = tests.get(key);
+            samples.add(millis);
+            samples.lastRun = runCount;
+          }
+        }
+        else {
+          throw new IOException("unknown record " + tag);
+        }
+        recordCount++;
+      }
+    }
+    catch (EOFException e) {
+      // A run was interrupted while it was being written; keep the records before it.
+      needsRewrite = true;
+    }
+    catch (IOException e) {
+      LOG.info("Unable to read test timings: " + e.getMessage());
+      needsRewrite = true;
+    }
+  }
+
+  /**
+   * Rewrites the log with only the samples that are kept, dropping the tests that no longer exist.
+   */
+  private void compact() {
+    assert tests != null && keysById != null;
+    for (Iterator<Map.Entry<Key, Samples>> it = tests.entrySet().iterator(); it.hasNext(); ) {
+      final Map.Entry<Key, Samples> entry = it.next();
+      if (isStale(entry.getKey(), entry.getValue())) {
+        it.remove();
+        keysById.remove(entry.getValue().id);
+        timings.remove(entry.getKey());
+      }
+    }
+
+    // Each test's samples follow the number of the last run that recorded one, so that the next load restores it.
+    final List<Map.Entry<Key, Samples>> entries = new ArrayList<>(tests.entrySet());
+    entries.sort(Comparator.comparingInt((Map.Entry<Key, Samples> entry) -> entry.getValue().lastRun));
+
+    final Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    recordCount = 0;
+    try {
+      Files.createDirectories(file.getParent());
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        int run = -1;
+        for (Map.Entry<Key, Samples> entry : entries) {
+          final Samples samples = entry.getValue();
+          if (samples.lastRun != run) {
+            run = samples.lastRun;
+            writeRun(out, run);
+          }
+          writeKey(out, samples.id, entry.getKey());
+          for (int i = 0; i < samples.count; i++) {
+            final int index = (samples.next - samples.count + i + MAX_SAMPLES) % MAX_SAMPLES;
+            writeSample(out, samples.id, samples.millis[index]);
+          }
+        }
+        // The last run may not have recorded anything that was kept.
+        if (run != runCount) {
+          writeRun(out, runCount);
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+      needsRewrite = false;
+    }
+    catch (IOException e) {
+      LOG.info("Unable to compact test timings: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Returns true if a test hasn't run recently, or its file has been deleted.
+   */
+  private boolean isStale(@NotNull Key key, @NotNull Samples samples) {
+    if (runCount - samples.lastRun >= STALE_RUNS) {
+      return true;
+    }
+    try {
+      final Path path = Paths.get(key.file());
+      return path.isAbsolute() && !Files.exists(path);
+    }
+    catch (InvalidPathException e) {
+      return false;
+    }
+  }
+
+  private void writeRun(@NotNull DataOutputStream out, int run) throws IOException {
+    out.writeByte(RUN_RECORD);
+    out.writeInt(run);
+    recordCount++;
+  }
+
+  private void writeKey(@NotNull DataOutputStream out, int id, @NotNull Key key) throws IOException {
+    out.writeByte(KEY_RECORD);
+    out.writeInt(id);
+    out.writeUTF(key.file());
+    out.writeInt(key.names().size());
+    for (String name : key.names()) {
+      out.writeUTF(name);
+    }
+    recordCount++;
+  }
+
+  private void writeSample(@NotNull DataOutputStream out, int id, int millis) throws IOException {
+    out.writeByte(SAMPLE_RECORD);
+    out.writeInt(id);
+    out.writeInt(millis);
+    recordCount++;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.utils;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Counts durations in buckets whose bounds double, so that percentiles can be estimated in constant space.
+ * <p>
+ * Bucket 0 counts durations under 1ms, and bucket i counts durations from 2^(i-1) up to 2^i milliseconds. The last
+ * bucket counts everything longer.
+ */
+public class LatencyHistogram {
+  private static final int BUCKETS = 18;
+
+  private final long[] counts = new long[BUCKETS];
+  private long count;
+  private long sum;
+  private long max;
+
+  public synchronized void record(long millis) {
+    millis = Math.max(0, millis);
+    counts[bucket(millis)]++;
+    count++;
+    sum += millis;
+    max = Math.max(max, millis);
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  public synchronized long getMax() {
+    return max;
+  }
+
+  public synchronized long getMean() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  /**
+   * Returns an upper bound on the given percentile, in milliseconds, or 0 if nothing has been recorded.
+   * <p>
+   * The bound is the upper bound of the bucket the percentile falls in, and is never more than the longest duration.
+   */
+  public synchronized long getPercentile(int percent) {
+    if (count == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long)Math.ceil(percent / 100.0 * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS - 1; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(1L << i, max);
+      }
+    }
+    return max;
+  }
+
+  @NotNull
+  @Override
+  public synchronized String toString() {
+    return "count=" + count + " mean=" + getMean() + "ms p50<=" + getPercentile(50) + "ms p95<=" + getPercentile(95) +
+           "ms max=" + max + "ms";
+  }
+
+  private static int bucket(long millis) {
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.view;
+
+import com.intellij.concurrency.JobScheduler;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.StatusBar;
+import com.intellij.openapi.wm.StatusBarWidget;
+import io.flutter.actions.FlutterAppAction;
+import io.flutter.actions.ProjectActions;
+import io.flutter.actions.ReloadFlutterApp;
+import io.flutter.run.daemon.FlutterApp;
+import io.flutter.vmService.FrameTimings;
+import io.flutter.vmService.VMServiceManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.Component;
+import java.util.Locale;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the frame timings of the current Flutter app in the status bar.
+ */
+public class FrameTimingWidget implements StatusBarWidget, StatusBarWidget.TextPresentation {
+  public static final String ID = "FlutterFrameTimings";
+
+  @NotNull private final Project project;
+  @Nullable private StatusBar statusBar;
+  @Nullable private ScheduledFuture<?> timer;
+
+  FrameTimingWidget(@NotNull Project project) {
+    this.project = project;
+  }
+
+  @NotNull
+  @Override
+  public String ID() {
+    return ID;
+  }
+
+  @Nullable
+  @Override
+  public WidgetPresentation getPresentation() {
+    return this;
+  }
+
+  @Override
+  public void install(@NotNull StatusBar statusBar) {
+    this.statusBar = statusBar;
+    timer = JobScheduler.getScheduler().scheduleWithFixedDelay(() -> {
+      final StatusBar bar = this.statusBar;
+      if (bar != null && !project.isDisposed()) {
+        bar.updateWidget(ID);
+      }
+    }, 1, 1, TimeUnit.SECONDS);
+  }
+
+  @Override
+  public void dispose() {
+    if (timer != null) {
+      timer.cancel(false);
+      timer = null;
+    }
+    statusBar = null;
+  }
+
+  @NotNull
+  @Override
+  public String getText() {
+    final FrameTimings.Stats stats = getStats();
+    if (stats == null || stats.frames() == 0) {
+      return "";
+    }
+    return "UI " + millis(stats.build().p90()) + " · Raster " + millis(stats.raster().p90()) +
+           (stats.totalJanky() == 0 ? "" : " · " + stats.totalJanky() + " janky");
+  }
+
+  @Override
+  public float getAlignment() {
+    return Component.CENTER_ALIGNMENT;
+  }
+
+  @Nullable
+  @Override
+  public String getTooltipText() {
+    final FrameTimings.Stats stats = getStats();
+    if (stats == null || stats.frames() == 0) {
+      return null;
+    }
+    return "<html>Frame timings over the last " + stats.frames() + " frames<br>" +
+           "<table>" +
+           "<tr><td></td><td>p50</td><td>p90</td><td>p99</td><td>Over budget</td></tr>" +
+           row("UI", stats.build()) +
+           row("Raster", stats.raster()) +
+           "</table>" +
+           stats.totalJanky() + " of " + stats.totalFrames() + " frames over budget since the app started</html>";
+  }
+
+  @Nullable
+  private FrameTimings.Stats getStats() {
+    if (project.isDisposed()) {
+      return null;
+    }
+    final AnAction reloadAction = ProjectActions.getAction(project, ReloadFlutterApp.ID);
+    if (!(reloadAction instanceof FlutterAppAction appAction)) {
+      return null;
+    }
+    final FlutterApp app = appAction.getApp();
+    if (app == null || !app.isStarted()) {
+      return null;
+    }
+    final VMServiceManager manager = app.getVMServiceManager();
+    return manager == null ? null : manager.getFrameTimings().getStats();
+  }
+
+  @NotNull
+  private static String row(@NotNull String name, @NotNull FrameTimings.PhaseStats stats) {
+    return "<tr><td>" + name + "</td><td>" + millis(stats.p50()) + "</td><td>" + millis(stats.p90()) + "</td><td>" +
+           millis(stats.p99()) + "</td><td>" + stats.janky() + "</td></tr>";
+  }
+
+  @NotNull
+  private static String millis(long micros) {
+    return String.format(Locale.ROOT, "%.1fms", micros / 1000.0);
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.view;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.StatusBarWidget;
+import com.intellij.openapi.wm.StatusBarWidgetFactory;
+import io.flutter.FlutterBundle;
+import io.flutter.utils.FlutterModuleUtils;
+import org.jetbrains.annotations.NotNull;
+
+public class FrameTimingWidgetFactory implements StatusBarWidgetFactory {
+  @NotNull
+  @Override
+  public String getId() {
+    return FrameTimingWidget.ID;
+  }
+
+  @NotNull
+  @Override
+  public String getDisplayName() {
+    return FlutterBundle.message("flutter.frame.timings.widget.name");
+  }
+
+  @Override
+  public boolean isAvailable(@NotNull Project project) {
+    return FlutterModuleUtils.hasFlutterModule(project);
+  }
+
+  @NotNull
+  @Override
+  public StatusBarWidget createWidget(@NotNull Project project) {
+    return new FrameTimingWidget(project);
+  }
+}
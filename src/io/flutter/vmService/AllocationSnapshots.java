@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import org.dartlang.vm.service.element.AllocationProfile;
+import org.dartlang.vm.service.element.ClassHeapStats;
+import org.dartlang.vm.service.element.ClassRef;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The live instances and bytes of each class of an isolate, from successive getAllocationProfile responses.
+ * <p>
+ * Classes are numbered in the order they are first seen, and each snapshot keeps its counts in primitive arrays indexed
+ * by that number, so a snapshot costs a few bytes per class and two snapshots are compared in one pass over the classes.
+ */
+public class AllocationSnapshots {
+  /**
+   * The number of snapshots kept; older ones are dropped.
+   */
+  public static final int MAX_SNAPSHOTS = 20;
+
+  /**
+   * A snapshot of the live instances of each class.
+   *
+   * @param label     what the snapshot was taken for, for example "Hot reload"
+   * @param timestamp when the snapshot was taken, in milliseconds since the epoch
+   */
+  public record Snapshot(@NotNull String label, long timestamp, @NotNull int[] instances, @NotNull long[] bytes) {
+    int getInstances(int index) {
+      return index < instances.length ? instances[index] : 0;
+    }
+
+    long getBytes(int index) {
+      return index < bytes.length ? bytes[index] : 0;
+    }
+  }
+
+  /**
+   * The change in a class's live instances between two snapshots.
+   *
+   * @param name           the class name
+   * @param instances      the number of live instances in the later snapshot
+   * @param instancesDelta the change in the number of live instances
+   * @param bytes          the bytes of the live instances in the later snapshot
+   * @param bytesDelta     the change in the bytes of the live instances
+   */
+  public record ClassDelta(@NotNull String name, long instances, long instancesDelta, long bytes, long bytesDelta) {
+    /**
+     * Returns whether the class has more live instances or bytes than before.
+     */
+    public boolean grew() {
+      return instancesDelta > 0 || bytesDelta > 0;
+    }
+  }
+
+  /**
+   * The class ids seen so far, and their names, by class number.
+   */
+  private final Map<String, Integer> classNumbers = new HashMap<>();
+  private final List<String> classNames = new ArrayList<>();
+
+  private final Deque<Snapshot> snapshots = new ArrayDeque<>();
+
+  /**
+   * Adds a snapshot from a getAllocationProfile response.
+   */
+  @NotNull
+  public synchronized Snapshot add(@NotNull AllocationProfile profile, @NotNull String label, long timestamp) {
+    final List<ClassHeapStats> members = new ArrayList<>();
+    for (ClassHeapStats stats : profile.getMembers()) {
+      members.add(stats);
+    }
+
+    int[] instances = new int[classNames.size() + members.size()];
+    long[] bytes = new long[instances.length];
+    int size = classNames.size();
+    for (ClassHeapStats stats : members) {
+      final ClassRef classRef = stats.getClassRef();
+      final String id = classRef.getId();
+      if (id == null) {
+        continue;
+      }
+      final int index = classNumbers.computeIfAbsent(id, (key) -> {
+        classNames.add(getClassName(classRef));
+        return classNames.size() - 1;
+      });
+      // A class can be listed once per heap space.
+      instances[index] += stats.getInstancesCurrent();
+      bytes[index] += stats.getBytesCurrent();
+      size = Math.max(size, index + 1);
+    }
+    instances = Arrays.copyOf(instances, size);
+    bytes = Arrays.copyOf(bytes, size);
+
+    final Snapshot snapshot = new Snapshot(label, timestamp, instances, bytes);
+    snapshots.addLast(snapshot);
+    if (snapshots.size() > MAX_SNAPSHOTS) {
+      snapshots.removeFirst();
+    }
+    return snapshot;
+  }
+
+  /**
+   * Returns the snapshots, oldest first.
+   */
+  @NotNull
+  public synchronized List<Snapshot> getSnapshots() {
+    return new ArrayList<>(snapshots);
+  }
+
+  /**
+   * Returns the snapshot taken before the given one, or null if it is the oldest one kept.
+   */
+  @Nullable
+  public synchronized Snapshot getPrevious(@NotNull Snapshot snapshot) {
+    Snapshot previous = null;
+    for (Snapshot next : snapshots) {
+      if (next == snapshot) {
+        return previous;
+      }
+      previous = next;
+    }
+    return null;
+  }
+
+  /**
+   * Returns the classes whose live instances changed between two snapshots, the ones that grew the most first.
+   */
+  @NotNull
+  public synchronized List<ClassDelta> diff(@NotNull Snapshot before, @NotNull Snapshot after) {
+    // Snapshots from before a clear() number their classes differently; only compare the classes known now.
+    final int count = Math.min(classNames.size(), Math.max(before.instances().length, after.instances().length));
+    final List<ClassDelta> deltas = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final long instancesDelta = (long)after.getInstances(i) - before.getInstances(i);
+      final long bytesDelta = after.getBytes(i) - before.getBytes(i);
+      if (instancesDelta != 0 || bytesDelta != 0) {
+        deltas.add(new ClassDelta(classNames.get(i), after.getInstances(i), instancesDelta, after.getBytes(i), bytesDelta));
+      }
+    }
+    deltas.sort(Comparator.comparingLong(ClassDelta::bytesDelta).thenComparingLong(ClassDelta::instancesDelta).reversed());
+    return deltas;
+  }
+
+  /**
+   * Forgets the snapshots and classes, for example when the app restarts in a new isolate.
+   */
+  public synchronized void clear() {
+    snapshots.clear();
+    classNumbers.clear();
+    classNames.clear();
+  }
+
+  @NotNull
+  private static String getClassName(@NotNull ClassRef classRef) {
+    final String name = classRef.getName();
+    return name == null ? classRef.getId() : name;
+  }
+}
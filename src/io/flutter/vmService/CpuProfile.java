@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CPU time spent in each function, accumulated from successive getCpuSamples responses.
+ * <p>
+ * Each response covers a short time window. Only its function table is read, whose exclusive and inclusive tick counts
+ * add up across windows, so a long capture keeps one small entry per function rather than every sample.
+ */
+public class CpuProfile {
+  /**
+   * The ticks of a function over the capture.
+   *
+   * @param name       the function's name, qualified by its class if it has one
+   * @param script     the "@Script" reference of the function's location, or null for native and stub functions
+   * @param tokenPos   the token position of the function's declaration, or -1
+   * @param selfTicks  the number of samples in which the function was at the top of the stack
+   * @param totalTicks the number of samples in which the function was anywhere on the stack
+   */
+  public record FunctionStats(@NotNull String name, @Nullable JsonObject script, int tokenPos, long selfTicks, long totalTicks) {
+  }
+
+  private static final class Counts {
+    @NotNull final String name;
+    @Nullable final JsonObject script;
+    final int tokenPos;
+    long selfTicks;
+    long totalTicks;
+
+    Counts(@NotNull String name, @Nullable JsonObject script, int tokenPos) {
+      this.name = name;
+      this.script = script;
+      this.tokenPos = tokenPos;
+    }
+  }
+
+  private final Map<String, Counts> functions = new HashMap<>();
+  private long sampleCount;
+  private int samplePeriod;
+
+  /**
+   * Adds the functions of a getCpuSamples response.
+   *
+   * @return the end of the time range the response covered, in microseconds, or -1 if it didn't say
+   */
+  public synchronized long add(@NotNull JsonObject response) {
+    sampleCount += getInt(response, "sampleCount", 0);
+    samplePeriod = getInt(response, "samplePeriod", samplePeriod);
+
+    final JsonElement list = response.get("functions");
+    if (list instanceof JsonArray array) {
+      for (JsonElement element : array) {
+        if (element instanceof JsonObject function) {
+          addFunction(function);
+        }
+      }
+    }
+
+    final long origin = getLong(response, "timeOriginMicros");
+    final long extent = getLong(response, "timeExtentMicros");
+    return origin < 0 || extent < 0 ? -1 : origin + extent;
+  }
+
+  private void addFunction(@NotNull JsonObject profileFunction) {
+    final long self = getInt(profileFunction, "exclusiveTicks", 0);
+    final long total = getInt(profileFunction, "inclusiveTicks", 0);
+    if (self == 0 && total == 0) {
+      return;
+    }
+
+    String name = "<unknown>";
+    JsonObject script = null;
+    int tokenPos = -1;
+    if (profileFunction.get("function") instanceof JsonObject function) {
+      name = getString(function, "name", name);
+      if (function.get("owner") instanceof JsonObject owner && "@Class".equals(getString(owner, "type", null))) {
+        name = getString(owner, "name", "") + "." + name;
+      }
+      if (function.get("location") instanceof JsonObject location) {
+        if (location.get("script") instanceof JsonObject scriptRef) {
+          script = scriptRef;
+        }
+        tokenPos = getInt(location, "tokenPos", -1);
+      }
+    }
+
+    final String uri = script == null ? getString(profileFunction, "resolvedUrl", "") : getString(script, "uri", "");
+    final String key = uri + "#" + tokenPos + "#" + name;
+    final JsonObject location = script;
+    final int pos = tokenPos;
+    final String functionName = name;
+    final Counts counts = functions.computeIfAbsent(key, (k) -> new Counts(functionName, location, pos));
+    counts.selfTicks += self;
+    counts.totalTicks += total;
+  }
+
+  /**
+   * Returns the total number of samples taken.
+   */
+  public synchronized long getSampleCount() {
+    return sampleCount;
+  }
+
+  /**
+   * Returns the time between samples, in microseconds, or 0 if unknown.
+   */
+  public synchronized int getSamplePeriod() {
+    return samplePeriod;
+  }
+
+  /**
+   * Returns the functions with the most self time, then the most total time.
+   */
+  @NotNull
+  public synchronized List<FunctionStats> getHottest(int limit) {
+    final List<Counts> sorted = new ArrayList<>(functions.values());
+    sorted.sort(Comparator.comparingLong((Counts c) -> c.selfTicks).thenComparingLong((Counts c) -> c.totalTicks).reversed());
+
+    final List<FunctionStats> result = new ArrayList<>();
+    for (Counts counts : sorted.subList(0, Math.min(limit, sorted.size()))) {
+      result.add(new FunctionStats(counts.name, counts.script, counts.tokenPos, counts.selfTicks, counts.totalTicks));
+    }
+    return result;
+  }
+
+  private static int getInt(@NotNull JsonObject json, @NotNull String name, int defaultValue) {
+    final JsonElement value = json.get(name);
+    return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber() ? value.getAsInt() : defaultValue;
+  }
+
+  private static long getLong(@NotNull JsonObject json, @NotNull String name) {
+    final JsonElement value = json.get(name);
+    return value != null && value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber() ? value.getAsLong() : -1;
+  }
+
+  @Nullable
+  private static String getString(@NotNull JsonObject json, @NotNull String name, @Nullable String defaultValue) {
+    final JsonElement value = json.get(name);
+    return value != null && value.isJsonPrimitive() ? value.getAsString() : defaultValue;
+  }
+}
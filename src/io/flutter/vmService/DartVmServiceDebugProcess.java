@@ -46,6 +46,7 @@ import org.dartlang.vm.service.consumer.GetObjectConsumer;
 import org.dartlang.vm.service.consumer.VMConsumer;
 import org.dartlang.vm.service.element.*;
 import org.dartlang.vm.service.element.Event;
+import org.dartlang.vm.service.element.Frame;
 import org.dartlang.vm.service.logging.Logging;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -58,6 +59,9 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public abstract class DartVmServiceDebugProcess extends XDebugProcess {
   private static final @NotNull Logger LOG = PluginLogger.createLogger(DartVmServiceDebugProcess.class);
@@ -193,6 +197,11 @@ public abstract class DartVmServiceDebugProcess extends XDebugProcess {
       public void logInformation(final String message, final Throwable exception) {
         LOG.debug(message, exception);
       }
+
+      @Override
+      public boolean isInformationEnabled() {
+        return LOG.isDebugEnabled();
+      }
     });
   }
 
@@ -414,6 +423,31 @@ public abstract class DartVmServiceDebugProcess extends XDebugProcess {
     return mapper.getSourcePosition(isolateId, scriptRef, tokenPos, fileFuture);
   }
 
+  /**
+   * Downloads the scripts of the given frames in one concurrent batch, waiting at most the given time for them.
+   */
+  public void prefetchScripts(@NotNull final String isolateId, @NotNull final Collection<Frame> frames, long timeoutMillis) {
+    final Set<ScriptRef> scripts = new LinkedHashSet<>();
+    for (Frame frame : frames) {
+      if (frame.getLocation() != null && frame.getLocation().getScript() != null) {
+        scripts.add(frame.getLocation().getScript());
+      }
+    }
+    if (scripts.isEmpty()) {
+      return;
+    }
+
+    try {
+      mapper.prefetchScripts(isolateId, scripts).get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException | TimeoutException e) {
+      // Any scripts that are still missing will be downloaded as they are needed.
+    }
+  }
+
   @Nullable
   public String getCurrentIsolateId() {
     if (myLatestCurrentIsolateId != null) {
@@ -462,8 +496,17 @@ public abstract class DartVmServiceDebugProcess extends XDebugProcess {
 
     myVmServiceWrapper = new VmServiceWrapper(this, vmService, vmServiceListener, myIsolatesInfo, breakpointHandler);
 
-    final ScriptProvider provider =
-      (isolateId, scriptId) -> myVmServiceWrapper.getScriptSync(isolateId, scriptId);
+    final ScriptProvider provider = new ScriptProvider() {
+      @Override
+      public Script downloadScript(@NotNull String isolateId, @NotNull String scriptId) {
+        return myVmServiceWrapper.getScriptSync(isolateId, scriptId);
+      }
+
+      @Override
+      public @NotNull CompletableFuture<Script> downloadScriptAsync(@NotNull String isolateId, @NotNull String scriptId) {
+        return myVmServiceWrapper.getScript(isolateId, scriptId);
+      }
+    };
 
     mapper.onConnect(provider, myConnector.getRemoteBaseUrl());
 
@@ -604,6 +647,14 @@ public abstract class DartVmServiceDebugProcess extends XDebugProcess {
      */
     XSourcePosition getSourcePosition(String isolateId, Script script, int tokenPos);
 
+    /**
+     * Downloads the given scripts concurrently, so that subsequent calls to getSourcePosition() don't have to wait
+     * for them one at a time.
+     */
+    default CompletableFuture<Void> prefetchScripts(String isolateId, Collection<ScriptRef> scripts) {
+      return CompletableFuture.completedFuture(null);
+    }
+
     void shutdown();
   }
 
@@ -613,5 +664,13 @@ public abstract class DartVmServiceDebugProcess extends XDebugProcess {
      */
     @Nullable
     Script downloadScript(@NotNull String isolateId, @NotNull String scriptId);
+
+    /**
+     * Downloads a script from observatory without blocking. The future completes with null if it isn't available.
+     */
+    @NotNull
+    default CompletableFuture<Script> downloadScriptAsync(@NotNull String isolateId, @NotNull String scriptId) {
+      return CompletableFuture.completedFuture(downloadScript(isolateId, scriptId));
+    }
   }
 }
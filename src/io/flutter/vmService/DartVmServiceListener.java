@@ -69,11 +69,13 @@ public class DartVmServiceListener implements VmServiceListener {
       case IsolateUpdate:
         break;
       case IsolateExit:
+        myDebugProcess.getVmServiceWrapper().getStringResolver().isolateResumed(event.getIsolate().getId());
         myDebugProcess.isolateExit(event.getIsolate());
         break;
       case PauseBreakpoint:
       case PauseException:
       case PauseInterrupted:
+        myDebugProcess.getVmServiceWrapper().getStringResolver().isolatePaused(event.getIsolate().getId());
         myDebugProcess.isolateSuspended(event.getIsolate());
 
         ApplicationManager.getApplication().executeOnPooledThread(() -> {
@@ -95,6 +97,7 @@ public class DartVmServiceListener implements VmServiceListener {
         myDebugProcess.getVmServiceWrapper().handleIsolate(event.getIsolate(), true);
         break;
       case Resume:
+        myDebugProcess.getVmServiceWrapper().getStringResolver().isolateResumed(event.getIsolate().getId());
         myDebugProcess.isolateResumed(event.getIsolate());
         break;
       case ServiceExtensionAdded:
@@ -117,6 +120,11 @@ public class DartVmServiceListener implements VmServiceListener {
 
   @Override
   public void connectionClosed() {
+    // Requests waiting for the VM's responses would otherwise never complete.
+    final VmServiceWrapper wrapper = myDebugProcess.getVmServiceWrapper();
+    if (wrapper != null) {
+      wrapper.getStringResolver().connectionClosed();
+    }
     myDebugProcess.getSession().stop();
   }
 
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The build and raster durations of an app's recent frames, from its Flutter.Frame events.
+ * <p>
+ * The last {@link #WINDOW} frames are kept in a ring buffer, alongside a histogram of each duration that is updated as
+ * frames enter and leave the window, so adding a frame and reading percentiles take constant time and memory.
+ */
+public class FrameTimings {
+  /**
+   * The number of frames statistics are computed over, a few seconds' worth at 60fps.
+   */
+  public static final int WINDOW = 300;
+
+  /**
+   * A frame whose build or raster phase takes longer than this misses a 60Hz vsync.
+   */
+  public static final int FRAME_BUDGET_MICROS = 16_667;
+
+  /**
+   * The width of a histogram bucket, and the number of buckets before the one that counts all longer durations.
+   */
+  private static final int BUCKET_MICROS = 250;
+  private static final int BUCKETS = 400;
+
+  /**
+   * Statistics for one phase of the frames in the window.
+   *
+   * @param p50   the median duration, in microseconds
+   * @param p90   the 90th percentile duration, in microseconds
+   * @param p99   the 99th percentile duration, in microseconds
+   * @param janky the number of frames whose phase went over {@link #FRAME_BUDGET_MICROS}
+   */
+  public record PhaseStats(long p50, long p90, long p99, int janky) {
+  }
+
+  /**
+   * Statistics for the frames in the window.
+   *
+   * @param frames      the number of frames in the window
+   * @param build       the durations of building frames on the UI thread
+   * @param raster      the durations of rasterizing frames on the raster thread
+   * @param totalFrames the number of frames seen since the app started
+   * @param totalJanky  the number of frames seen since the app started that went over budget in either phase
+   */
+  public record Stats(int frames, @NotNull PhaseStats build, @NotNull PhaseStats raster, long totalFrames, long totalJanky) {
+  }
+
+  private final Phase build = new Phase();
+  private final Phase raster = new Phase();
+  private int count;
+  private int next;
+  private long totalFrames;
+  private long totalJanky;
+
+  /**
+   * Records a frame.
+   *
+   * @param buildMicros  the time spent building the frame, in microseconds
+   * @param rasterMicros the time spent rasterizing the frame, in microseconds
+   */
+  public synchronized void add(long buildMicros, long rasterMicros) {
+    final boolean full = count == WINDOW;
+    build.add(next, buildMicros, full);
+    raster.add(next, rasterMicros, full);
+    next = (next + 1) % WINDOW;
+    count = Math.min(count + 1, WINDOW);
+    totalFrames++;
+    if (buildMicros > FRAME_BUDGET_MICROS || rasterMicros > FRAME_BUDGET_MICROS) {
+      totalJanky++;
+    }
+  }
+
+  /**
+   * Forgets the frames in the window, for example when the app restarts.
+   */
+  public synchronized void clear() {
+    build.clear();
+    raster.clear();
+    count = 0;
+    next = 0;
+  }
+
+  @NotNull
+  public synchronized Stats getStats() {
+    return new Stats(count, build.toStats(count), raster.toStats(count), totalFrames, totalJanky);
+  }
+
+  /**
+   * The durations of one phase of the frames in the window.
+   */
+  private static final class Phase {
+    final int[] micros = new int[WINDOW];
+    final int[] histogram = new int[BUCKETS + 1];
+    int janky;
+
+    void add(int index, long value, boolean evict) {
+      if (evict) {
+        histogram[bucket(micros[index])]--;
+        if (micros[index] > FRAME_BUDGET_MICROS) {
+          janky--;
+        }
+      }
+      final int clamped = (int)Math.max(0, Math.min(Integer.MAX_VALUE, value));
+      micros[index] = clamped;
+      histogram[bucket(clamped)]++;
+      if (clamped > FRAME_BUDGET_MICROS) {
+        janky++;
+      }
+    }
+
+    void clear() {
+      Arrays.fill(histogram, 0);
+      janky = 0;
+    }
+
+    @NotNull
+    PhaseStats toStats(int count) {
+      return new PhaseStats(percentile(count, 50), percentile(count, 90), percentile(count, 99), janky);
+    }
+
+    /**
+     * Returns the upper bound of the bucket the percentile falls in, or 0 if there are no frames.
+     */
+    private long percentile(int count, int percent) {
+      if (count == 0) {
+        return 0;
+      }
+      final int rank = Math.max(1, (int)Math.ceil(percent / 100.0 * count));
+      int seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += histogram[i];
+        if (seen >= rank) {
+          return (long)(i + 1) * BUCKET_MICROS;
+        }
+      }
+      // Past the last bucket; report the longest duration in the window.
+      int max = 0;
+      for (int i = 0; i < count; i++) {
+        max = Math.max(max, micros[i]);
+      }
+      return max;
+    }
+
+    private static int bucket(int micros) {
+      return Math.min(BUCKETS, micros / BUCKET_MICROS);
+    }
+  }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import org.dartlang.vm.service.consumer.InvokeConsumer;
+import org.dartlang.vm.service.element.ErrorRef;
+import org.dartlang.vm.service.element.Instance;
+import org.dartlang.vm.service.element.InstanceKind;
+import org.dartlang.vm.service.element.InstanceRef;
+import org.dartlang.vm.service.element.Obj;
+import org.dartlang.vm.service.element.RPCError;
+import org.dartlang.vm.service.element.Sentinel;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fetches the full values of truncated strings, and the results of calling toString(), for the debugger and console.
+ * <p>
+ * Requests for the same object are shared while one is in flight, and up to {@link #MAX_IN_FLIGHT} requests are sent
+ * at once rather than one after another. While an isolate is paused its objects can't change, so results are kept until
+ * it resumes; when it is running they are only shared by the requests made while they were being fetched.
+ * <p>
+ * A request that gets no response within {@link #REQUEST_TIMEOUT_MILLIS} fails and gives up its place, and when the
+ * connection closes every request fails.
+ */
+public class InstanceStringResolver {
+  /**
+   * The number of requests sent without waiting for a response.
+   */
+  static final int MAX_IN_FLIGHT = 16;
+
+  /**
+   * How long a request waits for its response once sent.
+   */
+  static final long REQUEST_TIMEOUT_MILLIS = 30_000;
+
+  /**
+   * Sends the requests; implemented by {@link VmServiceWrapper}.
+   */
+  interface Transport {
+    void getObject(@NotNull String isolateId, @NotNull String objectId, int count, @NotNull GetObjectConsumer consumer);
+
+    void invoke(@NotNull String isolateId, @NotNull String targetId, @NotNull String selector, @NotNull InvokeConsumer consumer);
+  }
+
+  @NotNull private final Transport transport;
+  private final long timeoutMillis;
+
+  /**
+   * The results fetched or being fetched for each isolate, by request.
+   */
+  private final Map<String, Map<String, CompletableFuture<?>>> results = new HashMap<>();
+  private final Set<String> pausedIsolates = new HashSet<>();
+
+  /**
+   * The requests that haven't completed, whether sent or queued.
+   */
+  private final Set<Pending<?>> unfinished = new HashSet<>();
+  private final Deque<Pending<?>> queued = new ArrayDeque<>();
+  private int inFlight;
+  private volatile boolean closed;
+
+  InstanceStringResolver(@NotNull Transport transport) {
+    this(transport, REQUEST_TIMEOUT_MILLIS);
+  }
+
+  InstanceStringResolver(@NotNull Transport transport, long timeoutMillis) {
+    this.transport = transport;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  /**
+   * Returns the full value of a string, with "..." appended if the VM won't send all of it. The future completes
+   * exceptionally with the VM's message if the string can't be fetched.
+   */
+  @NotNull
+  public CompletableFuture<String> getFullString(@NotNull String isolateId, @NotNull InstanceRef stringRef) {
+    if (!stringRef.getValueAsStringIsTruncated()) {
+      return CompletableFuture.completedFuture(stringRef.getValueAsString());
+    }
+
+    final String objectId = stringRef.getId();
+    return this.<String>resolve(isolateId, "string:" + objectId, (future) -> transport.getObject(
+      isolateId, objectId, stringRef.getLength(), new GetObjectConsumer() {
+        @Override
+        public void received(Obj response) {
+          if (response instanceof Instance instance && instance.getKind() == InstanceKind.String) {
+            final String value = instance.getValueAsString();
+            future.complete(instance.getValueAsStringIsTruncated() ? value + "..." : value);
+          }
+          else {
+            future.completeExceptionally(new RuntimeException("Not a string: " + objectId));
+          }
+        }
+
+        @Override
+        public void received(Sentinel response) {
+          future.completeExceptionally(new RuntimeException(response.getValueAsString()));
+        }
+
+        @Override
+        public void onError(RPCError error) {
+          future.completeExceptionally(new RuntimeException(error.getMessage()));
+        }
+      }));
+  }
+
+  /**
+   * Returns the result of calling toString() on an object, or null if the call failed.
+   */
+  @NotNull
+  public CompletableFuture<InstanceRef> callToString(@NotNull String isolateId, @NotNull String targetId) {
+    return this.<InstanceRef>resolve(isolateId, "toString:" + targetId, (future) -> transport.invoke(
+      isolateId, targetId, "toString", new InvokeConsumer() {
+        @Override
+        public void received(InstanceRef response) {
+          future.complete(response);
+        }
+
+        @Override
+        public void received(ErrorRef response) {
+          future.complete(null);
+        }
+
+        @Override
+        public void received(Sentinel response) {
+          future.complete(null);
+        }
+
+        @Override
+        public void onError(RPCError error) {
+          future.complete(null);
+        }
+      }));
+  }
+
+  /**
+   * Starts a new generation of results for a paused isolate, since its objects may have changed while it ran.
+   */
+  public synchronized void isolatePaused(@NotNull String isolateId) {
+    results.remove(isolateId);
+    pausedIsolates.add(isolateId);
+  }
+
+  /**
+   * Forgets the results for an isolate that resumed or exited.
+   */
+  public synchronized void isolateResumed(@NotNull String isolateId) {
+    results.remove(isolateId);
+    pausedIsolates.remove(isolateId);
+  }
+
+  /**
+   * Fails the requests that haven't completed, and any made later, since their responses will never arrive.
+   */
+  public void connectionClosed() {
+    final List<Pending<?>> failed;
+    synchronized (this) {
+      closed = true;
+      results.clear();
+      pausedIsolates.clear();
+      failed = new ArrayList<>(unfinished);
+    }
+    for (Pending<?> pending : failed) {
+      pending.future.completeExceptionally(new IllegalStateException("The VM service connection is closed"));
+    }
+  }
+
+  /**
+   * Returns the number of requests sent and not yet answered, and the number waiting to be sent.
+   */
+  synchronized int getPendingCount() {
+    return inFlight + queued.size();
+  }
+
+  private interface Request<T> {
+    void send(@NotNull CompletableFuture<T> future);
+  }
+
+  private static final class Pending<T> {
+    @NotNull final CompletableFuture<T> future = new CompletableFuture<>();
+    @NotNull final Request<T> request;
+
+    /**
+     * Whether the request has one of the {@link #MAX_IN_FLIGHT} places. Guarded by the resolver.
+     */
+    boolean sending;
+
+    Pending(@NotNull Request<T> request) {
+      this.request = request;
+    }
+  }
+
+  @NotNull
+  private <T> CompletableFuture<T> resolve(@NotNull String isolateId, @NotNull String key, @NotNull Request<T> request) {
+    final Pending<T> pending;
+    synchronized (this) {
+      if (closed) {
+        return CompletableFuture.failedFuture(new IllegalStateException("The VM service connection is closed"));
+      }
+      final Map<String, CompletableFuture<?>> isolateResults = results.computeIfAbsent(isolateId, (id) -> new HashMap<>());
+      @SuppressWarnings("unchecked") final CompletableFuture<T> existing = (CompletableFuture<T>)isolateResults.get(key);
+      if (existing != null) {
+        // A copy, so that a caller completing its future (for example on a timeout) doesn't affect the others.
+        return existing.copy();
+      }
+      pending = new Pending<>(request);
+      isolateResults.put(key, pending.future);
+      unfinished.add(pending);
+    }
+
+    final CompletableFuture<T> future = pending.future;
+    future.whenComplete((result, error) -> {
+      synchronized (this) {
+        unfinished.remove(pending);
+        if (error != null || !pausedIsolates.contains(isolateId)) {
+          final Map<String, CompletableFuture<?>> isolateResults = results.get(isolateId);
+          if (isolateResults != null) {
+            isolateResults.remove(key, future);
+          }
+        }
+      }
+      requestDone(pending);
+    });
+    send(pending);
+    return future.copy();
+  }
+
+  private void send(@NotNull Pending<?> pending) {
+    synchronized (this) {
+      if (inFlight == MAX_IN_FLIGHT) {
+        queued.addLast(pending);
+        return;
+      }
+      inFlight++;
+      pending.sending = true;
+    }
+    start(pending);
+  }
+
+  private <T> void start(@NotNull Pending<T> pending) {
+    final CompletableFuture<T> future = pending.future;
+    if (closed) {
+      // connectionClosed() fails it, if it hasn't already.
+      future.completeExceptionally(new IllegalStateException("The VM service connection is closed"));
+    }
+    if (future.isDone()) {
+      // It failed while it waited for a place.
+      requestDone(pending);
+      return;
+    }
+    CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS).execute(() -> future.completeExceptionally(
+      new TimeoutException("No response from the VM service after " + timeoutMillis + " ms")));
+    try {
+      pending.request.send(future);
+    }
+    catch (RuntimeException e) {
+      future.completeExceptionally(e);
+    }
+  }
+
+  private void requestDone(@NotNull Pending<?> pending) {
+    final Pending<?> next;
+    synchronized (this) {
+      if (!pending.sending) {
+        // It never had a place to give up.
+        queued.remove(pending);
+        return;
+      }
+      pending.sending = false;
+      next = queued.pollFirst();
+      if (next == null) {
+        inFlight--;
+        return;
+      }
+      next.sending = true;
+    }
+    // The finished request's place passes to the next one.
+    start(next);
+  }
+}
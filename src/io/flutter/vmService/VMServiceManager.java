@@ -52,6 +52,8 @@ public class VMServiceManager implements FlutterApp.FlutterAppListener, Disposab
 
   private final Set<String> registeredServices = new HashSet<>();
 
+  @NotNull private final FrameTimings frameTimings = new FrameTimings();
+
   public VMServiceManager(@NotNull FlutterApp app, @NotNull VmService vmService) {
     this.app = app;
     this.vmService = vmService;
@@ -159,6 +161,7 @@ public class VMServiceManager implements FlutterApp.FlutterAppListener, Disposab
   }
 
   private void onFlutterIsolateStopped() {
+    frameTimings.clear();
     final Iterable<EventStream<Boolean>> existingExtensions;
     synchronized (serviceExtensions) {
       firstFrameEventReceived = false;
@@ -184,10 +187,13 @@ public class VMServiceManager implements FlutterApp.FlutterAppListener, Disposab
     if (event.getKind() == EventKind.Extension) {
       switch (kind) {
         case "Flutter.FirstFrame":
-        case "Flutter.Frame":
           // Track whether we have received the first frame event and add pending service extensions if we have.
           onFrameEventReceived();
           break;
+        case "Flutter.Frame":
+          onFrameEventReceived();
+          recordFrameTiming(event);
+          break;
         case "Flutter.ServiceExtensionStateChanged":
           final JsonObject extensionData = event.getExtensionData().getJson();
           final String name = extensionData.get("extension").getAsString();
@@ -235,6 +241,34 @@ public class VMServiceManager implements FlutterApp.FlutterAppListener, Disposab
     }
   }
 
+  /**
+   * Returns the build and raster durations of the app's recent frames.
+   */
+  @NotNull
+  public FrameTimings getFrameTimings() {
+    return frameTimings;
+  }
+
+  private void recordFrameTiming(@NotNull Event event) {
+    final ExtensionData data = event.getExtensionData();
+    if (data == null) {
+      return;
+    }
+    // The durations are in microseconds.
+    final JsonObject json = data.getJson();
+    final JsonElement build = json.get("build");
+    final JsonElement raster = json.get("raster");
+    if (build == null || raster == null || !build.isJsonPrimitive() || !raster.isJsonPrimitive()) {
+      return;
+    }
+    try {
+      frameTimings.add(build.getAsLong(), raster.getAsLong());
+    }
+    catch (NumberFormatException e) {
+      // Not a frame timing we understand.
+    }
+  }
+
   private Object getExtensionValueFromEventJson(String name, String valueFromJson) {
     final Class valueClass =
       ServiceExtensions.toggleableExtensionsAllowList.get(name).getValueClass();
@@ -8,12 +8,10 @@ import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.util.Ref;
 import com.intellij.openapi.util.SystemInfo;
 import com.intellij.openapi.util.Version;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.Alarm;
-import com.intellij.util.concurrency.Semaphore;
 import com.intellij.xdebugger.XSourcePosition;
 import com.intellij.xdebugger.breakpoints.XBreakpointProperties;
 import com.intellij.xdebugger.breakpoints.XLineBreakpoint;
@@ -35,6 +33,7 @@ import org.dartlang.vm.service.VmService;
 import org.dartlang.vm.service.consumer.AddBreakpointWithScriptUriConsumer;
 import org.dartlang.vm.service.consumer.EvaluateConsumer;
 import org.dartlang.vm.service.consumer.EvaluateInFrameConsumer;
+import org.dartlang.vm.service.consumer.GetAllocationProfileConsumer;
 import org.dartlang.vm.service.consumer.GetIsolateConsumer;
 import org.dartlang.vm.service.consumer.GetObjectConsumer;
 import org.dartlang.vm.service.consumer.GetStackConsumer;
@@ -42,11 +41,14 @@ import org.dartlang.vm.service.consumer.InvokeConsumer;
 import org.dartlang.vm.service.consumer.PauseConsumer;
 import org.dartlang.vm.service.consumer.RemoveBreakpointConsumer;
 import org.dartlang.vm.service.consumer.SetExceptionPauseModeConsumer;
+import org.dartlang.vm.service.consumer.ServiceExtensionConsumer;
 import org.dartlang.vm.service.consumer.SetIsolatePauseModeConsumer;
 import org.dartlang.vm.service.consumer.SuccessConsumer;
+import org.dartlang.vm.service.consumer.TimestampConsumer;
 import org.dartlang.vm.service.consumer.UriListConsumer;
 import org.dartlang.vm.service.consumer.VMConsumer;
 import org.dartlang.vm.service.consumer.VersionConsumer;
+import org.dartlang.vm.service.element.AllocationProfile;
 import org.dartlang.vm.service.element.Breakpoint;
 import org.dartlang.vm.service.element.ElementList;
 import org.dartlang.vm.service.element.ErrorRef;
@@ -67,6 +69,7 @@ import org.dartlang.vm.service.element.Sentinel;
 import org.dartlang.vm.service.element.Stack;
 import org.dartlang.vm.service.element.StepOption;
 import org.dartlang.vm.service.element.Success;
+import org.dartlang.vm.service.element.Timestamp;
 import org.dartlang.vm.service.element.UnresolvedSourceLocation;
 import org.dartlang.vm.service.element.UriList;
 import org.dartlang.vm.service.element.VM;
@@ -83,6 +86,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class VmServiceWrapper implements Disposable {
@@ -96,11 +102,10 @@ public class VmServiceWrapper implements Disposable {
   @NotNull private final IsolatesInfo myIsolatesInfo;
   @NotNull private final DartVmServiceBreakpointHandler myBreakpointHandler;
   @NotNull private final Alarm myRequestsScheduler;
+  @NotNull private final InstanceStringResolver myStringResolver;
   @NotNull private final Map<Integer, CanonicalBreakpoint> breakpointNumbersToCanonicalMap;
   @NotNull private final Set<CanonicalBreakpoint> canonicalBreakpoints;
 
-  private long myVmServiceReceiverThreadId;
-
   @Nullable private StepOption myLatestStep;
 
   public VmServiceWrapper(@NotNull DartVmServiceDebugProcess debugProcess,
@@ -114,6 +119,18 @@ public class VmServiceWrapper implements Disposable {
     myIsolatesInfo = isolatesInfo;
     myBreakpointHandler = breakpointHandler;
     myRequestsScheduler = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, this);
+    // Sent directly rather than through myRequestsScheduler, which would send them one at a time.
+    myStringResolver = new InstanceStringResolver(new InstanceStringResolver.Transport() {
+      @Override
+      public void getObject(@NotNull String isolateId, @NotNull String objectId, int count, @NotNull GetObjectConsumer consumer) {
+        myVmService.getObject(isolateId, objectId, 0, count, consumer);
+      }
+
+      @Override
+      public void invoke(@NotNull String isolateId, @NotNull String targetId, @NotNull String selector, @NotNull InvokeConsumer consumer) {
+        myVmService.invoke(isolateId, targetId, selector, Collections.emptyList(), true, consumer);
+      }
+    });
     breakpointNumbersToCanonicalMap = new HashMap<>();
     canonicalBreakpoints = new HashSet<>();
   }
@@ -123,8 +140,17 @@ public class VmServiceWrapper implements Disposable {
     return myVmService;
   }
 
+  /**
+   * Returns the resolver for truncated strings and toString() results, which batches and caches the requests.
+   */
+  @NotNull
+  public InstanceStringResolver getStringResolver() {
+    return myStringResolver;
+  }
+
   @Override
   public void dispose() {
+    myStringResolver.connectionClosed();
   }
 
   private void addRequest(@NotNull Runnable runnable) {
@@ -145,7 +171,7 @@ public class VmServiceWrapper implements Disposable {
     if (ApplicationManager.getApplication().isReadAccessAllowed()) {
       LOG.error("Waiting for the answer from the Dart debugger under read action may lead to EDT freeze");
     }
-    if (myVmServiceReceiverThreadId == Thread.currentThread().threadId()) {
+    if (myVmService.isReceiverThread()) {
       LOG.error("Synchronous requests must not be made in Web Socket listening thread: answer will never be received");
     }
   }
@@ -154,7 +180,6 @@ public class VmServiceWrapper implements Disposable {
     streamListen(VmService.DEBUG_STREAM_ID, new VmServiceConsumers.SuccessConsumerWrapper() {
       @Override
       public void received(final Success success) {
-        myVmServiceReceiverThreadId = Thread.currentThread().threadId();
         streamListen(VmService.ISOLATE_STREAM_ID, new VmServiceConsumers.SuccessConsumerWrapper() {
           @Override
           public void received(final Success success) {
@@ -804,6 +829,9 @@ public class VmServiceWrapper implements Disposable {
           final List<Frame> vmFrames = Lists.newArrayList(elementList);
           final List<XStackFrame> xStackFrames = new ArrayList<>(vmFrames.size());
 
+          // Download the scripts for all frames in one batch rather than one at a time as each frame is created.
+          myDebugProcess.prefetchScripts(isolateId, vmFrames, RESPONSE_WAIT_TIMEOUT);
+
           for (final Frame vmFrame : vmFrames) {
             if (vmFrame.getKind() == FrameKind.AsyncSuspensionMarker) {
               // Render an asynchronous gap.
@@ -842,31 +870,122 @@ public class VmServiceWrapper implements Disposable {
   public Script getScriptSync(@NotNull String isolateId, @NotNull String scriptId) {
     assertSyncRequestAllowed();
 
-    final Semaphore semaphore = new Semaphore();
-    semaphore.down();
+    try {
+      return getScript(isolateId, scriptId).get(RESPONSE_WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    catch (ExecutionException | TimeoutException e) {
+      return null;
+    }
+  }
 
-    final Ref<Script> resultRef = Ref.create();
+  /**
+   * Downloads a script without blocking. The future completes with null if the script isn't available.
+   */
+  @NotNull
+  public CompletableFuture<Script> getScript(@NotNull String isolateId, @NotNull String scriptId) {
+    final CompletableFuture<Script> future = new CompletableFuture<>();
 
     addRequest(() -> myVmService.getObject(isolateId, scriptId, new GetObjectConsumer() {
       @Override
       public void received(Obj script) {
-        resultRef.set((Script)script);
-        semaphore.up();
+        future.complete(script instanceof Script ? (Script)script : null);
       }
 
       @Override
       public void received(Sentinel response) {
-        semaphore.up();
+        future.complete(null);
+      }
+
+      @Override
+      public void onError(RPCError error) {
+        future.complete(null);
+      }
+    }));
+
+    return future;
+  }
+
+  /**
+   * Returns the current time of the clock used by the VM's timeline and CPU profiler, in microseconds. The future
+   * completes exceptionally if the request fails.
+   */
+  @NotNull
+  public CompletableFuture<Long> getVMTimelineMicros() {
+    final CompletableFuture<Long> future = new CompletableFuture<>();
+
+    addRequest(() -> myVmService.getVMTimelineMicros(new TimestampConsumer() {
+      @Override
+      public void received(Timestamp response) {
+        future.complete(response.getTimestamp());
       }
 
       @Override
       public void onError(RPCError error) {
-        semaphore.up();
+        future.completeExceptionally(new RuntimeException(error.getMessage()));
       }
     }));
 
-    semaphore.waitFor(RESPONSE_WAIT_TIMEOUT);
-    return resultRef.get();
+    return future;
+  }
+
+  /**
+   * Returns the CPU samples collected in the given time range as the raw CpuSamples response. The future completes
+   * exceptionally if the request fails.
+   */
+  @NotNull
+  public CompletableFuture<JsonObject> getCpuSamples(@NotNull String isolateId, long timeOriginMicros, long timeExtentMicros) {
+    final CompletableFuture<JsonObject> future = new CompletableFuture<>();
+
+    // VmService.getCpuSamples takes the times as ints, which the timeline clock soon outgrows. Requesting through
+    // callServiceExtension sends the full values.
+    final JsonObject params = new JsonObject();
+    params.addProperty("timeOriginMicros", timeOriginMicros);
+    params.addProperty("timeExtentMicros", timeExtentMicros);
+    addRequest(() -> myVmService.callServiceExtension(isolateId, "getCpuSamples", params, new ServiceExtensionConsumer() {
+      @Override
+      public void received(JsonObject result) {
+        future.complete(result);
+      }
+
+      @Override
+      public void onError(RPCError error) {
+        future.completeExceptionally(new RuntimeException(error.getMessage()));
+      }
+    }));
+
+    return future;
+  }
+
+  /**
+   * Returns the isolate's allocation profile, collecting garbage first if gc is true. The future completes with null if
+   * the isolate has gone away, and exceptionally if the request fails.
+   */
+  @NotNull
+  public CompletableFuture<AllocationProfile> getAllocationProfile(@NotNull String isolateId, boolean gc) {
+    final CompletableFuture<AllocationProfile> future = new CompletableFuture<>();
+
+    addRequest(() -> myVmService.getAllocationProfile(isolateId, null, gc, new GetAllocationProfileConsumer() {
+      @Override
+      public void received(AllocationProfile response) {
+        future.complete(response);
+      }
+
+      @Override
+      public void received(Sentinel response) {
+        future.complete(null);
+      }
+
+      @Override
+      public void onError(RPCError error) {
+        future.completeExceptionally(new RuntimeException(error.getMessage()));
+      }
+    }));
+
+    return future;
   }
 
   public void getObject(@NotNull String isolateId, @NotNull String objectId, @NotNull GetObjectConsumer consumer) {
@@ -943,10 +1062,6 @@ public class VmServiceWrapper implements Disposable {
     });
   }
 
-  public void callToString(@NotNull String isolateId, @NotNull String targetId, @NotNull InvokeConsumer callback) {
-    callMethodOnTarget(isolateId, targetId, "toString", callback);
-  }
-
   public void callToList(@NotNull String isolateId, @NotNull String targetId, @NotNull InvokeConsumer callback) {
     callMethodOnTarget(isolateId, targetId, "toList", callback);
   }
@@ -24,6 +24,7 @@ import javax.swing.*;
 import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 import java.util.Base64;
+import java.util.concurrent.CompletionException;
 
 // TODO: implement some combination of XValue.getEvaluationExpression() /
 // XValue.calculateEvaluationExpression() in order to support evaluate expression in variable values.
@@ -230,23 +231,16 @@ public class DartVmServiceValue extends XNamedValue {
     node.setFullValueEvaluator(new XFullValueEvaluator() {
       @Override
       public void startEvaluation(@NotNull final XFullValueEvaluationCallback callback) {
-        myDebugProcess.getVmServiceWrapper().getObject(myIsolateId, stringInstanceRef.getId(), new GetObjectConsumer() {
-          @Override
-          public void received(Obj instance) {
-            assert instance instanceof Instance && ((Instance)instance).getKind() == InstanceKind.String : instance;
-            callback.evaluated(((Instance)instance).getValueAsString());
-          }
-
-          @Override
-          public void received(Sentinel response) {
-            callback.errorOccurred(response.getValueAsString());
-          }
-
-          @Override
-          public void onError(RPCError error) {
-            callback.errorOccurred(error.getMessage());
-          }
-        });
+        myDebugProcess.getVmServiceWrapper().getStringResolver().getFullString(myIsolateId, stringInstanceRef)
+          .whenComplete((value, error) -> {
+            if (error == null) {
+              callback.evaluated(value);
+            }
+            else {
+              callback.errorOccurred((error instanceof CompletionException && error.getCause() != null ? error.getCause() : error)
+                                       .getMessage());
+            }
+          });
       }
     });
   }
@@ -306,10 +300,11 @@ public class DartVmServiceValue extends XNamedValue {
       return;
     }
 
-    myDebugProcess.getVmServiceWrapper().callToString(myIsolateId, myInstanceRef.getId(), new VmServiceConsumers.InvokeConsumerWrapper() {
-      @Override
-      public void received(final InstanceRef toStringInstanceRef) {
-        if (toStringInstanceRef.getKind() == InstanceKind.String) {
+    // The resolver shares and runs these calls concurrently, so a large tree of values doesn't wait on each in turn.
+    // A failed call, for example one that timed out, still leaves the node with a presentation.
+    myDebugProcess.getVmServiceWrapper().getStringResolver().callToString(myIsolateId, myInstanceRef.getId())
+      .whenComplete((toStringInstanceRef, error) -> {
+        if (error == null && toStringInstanceRef != null && toStringInstanceRef.getKind() == InstanceKind.String) {
           final String value = toStringInstanceRef.getValueAsString();
           // We don't need to show the default implementation of toString() ("Instance of ...").
           if (value.startsWith("Instance of ")) {
@@ -323,28 +318,22 @@ public class DartVmServiceValue extends XNamedValue {
           }
         }
         else {
-          preesentationFallback(node);
+          presentationFallback(node, typeName);
         }
-      }
-
-      @Override
-      public void noGoodResult() {
-        preesentationFallback(node);
-      }
+      });
+  }
 
-      private void preesentationFallback(@NotNull final XValueNode node) {
-        if (myInstanceRef.getValueAsString() != null) {
-          node.setPresentation(
-            getIcon(),
-            typeName,
-            myInstanceRef.getValueAsString() + (myInstanceRef.getValueAsStringIsTruncated() ? "..." : ""),
-            true);
-        }
-        else {
-          node.setPresentation(getIcon(), typeName, "", true);
-        }
-      }
-    });
+  private void presentationFallback(@NotNull final XValueNode node, @Nullable final String typeName) {
+    if (myInstanceRef.getValueAsString() != null) {
+      node.setPresentation(
+        getIcon(),
+        typeName,
+        myInstanceRef.getValueAsString() + (myInstanceRef.getValueAsStringIsTruncated() ? "..." : ""),
+        true);
+    }
+    else {
+      node.setPresentation(getIcon(), typeName, "", true);
+    }
   }
 
   @Override
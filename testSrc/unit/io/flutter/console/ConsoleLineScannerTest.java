@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.console;
+
+import io.flutter.console.ConsoleLineScanner.Kind;
+import io.flutter.console.ConsoleLineScanner.Match;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ConsoleLineScannerTest {
+
+  @Test
+  public void findsLaunchedPath() {
+    final String line = "Launching lib/main.dart on sdk gphone64 arm64 in debug mode...";
+    final Match match = ConsoleLineScanner.scan(line);
+    assertNotNull(match);
+    assertEquals(Kind.LAUNCH, match.kind());
+    assertEquals("lib/main.dart", match.path());
+    assertEquals("lib/main.dart", line.substring(match.start(), match.end()));
+  }
+
+  @Test
+  public void findsEmbeddedPath() {
+    final String line = "  • _MyHomePageState._incrementCounter (lib/main.dart:49)";
+    final Match match = ConsoleLineScanner.scan(line);
+    assertNotNull(match);
+    assertEquals(Kind.PATH, match.kind());
+    assertEquals("lib/main.dart:49", match.path());
+    assertEquals("lib/main.dart:49", line.substring(match.start(), match.end()));
+    assertEquals(48, match.lineNumber());
+  }
+
+  @Test
+  public void findsEmbeddedFileUri() {
+    final String line = "#4      main.<anonymous closure> (file:///Users/user/flutter_app/test/widget_test.dart:23:18)";
+    final Match match = ConsoleLineScanner.scan(line);
+    assertNotNull(match);
+    assertEquals(Kind.FILE_URI, match.kind());
+    assertEquals("///Users/user/flutter_app/test/widget_test.dart", match.path());
+    assertEquals("file:///Users/user/flutter_app/test/widget_test.dart:23:18", line.substring(match.start(), match.end()));
+    assertEquals(22, match.lineNumber());
+  }
+
+  @Test
+  public void findsCompileError() {
+    final String line = "lib/registerC.dart:104:73: Error: Expected ';' after this.";
+    final Match match = ConsoleLineScanner.scan(line);
+    assertNotNull(match);
+    assertEquals(Kind.COMPILE_ERROR, match.kind());
+    assertEquals("lib/registerC.dart", match.path());
+    assertEquals(0, match.start());
+    assertEquals(104, match.lineNumber());
+  }
+
+  @Test
+  public void ignoresOtherLines() {
+    assertNull(ConsoleLineScanner.scan("I/flutter ( 4512): Counter pressed 1 times"));
+    assertNull(ConsoleLineScanner.scan("Reloaded 1 of 693 libraries in 412ms (compile: 31 ms, reload: 173 ms)."));
+    assertNull(ConsoleLineScanner.scan("#1      StatefulElement.build (package:flutter/src/widgets/framework.dart:5583:27)"));
+    assertNull(ConsoleLineScanner.scan(""));
+  }
+
+  @Test
+  public void scansRecordedLogs() throws IOException {
+    final Map<Kind, Integer> run = scanLog("testData/console/flutter_run.log");
+    assertEquals(Integer.valueOf(2), run.get(Kind.LAUNCH));
+    assertEquals(Integer.valueOf(2), run.get(Kind.PATH));
+    assertEquals(Integer.valueOf(1), run.get(Kind.COMPILE_ERROR));
+    assertEquals(Integer.valueOf(1), run.get(Kind.FLUTTER_DOCTOR));
+    assertEquals(Integer.valueOf(1), run.get(Kind.LOST_CONNECTION));
+    assertNull(run.get(Kind.FILE_URI));
+
+    final Map<Kind, Integer> test = scanLog("testData/console/flutter_test.log");
+    assertEquals(Map.of(Kind.FILE_URI, 1), test);
+  }
+
+  private static Map<Kind, Integer> scanLog(String path) throws IOException {
+    final List<String> lines = Files.readAllLines(Path.of(path));
+    final Map<Kind, Integer> counts = new EnumMap<>(Kind.class);
+    for (String line : lines) {
+      final Match match = ConsoleLineScanner.scan(line);
+      if (match != null) {
+        counts.merge(match.kind(), 1, Integer::sum);
+      }
+    }
+    return counts;
+  }
+}
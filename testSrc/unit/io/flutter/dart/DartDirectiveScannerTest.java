@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.dart;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class DartDirectiveScannerTest {
+
+  @Test
+  public void readsDirectives() {
+    final List<String> uris = DartDirectiveScanner.scan("""
+                                                          // Copyright header.
+                                                          /*
+                                                           * import 'commented.dart' is not a directive here.
+                                                           */
+                                                          @TestOn('vm')
+                                                          @Tags([
+                                                            'slow',
+                                                          ])
+                                                          library;
+
+                                                          import 'package:flutter/material.dart';
+                                                          import "../lib/src/widget.dart" as widget;
+                                                          export 'src/api.dart' show Api;
+                                                          import 'src/io_stub.dart'
+                                                              if (dart.library.io) 'src/io.dart'
+                                                              if (dart.library.js_interop) 'src/web.dart';
+                                                          part 'part.dart';
+
+                                                          void main() {
+                                                            import('not_a_directive.dart');
+                                                          }
+                                                          """);
+    assertEquals(List.of("package:flutter/material.dart", "../lib/src/widget.dart", "src/api.dart", "src/io_stub.dart", "src/io.dart",
+                         "src/web.dart", "part.dart"), uris);
+  }
+
+  @Test
+  public void skipsPartOf() {
+    assertEquals(List.of(), DartDirectiveScanner.scan("part of 'library.dart';\n\nclass A {}\n"));
+  }
+
+  @Test
+  public void stopsAtFirstDeclaration() {
+    assertEquals(List.of("a.dart"), DartDirectiveScanner.scan("import 'a.dart';\nclass importer {}\nimport 'b.dart';\n"));
+  }
+}
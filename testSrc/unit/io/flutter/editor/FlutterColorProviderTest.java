@@ -16,6 +16,7 @@ import org.junit.Test;
 
 import java.awt.*;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 public class FlutterColorProviderTest extends AbstractDartElementTest {
@@ -31,6 +32,19 @@ public class FlutterColorProviderTest extends AbstractDartElementTest {
     });
   }
 
+  @Test
+  public void cachesColorForUnchangedFile() throws Exception {
+    run(() -> {
+      final PsiElement testIdentifier = setUpDartElement("main() { Colors.blue; }", "Colors", LeafPsiElement.class);
+      final FlutterColorProvider provider = new FlutterColorProvider();
+      final Color color = provider.getColorFrom(testIdentifier);
+      assertNotNull(color);
+      final long hits = FlutterColorProvider.colorCache.getHitCount();
+      assertEquals(color, provider.getColorFrom(testIdentifier));
+      assertEquals(hits + 1, FlutterColorProvider.colorCache.getHitCount());
+    });
+  }
+
   @Test
   public void locatesColorCtor() throws Exception {
     run(() -> {
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.editor;
+
+import org.junit.Test;
+
+import java.awt.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlutterColorsTest {
+
+  @Test
+  public void looksUpMaterialColors() {
+    final FlutterColors.FlutterColor blue = FlutterColors.getColor("blue");
+    assertNotNull(blue);
+    assertTrue(blue.isPrimary());
+    assertEquals(0xff2196f3, blue.getAWTColor().getRGB());
+
+    final FlutterColors.FlutterColor shade = FlutterColors.getColor("blue.shade200");
+    assertNotNull(shade);
+    assertFalse(shade.isPrimary());
+    assertEquals(0xff90caf9, shade.getAWTColor().getRGB());
+
+    assertNull(FlutterColors.getColor("notAColor"));
+  }
+
+  @Test
+  public void looksUpCupertinoColors() {
+    final FlutterColors.FlutterColor color = FlutterCupertinoColors.getColor("activeBlue");
+    assertNotNull(color);
+    assertEquals(0xff007aff, color.getAWTColor().getRGB());
+  }
+
+  @Test
+  public void findsShortestColorName() {
+    //noinspection UseJBColor
+    assertEquals("blue", FlutterColors.getColorName(new Color(0xff2196f3, true)));
+    //noinspection UseJBColor
+    assertEquals("blue[200]", FlutterColors.getColorName(new Color(0xff90caf9, true)));
+    //noinspection UseJBColor
+    assertNull(FlutterColors.getColorName(new Color(0x12345678, true)));
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.font;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class FontPreviewIndexTest {
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void readsLockedVersions() {
+    // pubspec.lock, as parsed from YAML.
+    final Map<String, String> versions = FontPreviewIndex.readLockedVersions(Map.of(
+      "packages", Map.of(
+        "cupertino_icons", Map.of(
+          "dependency", "direct main",
+          "description", Map.of("name", "cupertino_icons", "url", "https://pub.dev"),
+          "source", "hosted",
+          "version", "1.0.8"),
+        "flutter", Map.of(
+          "dependency", "direct main",
+          "description", "flutter",
+          "source", "sdk",
+          "version", "0.0.0"),
+        "my_icons", Map.of(
+          "dependency", "direct main",
+          "description", Map.of("path", "../my_icons", "relative", true),
+          "source", "path",
+          "version", "1.0.0")),
+      "sdks", Map.of("dart", ">=3.4.0 <4.0.0")));
+    // SDK and path packages change without a new version, so only hosted and git packages are indexed.
+    assertEquals(Map.of("cupertino_icons", "1.0.8"), versions);
+  }
+
+  @Test
+  public void readsNoVersionsFromMalformedLockFile() {
+    assertEquals(Map.of(), FontPreviewIndex.readLockedVersions(null));
+    assertEquals(Map.of(), FontPreviewIndex.readLockedVersions(Map.of("packages", "none")));
+  }
+
+  @Test
+  public void persistsClassesByPackageVersionAndRoot() {
+    final Path file = tmp.getRoot().toPath().resolve("flutter").resolve("font-preview.index");
+    final String root = tmp.getRoot().toPath().resolve("pub").resolve("font_awesome_flutter").toString();
+    final List<FontPreviewIndex.IconClass> classes =
+      List.of(new FontPreviewIndex.IconClass("FontAwesomeIcons", Paths.get(root, "lib", "font_awesome_flutter.dart").toString()));
+    new FontPreviewIndex(file).put("font_awesome_flutter", "10.7.0", root, classes);
+
+    final FontPreviewIndex index = new FontPreviewIndex(file);
+    assertEquals(classes, index.get("font_awesome_flutter", "10.7.0", root));
+    assertNull(index.get("font_awesome_flutter", "10.8.0", root));
+    assertNull(index.get("cupertino_icons", "1.0.8", root));
+
+    // The same version at another root is a different package.
+    final String otherRoot = tmp.getRoot().toPath().resolve("other").resolve("font_awesome_flutter").toString();
+    assertNull(index.get("font_awesome_flutter", "10.7.0", otherRoot));
+
+    // A new version replaces the old one.
+    index.put("font_awesome_flutter", "10.8.0", root, List.of());
+    final FontPreviewIndex reloaded = new FontPreviewIndex(file);
+    assertNull(reloaded.get("font_awesome_flutter", "10.7.0", root));
+    assertEquals(List.of(), reloaded.get("font_awesome_flutter", "10.8.0", root));
+  }
+
+  @Test
+  public void skipsClassesOutsideRoot() {
+    final Path file = tmp.getRoot().toPath().resolve("font-preview.index");
+    final String root = tmp.getRoot().toPath().resolve("pub").resolve("icon_aggregator").toString();
+    final String exported = tmp.getRoot().toPath().resolve("pub").resolve("other_icons").resolve("lib").resolve("icons.dart").toString();
+    final FontPreviewIndex index = new FontPreviewIndex(file);
+    index.put("icon_aggregator", "1.0.0", root, List.of(new FontPreviewIndex.IconClass("OtherIcons", exported)));
+    assertNull(index.get("icon_aggregator", "1.0.0", root));
+  }
+
+  @Test
+  public void keepsLatestRootsOfPackage() {
+    final Path file = tmp.getRoot().toPath().resolve("font-preview.index");
+    final FontPreviewIndex index = new FontPreviewIndex(file);
+    for (int i = 0; i <= FontPreviewIndex.MAX_ROOTS_PER_PACKAGE; i++) {
+      index.put("icons", "1.0." + i, tmp.getRoot().toPath().resolve("icons-1.0." + i).toString(), List.of());
+    }
+    final FontPreviewIndex reloaded = new FontPreviewIndex(file);
+    assertNull(reloaded.get("icons", "1.0.0", tmp.getRoot().toPath().resolve("icons-1.0.0").toString()));
+    assertEquals(List.of(), reloaded.get("icons", "1.0.1", tmp.getRoot().toPath().resolve("icons-1.0.1").toString()));
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.logging;
+
+import com.intellij.execution.ui.ConsoleViewContentType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleLogPipelineTest {
+  private ScheduledExecutorService executor;
+  private final List<String> printed = new CopyOnWriteArrayList<>();
+  private ConsoleLogPipeline pipeline;
+
+  @Before
+  public void setUp() {
+    executor = new ScheduledThreadPoolExecutor(1);
+    pipeline = new ConsoleLogPipeline((text, contentType) -> printed.add(contentType + ":" + text), executor, 10);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void printsInOrderOnceEarlierEntriesAreReady() throws Exception {
+    final CompletableFuture<ConsoleLogPipeline.Output> slow = new CompletableFuture<>();
+    pipeline.add(slow);
+    pipeline.add(CompletableFuture.completedFuture(output("second\n")));
+
+    Thread.sleep(100);
+    assertEquals(List.of(), printed);
+    assertEquals(2, pipeline.getQueueDepth());
+
+    slow.complete(output("first\n"));
+    assertTrue(pipeline.awaitFlushed(5, TimeUnit.SECONDS));
+    assertEquals(List.of(ConsoleViewContentType.NORMAL_OUTPUT + ":first\nsecond\n"), printed);
+    assertEquals(0, pipeline.getQueueDepth());
+    assertEquals(2, pipeline.getLatencies().getCount());
+  }
+
+  @Test
+  public void mergesAdjacentTextOfTheSameType() throws Exception {
+    // Hold back the entries until they have all been added, so they are printed in one batch.
+    final CompletableFuture<ConsoleLogPipeline.Output> first = new CompletableFuture<>();
+    pipeline.add(first);
+    pipeline.add(CompletableFuture.completedFuture(null));
+    pipeline.add(CompletableFuture.failedFuture(new IllegalStateException("skipped")));
+
+    final ConsoleLogPipeline.Output last = new ConsoleLogPipeline.Output();
+    last.print("d", ConsoleViewContentType.ERROR_OUTPUT);
+    pipeline.add(CompletableFuture.completedFuture(last));
+
+    final ConsoleLogPipeline.Output output = output("a");
+    output.print("b", ConsoleViewContentType.NORMAL_OUTPUT);
+    output.print("c", ConsoleViewContentType.ERROR_OUTPUT);
+    first.complete(output);
+    assertTrue(pipeline.awaitFlushed(5, TimeUnit.SECONDS));
+    assertEquals(List.of(ConsoleViewContentType.NORMAL_OUTPUT + ":ab", ConsoleViewContentType.ERROR_OUTPUT + ":cd"), printed);
+  }
+
+  @NotNull
+  private static ConsoleLogPipeline.Output output(@NotNull String text) {
+    final ConsoleLogPipeline.Output output = new ConsoleLogPipeline.Output();
+    output.print(text, ConsoleViewContentType.NORMAL_OUTPUT);
+    return output;
+  }
+}
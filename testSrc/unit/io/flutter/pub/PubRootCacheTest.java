@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.pub;
+
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import io.flutter.testing.ProjectFixture;
+import io.flutter.testing.TestDir;
+import io.flutter.testing.Testing;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Rule;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that the pub roots of directories are cached until files change.
+ */
+public class PubRootCacheTest {
+  @Rule
+  public ProjectFixture fixture = Testing.makeEmptyModule();
+
+  @Rule
+  public TestDir tmp = new TestDir();
+
+  @Test
+  public void findsRootOfNestedDirectories() throws Exception {
+    final PubRootCache cache = createCache(PubRootCache.MAX_CACHED_DIRECTORIES);
+    tmp.writeFile("app/pubspec.yaml", "");
+    final VirtualFile src = tmp.ensureDir("app/lib/src");
+    final VirtualFile outside = tmp.ensureDir("outside");
+
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, src));
+    assertNull(cache.getRoot(outside));
+
+    final long hits = cache.getStats().hits();
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, src));
+    assertEquals(hits + 1, cache.getStats().hits());
+  }
+
+  @Test
+  public void findsAddedPubspec() throws Exception {
+    final PubRootCache cache = createCache(PubRootCache.MAX_CACHED_DIRECTORIES);
+    tmp.writeFile("app/pubspec.yaml", "");
+    final VirtualFile lib = tmp.ensureDir("app/packages/inner/lib");
+    final VirtualFile appLib = tmp.ensureDir("app/lib");
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, lib));
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, appLib));
+
+    tmp.writeFile("app/packages/inner/pubspec.yaml", "");
+    assertEquals(tmp.pathAt("app/packages/inner"), getRootPath(cache, lib));
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, appLib));
+  }
+
+  @Test
+  public void dropsRemovedPubspec() throws Exception {
+    final PubRootCache cache = createCache(PubRootCache.MAX_CACHED_DIRECTORIES);
+    tmp.writeFile("app/pubspec.yaml", "");
+    tmp.writeFile("app/packages/inner/pubspec.yaml", "");
+    final VirtualFile lib = tmp.ensureDir("app/packages/inner/lib");
+    assertEquals(tmp.pathAt("app/packages/inner"), getRootPath(cache, lib));
+
+    tmp.deleteFile("app/packages/inner/pubspec.yaml");
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, lib));
+  }
+
+  @Test
+  public void rereadsOnlyEditedRoot() throws Exception {
+    final PubRootCache cache = createCache(PubRootCache.MAX_CACHED_DIRECTORIES);
+    tmp.writeFile("app/pubspec.yaml", "");
+    tmp.writeFile("other/pubspec.yaml", "");
+    final VirtualFile appLib = tmp.ensureDir("app/lib");
+    final VirtualFile otherLib = tmp.ensureDir("other/lib");
+    final PubRoot app = cache.getRoot(appLib);
+    final PubRoot other = cache.getRoot(otherLib);
+    assertNotNull(app);
+    assertNotNull(other);
+
+    final long invalidations = cache.getStats().invalidations();
+    tmp.writeFile("app/pubspec.yaml", "name: app");
+    assertTrue(cache.getStats().invalidations() > invalidations);
+
+    final long hits = cache.getStats().hits();
+    assertSame(other, cache.getRoot(otherLib));
+    assertEquals(hits + 1, cache.getStats().hits());
+
+    final PubRoot edited = cache.getRoot(appLib);
+    assertNotNull(edited);
+    assertNotSame(app, edited);
+    assertEquals(app.getPath(), edited.getPath());
+  }
+
+  @Test
+  public void findsRootOfMovedDirectory() throws Exception {
+    final PubRootCache cache = createCache(PubRootCache.MAX_CACHED_DIRECTORIES);
+    tmp.writeFile("app/pubspec.yaml", "");
+    tmp.writeFile("other/pubspec.yaml", "");
+    final VirtualFile src = tmp.ensureDir("app/lib/src");
+    final VirtualFile nested = tmp.ensureDir("app/lib/src/widgets");
+    final VirtualFile otherLib = tmp.ensureDir("other/lib");
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, nested));
+
+    Testing.runInWriteAction(() -> src.move(this, otherLib));
+    assertEquals(tmp.pathAt("other"), getRootPath(cache, nested));
+    assertEquals(tmp.pathAt("other"), getRootPath(cache, src));
+  }
+
+  @Test
+  public void dropsEntriesBelowDeletedDirectory() throws Exception {
+    final PubRootCache cache = createCache(PubRootCache.MAX_CACHED_DIRECTORIES);
+    tmp.writeFile("app/pubspec.yaml", "");
+    tmp.writeFile("app/packages/inner/pubspec.yaml", "");
+    final VirtualFile innerLib = tmp.ensureDir("app/packages/inner/lib");
+    final VirtualFile appLib = tmp.ensureDir("app/lib");
+    assertEquals(tmp.pathAt("app/packages/inner"), getRootPath(cache, innerLib));
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, appLib));
+    final int size = cache.getStats().size();
+
+    Testing.runInWriteAction(() -> tmp.ensureDir("app/packages/inner").delete(this));
+    // inner and inner/lib are gone.
+    assertEquals(size - 2, cache.getStats().size());
+
+    // Directories created in the same place don't see the deleted root.
+    final VirtualFile recreated = tmp.ensureDir("app/packages/inner/lib");
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, recreated));
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, appLib));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedDirectories() throws Exception {
+    final PubRootCache cache = createCache(3);
+    tmp.writeFile("app/pubspec.yaml", "");
+    final VirtualFile a = tmp.ensureDir("app/a");
+    final VirtualFile b = tmp.ensureDir("app/b");
+    final VirtualFile c = tmp.ensureDir("app/c");
+
+    // Caches app/a and app, then app/b.
+    cache.getRoot(a);
+    cache.getRoot(b);
+    assertEquals(3, cache.getStats().size());
+
+    // Using app/a again makes app/b the least recently used, so caching app/c drops it.
+    cache.getRoot(a);
+    cache.getRoot(c);
+    assertEquals(3, cache.getStats().size());
+
+    long hits = cache.getStats().hits();
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, a));
+    assertEquals(hits + 1, cache.getStats().hits());
+
+    hits = cache.getStats().hits();
+    assertEquals(tmp.pathAt("app"), getRootPath(cache, b));
+    assertEquals(hits, cache.getStats().hits());
+    assertEquals(3, cache.getStats().size());
+  }
+
+  @NotNull
+  private PubRootCache createCache(int maxCachedDirectories) {
+    final PubRootCache cache = new PubRootCache(fixture.getProject(), maxCachedDirectories);
+    Disposer.register(fixture.getProject(), cache);
+    return cache;
+  }
+
+  private static String getRootPath(@NotNull PubRootCache cache, @NotNull VirtualFile dir) {
+    final PubRoot root = cache.getRoot(dir);
+    assertNotNull(root);
+    return root.getPath();
+  }
+}
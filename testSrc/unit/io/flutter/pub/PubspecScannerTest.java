@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.pub;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PubspecScannerTest {
+
+  @Test
+  public void readsApp() {
+    final PubspecMetadata metadata = PubspecScanner.scan("""
+                                                           name: my_app # The app.
+                                                           description: "A new Flutter project: flutter"
+                                                           homepage: It's here # https://example.com
+                                                           environment:
+                                                             sdk: ^3.5.0
+                                                           dependencies:
+                                                             http: ^1.2.0
+                                                             flutter:
+                                                               sdk: flutter
+                                                           dev_dependencies:
+                                                             flutter_test:
+                                                               sdk: flutter
+                                                           flutter:
+                                                             uses-material-design: true
+                                                             assets:
+                                                               - images/
+                                                               - "data/config.json"
+                                                               - path: flavored/
+                                                                 flavors:
+                                                                   - free
+                                                           """);
+    assertEquals("my_app", metadata.name());
+    assertTrue(metadata.flutterDependency());
+    assertTrue(metadata.declaresFlutter());
+    assertFalse(metadata.plugin());
+    assertFalse(metadata.resolutionWorkspace());
+    assertEquals(List.of("images/", "data/config.json", "flavored/"), metadata.assets());
+  }
+
+  @Test
+  public void readsPlugin() {
+    final PubspecMetadata metadata = PubspecScanner.scan("""
+                                                           name: 'my_plugin'
+                                                           dependencies: {flutter: {sdk: flutter}, meta: any}
+                                                           flutter:
+                                                             plugin:
+                                                               platforms:
+                                                                 android:
+                                                                   pluginClass: MyPlugin
+                                                           """);
+    assertEquals("my_plugin", metadata.name());
+    assertTrue(metadata.flutterDependency());
+    assertTrue(metadata.plugin());
+  }
+
+  @Test
+  public void readsWorkspace() {
+    final PubspecMetadata root = PubspecScanner.scan("""
+                                                       name: _
+                                                       workspace:
+                                                       - packages/app
+                                                       - packages/shared
+                                                       """);
+    assertEquals(List.of("packages/app", "packages/shared"), root.workspace());
+    assertFalse(root.declaresFlutter());
+
+    final PubspecMetadata member = PubspecScanner.scan("name: app\r\nresolution: workspace\r\n");
+    assertTrue(member.resolutionWorkspace());
+  }
+
+  @Test
+  public void ignoresNestedAndCommentedKeys() {
+    final PubspecMetadata metadata = PubspecScanner.scan("""
+                                                           # flutter:
+                                                           #   plugin:
+                                                           dependency_overrides:
+                                                             flutter:
+                                                               sdk: flutter
+                                                           dependencies:
+                                                             path:
+                                                               flutter: true
+                                                           """);
+    assertNull(metadata.name());
+    assertFalse(metadata.flutterDependency());
+    assertFalse(metadata.plugin());
+  }
+
+  @Test
+  public void treatsFlutterPackageAsDeclaringFlutter() {
+    assertTrue(PubspecScanner.scan("name: flutter\n").declaresFlutter());
+  }
+}
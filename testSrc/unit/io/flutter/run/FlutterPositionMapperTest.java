@@ -93,6 +93,62 @@ public class FlutterPositionMapperTest {
     assertEquals(9, pos.getLine()); // zero-based
   }
 
+  @Test
+  public void shouldDropVersionsReplacedByHotReload() throws Exception {
+    tmp.writeFile("root/pubspec.yaml", "");
+    tmp.ensureDir("root/lib");
+    final VirtualFile main = tmp.writeFile("root/lib/main.dart", "");
+    tmp.writeFile("root/lib/hello.dart", "");
+
+    final FlutterPositionMapper mapper = setUpMapper(main, "remote:root");
+
+    scripts.addScript("1", "2", "remote:root/lib/hello.dart", ImmutableList.of(new Line(10, 123, 1)));
+    scripts.addScript("1", "3", "remote:root/lib/hello.dart", ImmutableList.of(new Line(11, 123, 1)));
+
+    mapper.getSourcePosition("1", makeScriptRef("2", "remote:root/lib/hello.dart"), 123, null);
+    mapper.getSourcePosition("1", makeScriptRef("2", "remote:root/lib/hello.dart"), 123, null);
+    assertEquals(1, scripts.downloads);
+
+    final XSourcePosition pos = mapper.getSourcePosition("1", makeScriptRef("3", "remote:root/lib/hello.dart"), 123, null);
+    assertNotNull(pos);
+    assertEquals(10, pos.getLine()); // zero-based
+    assertEquals(2, scripts.downloads);
+
+    // The version from before the hot reload was dropped.
+    mapper.getSourcePosition("1", makeScriptRef("2", "remote:root/lib/hello.dart"), 123, null);
+    assertEquals(3, scripts.downloads);
+  }
+
+  @Test
+  public void shouldPrefetchScripts() throws Exception {
+    tmp.writeFile("root/pubspec.yaml", "");
+    tmp.ensureDir("root/lib");
+    final VirtualFile main = tmp.writeFile("root/lib/main.dart", "");
+    tmp.writeFile("root/lib/hello.dart", "");
+
+    final FlutterPositionMapper mapper = setUpMapper(main, "remote:root");
+
+    final Line unsorted = new Line(10, 200, 1);
+    unsorted.addToken(123, 5);
+    scripts.addScript("1", "2", "remote:root/lib/hello.dart", ImmutableList.of(unsorted));
+    scripts.addScript("1", "3", "remote:root/lib/main.dart", ImmutableList.of(new Line(3, 7, 2)));
+
+    mapper.prefetchScripts("1", ImmutableList.of(
+      makeScriptRef("2", "remote:root/lib/hello.dart"),
+      makeScriptRef("3", "remote:root/lib/main.dart")
+    )).get();
+    assertEquals(2, scripts.downloads);
+
+    final XSourcePosition hello = mapper.getSourcePosition("1", makeScriptRef("2", "remote:root/lib/hello.dart"), 123, null);
+    assertNotNull(hello);
+    assertEquals(9, hello.getLine()); // zero-based
+    final XSourcePosition pos = mapper.getSourcePosition("1", makeScriptRef("3", "remote:root/lib/main.dart"), 7, null);
+    assertNotNull(pos);
+    assertEquals(main, pos.getFile());
+    assertEquals(2, pos.getLine()); // zero-based
+    assertEquals(2, scripts.downloads);
+  }
+
   @NotNull
   private FlutterPositionMapper setUpMapper(VirtualFile contextFile, String remoteBaseUri) {
     final FlutterPositionMapper[] mapper = new FlutterPositionMapper[1];
@@ -119,6 +175,7 @@ public class FlutterPositionMapperTest {
 
   private static final class FakeScriptProvider implements DartVmServiceDebugProcess.ScriptProvider {
     final Map<String, Script> scripts = new HashMap<>();
+    int downloads;
 
     void addScript(String isolateId, String scriptId, String uri, List<Line> table) {
       final JsonArray tokenPosTable = new JsonArray();
@@ -133,6 +190,7 @@ public class FlutterPositionMapperTest {
     @Nullable
     @Override
     public Script downloadScript(@NotNull String isolateId, @NotNull String scriptId) {
+      downloads++;
       return scripts.get(isolateId + "-" + scriptId);
     }
   }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ReloadSchedulerTest {
+  private ScheduledExecutorService executor;
+  private final BlockingQueue<Set<String>> reloads = new LinkedBlockingQueue<>();
+  private volatile CompletableFuture<Void> pending;
+
+  @Before
+  public void setUp() {
+    executor = new ScheduledThreadPoolExecutor(1);
+    pending = new CompletableFuture<>();
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void coalescesBurstOfRequests() throws Exception {
+    pending.complete(null);
+    final ReloadScheduler<String> scheduler = createScheduler();
+    scheduler.request(List.of("a.dart"));
+    scheduler.request(List.of("b.dart"));
+    scheduler.request(List.of("a.dart"));
+
+    assertEquals(Set.of("a.dart", "b.dart"), reloads.poll(5, TimeUnit.SECONDS));
+    assertNull(reloads.poll(200, TimeUnit.MILLISECONDS));
+    assertEquals(1, scheduler.getLatencies().getCount());
+  }
+
+  @Test
+  public void queuesRequestsWhileReloading() throws Exception {
+    final ReloadScheduler<String> scheduler = createScheduler();
+    scheduler.request(List.of("a.dart"));
+    assertEquals(Set.of("a.dart"), reloads.poll(5, TimeUnit.SECONDS));
+
+    final CompletableFuture<Void> inFlight = pending;
+    pending = CompletableFuture.completedFuture(null);
+    scheduler.request(List.of("b.dart"));
+    scheduler.request(List.of("c.dart"));
+    assertNull(reloads.poll(200, TimeUnit.MILLISECONDS));
+
+    inFlight.complete(null);
+    assertEquals(Set.of("b.dart", "c.dart"), reloads.poll(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void retriesFilesOfSkippedReloads() throws Exception {
+    pending = null;
+    final ReloadScheduler<String> scheduler = createScheduler();
+    scheduler.request(List.of("a.dart"));
+    assertEquals(Set.of("a.dart"), reloads.poll(5, TimeUnit.SECONDS));
+    // The skipped files don't trigger a reload on their own.
+    assertNull(reloads.poll(200, TimeUnit.MILLISECONDS));
+
+    pending = CompletableFuture.completedFuture(null);
+    scheduler.request(List.of("b.dart"));
+    assertEquals(Set.of("a.dart", "b.dart"), reloads.poll(5, TimeUnit.SECONDS));
+    assertNull(reloads.poll(200, TimeUnit.MILLISECONDS));
+    assertEquals(1, scheduler.getLatencies().getCount());
+  }
+
+  @NotNull
+  private ReloadScheduler<String> createScheduler() {
+    return new ReloadScheduler<>(executor, 50, 10_000, new ReloadScheduler.Target<>() {
+      @Override
+      public boolean isBusy() {
+        return false;
+      }
+
+      @Override
+      public @Nullable CompletableFuture<?> reload(@NotNull Set<String> files) {
+        final CompletableFuture<Void> future = pending;
+        reloads.add(Set.copyOf(files));
+        return future;
+      }
+    });
+  }
+}
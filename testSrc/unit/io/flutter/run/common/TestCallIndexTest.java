@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.common;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import io.flutter.AbstractDartElementTest;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TestCallIndexTest extends AbstractDartElementTest {
+  private static final String FILE_TEXT = """
+    void main() {
+      group('outer', () {
+        test('one', () {});
+        group('inner', () {
+          testWidgets('two', (tester) async {});
+        });
+      });
+      test('one', () {});
+      print('not a test');
+    }
+    """;
+
+  @Test
+  public void collectsNestedTestCalls() throws Exception {
+    run(() -> {
+      final PsiElement element = setUpDartElement("test/sample_test.dart", FILE_TEXT, "print", LeafPsiElement.class);
+      final List<TestCallIndex.TestCall> calls = TestCallIndex.collectTestCalls(element.getContainingFile());
+
+      assertEquals(5, calls.size());
+      assertEquals(new TestCallIndex.TestCall(TestType.GROUP, "outer", FILE_TEXT.indexOf("group('outer'"), -1), calls.get(0));
+      assertEquals(new TestCallIndex.TestCall(TestType.SINGLE, "one", FILE_TEXT.indexOf("test('one'"), 0), calls.get(1));
+      assertEquals(new TestCallIndex.TestCall(TestType.GROUP, "inner", FILE_TEXT.indexOf("group('inner'"), 0), calls.get(2));
+      assertEquals(new TestCallIndex.TestCall(TestType.SINGLE, "two", FILE_TEXT.indexOf("testWidgets('two'"), 2), calls.get(3));
+      assertEquals(new TestCallIndex.TestCall(TestType.SINGLE, "one", FILE_TEXT.lastIndexOf("test('one'"), -1), calls.get(4));
+    });
+  }
+
+  @Test
+  public void getsTestCallsWhetherOrNotIndexed() throws Exception {
+    run(() -> {
+      final PsiElement element = setUpDartElement("test/sample_test.dart", FILE_TEXT, "print", LeafPsiElement.class);
+      // Files that aren't indexed yet are read from their syntax tree, rather than treated as having no tests.
+      assertEquals(TestCallIndex.collectTestCalls(element.getContainingFile()),
+                   TestCallIndex.getTestCalls(element.getContainingFile()));
+    });
+  }
+
+  @Test
+  public void findsTestCallsByGroupAndTestNames() throws Exception {
+    run(() -> {
+      final PsiElement element = setUpDartElement("test/sample_test.dart", FILE_TEXT, "print", LeafPsiElement.class);
+      final List<TestCallIndex.TestCall> calls = TestCallIndex.collectTestCalls(element.getContainingFile());
+
+      final TestCallIndex.TestCall two = TestCallIndex.findTestCall(calls, List.of("outer", "inner", "two"));
+      assertNotNull(two);
+      assertEquals(FILE_TEXT.indexOf("testWidgets('two'"), two.offset());
+
+      // Names are matched from the innermost group outward, so a partial path of groups matches too.
+      final TestCallIndex.TestCall nested = TestCallIndex.findTestCall(calls, List.of("outer", "one"));
+      assertNotNull(nested);
+      assertEquals(FILE_TEXT.indexOf("test('one'"), nested.offset());
+
+      assertNull(TestCallIndex.findTestCall(calls, List.of("inner", "one")));
+      assertNull(TestCallIndex.findTestCall(calls, List.of()));
+    });
+  }
+}
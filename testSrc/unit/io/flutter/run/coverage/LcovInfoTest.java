@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.coverage;
+
+import com.intellij.rt.coverage.data.ClassData;
+import com.intellij.rt.coverage.data.LineData;
+import com.intellij.rt.coverage.data.ProjectData;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies that we can read lcov.info files.
+ */
+public class LcovInfoTest {
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void readsLineHits() throws IOException {
+    final File lcov = writeLcov(String.join("\n",
+      "SF:lib/main.dart",
+      "DA:3,1",
+      "DA:4,0",
+      "DA:10,12,checksum",
+      "LF:3",
+      "LH:2",
+      "end_of_record",
+      "SF:lib/src/../util.dart",
+      "DA:1,5",
+      "end_of_record",
+      ""));
+
+    final ProjectData data = new ProjectData();
+    LcovInfo.readInto(data, lcov);
+
+    final ClassData main = data.getClassData(root() + "lib/main.dart");
+    assertNotNull(main);
+    assertHits(main, 3, 1);
+    assertHits(main, 4, 0);
+    assertHits(main, 10, 12);
+    assertNull(main.getLineData(5));
+
+    final ClassData util = data.getClassData(root() + "lib/util.dart");
+    assertNotNull(util);
+    assertHits(util, 1, 5);
+  }
+
+  @Test
+  public void lastRecordForFileWins() throws IOException {
+    final File lcov = writeLcov(String.join("\r\n",
+      "SF:lib/main.dart",
+      "DA:1,1",
+      "end_of_record",
+      "SF:lib/main.dart",
+      "DA:1,7",
+      "end_of_record",
+      ""));
+
+    final ProjectData data = new ProjectData();
+    LcovInfo.readInto(data, lcov);
+
+    final ClassData main = data.getClassData(root() + "lib/main.dart");
+    assertNotNull(main);
+    assertHits(main, 1, 7);
+  }
+
+  @Test
+  public void readsLargeFileInChunks() throws IOException {
+    // Generate enough data (about 10k files) that the file is split into several chunks.
+    final StringBuilder text = new StringBuilder();
+    for (int file = 0; file < 10000; file++) {
+      text.append("SF:lib/src/file_").append(file).append(".dart\n");
+      for (int line = 1; line <= 30; line++) {
+        text.append("DA:").append(line).append(',').append((file + line) % 3).append('\n');
+      }
+      text.append("end_of_record\n");
+    }
+    final File lcov = writeLcov(text.toString());
+
+    final ProjectData data = new ProjectData();
+    LcovInfo.readInto(data, lcov);
+
+    assertEquals(10000, data.getClassesNumber());
+    for (int file = 0; file < 10000; file += 997) {
+      final ClassData classData = data.getClassData(root() + "lib/src/file_" + file + ".dart");
+      assertNotNull(classData);
+      for (int line = 1; line <= 30; line++) {
+        assertHits(classData, line, (file + line) % 3);
+      }
+    }
+  }
+
+  @Test
+  public void reusesUnchangedRecordsFromSnapshot() throws IOException {
+    final File lcov = writeLcov(String.join("\n",
+      "SF:lib/a.dart",
+      "DA:1,1",
+      "end_of_record",
+      "SF:lib/b.dart",
+      "DA:2,0",
+      "end_of_record",
+      ""));
+    final Map<String, Long> first = LcovInfo.readInto(new ProjectData(), lcov);
+    assertTrue(LcovSnapshot.fileFor(lcov).isFile());
+
+    // Rerun with a change to b.dart only.
+    writeLcov(String.join("\n",
+      "SF:lib/a.dart",
+      "DA:1,1",
+      "end_of_record",
+      "SF:lib/b.dart",
+      "DA:2,3",
+      "end_of_record",
+      ""));
+    final ProjectData data = new ProjectData();
+    final Map<String, Long> second = LcovInfo.readInto(data, lcov);
+
+    final String a = root() + "lib/a.dart";
+    final String b = root() + "lib/b.dart";
+    assertEquals(first.get(a), second.get(a));
+    assertNotEquals(first.get(b), second.get(b));
+    assertHits(data.getClassData(a), 1, 1);
+    assertHits(data.getClassData(b), 2, 3);
+
+    final Map<String, LcovInfo.FileRecord> snapshot = LcovSnapshot.read(LcovSnapshot.fileFor(lcov));
+    assertEquals(2, snapshot.size());
+    assertEquals(3, snapshot.get(b).hits[0]);
+
+    // Reading again against the snapshot returns its records instead of parsing new ones.
+    final List<LcovInfo.FileRecord> records = new LcovInfo(root(), snapshot).read(lcov);
+    assertEquals(2, records.size());
+    assertSame(snapshot.get(a), records.get(0));
+    assertSame(snapshot.get(b), records.get(1));
+  }
+
+  @Test
+  public void reparsesRecordsWhoseLengthChanged() throws IOException {
+    final String text = "SF:lib/a.dart\nDA:1,1\nend_of_record\n";
+    final File lcov = writeLcov(text);
+    final String a = root() + "lib/a.dart";
+    final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    final long hash = LcovInfo.hash(ByteBuffer.wrap(bytes), 0, bytes.length);
+
+    final LcovInfo.FileRecord matching = new LcovInfo.FileRecord(a, new int[]{1}, new int[]{1}, 1, bytes.length, hash);
+    assertSame(matching, new LcovInfo(root(), Map.of(a, matching)).read(lcov).get(0));
+
+    // Same path and hash, as if the hash collided, but a different length.
+    final LcovInfo.FileRecord stale = new LcovInfo.FileRecord(a, new int[]{1}, new int[]{9}, 1, bytes.length + 1, hash);
+    final List<LcovInfo.FileRecord> records = new LcovInfo(root(), Map.of(a, stale)).read(lcov);
+    assertNotSame(stale, records.get(0));
+    assertEquals(1, records.get(0).hits[0]);
+  }
+
+  @Test
+  public void ignoresCorruptSnapshot() throws IOException {
+    final File lcov = writeLcov("SF:lib/a.dart\nDA:4,2\nend_of_record\n");
+    Files.write(LcovSnapshot.fileFor(lcov).toPath(), new byte[]{1, 2, 3});
+
+    final ProjectData data = new ProjectData();
+    LcovInfo.readInto(data, lcov);
+    assertHits(data.getClassData(root() + "lib/a.dart"), 4, 2);
+  }
+
+  private File writeLcov(String text) throws IOException {
+    final File dir = new File(tmp.getRoot(), "coverage");
+    //noinspection ResultOfMethodCallIgnored
+    dir.mkdirs();
+    final File lcov = new File(dir, "lcov.info");
+    Files.writeString(lcov.toPath(), text, StandardCharsets.UTF_8);
+    return lcov;
+  }
+
+  private String root() {
+    return tmp.getRoot().getAbsolutePath() + "/";
+  }
+
+  private static void assertHits(ClassData classData, int line, int hits) {
+    final LineData lineData = classData.getLineData(line);
+    assertNotNull("no data for line " + line, lineData);
+    assertEquals(hits, lineData.getHits());
+  }
+}
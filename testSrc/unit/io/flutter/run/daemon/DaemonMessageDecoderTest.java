@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.daemon;
+
+import com.google.gson.JsonElement;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Verifies that we can frame and decode the output of a Flutter daemon process.
+ */
+public class DaemonMessageDecoderTest {
+  private List<String> log;
+  private DaemonMessageDecoder decoder;
+
+  @Before
+  public void setUp() {
+    log = new ArrayList<>();
+    decoder = new DaemonMessageDecoder(new DaemonEvent.Listener() {
+      @Override
+      public void onAppLog(DaemonEvent.AppLog event) {
+      }
+
+      @Override
+      public void onAppStarted(DaemonEvent.AppStarted event) {
+      }
+    }, new DaemonMessageDecoder.Sink() {
+      @Override
+      public void onResponse(int id, @Nullable JsonElement result, @Nullable JsonElement error, @Nullable JsonElement trace) {
+        log.add("response " + id + ": " + result + ", " + error);
+      }
+
+      @Override
+      public void onEvent(@NotNull DaemonEvent event) {
+        log.add("event " + event.getClass().getSimpleName() + ": " + event);
+      }
+    });
+  }
+
+  @Test
+  public void decodesEventsAndResponses() {
+    decoder.appendOutput("[{\"event\":\"app.started\",\"params\":{\"appId\":\"42\"}}]\n");
+    decoder.appendOutput("[{\"id\":3,\"result\":{\"code\":0}}]\n");
+    decoder.appendOutput("[{\"id\":4,\"error\":\"oops\",\"trace\":\"here\"}]\n");
+    checkLog("event AppStarted: {\"appId\":\"42\"}",
+             "response 3: {\"code\":0}, null",
+             "response 4: null, \"oops\"");
+  }
+
+  @Test
+  public void skipsEventsWithoutCallbacks() {
+    decoder.appendOutput("[{\"event\":\"device.added\",\"params\":{\"id\":\"emulator-5554\"}}]\n");
+    decoder.appendOutput("[{\"event\":\"unknown.event\",\"params\":{}}]\n");
+    checkLog();
+  }
+
+  @Test
+  public void decodesParamsBeforeEventName() {
+    decoder.appendOutput("[{\"params\":{\"appId\":\"42\",\"log\":\"hello\"},\"event\":\"app.log\"}]\n");
+    checkLog("event AppLog: {\"appId\":\"42\",\"log\":\"hello\",\"error\":false}");
+  }
+
+  @Test
+  public void framesMessagesSplitAcrossChunks() {
+    decoder.appendOutput("[");
+    decoder.appendOutput("{\"event\":\"app.log\",\"params\":{\"appId\":\"42\",");
+    decoder.appendOutput("\"log\":\"a ]} b\"}}");
+    decoder.appendOutput("]\n[{\"id\":1}]\r\n");
+    checkLog("event AppLog: {\"appId\":\"42\",\"log\":\"a ]} b\",\"error\":false}",
+             "response 1: null, null");
+  }
+
+  @Test
+  public void ignoresRegularText() {
+    decoder.appendOutput("Launching lib/main.dart [{\"id\":1}]\n");
+    decoder.appendOutput("[not json]\n[{broken\n");
+    decoder.appendOutput("[{\"id\":\"2\"}]\n");
+    decoder.appendOutput("[{\"event\":\"app.log\"}]\n");
+    checkLog();
+  }
+
+  @Test
+  public void replaysTranscript() {
+    final String transcript = String.join("\n",
+      "Starting device daemon...",
+      "[{\"event\":\"daemon.connected\",\"params\":{\"version\":\"0.6.1\",\"pid\":1234}}]",
+      "[{\"event\":\"app.start\",\"params\":{\"appId\":\"a1\",\"deviceId\":\"d1\",\"directory\":\"/app\",\"launchMode\":\"run\"}}]",
+      "[{\"event\":\"app.progress\",\"params\":{\"appId\":\"a1\",\"id\":\"0\",\"progressId\":\"hot.reload\",\"message\":\"Reloading\"}}]",
+      "[{\"event\":\"app.log\",\"params\":{\"appId\":\"a1\",\"log\":\"tick 1\"}}]",
+      "[{\"event\":\"app.log\",\"params\":{\"appId\":\"a1\",\"log\":\"tick \\\"2\\\"\"}}]",
+      "[{\"id\":0,\"result\":{\"code\":0,\"message\":\"ok\"}}]",
+      "[{\"event\":\"app.started\",\"params\":{\"appId\":\"a1\"}}]",
+      "");
+
+    // Feed the transcript in small, uneven chunks, as process output arrives.
+    for (int i = 0; i < transcript.length(); i += 7) {
+      decoder.appendOutput(transcript.substring(i, Math.min(i + 7, transcript.length())));
+    }
+
+    checkLog("event AppLog: {\"appId\":\"a1\",\"log\":\"tick 1\",\"error\":false}",
+             "event AppLog: {\"appId\":\"a1\",\"log\":\"tick \\\"2\\\"\",\"error\":false}",
+             "response 0: {\"code\":0,\"message\":\"ok\"}, null",
+             "event AppStarted: {\"appId\":\"a1\"}");
+  }
+
+  private void checkLog(String... expectedEntries) {
+    assertEquals("log entries are different", Arrays.asList(expectedEntries), log);
+    log.clear();
+  }
+}
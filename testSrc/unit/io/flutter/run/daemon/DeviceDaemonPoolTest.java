@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.daemon;
+
+import com.google.common.collect.ImmutableList;
+import io.flutter.run.FlutterDevice;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies that device daemons are shared by the projects that use the same command.
+ */
+public class DeviceDaemonPoolTest {
+  private static final DeviceDaemon.Command SDK_A =
+    new DeviceDaemon.Command("/sdk/a", "/sdk/a/bin/flutter", ImmutableList.of("daemon"), null);
+  private static final DeviceDaemon.Command SDK_B =
+    new DeviceDaemon.Command("/sdk/b", "/sdk/b/bin/flutter", ImmutableList.of("daemon"), null);
+
+  private List<FakeDaemon> started;
+  private boolean failStart;
+  private DeviceDaemonPool pool;
+
+  @Before
+  public void setUp() {
+    started = new ArrayList<>();
+    failStart = false;
+    pool = new DeviceDaemonPool((command, isCancelled, deviceChanged, processStopped) -> {
+      if (failStart) {
+        return null;
+      }
+      final FakeDaemon daemon = new FakeDaemon(command, deviceChanged, processStopped);
+      started.add(daemon);
+      return daemon;
+    });
+  }
+
+  @Test
+  public void sharesDaemonBetweenLeases() throws Exception {
+    final DeviceDaemonPool.Lease first = acquire(SDK_A);
+    final DeviceDaemonPool.Lease second = acquire(SDK_A);
+    assertEquals(1, started.size());
+    assertEquals(2, pool.getLeaseCount(SDK_A));
+    assertTrue(first.isRunning());
+    assertTrue(second.isRunning());
+
+    first.release();
+    assertEquals(1, pool.getLeaseCount(SDK_A));
+    assertFalse(started.get(0).shutDown);
+    assertTrue(second.isRunning());
+  }
+
+  @Test
+  public void shutsDownWhenLastLeaseIsReleased() throws Exception {
+    final DeviceDaemonPool.Lease first = acquire(SDK_A);
+    final DeviceDaemonPool.Lease second = acquire(SDK_A);
+    first.release();
+    second.release();
+    assertEquals(0, pool.getLeaseCount(SDK_A));
+    assertTrue(started.get(0).shutDown);
+
+    // Releasing twice doesn't affect a later daemon.
+    final DeviceDaemonPool.Lease third = acquire(SDK_A);
+    second.release();
+    assertEquals(2, started.size());
+    assertTrue(third.isRunning());
+    assertEquals(1, pool.getLeaseCount(SDK_A));
+  }
+
+  @Test
+  public void restartsStoppedProcessForOtherLeases() throws Exception {
+    final List<String> changes = new ArrayList<>();
+    final DeviceDaemonPool.Lease first = pool.acquire(SDK_A, () -> false, () -> changes.add("first"), (details) -> {
+    });
+    final DeviceDaemonPool.Lease second = pool.acquire(SDK_A, () -> false, () -> changes.add("second"), (details) -> {
+    });
+    assertNotNull(first);
+    assertNotNull(second);
+
+    first.stopProcess();
+    assertTrue(started.get(0).shutDown);
+    assertFalse(second.isRunning());
+    assertTrue(second.needRestart(SDK_A));
+    assertEquals(List.of("first", "second"), changes);
+    assertEquals(2, pool.getLeaseCount(SDK_A));
+
+    // The next project to acquire it starts a new process, which the other leases use too.
+    final DeviceDaemonPool.Lease third = acquire(SDK_A);
+    assertEquals(2, started.size());
+    assertTrue(second.isRunning());
+    assertTrue(third.isRunning());
+    assertEquals(3, pool.getLeaseCount(SDK_A));
+  }
+
+  @Test
+  public void keepsSdksSeparate() throws Exception {
+    final DeviceDaemonPool.Lease a = acquire(SDK_A);
+    final DeviceDaemonPool.Lease b = acquire(SDK_B);
+    assertEquals(2, started.size());
+    assertEquals(SDK_A, started.get(0).command);
+    assertEquals(SDK_B, started.get(1).command);
+    assertTrue(a.needRestart(SDK_B));
+    assertFalse(b.needRestart(SDK_B));
+
+    started.get(1).devicesChanged(ImmutableList.of(new FlutterDevice("emulator-5554", "Pixel", "android-arm64", false)));
+    assertEquals(0, a.getDevices().size());
+    assertEquals(1, b.getDevices().size());
+
+    a.release();
+    assertTrue(started.get(0).shutDown);
+    assertFalse(started.get(1).shutDown);
+    assertTrue(b.isRunning());
+  }
+
+  @Test
+  public void notifiesLeasesWhenProcessStops() throws Exception {
+    final List<String> stopped = new ArrayList<>();
+    pool.acquire(SDK_A, () -> false, () -> {
+    }, (details) -> stopped.add("first: " + details));
+    pool.acquire(SDK_A, () -> false, () -> {
+    }, (details) -> stopped.add("second: " + details));
+
+    started.get(0).processStopped.accept("exit code 1");
+    assertEquals(List.of("first: exit code 1", "second: exit code 1"), stopped);
+  }
+
+  @Test
+  public void startsOverAfterFailedStart() throws Exception {
+    failStart = true;
+    assertNull(pool.acquire(SDK_A, () -> false, () -> {
+    }, (details) -> {
+    }));
+    assertEquals(0, pool.getLeaseCount(SDK_A));
+
+    failStart = false;
+    assertTrue(acquire(SDK_A).isRunning());
+    assertEquals(1, started.size());
+  }
+
+  @NotNull
+  private DeviceDaemonPool.Lease acquire(@NotNull DeviceDaemon.Command command) throws Exception {
+    final DeviceDaemonPool.Lease lease = pool.acquire(command, () -> false, () -> {
+    }, (details) -> {
+    });
+    assertNotNull(lease);
+    return lease;
+  }
+
+  private static class FakeDaemon implements DeviceDaemonPool.Daemon {
+    @NotNull final DeviceDaemon.Command command;
+    @NotNull final Runnable deviceChanged;
+    @NotNull final Consumer<String> processStopped;
+    @NotNull ImmutableList<FlutterDevice> devices = ImmutableList.of();
+    boolean shutDown;
+
+    FakeDaemon(@NotNull DeviceDaemon.Command command, @NotNull Runnable deviceChanged, @NotNull Consumer<String> processStopped) {
+      this.command = command;
+      this.deviceChanged = deviceChanged;
+      this.processStopped = processStopped;
+    }
+
+    void devicesChanged(@NotNull ImmutableList<FlutterDevice> devices) {
+      this.devices = devices;
+      deviceChanged.run();
+    }
+
+    @Override
+    public boolean isRunning() {
+      return !shutDown;
+    }
+
+    @NotNull
+    @Override
+    public ImmutableList<FlutterDevice> getDevices() {
+      return devices;
+    }
+
+    @Override
+    public void shutdown() {
+      shutDown = true;
+    }
+  }
+}
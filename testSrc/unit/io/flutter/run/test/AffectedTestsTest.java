@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.test;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Verifies which tests are found to be affected by changes.
+ */
+public class AffectedTestsTest {
+  private static final Map<String, List<String>> IMPORTS = Map.of(
+    "test/a_test.dart", List.of("lib/a.dart"),
+    "test/b_test.dart", List.of("lib/b.dart", "test/helpers.dart"),
+    "test/c_test.dart", List.of(),
+    "test/helpers.dart", List.of("../shared/lib/shared.dart"),
+    "lib/a.dart", List.of("lib/util.dart"),
+    "lib/b.dart", List.of("lib/util.dart", "lib/b.dart"),
+    "lib/util.dart", List.of(),
+    "../shared/lib/shared.dart", List.of()
+  );
+
+  private static final Set<String> TESTS = Set.of("test/a_test.dart", "test/b_test.dart", "test/c_test.dart");
+
+  @Test
+  public void findsTestsImportingChangedFileIndirectly() {
+    assertEquals(Set.of("test/a_test.dart", "test/b_test.dart"), findAffected("lib/util.dart"));
+    assertEquals(Set.of("test/a_test.dart"), findAffected("lib/a.dart"));
+  }
+
+  @Test
+  public void findsChangedTests() {
+    assertEquals(Set.of("test/c_test.dart"), findAffected("test/c_test.dart"));
+  }
+
+  @Test
+  public void findsChangesInOtherPackages() {
+    assertEquals(Set.of("test/b_test.dart"), findAffected("../shared/lib/shared.dart"));
+  }
+
+  @Test
+  public void ignoresChangesNotImportedByTests() {
+    assertEquals(Set.of(), findAffected("lib/unused.dart"));
+    assertEquals(Set.of(), findAffected());
+  }
+
+  @Test
+  public void visitsEachFileOnce() {
+    final List<String> visited = new ArrayList<>();
+    AffectedTests.findAffected(TESTS, (file) -> {
+      visited.add(file);
+      return IMPORTS.get(file);
+    }, (file) -> true);
+    assertEquals(IMPORTS.size(), visited.size());
+    assertEquals(IMPORTS.size(), Set.copyOf(visited).size());
+  }
+
+  @Test
+  public void changesOutsideImportGraphAffectAllTests() {
+    assertTrue(AffectedTests.affectsAllTests("pubspec.yaml", false, false));
+    assertTrue(AffectedTests.affectsAllTests("pubspec.lock", false, false));
+    assertTrue(AffectedTests.affectsAllTests("golden.png", false, true));
+    assertFalse(AffectedTests.affectsAllTests("README.md", false, false));
+    assertFalse(AffectedTests.affectsAllTests("helpers.dart", true, true));
+  }
+
+  private static Set<String> findAffected(String... changed) {
+    final Set<String> changedFiles = Set.of(changed);
+    final List<String> affected = AffectedTests.findAffected(TESTS, IMPORTS::get, changedFiles::contains);
+    assertEquals(affected.size(), Set.copyOf(affected).size());
+    return Set.copyOf(affected);
+  }
+}
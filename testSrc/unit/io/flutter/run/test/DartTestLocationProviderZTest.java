@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.run.test;
+
+import com.intellij.execution.Location;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import io.flutter.AbstractDartElementTest;
+import io.flutter.run.common.TestCallIndex;
+import io.flutter.run.common.TestType;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class DartTestLocationProviderZTest extends AbstractDartElementTest {
+  private static final String FILE_TEXT = """
+    void main() {
+      group('outer', () {
+        test('one', () {});
+        group('inner', () {
+          test('two', () {});
+        });
+      });
+      print('not a test');
+    }
+    """;
+
+  @Test
+  public void parsesNamePaths() {
+    assertEquals(List.of("main tests", "calculate_fail"), DartTestLocationProviderZ.pathToNodes("[\"main tests\",\"calculate_fail\"]"));
+    assertEquals(List.of("a, b", "[c]"), DartTestLocationProviderZ.pathToNodes(" [ \"a, b\" , \"[c]\" ] "));
+    assertEquals(List.of(), DartTestLocationProviderZ.pathToNodes("[]"));
+  }
+
+  @Test
+  public void parsesEscapedNames() {
+    assertEquals(List.of("say \"hi\"", "a\\b", "\u00e9"), DartTestLocationProviderZ.pathToNodes("[\"say \\\"hi\\\"\",\"a\\\\b\",\"\\u00e9\"]"));
+  }
+
+  @Test
+  public void findsTestFromCachedPaths() throws Exception {
+    run(() -> {
+      final PsiFile file = setUpDartElement("test/sample_test.dart", FILE_TEXT, "print", LeafPsiElement.class).getContainingFile();
+
+      assertEquals(FILE_TEXT.indexOf("test('two'"), findOffset(file, "[\"outer\",\"inner\",\"two\"]"));
+      // Names starting below the outermost group are found from the cached calls.
+      assertEquals(FILE_TEXT.indexOf("test('two'"), findOffset(file, "[\"inner\",\"two\"]"));
+      assertNotNull(file.getUserData(DartTestLocationProviderZ.TEST_PATHS));
+    });
+  }
+
+  @Test
+  public void ignoresCachedOffsetOfAnotherTest() throws Exception {
+    run(() -> {
+      final PsiFile file = setUpDartElement("test/sample_test.dart", FILE_TEXT, "print", LeafPsiElement.class).getContainingFile();
+
+      // A stale cache entry that points at test('one') instead of test('two').
+      final int staleOffset = FILE_TEXT.indexOf("test('one'");
+      file.putUserData(DartTestLocationProviderZ.TEST_PATHS, new DartTestLocationProviderZ.TestPaths(
+        file.getModificationStamp(),
+        List.of(new TestCallIndex.TestCall(TestType.SINGLE, "two", staleOffset, -1)),
+        Map.of(List.of("outer", "inner", "two"), staleOffset)));
+
+      assertEquals(FILE_TEXT.indexOf("test('two'"), findOffset(file, "[\"outer\",\"inner\",\"two\"]"));
+    });
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static int findOffset(@NotNull PsiFile file, @NotNull String testPath) {
+    final List<Location> locations = DartTestLocationProviderZ.INSTANCE.getLocationForTest(file, testPath);
+    assertEquals(1, locations.size());
+    final PsiElement element = locations.get(0).getPsiElement();
+    return element.getTextOffset();
+  }
+}
@@ -51,6 +51,22 @@ public class TestFieldsTest {
     assertEquals("test/dir", after.getTestDir());
   }
 
+  @Test
+  public void shouldDetectFilteredRuns() {
+    final TestFields dir = TestFields.forDir("test/dir");
+    assertFalse(dir.filtersTests());
+    dir.setAdditionalArgs("--concurrency 2 --run-skipped");
+    assertFalse(dir.filtersTests());
+    dir.setAdditionalArgs("--tags slow");
+    assertTrue(dir.filtersTests());
+    dir.setAdditionalArgs("--plain-name=\"adds one\"");
+    assertTrue(dir.filtersTests());
+    dir.setAdditionalArgs("-x golden");
+    assertTrue(dir.filtersTests());
+
+    assertTrue(TestFields.forTestName("should work", "hello_test.dart").filtersTests());
+  }
+
   @Test
   public void roundTripShouldPreserveNameScopeSettings() {
     final Element elt = new Element("test");
@@ -96,6 +112,32 @@ public class TestFieldsTest {
     assertEquals(Scope.DIRECTORY, after.getScope());
     assertNull(after.getTestFile());
     assertEquals("test/dir", after.getTestDir());
+    assertEquals(0, after.getConcurrency());
+  }
+
+  @Test
+  public void roundTripShouldPreserveConcurrency() {
+    final Element elt = new Element("test");
+    final TestFields before = TestFields.forDir("test/dir");
+    before.setConcurrency(8);
+    before.writeTo(elt);
+
+    final TestFields after = TestFields.readFrom(elt);
+    assertEquals(8, after.getConcurrency());
+    assertEquals(8, after.copy().getConcurrency());
+  }
+
+  @Test
+  public void roundTripShouldPreserveAffectedOnly() {
+    final Element elt = new Element("test");
+    final TestFields before = TestFields.forDir("test/dir");
+    before.setAffectedOnly(true);
+    before.writeTo(elt);
+
+    final TestFields after = TestFields.readFrom(elt);
+    assertTrue(after.isAffectedOnly());
+    assertTrue(after.copy().isAffectedOnly());
+    assertFalse(TestFields.forDir("test/dir").isAffectedOnly());
   }
 
   private void addOption(Element elt, String name, String value) {
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.sdk;
+
+import io.flutter.pub.PubRoot;
+import io.flutter.testing.TestDir;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlutterPluginIndexTest {
+  private static final int PACKAGE_COUNT = 500;
+
+  @Rule
+  public final TestDir tmp = new TestDir();
+
+  @Test
+  public void readsOnlyChangedFiles() throws Exception {
+    final PubRoot root = createWorkspace();
+    final FlutterPluginIndex index = new FlutterPluginIndex();
+
+    Set<String> plugins = index.getPluginPaths(List.of(root));
+    assertEquals(PACKAGE_COUNT / 10, plugins.size());
+    assertTrue(plugins.contains(tmp.pathAt("pkgs/p0")));
+    assertEquals(1, index.getPackageConfigReadCount());
+    assertEquals(PACKAGE_COUNT, index.getPubspecReadCount());
+
+    // Nothing changed, so nothing is read again.
+    plugins = index.getPluginPaths(List.of(root));
+    assertEquals(PACKAGE_COUNT / 10, plugins.size());
+    assertEquals(1, index.getPackageConfigReadCount());
+    assertEquals(PACKAGE_COUNT, index.getPubspecReadCount());
+
+    // Only the edited pubspec is read again.
+    tmp.writeFile("pkgs/p1/pubspec.yaml", pubspec("p1", true));
+    plugins = index.getPluginPaths(List.of(root));
+    assertEquals(PACKAGE_COUNT / 10 + 1, plugins.size());
+    assertTrue(plugins.contains(tmp.pathAt("pkgs/p1")));
+    assertEquals(1, index.getPackageConfigReadCount());
+    assertEquals(PACKAGE_COUNT + 1, index.getPubspecReadCount());
+
+    // Dropping a package from the package config drops its plugin.
+    tmp.writeFile("app/.dart_tool/package_config.json", packageConfig(1, PACKAGE_COUNT));
+    plugins = index.getPluginPaths(List.of(root));
+    assertFalse(plugins.contains(tmp.pathAt("pkgs/p0")));
+    assertEquals(2, index.getPackageConfigReadCount());
+    assertEquals(PACKAGE_COUNT + 1, index.getPubspecReadCount());
+  }
+
+  @Test
+  public void recognizesRelevantFiles() {
+    assertTrue(FlutterPluginIndex.isRelevantFile("/app/pubspec.yaml"));
+    assertTrue(FlutterPluginIndex.isRelevantFile("/app/pubspec.lock"));
+    assertTrue(FlutterPluginIndex.isRelevantFile("/app/.dart_tool/package_config.json"));
+    assertFalse(FlutterPluginIndex.isRelevantFile("/app/lib/main.dart"));
+    assertFalse(FlutterPluginIndex.isRelevantFile("/app/package_config.json"));
+  }
+
+  private PubRoot createWorkspace() throws Exception {
+    for (int i = 0; i < PACKAGE_COUNT; i++) {
+      tmp.writeFile("pkgs/p" + i + "/pubspec.yaml", pubspec("p" + i, i % 10 == 0));
+      tmp.ensureDir("pkgs/p" + i + "/lib");
+    }
+    tmp.writeFile("app/pubspec.yaml", pubspec("app", false));
+    tmp.writeFile("app/.dart_tool/package_config.json", packageConfig(0, PACKAGE_COUNT));
+    final PubRoot root = PubRoot.forDirectory(tmp.ensureDir("app"));
+    assertNotNull(root);
+    return root;
+  }
+
+  private static String pubspec(String name, boolean plugin) {
+    final StringBuilder text = new StringBuilder("name: " + name + "\ndependencies:\n  flutter:\n    sdk: flutter\n");
+    if (plugin) {
+      text.append("flutter:\n  plugin:\n    platforms:\n      android:\n        pluginClass: Plugin\n");
+    }
+    return text.toString();
+  }
+
+  private String packageConfig(int first, int last) {
+    final StringBuilder text = new StringBuilder("{\n  \"configVersion\": 2,\n  \"packages\": [\n");
+    for (int i = first; i < last; i++) {
+      text.append("    {\"name\": \"p").append(i).append("\", \"rootUri\": \"file://").append(tmp.pathAt("pkgs/p" + i))
+        .append("\", \"packageUri\": \"lib/\"}").append(i < last - 1 ? ",\n" : "\n");
+    }
+    return text.append("  ]\n}\n").toString();
+  }
+}
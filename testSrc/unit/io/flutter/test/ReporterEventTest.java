@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.test;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReporterEventTest {
+
+  @Test
+  public void recognizesJsonLines() {
+    assertTrue(ReporterEvent.isJsonLine("{\"type\":\"done\"}"));
+    assertTrue(ReporterEvent.isJsonLine("  [{\"event\":\"test.startedProcess\"}]\n"));
+    assertFalse(ReporterEvent.isJsonLine("00:01 +1: All tests passed!"));
+    assertFalse(ReporterEvent.isJsonLine(""));
+  }
+
+  @Test
+  public void readsPrintEvent() {
+    final ReporterEvent event =
+      ReporterEvent.read("{\"testID\":12,\"messageType\":\"print\",\"message\":\"hello \\\"world\\\"\",\"type\":\"print\",\"time\":1234}\n");
+    assertNotNull(event);
+    assertEquals("print", event.type());
+    assertEquals(12, event.testId());
+    assertEquals(1234, event.time());
+    assertEquals("hello \"world\"", event.message());
+  }
+
+  @Test
+  public void readsTestDoneAndErrorEvents() {
+    final ReporterEvent done =
+      ReporterEvent.read("{\"testID\":3,\"result\":\"success\",\"skipped\":false,\"hidden\":false,\"type\":\"testDone\",\"time\":56}");
+    assertNotNull(done);
+    assertEquals("success", done.result());
+    assertEquals(56, done.time());
+
+    final ReporterEvent error =
+      ReporterEvent.read("{\"testID\":3,\"error\":\"Bad state\",\"stackTrace\":null,\"isFailure\":false,\"type\":\"error\",\"time\":57}");
+    assertNotNull(error);
+    assertEquals("Bad state", error.error());
+    assertNull(error.stackTrace());
+  }
+
+  @Test
+  public void leavesNestedEventsToTheTreeParser() {
+    assertNull(ReporterEvent.read("{\"test\":{\"id\":3,\"name\":\"a\",\"groupIDs\":[2]},\"type\":\"testStart\",\"time\":5}"));
+    assertNull(ReporterEvent.read("[{\"event\":\"test.startedProcess\"}]"));
+    assertNull(ReporterEvent.read("{\"testID\":3,\"type\":\"print\"} trailing"));
+    assertNull(ReporterEvent.read("{not json"));
+    assertNull(ReporterEvent.read("{\"testID\":3}"));
+  }
+}
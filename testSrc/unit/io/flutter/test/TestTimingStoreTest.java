@@ -0,0 +1,199 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.test;
+
+import io.flutter.test.TestTimingStore.Sample;
+import io.flutter.test.TestTimingStore.TestTiming;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestTimingStoreTest {
+  private static final List<String> NAMES = List.of("counter", "increments");
+
+  private Path dir;
+  private Path file;
+
+  @Before
+  public void setUp() throws IOException {
+    dir = Files.createTempDirectory("test-timings");
+    file = dir.resolve("timings.log");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(dir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  @Test
+  public void computesPercentilesOverRecentRuns() {
+    final TestTimingStore store = new TestTimingStore(file);
+    assertNull(store.getTiming("a_test.dart", NAMES));
+
+    for (int millis = 1; millis <= 30; millis++) {
+      store.addRun(List.of(new Sample("a_test.dart", NAMES, millis)));
+    }
+
+    // Only the last 20 runs (11 to 30) count.
+    final TestTiming timing = store.getTiming("a_test.dart", NAMES);
+    assertNotNull(timing);
+    assertEquals(TestTimingStore.MAX_SAMPLES, timing.runs());
+    assertEquals(20, timing.p50());
+    assertEquals(29, timing.p95());
+    assertEquals(30, timing.last());
+  }
+
+  @Test
+  public void reloadsFromDisk() {
+    final TestTimingStore store = new TestTimingStore(file);
+    store.addRun(List.of(new Sample("a_test.dart", NAMES, 100), new Sample("a_test.dart", List.of("other"), 50)));
+    store.addRun(List.of(new Sample("a_test.dart", NAMES, 300), new Sample("b_test.dart", NAMES, 10)));
+
+    final TestTimingStore reloaded = load();
+    final TestTiming timing = reloaded.getTiming("a_test.dart", NAMES);
+    assertNotNull(timing);
+    assertEquals(2, timing.runs());
+    assertEquals(300, timing.last());
+    assertEquals(150, reloaded.getFileDuration("a_test.dart"));
+    assertEquals(2, reloaded.getTimings("a_test.dart").size());
+  }
+
+  @Test
+  public void recoversFromTruncatedLog() throws IOException {
+    final TestTimingStore store = new TestTimingStore(file);
+    store.addRun(List.of(new Sample("a_test.dart", NAMES, 100)));
+    store.addRun(List.of(new Sample("a_test.dart", NAMES, 200)));
+    final byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+    final TestTimingStore reloaded = load();
+    assertEquals(1, reloaded.getTiming("a_test.dart", NAMES).runs());
+    reloaded.addRun(List.of(new Sample("a_test.dart", NAMES, 300)));
+
+    final TestTiming timing = load().getTiming("a_test.dart", NAMES);
+    assertEquals(2, timing.runs());
+    assertEquals(300, timing.last());
+  }
+
+  @Test
+  public void compactsLog() throws IOException {
+    final TestTimingStore store = new TestTimingStore(file);
+    final List<Sample> run = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      run.add(new Sample("a_test.dart", List.of("test " + i), i));
+    }
+    for (int i = 0; i < 100; i++) {
+      store.addRun(run);
+    }
+    // 100 tests with 20 samples each, plus a record per test, is about 23KB once compacted.
+    assertTrue(Files.size(file) < 100 * (20 + 4 * 20) * 9);
+    assertEquals(20, load().getTiming("a_test.dart", List.of("test 7")).runs());
+  }
+
+  @Test
+  public void returnsNothingUntilLoaded() {
+    new TestTimingStore(file).addRun(List.of(new Sample("a_test.dart", NAMES, 100)));
+
+    final TestTimingStore reloaded = new TestTimingStore(file);
+    assertNull(reloaded.getTiming("a_test.dart", NAMES));
+    reloaded.ensureLoaded();
+    assertNotNull(reloaded.getTiming("a_test.dart", NAMES));
+  }
+
+  @Test
+  public void dropsTestsThatNoLongerExist() {
+    final String deletedFile = dir.resolve("deleted_test.dart").toString();
+    final TestTimingStore store = new TestTimingStore(file);
+    store.addRun(List.of(new Sample(deletedFile, NAMES, 10), new Sample("a_test.dart", List.of("renamed"), 10)));
+
+    final List<Sample> run = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      run.add(new Sample("a_test.dart", List.of("test " + i), i));
+    }
+    for (int i = 0; i < TestTimingStore.STALE_RUNS; i++) {
+      store.addRun(run);
+    }
+    // The log has been rewritten once, dropping the test whose file is gone.
+    TestTimingStore reloaded = load();
+    assertNull(reloaded.getTiming(deletedFile, NAMES));
+    assertNotNull(reloaded.getTiming("a_test.dart", List.of("renamed")));
+
+    // Once it has been rewritten again, the test that stopped running is dropped too.
+    for (int i = 0; i < TestTimingStore.STALE_RUNS; i++) {
+      reloaded.addRun(run);
+    }
+    assertNull(reloaded.getTiming("a_test.dart", List.of("renamed")));
+    reloaded = load();
+    assertNull(reloaded.getTiming("a_test.dart", List.of("renamed")));
+    assertEquals(20, reloaded.getTiming("a_test.dart", List.of("test 3")).runs());
+  }
+
+  @Test
+  public void keepsIdsOfTestsAddedAfterPruning() {
+    final String deletedFile = dir.resolve("deleted_test.dart").toString();
+    final TestTimingStore store = new TestTimingStore(file);
+    store.addRun(List.of(new Sample(deletedFile, NAMES, 10), new Sample("a_test.dart", List.of("kept"), 77)));
+
+    final List<Sample> run = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      run.add(new Sample("a_test.dart", List.of("test " + i), i));
+    }
+    for (int i = 0; i < TestTimingStore.STALE_RUNS; i++) {
+      store.addRun(run);
+    }
+    assertNull(store.getTiming(deletedFile, NAMES));
+
+    // The new test mustn't take the id of a test that was kept.
+    store.addRun(List.of(new Sample("a_test.dart", List.of("new"), 555)));
+    store.addRun(run);
+
+    final TestTimingStore reloaded = load();
+    final TestTiming added = reloaded.getTiming("a_test.dart", List.of("new"));
+    assertNotNull(added);
+    assertEquals(1, added.runs());
+    assertEquals(555, added.last());
+    for (int i = 0; i < 10; i++) {
+      final TestTiming timing = reloaded.getTiming("a_test.dart", List.of("test " + i));
+      assertNotNull(timing);
+      assertEquals(20, timing.runs());
+      assertEquals(i, timing.last());
+    }
+    assertEquals(77, reloaded.getTiming("a_test.dart", List.of("kept")).last());
+  }
+
+  @Test
+  public void flagsRegressions() {
+    final TestTiming timing = new TestTiming(10, 200, 300, 210);
+    assertFalse(timing.isRegression(350));
+    assertTrue(timing.isRegression(500));
+    assertFalse(new TestTiming(2, 200, 300, 210).isRegression(5000));
+  }
+
+  private TestTimingStore load() {
+    final TestTimingStore store = new TestTimingStore(file);
+    store.ensureLoaded();
+    return store;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+  @Test
+  public void emptyHistogramReportsZero() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMean());
+    assertEquals(0, histogram.getPercentile(50));
+  }
+
+  @Test
+  public void percentilesAreBucketBounds() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 19; i++) {
+      histogram.record(100);
+    }
+    histogram.record(1500);
+
+    assertEquals(20, histogram.getCount());
+    assertEquals(170, histogram.getMean());
+    assertEquals(128, histogram.getPercentile(50));
+    assertEquals(128, histogram.getPercentile(95));
+    assertEquals(1500, histogram.getPercentile(100));
+    assertEquals(1500, histogram.getMax());
+  }
+
+  @Test
+  public void longDurationsAreCapped() {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(10_000_000);
+    histogram.record(-5);
+
+    assertEquals(1, histogram.getPercentile(50));
+    assertEquals(10_000_000, histogram.getPercentile(99));
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import com.google.gson.JsonParser;
+import org.dartlang.vm.service.element.AllocationProfile;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AllocationSnapshotsTest {
+  @Test
+  public void diffsSnapshotsByGrowth() {
+    final AllocationSnapshots snapshots = new AllocationSnapshots();
+    final AllocationSnapshots.Snapshot first = snapshots.add(profile(
+      member("classes/1", "String", 100, 4000),
+      member("classes/2", "_HomeState", 1, 64)), "first", 0);
+    final AllocationSnapshots.Snapshot second = snapshots.add(profile(
+      member("classes/2", "_HomeState", 5, 320),
+      member("classes/1", "String", 90, 3600),
+      member("classes/3", "_DetailsState", 4, 256)), "second", 1);
+
+    assertNull(snapshots.getPrevious(first));
+    assertSame(first, snapshots.getPrevious(second));
+
+    final List<AllocationSnapshots.ClassDelta> deltas = snapshots.diff(first, second);
+    assertEquals(3, deltas.size());
+    assertEquals(new AllocationSnapshots.ClassDelta("_HomeState", 5, 4, 320, 256), deltas.get(0));
+    assertEquals(new AllocationSnapshots.ClassDelta("_DetailsState", 4, 4, 256, 256), deltas.get(1));
+    assertEquals(new AllocationSnapshots.ClassDelta("String", 90, -10, 3600, -400), deltas.get(2));
+    assertTrue(deltas.get(0).grew());
+    assertFalse(deltas.get(2).grew());
+  }
+
+  @Test
+  public void countsClassesWithMoreInstancesButFewerBytesAsGrown() {
+    final AllocationSnapshots snapshots = new AllocationSnapshots();
+    final AllocationSnapshots.Snapshot first = snapshots.add(profile(member("classes/1", "List", 2, 800)), "first", 0);
+    final AllocationSnapshots.Snapshot second = snapshots.add(profile(member("classes/1", "List", 3, 96)), "second", 1);
+
+    final List<AllocationSnapshots.ClassDelta> deltas = snapshots.diff(first, second);
+    assertEquals(List.of(new AllocationSnapshots.ClassDelta("List", 3, 1, 96, -704)), deltas);
+    assertTrue(deltas.get(0).grew());
+  }
+
+  @Test
+  public void combinesEntriesForTheSameClass() {
+    final AllocationSnapshots snapshots = new AllocationSnapshots();
+    final AllocationSnapshots.Snapshot empty = snapshots.add(profile(), "empty", 0);
+    final AllocationSnapshots.Snapshot snapshot = snapshots.add(profile(
+      member("classes/7", "Widget", 2, 32),
+      member("classes/7", "Widget", 3, 48)), "split", 1);
+
+    assertEquals(List.of(new AllocationSnapshots.ClassDelta("Widget", 5, 5, 80, 80)), snapshots.diff(empty, snapshot));
+  }
+
+  @Test
+  public void keepsRecentSnapshots() {
+    final AllocationSnapshots snapshots = new AllocationSnapshots();
+    for (int i = 0; i < AllocationSnapshots.MAX_SNAPSHOTS + 5; i++) {
+      snapshots.add(profile(member("classes/1", "String", i, i)), "snapshot " + i, i);
+    }
+
+    final List<AllocationSnapshots.Snapshot> kept = snapshots.getSnapshots();
+    assertEquals(AllocationSnapshots.MAX_SNAPSHOTS, kept.size());
+    assertEquals("snapshot 5", kept.get(0).label());
+  }
+
+  private static AllocationProfile profile(String... members) {
+    return new AllocationProfile(JsonParser.parseString(
+      "{\"type\": \"AllocationProfile\", \"members\": [" + String.join(", ", members) + "]}").getAsJsonObject());
+  }
+
+  private static String member(String id, String name, int instances, int bytes) {
+    return "{\"type\": \"ClassHeapStats\", \"class\": {\"type\": \"@Class\", \"id\": \"" + id + "\", \"name\": \"" + name + "\"}, " +
+           "\"instancesCurrent\": " + instances + ", \"bytesCurrent\": " + bytes + ", " +
+           "\"instancesAccumulated\": 0, \"accumulatedSize\": 0}";
+  }
+}
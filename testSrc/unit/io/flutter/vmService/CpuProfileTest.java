@@ -0,0 +1,67 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CpuProfileTest {
+  private static final String BUILD =
+    "{\"type\": \"@Func\", \"name\": \"build\", \"owner\": {\"type\": \"@Class\", \"name\": \"MyWidget\"}, " +
+    "\"location\": {\"type\": \"SourceLocation\", \"script\": {\"type\": \"@Script\", \"id\": \"scripts/1\", " +
+    "\"uri\": \"package:app/main.dart\"}, \"tokenPos\": 120}}";
+
+  @Test
+  public void accumulatesTicksAcrossResponses() {
+    final CpuProfile profile = new CpuProfile();
+    assertEquals(1500, profile.add(response(1000, 500, 10,
+                                            "{\"exclusiveTicks\": 4, \"inclusiveTicks\": 6, \"function\": " + BUILD + "}",
+                                            "{\"exclusiveTicks\": 1, \"inclusiveTicks\": 10, \"kind\": \"Native\", " +
+                                            "\"function\": {\"type\": \"NativeFunction\", \"name\": \"main\"}}")));
+    profile.add(response(1501, 500, 5,
+                         "{\"exclusiveTicks\": 3, \"inclusiveTicks\": 3, \"function\": " + BUILD + "}"));
+
+    assertEquals(15, profile.getSampleCount());
+    final List<CpuProfile.FunctionStats> hottest = profile.getHottest(10);
+    assertEquals(2, hottest.size());
+
+    final CpuProfile.FunctionStats build = hottest.get(0);
+    assertEquals("MyWidget.build", build.name());
+    assertEquals(7, build.selfTicks());
+    assertEquals(9, build.totalTicks());
+    assertEquals(120, build.tokenPos());
+    assertEquals("package:app/main.dart", build.script().get("uri").getAsString());
+
+    final CpuProfile.FunctionStats main = hottest.get(1);
+    assertEquals("main", main.name());
+    assertNull(main.script());
+    assertEquals(10, main.totalTicks());
+  }
+
+  @Test
+  public void limitsHottestFunctions() {
+    final CpuProfile profile = new CpuProfile();
+    profile.add(response(0, 10, 3,
+                         "{\"exclusiveTicks\": 1, \"inclusiveTicks\": 1, \"function\": {\"type\": \"NativeFunction\", \"name\": \"a\"}}",
+                         "{\"exclusiveTicks\": 2, \"inclusiveTicks\": 2, \"function\": {\"type\": \"NativeFunction\", \"name\": \"b\"}}"));
+
+    final List<CpuProfile.FunctionStats> hottest = profile.getHottest(1);
+    assertEquals(1, hottest.size());
+    assertEquals("b", hottest.get(0).name());
+  }
+
+  private static JsonObject response(long origin, long extent, int sampleCount, String... functions) {
+    return JsonParser.parseString(
+      "{\"type\": \"CpuSamples\", \"samplePeriod\": 250, \"timeOriginMicros\": " + origin + ", \"timeExtentMicros\": " + extent +
+      ", \"sampleCount\": " + sampleCount + ", \"functions\": [" + String.join(", ", functions) + "], \"samples\": []}").getAsJsonObject();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FrameTimingsTest {
+  @Test
+  public void computesPercentilesAndJank() {
+    final FrameTimings timings = new FrameTimings();
+    for (int i = 0; i < 95; i++) {
+      timings.add(4_000, 6_000);
+    }
+    for (int i = 0; i < 5; i++) {
+      timings.add(20_000, 8_000);
+    }
+
+    final FrameTimings.Stats stats = timings.getStats();
+    assertEquals(100, stats.frames());
+    assertEquals(4_250, stats.build().p50());
+    assertEquals(4_250, stats.build().p90());
+    assertEquals(20_250, stats.build().p99());
+    assertEquals(5, stats.build().janky());
+    assertEquals(8_250, stats.raster().p99());
+    assertEquals(0, stats.raster().janky());
+    assertEquals(5, stats.totalJanky());
+  }
+
+  @Test
+  public void oldFramesLeaveTheWindow() {
+    final FrameTimings timings = new FrameTimings();
+    for (int i = 0; i < FrameTimings.WINDOW; i++) {
+      timings.add(30_000, 1_000);
+    }
+    for (int i = 0; i < FrameTimings.WINDOW; i++) {
+      timings.add(1_000, 1_000);
+    }
+
+    final FrameTimings.Stats stats = timings.getStats();
+    assertEquals(FrameTimings.WINDOW, stats.frames());
+    assertEquals(1_250, stats.build().p99());
+    assertEquals(0, stats.build().janky());
+    assertEquals(2L * FrameTimings.WINDOW, stats.totalFrames());
+    assertEquals(FrameTimings.WINDOW, stats.totalJanky());
+  }
+
+  @Test
+  public void longFramesReportTheLongestDuration() {
+    final FrameTimings timings = new FrameTimings();
+    timings.add(500_000, 1_000);
+    timings.clear();
+    timings.add(250_000, 1_000);
+
+    final FrameTimings.Stats stats = timings.getStats();
+    assertEquals(1, stats.frames());
+    assertEquals(250_000, stats.build().p50());
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package io.flutter.vmService;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.dartlang.vm.service.consumer.GetObjectConsumer;
+import org.dartlang.vm.service.consumer.InvokeConsumer;
+import org.dartlang.vm.service.element.Instance;
+import org.dartlang.vm.service.element.InstanceRef;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class InstanceStringResolverTest {
+  private final List<GetObjectConsumer> getObjectRequests = new ArrayList<>();
+  private final List<InvokeConsumer> invokeRequests = new ArrayList<>();
+
+  private final InstanceStringResolver.Transport transport = new InstanceStringResolver.Transport() {
+    @Override
+    public void getObject(@NotNull String isolateId, @NotNull String objectId, int count, @NotNull GetObjectConsumer consumer) {
+      getObjectRequests.add(consumer);
+    }
+
+    @Override
+    public void invoke(@NotNull String isolateId, @NotNull String targetId, @NotNull String selector, @NotNull InvokeConsumer consumer) {
+      invokeRequests.add(consumer);
+    }
+  };
+
+  private final InstanceStringResolver resolver = new InstanceStringResolver(transport);
+
+  @Test
+  public void sharesRequestsForTheSameString() {
+    final CompletableFuture<String> first = resolver.getFullString("isolates/1", truncatedString("objects/1"));
+    final CompletableFuture<String> second = resolver.getFullString("isolates/1", truncatedString("objects/1"));
+    assertEquals(1, getObjectRequests.size());
+
+    getObjectRequests.get(0).received(new Instance(string("objects/1", "full value", false)));
+    assertEquals("full value", first.join());
+    assertEquals("full value", second.join());
+  }
+
+  @Test
+  public void keepsResultsUntilTheIsolateResumes() {
+    resolver.isolatePaused("isolates/1");
+    resolver.callToString("isolates/1", "objects/2");
+    invokeRequests.get(0).received(new InstanceRef(string("objects/3", "Model(1)", false)));
+
+    assertEquals("Model(1)", resolver.callToString("isolates/1", "objects/2").join().getValueAsString());
+    assertEquals(1, invokeRequests.size());
+
+    resolver.isolateResumed("isolates/1");
+    resolver.callToString("isolates/1", "objects/2");
+    assertEquals(2, invokeRequests.size());
+  }
+
+  @Test
+  public void limitsRequestsInFlight() {
+    final List<CompletableFuture<InstanceRef>> results = new ArrayList<>();
+    for (int i = 0; i < InstanceStringResolver.MAX_IN_FLIGHT + 4; i++) {
+      results.add(resolver.callToString("isolates/1", "objects/" + i));
+    }
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT, invokeRequests.size());
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT + 4, resolver.getPendingCount());
+
+    invokeRequests.get(0).received(new InstanceRef(string("objects/100", "a", false)));
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT + 1, invokeRequests.size());
+    assertEquals("a", results.get(0).join().getValueAsString());
+
+    invokeRequests.get(1).onError(null);
+    assertNull(results.get(1).join());
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT + 2, invokeRequests.size());
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT + 2, resolver.getPendingCount());
+  }
+
+  @Test
+  public void timesOutRequestsWithoutResponse() throws Exception {
+    final InstanceStringResolver resolver = new InstanceStringResolver(transport, 50);
+    final List<CompletableFuture<InstanceRef>> results = new ArrayList<>();
+    for (int i = 0; i < InstanceStringResolver.MAX_IN_FLIGHT + 1; i++) {
+      results.add(resolver.callToString("isolates/1", "objects/" + i));
+    }
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT, invokeRequests.size());
+
+    try {
+      results.get(0).get(5, TimeUnit.SECONDS);
+      fail("expected a timeout");
+    }
+    catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+
+    // The queued request is sent in a freed place, and times out in turn.
+    final CompletableFuture<InstanceRef> last = results.get(InstanceStringResolver.MAX_IN_FLIGHT);
+    try {
+      last.get(5, TimeUnit.SECONDS);
+      fail("expected a timeout");
+    }
+    catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT + 1, invokeRequests.size());
+  }
+
+  @Test
+  public void failsRequestsWhenConnectionCloses() {
+    final List<CompletableFuture<InstanceRef>> results = new ArrayList<>();
+    for (int i = 0; i < InstanceStringResolver.MAX_IN_FLIGHT + 4; i++) {
+      results.add(resolver.callToString("isolates/1", "objects/" + i));
+    }
+    final CompletableFuture<String> string = resolver.getFullString("isolates/1", truncatedString("objects/100"));
+
+    resolver.connectionClosed();
+    for (CompletableFuture<InstanceRef> result : results) {
+      assertTrue(result.isCompletedExceptionally());
+    }
+    assertTrue(string.isCompletedExceptionally());
+    assertEquals(0, resolver.getPendingCount());
+    // Queued requests are never sent.
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT, invokeRequests.size());
+
+    assertTrue(resolver.callToString("isolates/1", "objects/1").isCompletedExceptionally());
+    assertEquals(InstanceStringResolver.MAX_IN_FLIGHT, invokeRequests.size());
+  }
+
+  @NotNull
+  private static InstanceRef truncatedString(@NotNull String id) {
+    return new InstanceRef(string(id, "full", true));
+  }
+
+  @NotNull
+  private static JsonObject string(@NotNull String id, @NotNull String value, boolean truncated) {
+    return JsonParser.parseString(
+      "{\"type\": \"@Instance\", \"kind\": \"String\", \"id\": \"" + id + "\", \"valueAsString\": \"" + value + "\", " +
+      "\"valueAsStringIsTruncated\": " + truncated + ", \"length\": 10, \"class\": {\"type\": \"@Class\", \"id\": \"classes/1\", " +
+      "\"name\": \"String\"}}").getAsJsonObject();
+  }
+}
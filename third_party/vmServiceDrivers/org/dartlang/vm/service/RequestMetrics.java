@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package org.dartlang.vm.service;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-method latency and in-flight counters for the requests sent to the VM service.
+ */
+public class RequestMetrics {
+  /**
+   * The counters for a single request method.
+   */
+  public static class MethodStats {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Return the number of requests that have been sent but not yet answered.
+     */
+    public int getInFlight() {
+      return inFlight.get();
+    }
+
+    /**
+     * Return the number of requests that have been answered.
+     */
+    public long getCompleted() {
+      return completed.sum();
+    }
+
+    /**
+     * Return the number of requests that were answered with an error.
+     */
+    public long getErrors() {
+      return errors.sum();
+    }
+
+    /**
+     * Return the average time between sending a request and receiving its response, in milliseconds.
+     */
+    public double getAverageLatencyMillis() {
+      final long count = completed.sum();
+      return count == 0 ? 0 : (double)totalNanos.sum() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Return the longest time between sending a request and receiving its response, in milliseconds.
+     */
+    public double getMaxLatencyMillis() {
+      return (double)maxNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("in-flight: %d, completed: %d, errors: %d, avg: %.1fms, max: %.1fms",
+                           getInFlight(), getCompleted(), getErrors(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+  }
+
+  private final Map<String, MethodStats> methodStats = new ConcurrentHashMap<>();
+
+  /**
+   * Return the counters for each method that has been requested, sorted by method name.
+   */
+  public Map<String, MethodStats> getMethodStats() {
+    return Collections.unmodifiableMap(new TreeMap<>(methodStats));
+  }
+
+  /**
+   * Return the number of requests, of all methods, that have been sent but not yet answered.
+   */
+  public int getInFlight() {
+    int count = 0;
+    for (MethodStats stats : methodStats.values()) {
+      count += stats.getInFlight();
+    }
+    return count;
+  }
+
+  void requestSent(String method) {
+    methodStats.computeIfAbsent(method, (key) -> new MethodStats()).inFlight.incrementAndGet();
+  }
+
+  void responseReceived(String method, long elapsedNanos, boolean isError) {
+    final MethodStats stats = methodStats.computeIfAbsent(method, (key) -> new MethodStats());
+    stats.inFlight.decrementAndGet();
+    stats.completed.increment();
+    if (isError) {
+      stats.errors.increment();
+    }
+    stats.totalNanos.add(elapsedNanos);
+    stats.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+  }
+
+  void requestAbandoned(String method) {
+    final MethodStats stats = methodStats.get(method);
+    if (stats != null) {
+      stats.inFlight.decrementAndGet();
+    }
+  }
+}
@@ -20,6 +20,7 @@ import com.google.gson.JsonParser;
 import org.dartlang.vm.service.consumer.*;
 import org.dartlang.vm.service.element.*;
 import org.dartlang.vm.service.internal.RequestSink;
+import org.dartlang.vm.service.internal.SerialExecutor;
 import org.dartlang.vm.service.internal.VmServiceConst;
 import org.dartlang.vm.service.internal.WebSocketRequestSink;
 import org.dartlang.vm.service.internal.websocket.WebSocket;
@@ -31,10 +32,12 @@ import org.dartlang.vm.service.logging.Logging;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -72,18 +75,20 @@ abstract class VmServiceBase implements VmServiceConst {
       public void onClose() {
         Logging.getLogger().logInformation("VM connection closed: " + url);
 
-        vmService.connectionClosed();
+        // Notify listeners after any messages that are still being processed, then let the
+        // receiver thread exit.
+        vmService.incoming.execute(vmService::connectionClosed);
+        vmService.incoming.shutdown();
       }
 
       @Override
       public void onMessage(WebSocketMessage message) {
-        Logging.getLogger().logInformation("VM message: " + message.getText());
-        try {
-          vmService.processMessage(message.getText());
-        }
-        catch (Exception e) {
-          Logging.getLogger().logError(e.getMessage(), e);
+        final String text = message.getText();
+        if (Logging.getLogger().isInformationEnabled()) {
+          Logging.getLogger().logInformation("VM message: " + text);
         }
+        // Decode and dispatch off the websocket receive thread, preserving the message order.
+        vmService.incoming.execute(() -> vmService.processMessage(text));
       }
 
       @Override
@@ -109,7 +114,7 @@ abstract class VmServiceBase implements VmServiceConst {
     catch (WebSocketException e) {
       throw new IOException("Failed to connect: " + url, e);
     }
-    vmService.requestSink = new WebSocketRequestSink(webSocket);
+    vmService.requestSink = new WebSocketRequestSink(webSocket, vmService::requestFailed);
 
     // Check protocol version
     final CountDownLatch latch = new CountDownLatch(1);
@@ -158,15 +163,35 @@ abstract class VmServiceBase implements VmServiceConst {
   }
 
   /**
-   * A mapping between {@link String} ids' and the associated {@link Consumer} that was passed when
-   * the request was made. Synchronize against {@link #consumerMapLock} before accessing this field.
+   * A request that has been sent and is waiting for its response.
+   */
+  private static class PendingRequest {
+    final String method;
+    final Consumer consumer;
+    final long startNanos;
+
+    PendingRequest(String method, Consumer consumer) {
+      this.method = method;
+      this.consumer = consumer;
+      this.startNanos = System.nanoTime();
+    }
+  }
+
+  /**
+   * A mapping between {@link String} ids' and the pending request holding the {@link Consumer}
+   * that was passed when the request was made.
+   */
+  private final Map<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
+
+  /**
+   * Latency and in-flight counters for the requests sent through this connection.
    */
-  private final Map<String, Consumer> consumerMap = Maps.newHashMap();
+  private final RequestMetrics requestMetrics = new RequestMetrics();
 
   /**
-   * The object used to synchronize access to {@link #consumerMap}.
+   * Processes the messages received from the VM, one at a time and in the order they arrived.
    */
-  private final Object consumerMapLock = new Object();
+  final SerialExecutor incoming = new SerialExecutor("VM service receiver");
 
   /**
    * The unique ID for the next request.
@@ -176,7 +201,7 @@ abstract class VmServiceBase implements VmServiceConst {
   /**
    * A list of objects to which {@link Event}s from the VM are forwarded.
    */
-  private final List<VmServiceListener> vmListeners = new ArrayList<>();
+  private final List<VmServiceListener> vmListeners = new CopyOnWriteArrayList<>();
 
   /**
    * A list of objects to which {@link Event}s from the VM are forwarded.
@@ -225,6 +250,28 @@ abstract class VmServiceBase implements VmServiceConst {
     return runtimeVersion;
   }
 
+  /**
+   * Return the latency and in-flight counters for the requests sent to the VM service.
+   */
+  public RequestMetrics getRequestMetrics() {
+    return requestMetrics;
+  }
+
+  /**
+   * Return the number of received messages that are waiting to be processed.
+   */
+  public int getIncomingQueueSize() {
+    return incoming.getQueueSize();
+  }
+
+  /**
+   * Return {@code true} if called while processing a message received from the VM. Waiting for
+   * another response on this thread would never complete.
+   */
+  public boolean isReceiverThread() {
+    return incoming.isCurrentThread();
+  }
+
   /**
    * Disconnect from the VM observatory service.
    */
@@ -326,16 +373,15 @@ abstract class VmServiceBase implements VmServiceConst {
     request.add(PARAMS, params);
 
     // Cache the consumer to receive the response
-    synchronized (consumerMapLock) {
-      consumerMap.put(id, consumer);
-    }
+    pendingRequests.put(id, new PendingRequest(method, consumer));
+    requestMetrics.requestSent(method);
 
     // Send the request
     requestSink.add(request);
   }
 
   public void connectionOpened() {
-    for (VmServiceListener listener : new ArrayList<>(vmListeners)) {
+    for (VmServiceListener listener : vmListeners) {
       try {
         listener.connectionOpened();
       }
@@ -346,7 +392,7 @@ abstract class VmServiceBase implements VmServiceConst {
   }
 
   private void forwardEvent(String streamId, Event event) {
-    for (VmServiceListener listener : new ArrayList<>(vmListeners)) {
+    for (VmServiceListener listener : vmListeners) {
       try {
         listener.received(streamId, event);
       }
@@ -357,7 +403,15 @@ abstract class VmServiceBase implements VmServiceConst {
   }
 
   public void connectionClosed() {
-    for (VmServiceListener listener : new ArrayList<>(vmListeners)) {
+    // No responses will arrive for the requests still waiting on one.
+    for (String id : pendingRequests.keySet()) {
+      final PendingRequest pending = pendingRequests.remove(id);
+      if (pending != null) {
+        requestMetrics.requestAbandoned(pending.method);
+      }
+    }
+
+    for (VmServiceListener listener : vmListeners) {
       try {
         listener.connectionClosed();
       }
@@ -380,6 +434,26 @@ abstract class VmServiceBase implements VmServiceConst {
     Logging.getLogger().logError(msg.toString());
   }
 
+  /**
+   * Forward the error response for a request that could not be sent, in order with the messages
+   * received from the VM.
+   */
+  void requestFailed(JsonObject response) {
+    final Runnable forward = () -> {
+      // The request may already have been abandoned when the connection closed.
+      if (pendingRequests.containsKey(response.get(ID).getAsString())) {
+        processResponse(response);
+      }
+    };
+    try {
+      incoming.execute(forward);
+    }
+    catch (RejectedExecutionException e) {
+      // The connection has closed, so there are no more messages to keep this in order with.
+      forward.run();
+    }
+  }
+
   /**
    * Process the response from the VM service and forward that response to the consumer associated
    * with the response id.
@@ -604,11 +678,13 @@ abstract class VmServiceBase implements VmServiceConst {
       Logging.getLogger().logError("Response missing " + ID, e);
       return;
     }
-    Consumer consumer = consumerMap.remove(id);
-    if (consumer == null) {
+    PendingRequest pending = pendingRequests.remove(id);
+    if (pending == null) {
       Logging.getLogger().logError("No consumer associated with " + ID + ": " + id);
       return;
     }
+    Consumer consumer = pending.consumer;
+    requestMetrics.responseReceived(pending.method, System.nanoTime() - pending.startNanos, !json.has(RESULT));
 
     // Forward the response if the request was successfully executed
     JsonElement resultElem = json.get(RESULT);
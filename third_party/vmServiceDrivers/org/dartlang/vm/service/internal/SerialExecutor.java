@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 The Chromium Authors. All rights reserved.
+ * Use of this source code is governed by a BSD-style license that can be
+ * found in the LICENSE file.
+ */
+package org.dartlang.vm.service.internal;
+
+import org.dartlang.vm.service.logging.Logging;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link Executor} that runs its tasks one at a time, in the order they were submitted, on a
+ * thread of its own.
+ * <p>
+ * Each executor has its own thread, so a task of one connection that blocks waiting for a
+ * response can't hold up the tasks that would deliver it. The thread exits after it has been idle
+ * for a while and is started again when the next task is submitted.
+ */
+public class SerialExecutor implements Executor {
+  private static final long IDLE_SECONDS = 60;
+
+  private final ThreadPoolExecutor thread;
+
+  /**
+   * The thread currently running tasks, or {@code null} if idle.
+   */
+  private volatile Thread runningThread;
+
+  public SerialExecutor(String threadName) {
+    thread = new ThreadPoolExecutor(1, 1, IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      final Thread result = new Thread(runnable, threadName);
+      result.setDaemon(true);
+      return result;
+    });
+    thread.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Run the task after the ones already submitted.
+   *
+   * @throws RejectedExecutionException if the executor has been shut down
+   */
+  @Override
+  public void execute(Runnable task) {
+    thread.execute(() -> run(task));
+  }
+
+  /**
+   * Run the tasks already submitted and then let the thread exit, rejecting any new tasks.
+   */
+  public void shutdown() {
+    thread.shutdown();
+  }
+
+  /**
+   * Return the number of tasks waiting to be run.
+   */
+  public int getQueueSize() {
+    return thread.getQueue().size();
+  }
+
+  /**
+   * Return {@code true} if called from a task of this executor.
+   */
+  public boolean isCurrentThread() {
+    return runningThread == Thread.currentThread();
+  }
+
+  private void run(Runnable task) {
+    runningThread = Thread.currentThread();
+    try {
+      task.run();
+    }
+    catch (Exception e) {
+      Logging.getLogger().logError(e.getMessage(), e);
+    }
+    finally {
+      runningThread = null;
+    }
+  }
+}
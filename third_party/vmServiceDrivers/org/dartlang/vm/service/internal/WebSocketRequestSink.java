@@ -18,41 +18,99 @@ import org.dartlang.vm.service.internal.websocket.WebSocket;
 import org.dartlang.vm.service.internal.websocket.WebSocketException;
 import org.dartlang.vm.service.logging.Logging;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * An {@link WebSocket} based implementation of {@link RequestSink}.
  */
-public class WebSocketRequestSink implements RequestSink {
+public class WebSocketRequestSink implements RequestSink, VmServiceConst {
+
+  private volatile WebSocket webSocket;
+
+  /**
+   * Receives an error response for each request that could not be sent, so that it isn't left
+   * waiting for a response that will never come.
+   */
+  private final ResponseSink errorSink;
 
-  private WebSocket webSocket;
+  /**
+   * Sends requests in the order they were added, without blocking the callers on the socket.
+   */
+  private final SerialExecutor sender = new SerialExecutor("VM service sender");
 
-  public WebSocketRequestSink(WebSocket webSocket) {
+  public WebSocketRequestSink(WebSocket webSocket, ResponseSink errorSink) {
     this.webSocket = webSocket;
+    this.errorSink = errorSink;
   }
 
   @Override
   public void add(JsonObject json) {
+    try {
+      sender.execute(() -> send(json));
+    } catch (RejectedExecutionException e) {
+      Logging.getLogger().logInformation("Dropped: " + json);
+      sendFailed(json, "Connection closed");
+    }
+  }
+
+  private void send(JsonObject json) {
     String request = json.toString();
+    WebSocket webSocket = this.webSocket;
     if (webSocket == null) {
       Logging.getLogger().logInformation("Dropped: " + request);
+      sendFailed(json, "Connection closed");
       return;
     }
-    Logging.getLogger().logInformation("Sent: " + request);
+    if (Logging.getLogger().isInformationEnabled()) {
+      Logging.getLogger().logInformation("Sent: " + request);
+    }
     try {
       webSocket.send(request);
     } catch (WebSocketException e) {
       Logging.getLogger().logError("Failed to send request: " + request, e);
+      sendFailed(json, "Failed to send request: " + e.getMessage());
+    }
+  }
+
+  private void sendFailed(JsonObject json, String message) {
+    // Responses to the VM's own requests have no method, and nothing is waiting on them.
+    if (!json.has(ID) || !json.has(METHOD)) {
+      return;
+    }
+    try {
+      JsonObject error = new JsonObject();
+      error.addProperty(CODE, SERVER_ERROR);
+      error.addProperty(MESSAGE, message);
+      JsonObject response = new JsonObject();
+      response.add(ID, json.get(ID));
+      response.add(ERROR, error);
+      errorSink.add(response);
+    } catch (Throwable e) {
+      Logging.getLogger().logError(e.getMessage(), e);
     }
   }
 
   @Override
   public void close() {
+    // Close after any requests that are still queued have been sent, then let the sender thread
+    // exit.
+    try {
+      sender.execute(this::closeSocket);
+      sender.shutdown();
+    } catch (RejectedExecutionException e) {
+      // Already closed.
+    }
+  }
+
+  private void closeSocket() {
+    WebSocket webSocket = this.webSocket;
     if (webSocket != null) {
       try {
         webSocket.close();
       } catch (WebSocketException e) {
         Logging.getLogger().logError("Failed to close websocket", e);
       }
-      webSocket = null;
+      this.webSocket = null;
     }
   }
 }